@@ -0,0 +1,135 @@
+package benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import common.LowCodeConsts;
+
+/**
+ * 性能測定用の設定ディレクトリ・DBの作成クラス。
+ *
+ * 一時ディレクトリに、指定したリソース数の設定ファイル（setting.xml）・SQLファイル・DB設定ファイル（インメモリDB）・
+ * エンジン設定ファイル・ログ設定ファイル（WARN以上のみ、出力先なし）を作成する。
+ * リソースの識別子は「resource0」～「resource(N-1)」とし、偶数はSELECT文、奇数はUPDATE文のリソースとする。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+final class BenchmarkSettings {
+	static final String SELECT_SQL = "select id, name, email, dept, memo from Employee where dept = {{dept}} order by id";
+	static final String UPDATE_SQL = "update Employee set memo = {{memo}} where id = {{id}}";
+
+	private BenchmarkSettings() {
+	}
+
+	/**
+	 * 識別子の作成
+	 *
+	 * @param index リソース番号
+	 * @return 識別子
+	 */
+	static String identifier(int index) {
+		return "resource" + index;
+	}
+
+	/**
+	 * 設定ディレクトリの作成
+	 *
+	 * @param resources リソース数
+	 * @param dbUrl     DBのURL
+	 * @return 設定ディレクトリ
+	 * @throws IOException IO例外
+	 */
+	static File createSettingDir(int resources, String dbUrl) throws IOException {
+		File dir = Files.createTempDirectory("lowcodebenchmark").toFile();
+		File view = new File(dir, "employee.jsp");
+		File errorView = new File(dir, "system_error.jsp");
+		File select = new File(dir, "select.sql");
+		File update = new File(dir, "update.sql");
+		write(view, "");
+		write(errorView, "");
+		write(select, SELECT_SQL);
+		write(update, UPDATE_SQL);
+		write(new File(dir, LowCodeConsts.DB_PROPERTIES_FILE), "url=" + dbUrl + "\nuser=sa\npassword=\n");
+		write(new File(dir, LowCodeConsts.ENGINE_PROPERTIES_FILE), LowCodeConsts.SLOW_QUERY_THRESHOLD + "=0\n");
+		write(new File(dir, LowCodeConsts.LOG4J_XML_FILE), "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+				+ "<log4j:configuration xmlns:log4j=\"http://jakarta.apache.org/log4j/\">\n"
+				+ "<appender name=\"Null\" class=\"org.apache.log4j.varia.NullAppender\" />\n"
+				+ "<root><level value=\"warn\" /><appender-ref ref=\"Null\" /></root>\n" + "</log4j:configuration>\n");
+
+		StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<resources>\n");
+		for (int i = 0; i < resources; i++) {
+			xml.append("<resource><identifier>").append(identifier(i)).append("</identifier><view>")
+					.append(view.getPath()).append("</view><sql>").append((i % 2 == 0 ? select : update).getPath())
+					.append("</sql><errorview>").append(errorView.getPath()).append("</errorview></resource>\n");
+		}
+		xml.append("</resources>\n");
+		write(new File(dir, LowCodeConsts.SETTING_XML_FILE), xml.toString());
+		return dir;
+	}
+
+	/**
+	 * 社員テーブルの作成
+	 *
+	 * @param dbUrl DBのURL（DB_CLOSE_DELAY=-1を指定する）
+	 * @param rows  行数（部署は10種類）
+	 * @throws SQLException SQLException
+	 */
+	static void createEmployeeTable(String dbUrl, int rows) throws SQLException {
+		Connection conn = DriverManager.getConnection(dbUrl, "sa", "");
+		try {
+			Statement ddl = conn.createStatement();
+			ddl.execute("DROP TABLE IF EXISTS Employee");
+			ddl.execute("CREATE TABLE Employee (id INTEGER PRIMARY KEY, name VARCHAR(100), email VARCHAR(100), "
+					+ "dept VARCHAR(100), memo VARCHAR(200))");
+			ddl.execute("CREATE INDEX Employee_dept ON Employee (dept)");
+			ddl.close();
+			PreparedStatement insert = conn.prepareStatement("INSERT INTO Employee VALUES (?, ?, ?, ?, ?)");
+			for (int i = 0; i < rows; i++) {
+				insert.setInt(1, i);
+				insert.setString(2, "name" + i);
+				insert.setString(3, "mail" + i + "@test.co.jp");
+				insert.setString(4, "dept" + (i % 10));
+				insert.setString(5, "memo memo memo " + i);
+				insert.addBatch();
+			}
+			insert.executeBatch();
+			insert.close();
+		} finally {
+			conn.close();
+		}
+	}
+
+	/**
+	 * 設定ディレクトリの削除
+	 *
+	 * @param dir 設定ディレクトリ
+	 */
+	static void delete(File dir) {
+		File[] files = dir.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		dir.delete();
+	}
+
+	private static void write(File file, String text) throws IOException {
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		try {
+			writer.write(text);
+		} finally {
+			writer.close();
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import common.LowCodeConsts;
+import exception.LowCodeRequestException;
+import framework.LowCodeFormParser;
+
+/**
+ * フォームデータ（メッセージボディ）の解析の性能測定。
+ *
+ * 従来のLowCodeBuilderImpl#changeBytesToMap（プラットフォームの文字コードで文字列化し、正規表現で分割。URLデコードなし）と、
+ * LowCodeFormParser（バイト列を1回走査し、URLデコード・UTF-8変換を行う）を比較する。
+ * アロケーション量は、GCプロファイラを指定して測定する。
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar FormParserBenchmark -prof gc
+ * </pre>
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormParserBenchmark {
+	@Param({ "5", "50" })
+	public int params;
+
+	private byte[] body;
+	private LowCodeFormParser parser;
+
+	@Setup
+	public void setUp() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < params; i++) {
+			if (i > 0) {
+				sb.append('&');
+			}
+			sb.append("key").append(i).append("=value").append(i).append("+memo");
+		}
+		this.body = sb.toString().getBytes(StandardCharsets.US_ASCII);
+		this.parser = new LowCodeFormParser(LowCodeConsts.DEFAULT_FORM_MAX_BODY_SIZE,
+				LowCodeConsts.DEFAULT_FORM_MAX_PARAMETER_COUNT);
+	}
+
+	@Benchmark
+	public Map<String, String> splitRegex() {
+		String bytesStr = new String(this.body);
+		String[] strArr = bytesStr.split("&");
+		Map<String, String> map = new HashMap<String, String>();
+		for (String str : strArr) {
+			String[] tmpArr = str.split("=");
+			map.put(tmpArr[0], tmpArr[1]);
+		}
+		return map;
+	}
+
+	@Benchmark
+	public Map<String, List<String>> formParser() throws LowCodeRequestException {
+		return this.parser.parse(this.body);
+	}
+}
@@ -0,0 +1,115 @@
+package benchmark;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sun.jersey.api.view.Viewable;
+
+import application.LowCodeEngineImpl;
+import common.LowCodeConsts;
+import framework.LowCodeRequest;
+
+/**
+ * 画面遷移（invoke）全体の性能測定。
+ *
+ * インメモリDB（H2）に対して、設定ファイル読込・SQL実行・実行結果の読込み・画面情報の作成までを、リソース数・スレッド数を変えて測定する。
+ * SELECT文は部署（10種類）で絞り込む為、1回の取得件数は社員数の1/10となる。
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar InvokeBenchmark -t 8
+ * </pre>
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class InvokeBenchmark {
+	@Param({ "10", "10000" })
+	public int resources;
+
+	@Param({ "100", "10000" })
+	public int employees;
+
+	private File settingDir;
+	private LowCodeEngineImpl engine;
+
+	/**
+	 * スレッド毎の入力値
+	 */
+	@State(Scope.Thread)
+	public static class Input {
+		private int next;
+
+		private String selectIdentifier(int resources) {
+			// 偶数の識別子（SELECT文）
+			return BenchmarkSettings.identifier((this.next++ * 2) % resources);
+		}
+
+		private String updateIdentifier(int resources) {
+			// 奇数の識別子（UPDATE文）
+			return BenchmarkSettings.identifier((this.next++ * 2 + 1) % resources);
+		}
+
+		private Map<String, String> bindVariable() {
+			Map<String, String> bindVariable = new HashMap<String, String>();
+			bindVariable.put("dept", "dept" + (this.next % 10));
+			bindVariable.put("id", String.valueOf(this.next % 100));
+			bindVariable.put("memo", "memo" + this.next);
+			return bindVariable;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		String dbUrl = "jdbc:h2:mem:invoke_" + resources + "_" + employees + ";DB_CLOSE_DELAY=-1";
+		BenchmarkSettings.createEmployeeTable(dbUrl, employees);
+		this.settingDir = BenchmarkSettings.createSettingDir(resources, dbUrl);
+		this.engine = LowCodeEngineImpl.getInstance(this.settingDir.getPath());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		BenchmarkSettings.delete(this.settingDir);
+	}
+
+	/**
+	 * SELECT文のリソース
+	 */
+	@Benchmark
+	public Viewable invokeGet(Input input) throws Exception {
+		return this.engine.invoke(input.selectIdentifier(resources),
+				new LowCodeRequest(input.bindVariable(), LowCodeConsts.VIEW_TRANSITION_GET));
+	}
+
+	/**
+	 * UPDATE文のリソース
+	 */
+	@Benchmark
+	public Viewable invokePost(Input input) throws Exception {
+		return this.engine.invoke(input.updateIdentifier(resources),
+				new LowCodeRequest(input.bindVariable(), LowCodeConsts.VIEW_TRANSITION_POST));
+	}
+}
@@ -0,0 +1,91 @@
+package benchmark;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import common.LowCodeConsts;
+import domain.LowCodeInvocationDomainService;
+import exception.LowCodeRequestException;
+import infrastructure.LowCodeRepository;
+import infrastructure.LowCodeRoute;
+
+/**
+ * 設定ファイル読込（readSetting）の性能測定。
+ *
+ * 従来のリクエスト毎に設定ファイル全体を解析する方式（LowCodeRepository#readRoutes）と、
+ * 解析済みのルート表から識別子で検索する方式（LowCodeInvocationDomainService#readSetting）を、リソース数を変えて比較する。
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar RouteLookupBenchmark
+ * </pre>
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteLookupBenchmark {
+	@Param({ "10", "100", "1000", "10000" })
+	public int resources;
+
+	private File settingDir;
+	private File settingFile;
+	private String[] identifiers;
+	private int next;
+	private LowCodeRepository repo;
+	private LowCodeInvocationDomainService service;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		this.settingDir = BenchmarkSettings.createSettingDir(resources, "jdbc:h2:mem:route");
+		this.settingFile = new File(this.settingDir, LowCodeConsts.SETTING_XML_FILE);
+		this.identifiers = new String[Math.min(resources, 1024)];
+		for (int i = 0; i < this.identifiers.length; i++) {
+			this.identifiers[i] = BenchmarkSettings.identifier((int) ((long) i * resources / this.identifiers.length));
+		}
+		this.repo = new LowCodeRepository();
+		this.service = new LowCodeInvocationDomainService();
+		this.service.readSetting(this.settingFile, this.identifiers[0]);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		BenchmarkSettings.delete(this.settingDir);
+	}
+
+	/**
+	 * 従来方式（設定ファイル全体を解析する）
+	 */
+	@Benchmark
+	public Map<String, LowCodeRoute> parseSetting() throws Exception {
+		return this.repo.readRoutes(this.settingFile);
+	}
+
+	/**
+	 * 解析済みのルート表から検索する
+	 */
+	@Benchmark
+	public LowCodeRoute readSetting() throws LowCodeRequestException {
+		String identifier = this.identifiers[this.next++ % this.identifiers.length];
+		return this.service.readSetting(this.settingFile, identifier);
+	}
+}
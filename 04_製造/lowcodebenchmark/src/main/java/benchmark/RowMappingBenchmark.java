@@ -0,0 +1,119 @@
+package benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import infrastructure.LowCodeResultTable;
+
+/**
+ * SELECT文の実行結果の読込み（行マッピング）の性能測定。
+ *
+ * 従来の1行毎にHashMapを作成して列名で値を取得する方式と、LowCodeResultTable（列名は1回だけ保持し、値は列位置で取得）を比較する。
+ * アロケーション量は、GCプロファイラを指定して測定する。
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar RowMappingBenchmark -prof gc
+ * </pre>
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMappingBenchmark {
+	@Param({ "100", "10000" })
+	public int rows;
+
+	private Connection conn;
+	private PreparedStatement stmt;
+
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		this.conn = DriverManager.getConnection("jdbc:h2:mem:rowmapping_" + rows, "sa", "");
+		Statement ddl = this.conn.createStatement();
+		ddl.execute("CREATE TABLE Employee (id INTEGER, name VARCHAR(100), email VARCHAR(100), "
+				+ "dept VARCHAR(100), memo VARCHAR(200))");
+		PreparedStatement insert = this.conn.prepareStatement("INSERT INTO Employee VALUES (?, ?, ?, ?, ?)");
+		for (int i = 0; i < rows; i++) {
+			insert.setInt(1, i);
+			insert.setString(2, "name" + i);
+			insert.setString(3, "mail" + i + "@test.co.jp");
+			insert.setString(4, "dept" + (i % 10));
+			insert.setString(5, "memo memo memo " + i);
+			insert.addBatch();
+		}
+		insert.executeBatch();
+		insert.close();
+		ddl.close();
+		this.stmt = this.conn.prepareStatement("SELECT id, name, email, dept, memo FROM Employee");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		this.stmt.close();
+		this.conn.close();
+	}
+
+	/**
+	 * 従来方式（1行毎にHashMapを作成し、列名で値を取得する）
+	 */
+	@Benchmark
+	public List<Map<String, String>> hashMapPerRow() throws SQLException {
+		ResultSet rset = this.stmt.executeQuery();
+		try {
+			ResultSetMetaData rsmd = rset.getMetaData();
+			List<Map<String, String>> list = new ArrayList<Map<String, String>>();
+			while (rset.next()) {
+				Map<String, String> result = new HashMap<String, String>();
+				for (int i = 1; i <= rsmd.getColumnCount(); i++) {
+					result.put(rsmd.getColumnName(i), rset.getString(rsmd.getColumnName(i)));
+				}
+				list.add(result);
+			}
+			return list;
+		} finally {
+			rset.close();
+		}
+	}
+
+	/**
+	 * 列形式（LowCodeResultTable）
+	 */
+	@Benchmark
+	public List<Map<String, String>> resultTable() throws SQLException {
+		ResultSet rset = this.stmt.executeQuery();
+		try {
+			return LowCodeResultTable.read(rset);
+		} finally {
+			rset.close();
+		}
+	}
+}
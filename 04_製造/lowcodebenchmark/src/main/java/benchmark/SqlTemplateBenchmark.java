@@ -0,0 +1,115 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import infrastructure.LowCodeRepository;
+import infrastructure.LowCodeSqlTemplate;
+
+/**
+ * SQLファイルの読込み（readSqlFile）とバインド変数の置換（changeBindVariable）の性能測定。
+ *
+ * 従来のリクエスト毎にSQLファイルを読み込み、文字列置換でバインド変数を埋め込む方式と、
+ * 解析済みのSQLテンプレートをキャッシュから取得し、PreparedStatementのパラメータとして設定する方式を比較する。
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar SqlTemplateBenchmark -prof gc
+ * </pre>
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SqlTemplateBenchmark {
+	private File settingDir;
+	private String sqlFilePath;
+	private Map<String, String> bindVariable;
+	private LowCodeRepository repo;
+	private Connection conn;
+	private PreparedStatement stmt;
+	private LowCodeSqlTemplate template;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, SQLException {
+		this.settingDir = BenchmarkSettings.createSettingDir(1, "jdbc:h2:mem:sqltemplate");
+		this.sqlFilePath = new File(this.settingDir, "select.sql").getPath();
+		this.bindVariable = new HashMap<String, String>();
+		this.bindVariable.put("dept", "dept1");
+		this.bindVariable.put("_", "1700000000000");
+		this.repo = new LowCodeRepository();
+		this.template = this.repo.readSqlTemplate(this.sqlFilePath);
+		BenchmarkSettings.createEmployeeTable("jdbc:h2:mem:sqltemplate;DB_CLOSE_DELAY=-1", 10);
+		this.conn = DriverManager.getConnection("jdbc:h2:mem:sqltemplate;DB_CLOSE_DELAY=-1", "sa", "");
+		this.stmt = this.conn.prepareStatement(this.template.getSql());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		this.stmt.close();
+		this.conn.close();
+		BenchmarkSettings.delete(this.settingDir);
+	}
+
+	/**
+	 * SQLファイルの読込み
+	 */
+	@Benchmark
+	public String readSqlFile() throws IOException {
+		return this.repo.readSqlFile(this.sqlFilePath);
+	}
+
+	/**
+	 * 従来方式（SQLファイルを読み込み、文字列置換でバインド変数を埋め込む）
+	 */
+	@Benchmark
+	public String readAndReplace() throws IOException {
+		String sql = this.repo.readSqlFile(this.sqlFilePath);
+		for (Map.Entry<String, String> entry : this.bindVariable.entrySet()) {
+			sql = sql.replace("{{" + entry.getKey() + "}}", entry.getValue());
+		}
+		return sql;
+	}
+
+	/**
+	 * SQLファイルの読込みとSQLテンプレートの解析（キャッシュなし）
+	 */
+	@Benchmark
+	public LowCodeSqlTemplate readAndParse() throws IOException {
+		return LowCodeSqlTemplate.parse(this.repo.readSqlFile(this.sqlFilePath), 0L);
+	}
+
+	/**
+	 * SQLテンプレートをキャッシュから取得し、PreparedStatementのパラメータとして設定する
+	 */
+	@Benchmark
+	public PreparedStatement cachedTemplateBind() throws IOException, SQLException {
+		LowCodeSqlTemplate cached = this.repo.readSqlTemplate(this.sqlFilePath);
+		cached.bind(this.stmt, this.bindVariable);
+		return this.stmt;
+	}
+}
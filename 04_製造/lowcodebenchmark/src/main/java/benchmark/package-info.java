@@ -0,0 +1,7 @@
+/**
+ * ローコード画面遷移フレームワークの性能測定（JMH）パッケージ。
+ * 
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+package benchmark;
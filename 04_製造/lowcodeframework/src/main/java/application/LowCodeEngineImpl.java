@@ -0,0 +1,504 @@
+package application;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.log4j.Logger;
+import org.apache.log4j.xml.DOMConfigurator;
+
+import com.sun.jersey.api.view.Viewable;
+
+import common.LowCodeConsts;
+import common.LowCodeLog;
+import domain.LowCodeInvocationDomainService;
+import exception.ErrorViewTransitionException;
+import exception.LowCodeBusyException;
+import exception.LowCodeException;
+import exception.LowCodeRequestException;
+import exception.LowCodeSystemException;
+import framework.LowCodeBatchParser;
+import framework.LowCodeEngine;
+import framework.LowCodeFormParser;
+import framework.LowCodeRequest;
+import infrastructure.LowCodeDataSourceRouter;
+import infrastructure.LowCodeDeadline;
+import infrastructure.LowCodeExecutors;
+import infrastructure.LowCodeMetrics;
+import infrastructure.LowCodeMetricsRegistry;
+import infrastructure.LowCodePhaseTimer;
+import infrastructure.LowCodeResultCache;
+import infrastructure.LowCodeResultCursor;
+import infrastructure.LowCodeRoute;
+import infrastructure.LowCodeSlowQueryLog;
+
+/**
+ * ローコード画面遷移フレームワークのエンジン実装クラス。
+ *
+ * 設定ディレクトリ毎に1つだけ生成し、ログ設定・エンジン設定の読込みもその時に1回だけ行う。 リクエスト毎の状態は持たない為、スレッドセーフである。
+ * 識別子毎の同時実行数は、非同期実行の場合は待ち行列に入れる時点から数える。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeEngineImpl implements LowCodeEngine {
+	private static final ConcurrentMap<String, LowCodeEngineImpl> ENGINES = new ConcurrentHashMap<String, LowCodeEngineImpl>();
+
+	private final Logger log = Logger.getLogger(LowCodeEngineImpl.class); // ログ
+	private final File settingFile; // 設定ファイル
+	private final String dbPropertiesFilePath; // DB設定ファイルパス
+	private final LowCodeInvocationDomainService service; // ドメインサービスクラス
+	private final Executor executor; // 非同期実行のExecutor
+	private final Executor parallelExecutor; // SQLステップの並列実行のExecutor
+	private final LowCodeFormParser formParser; // フォームデータの解析クラス
+	private final LowCodeBatchParser batchParser; // 一括登録の行データの解析クラス
+	private final int csvMaxRecordLength; // CSV一括登録の1レコードの最大文字数
+	private final long requestTimeoutMillis; // リクエストの処理期限（ミリ秒、0以下は無期限）
+	private final LowCodeResultCache resultCache; // 実行結果キャッシュ
+	private final LowCodeSlowQueryLog slowQueryLog; // スロークエリログ
+	private final ConcurrentMap<String, Semaphore> permits = new ConcurrentHashMap<String, Semaphore>(); // 識別子 → 同時実行数
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param settingDir 設定ディレクトリ
+	 */
+	LowCodeEngineImpl(File settingDir) {
+		this.settingFile = new File(settingDir, LowCodeConsts.SETTING_XML_FILE);
+		this.dbPropertiesFilePath = new File(settingDir, LowCodeConsts.DB_PROPERTIES_FILE).getPath();
+		LowCodeInvocationDomainService reader = new LowCodeInvocationDomainService();
+		Properties engineProperties = reader
+				.readEngineProperties(new File(settingDir, LowCodeConsts.ENGINE_PROPERTIES_FILE).getPath());
+		String explainDb = engineProperties.getProperty(LowCodeConsts.SLOW_QUERY_EXPLAIN_DB, "").trim();
+		this.slowQueryLog = new LowCodeSlowQueryLog(
+				longProperty(engineProperties, LowCodeConsts.SLOW_QUERY_THRESHOLD,
+						LowCodeConsts.DEFAULT_SLOW_QUERY_THRESHOLD),
+				intProperty(engineProperties, LowCodeConsts.SLOW_QUERY_CAPACITY,
+						LowCodeConsts.DEFAULT_SLOW_QUERY_CAPACITY),
+				Arrays.asList(engineProperties.getProperty(LowCodeConsts.SLOW_QUERY_REDACT_KEYS,
+						LowCodeConsts.DEFAULT_SLOW_QUERY_REDACT_KEYS).split(",")),
+				explainDb.isEmpty() ? null : reader.readEngineProperties(new File(settingDir, explainDb).getPath()));
+		this.service = new LowCodeInvocationDomainService(this.slowQueryLog);
+		this.executor = LowCodeExecutors.create(engineProperties);
+		// 非同期実行のスレッドからも使用する為、非同期実行とは別のスレッドプールとする（同じプールで待ち合わせると枯渇する）
+		this.parallelExecutor = LowCodeExecutors.newBoundedExecutor(
+				intProperty(engineProperties, LowCodeConsts.PARALLEL_MAX_THREADS,
+						LowCodeConsts.DEFAULT_PARALLEL_MAX_THREADS),
+				intProperty(engineProperties, LowCodeConsts.PARALLEL_QUEUE_SIZE, LowCodeConsts.DEFAULT_PARALLEL_QUEUE_SIZE));
+		this.formParser = new LowCodeFormParser(
+				intProperty(engineProperties, LowCodeConsts.FORM_MAX_BODY_SIZE, LowCodeConsts.DEFAULT_FORM_MAX_BODY_SIZE),
+				intProperty(engineProperties, LowCodeConsts.FORM_MAX_PARAMETER_COUNT,
+						LowCodeConsts.DEFAULT_FORM_MAX_PARAMETER_COUNT));
+		this.batchParser = new LowCodeBatchParser(
+				intProperty(engineProperties, LowCodeConsts.FORM_MAX_BODY_SIZE, LowCodeConsts.DEFAULT_FORM_MAX_BODY_SIZE),
+				intProperty(engineProperties, LowCodeConsts.FORM_MAX_PARAMETER_COUNT,
+						LowCodeConsts.DEFAULT_FORM_MAX_PARAMETER_COUNT));
+		this.csvMaxRecordLength = intProperty(engineProperties, LowCodeConsts.CSV_MAX_RECORD_LENGTH,
+				LowCodeConsts.DEFAULT_CSV_MAX_RECORD_LENGTH);
+		this.requestTimeoutMillis = longProperty(engineProperties, LowCodeConsts.REQUEST_TIMEOUT,
+				LowCodeConsts.DEFAULT_REQUEST_TIMEOUT);
+		this.resultCache = new LowCodeResultCache(
+				longProperty(engineProperties, LowCodeConsts.CACHE_MAX_WEIGHT, LowCodeConsts.DEFAULT_CACHE_MAX_WEIGHT));
+	}
+
+	/**
+	 * 設定ディレクトリに対応するエンジンの取得。 同じ設定ディレクトリに対しては、同じインスタンスを返却する。
+	 * 初めて生成した時に、設定ディレクトリのログ設定ファイルを読み込む。
+	 *
+	 * @param setting 設定ディレクトリパス
+	 * @return エンジン
+	 */
+	public static LowCodeEngineImpl getInstance(String setting) {
+		File settingDir = new File(setting);
+		String key = settingDir.getAbsolutePath();
+		LowCodeEngineImpl engine = ENGINES.get(key);
+		if (engine == null) {
+			LowCodeEngineImpl created = new LowCodeEngineImpl(settingDir);
+			engine = ENGINES.putIfAbsent(key, created);
+			if (engine == null) {
+				engine = created;
+				// ログファイルの設定
+				File log4jFile = new File(settingDir, LowCodeConsts.LOG4J_XML_FILE);
+				if (log4jFile.exists()) {
+					DOMConfigurator.configure(log4jFile.getPath());
+				}
+			}
+		}
+		return engine;
+	}
+
+	/**
+	 * フォームデータの解析クラスの取得。 上限値はエンジン設定ファイル（lowcode.properties）で指定する。
+	 *
+	 * @return フォームデータの解析クラス
+	 */
+	public LowCodeFormParser getFormParser() {
+		return this.formParser;
+	}
+
+	/**
+	 * 一括登録の行データの解析クラスの取得。 上限値はフォームデータと同じ設定を使用する。
+	 *
+	 * @return 一括登録の行データの解析クラス
+	 */
+	public LowCodeBatchParser getBatchParser() {
+		return this.batchParser;
+	}
+
+	/**
+	 * 実行結果キャッシュの取得
+	 *
+	 * @return 実行結果キャッシュ
+	 */
+	public LowCodeResultCache getResultCache() {
+		return this.resultCache;
+	}
+
+	/**
+	 * スロークエリログの取得。 閾値・保持件数・実行計画の取得先DBはエンジン設定ファイル（lowcode.properties）で指定する。
+	 *
+	 * @return スロークエリログ
+	 */
+	public LowCodeSlowQueryLog getSlowQueryLog() {
+		return this.slowQueryLog;
+	}
+
+	/**
+	 * 画面遷移の実行
+	 *
+	 * @param identifer 識別子
+	 * @param request   リクエスト
+	 * @return 遷移画面Viewable
+	 * @throws LowCodeRequestException 入力チェック例外クラス
+	 * @throws LowCodeSystemException  想定外例外クラス
+	 */
+	public Viewable invoke(String identifer, LowCodeRequest request)
+			throws LowCodeRequestException, LowCodeSystemException {
+		Semaphore permit = this.acquirePermit(identifer);
+		try {
+			return this.execute(identifer, request, new LowCodeDeadline(this.requestTimeoutMillis));
+		} finally {
+			if (permit != null) {
+				permit.release();
+			}
+		}
+	}
+
+	/**
+	 * 画面遷移の非同期実行。 エンジン設定ファイルで指定したExecutorで実行する。
+	 *
+	 * @param identifer 識別子
+	 * @param request   リクエスト
+	 * @return 遷移画面Viewable
+	 */
+	public CompletionStage<Viewable> invokeAsync(String identifer, LowCodeRequest request) {
+		return this.invokeAsync(identifer, request, this.executor);
+	}
+
+	/**
+	 * 画面遷移の非同期実行。 指定したExecutorで実行する。
+	 * 処理期限は受付時（このメソッドの呼出し時）から数える。 返却したCompletableFutureをキャンセルした場合は、実行中のSQLをキャンセルする。
+	 * 実行スレッドで開いたカーソル（ストリーミング）は、結果を受け取るスレッド（get・join、またはカーソルを読み込むスレッド）に引き継ぎ、
+	 * そのスレッドのリクエスト終了時にクローズする。
+	 *
+	 * @param identifer 識別子
+	 * @param request   リクエスト
+	 * @param executor  Executor
+	 * @return 遷移画面Viewable
+	 */
+	public CompletionStage<Viewable> invokeAsync(final String identifer, final LowCodeRequest request,
+			Executor executor) {
+		final LowCodeDeadline deadline = new LowCodeDeadline(this.requestTimeoutMillis);
+		final AsyncView future = new AsyncView(deadline);
+		final Semaphore permit;
+		try {
+			permit = this.acquirePermit(identifer);
+		} catch (LowCodeException e) {
+			future.completeExceptionally(e);
+			return future;
+		}
+		try {
+			executor.execute(new Runnable() {
+				public void run() {
+					try {
+						if (!future.isDone()) {
+							Viewable view = execute(identifer, request, deadline);
+							// 実行スレッドのカーソルを切り離して、結果と共に引き継ぐ
+							future.complete(view, LowCodeResultCursor.detachAll());
+						}
+					} catch (Throwable e) {
+						future.completeExceptionally(e);
+					} finally {
+						// 引き継がなかったカーソル（異常終了時）をクローズする
+						LowCodeResultCursor.closeAll();
+						if (permit != null) {
+							permit.release();
+						}
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			if (permit != null) {
+				permit.release();
+			}
+			LowCodeLog.warn(log, "非同期実行の待ち行列が上限に達しました。識別子: %s", identifer);
+			future.completeExceptionally(new LowCodeBusyException("非同期実行の待ち行列が上限に達しました。"));
+		}
+		return future;
+	}
+
+	/**
+	 * 同時実行数の取得。 設定ファイルで同時実行数の上限が指定されていない識別子は、制限しない。
+	 *
+	 * @param identifer 識別子
+	 * @return 取得した同時実行数（制限しない場合はnull）
+	 * @throws LowCodeRequestException 入力チェック例外クラス
+	 * @throws LowCodeBusyException    同時実行数の上限に達した場合
+	 */
+	private Semaphore acquirePermit(String identifer) throws LowCodeRequestException, LowCodeBusyException {
+		LowCodeRoute route = this.service.readSetting(this.settingFile, identifer);
+		if (route.getValidationError() != null) {
+			// 設定内容のエラーは実行時に通知する
+			return null;
+		}
+		int limit = route.getInt(LowCodeConsts.SETTING_CONCURRENCY, 0);
+		if (limit <= 0) {
+			return null;
+		}
+		String key = route.getIdentifier() + "|" + limit;
+		Semaphore permit = this.permits.get(key);
+		if (permit == null) {
+			Semaphore created = new Semaphore(limit);
+			permit = this.permits.putIfAbsent(key, created);
+			if (permit == null) {
+				permit = created;
+			}
+		}
+		if (!permit.tryAcquire()) {
+			LowCodeLog.warn(log, "同時実行数の上限に達しました。識別子: %s 上限: %d", route.getIdentifier(), limit);
+			throw new LowCodeBusyException("同時実行数の上限に達しました。");
+		}
+		return permit;
+	}
+
+	/**
+	 * 画面遷移の実行（同時実行数の制御なし）
+	 *
+	 * @param identifer 識別子
+	 * @param request   リクエスト
+	 * @param deadline  処理期限
+	 * @return 遷移画面Viewable
+	 * @throws LowCodeRequestException 入力チェック例外クラス
+	 * @throws LowCodeSystemException  想定外例外クラス
+	 */
+	private Viewable execute(String identifer, LowCodeRequest request, LowCodeDeadline deadline)
+			throws LowCodeRequestException, LowCodeSystemException {
+		String viewTransitionPtn = request.getViewTransitionPtn();
+		LowCodeRoute settingContext = null;
+		long begin = System.nanoTime();
+		LowCodeMetrics metrics = null;
+		ScheduledFuture<?> watchdog = null;
+		boolean error = true;
+		try {
+			// 開始ログの出力
+			LowCodeLog.info(log, "「%s」を開始します。", viewTransitionPtn);
+
+			// 設定ファイルの読込み（識別子が見つからない場合はデフォルト画面）
+			settingContext = this.service.readSetting(this.settingFile, identifer);
+
+			// 性能情報の計測開始（識別子が見つからない場合は、デフォルト画面の識別子で集計する）
+			metrics = LowCodeMetricsRegistry.getInstance().get(settingContext.getIdentifier());
+			LowCodePhaseTimer.begin(metrics);
+			// 更新後のレプリカ参照の抑止に使用するセッションの関連付け
+			LowCodeDataSourceRouter.bindSession(request.getSessionId());
+			long start = LowCodePhaseTimer.record(LowCodeMetrics.Phase.ROUTE, begin);
+
+			// 設定ファイルの入力チェック
+			this.service.checkSettingContext(settingContext);
+			LowCodePhaseTimer.record(LowCodeMetrics.Phase.VALIDATION, start);
+
+			// 処理期限の監視開始（リソース毎の処理期限の方が短い場合はそちらを使用する）
+			deadline.limit(settingContext.getInt(LowCodeConsts.SETTING_TIMEOUT, 0));
+			LowCodeDeadline.bind(deadline);
+			watchdog = deadline.schedule();
+
+			// SQLの実行
+			Map<String, Object> responseModel = new HashMap<String, Object>();
+			if (viewTransitionPtn.equals(LowCodeConsts.VIEW_TRANSITION_IMPORT)) {
+				// CSVの一括登録（登録件数をレスポンスモデルとする）
+				responseModel.put("model", this.service.importCsv(this.dbPropertiesFilePath, settingContext,
+						request.getBindVariable(), request.getCsvBody(), this.csvMaxRecordLength, this.resultCache));
+			} else if (viewTransitionPtn.equals(LowCodeConsts.VIEW_TRANSITION_EXPORT)) {
+				// CSV出力（SELECT文は画面の描画時に実行）
+				responseModel.put("model",
+						this.service.exportCsv(this.dbPropertiesFilePath, settingContext, request.getBindVariable()));
+			} else if (settingContext.hasSql()) {
+				Object model;
+				if (viewTransitionPtn.equals(LowCodeConsts.VIEW_TRANSITION_POST)
+						&& settingContext.getBoolean(LowCodeConsts.SETTING_BATCH)) {
+					// 一括登録（行データが無い場合は、バインド変数を1行として実行）
+					List<Map<String, String>> rows = request.getBatchRows() != null ? request.getBatchRows()
+							: Collections.singletonList(request.getBindVariable());
+					model = this.service.executeBatchSql(this.dbPropertiesFilePath, settingContext, rows,
+							this.resultCache);
+				} else if (viewTransitionPtn.equals(LowCodeConsts.VIEW_TRANSITION_GET)
+						&& settingContext.get(LowCodeConsts.SETTING_PAGE_KEY) != null) {
+					// ページング（実行結果とページ情報をレスポンスモデルに追加）
+					responseModel.putAll(this.service.executePagedSql(this.dbPropertiesFilePath, settingContext,
+							request.getBindVariable(), this.resultCache));
+					model = null;
+				} else {
+					model = this.service.executeSql(this.dbPropertiesFilePath, settingContext,
+							request.getBindVariable(), viewTransitionPtn, this.resultCache);
+				}
+				if (model != null) {
+					// レスポンスモデルの作成
+					responseModel.put("model", model);
+				}
+			}
+
+			if (settingContext.hasSteps() && !viewTransitionPtn.equals(LowCodeConsts.VIEW_TRANSITION_IMPORT)
+					&& !viewTransitionPtn.equals(LowCodeConsts.VIEW_TRANSITION_EXPORT)) {
+				if (viewTransitionPtn.equals(LowCodeConsts.VIEW_TRANSITION_GET)
+						&& settingContext.getBoolean(LowCodeConsts.SETTING_PARALLEL)) {
+					// SQLステップの並列実行（ステップ毎に別のコネクションで同時に実行）
+					responseModel.putAll(this.service.executeParallelSteps(this.dbPropertiesFilePath, settingContext,
+							request.getBindVariable(), this.parallelExecutor));
+				} else {
+					// SQLステップの実行（ステップ名をキーとして、レスポンスモデルに追加）
+					responseModel.putAll(this.service.executeSqlSteps(this.dbPropertiesFilePath, settingContext,
+							request.getBindVariable(), viewTransitionPtn, this.resultCache));
+				}
+			}
+
+			// 画面情報の作成
+			start = System.nanoTime();
+			Viewable view = viewTransitionPtn.equals(LowCodeConsts.VIEW_TRANSITION_EXPORT)
+					? this.service.createCsvViewable(settingContext, responseModel)
+					: this.service.createViewable(settingContext, responseModel);
+			LowCodePhaseTimer.record(LowCodeMetrics.Phase.VIEW, start);
+
+			// 終了ログの出力
+			LowCodeLog.info(log, "「%s」を終了します。", viewTransitionPtn);
+
+			error = false;
+			return view;
+
+		} catch (LowCodeRequestException e) {
+			log.error(e.getMessage());
+			throw e;
+
+		} catch (ErrorViewTransitionException e) {
+			log.error(e.getMessage());
+			if (metrics != null && (deadline.isCancelled() || deadline.isExpired())) {
+				metrics.recordTimeout(deadline.isCancelled());
+			}
+			// エラー画面遷移（JSON形式の場合はエラーメッセージを出力）
+			return this.service.createErrorViewable(settingContext, e.getMessage());
+
+		} catch (Exception e) {
+			log.error(String.format("想定外のエラーが発生しました。%s", e.getMessage()));
+			throw new LowCodeSystemException(e.getMessage());
+
+		} finally {
+			if (watchdog != null) {
+				watchdog.cancel(false);
+			}
+			LowCodeDeadline.unbind();
+			LowCodeDataSourceRouter.unbindSession();
+			// 性能情報の記録（エラー画面に遷移した場合もエラーとして数える）
+			long rows = LowCodePhaseTimer.end();
+			if (metrics != null) {
+				metrics.recordRequest(System.nanoTime() - begin, rows, error);
+			}
+		}
+	}
+
+	private static int intProperty(Properties properties, String key, int defaultValue) {
+		String value = properties.getProperty(key);
+		return value == null || value.trim().isEmpty() ? defaultValue : Integer.parseInt(value.trim());
+	}
+
+	private static long longProperty(Properties properties, String key, long defaultValue) {
+		String value = properties.getProperty(key);
+		return value == null || value.trim().isEmpty() ? defaultValue : Long.parseLong(value.trim());
+	}
+
+	/**
+	 * 非同期実行の結果クラス。 キャンセル時に実行中のSQLをキャンセルし、実行スレッドで開いたカーソルを結果を受け取るスレッドに引き継ぐ。
+	 */
+	private static class AsyncView extends CompletableFuture<Viewable> {
+		private final LowCodeDeadline deadline; // 処理期限
+		private volatile List<LowCodeResultCursor> cursors = Collections.emptyList(); // 引き継ぐカーソル
+
+		AsyncView(LowCodeDeadline deadline) {
+			this.deadline = deadline;
+		}
+
+		/**
+		 * 正常終了。 既にキャンセルされていた場合は、引き継ぐカーソルをクローズする。
+		 *
+		 * @param view    遷移画面Viewable
+		 * @param cursors 実行スレッドから切り離したカーソル
+		 */
+		void complete(Viewable view, List<LowCodeResultCursor> cursors) {
+			this.cursors = cursors;
+			if (!this.complete(view)) {
+				for (LowCodeResultCursor cursor : cursors) {
+					cursor.close();
+				}
+			}
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			// クライアントの切断・タイムアウト時に、実行中のSQLをキャンセルする
+			this.deadline.cancel();
+			return super.cancel(mayInterruptIfRunning);
+		}
+
+		@Override
+		public Viewable get() throws InterruptedException, ExecutionException {
+			Viewable view = super.get();
+			this.adoptCursors();
+			return view;
+		}
+
+		@Override
+		public Viewable get(long timeout, TimeUnit unit)
+				throws InterruptedException, ExecutionException, TimeoutException {
+			Viewable view = super.get(timeout, unit);
+			this.adoptCursors();
+			return view;
+		}
+
+		@Override
+		public Viewable join() {
+			Viewable view = super.join();
+			this.adoptCursors();
+			return view;
+		}
+
+		private void adoptCursors() {
+			// 結果を受け取ったスレッドのリクエスト終了時にクローズする
+			for (LowCodeResultCursor cursor : this.cursors) {
+				cursor.adopt();
+			}
+		}
+	}
+}
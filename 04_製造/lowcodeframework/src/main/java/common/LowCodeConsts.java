@@ -10,11 +10,109 @@ public class LowCodeConsts {
 	public static final String SETTING_XML_FILE = "setting.xml";
 	public static final String LOG4J_XML_FILE = "log4j.xml";
 	public static final String DB_PROPERTIES_FILE = "db.properties";
+	public static final String ENGINE_PROPERTIES_FILE = "lowcode.properties";
 	public static final String VIEW_TRANSITION_GET = "DBからデータを取得して画面遷移";
 	public static final String VIEW_TRANSITION_POST = "DBにデータ保存をして画面遷移";
+	public static final String VIEW_TRANSITION_EXPORT = "DBからデータを取得してCSV出力";
+	public static final String VIEW_TRANSITION_IMPORT = "CSVをDBに一括登録して画面遷移";
 	public static final String SETTING_IDENTIFIER = "identifier";
 	public static final String SETTING_VIEW = "view";
 	public static final String SETTING_SQL = "sql";
 	public static final String SETTING_ERROR_VIEW = "errorview";
+	public static final String SETTING_STREAMING = "streaming";
+	public static final String SETTING_FETCH_SIZE = "fetchsize";
+	public static final String SETTING_MAX_ROWS = "maxrows";
+	public static final String SETTING_CONCURRENCY = "concurrency";
+	public static final String SETTING_TIMEOUT = "timeout";
+	public static final String SETTING_CACHE = "cache";
+	public static final String SETTING_CACHE_TABLES = "cachetables";
+	public static final String SETTING_INVALIDATES = "invalidates";
+	public static final String SETTING_BATCH = "batch";
+	public static final String SETTING_BATCH_SIZE = "batchsize";
+	public static final String SETTING_STEP = "step";
+	public static final String SETTING_STEP_NAME = "name";
+	public static final String SETTING_PARALLEL = "parallel";
+	public static final String SETTING_STEP_TIMEOUT = "steptimeout";
+	public static final String SETTING_STEP_ERROR = "steperror";
+	public static final String STEP_ERROR_FAIL = "fail"; // いずれかのステップが失敗した場合はエラー画面に遷移
+	public static final String STEP_ERROR_PARTIAL = "partial"; // 失敗したステップの実行結果をnullとして画面遷移
+	public static final String STEP_ERRORS_MODEL = "stepErrors"; // 失敗したステップのエラーメッセージのレスポンスモデル名
+	public static final String SETTING_DATASOURCE = "datasource";
+	public static final String SETTING_SHARD_KEY = "shardkey";
+	public static final String SETTING_SHARDS = "shards";
+	public static final String SETTING_SHARD_RANGES = "shardranges";
+	public static final String SETTING_RESPONSE = "response";
+	public static final String SETTING_IMPORT_TABLE = "importtable";
+	public static final String SETTING_PAGE_KEY = "pagekey";
+	public static final String SETTING_PAGE_SIZE = "pagesize";
+	public static final String SETTING_PAGE_ORDER = "pageorder";
+	public static final String PAGE_CURSOR_PARAMETER = "cursor"; // ページのカーソルのクエリパラメータ名
+	public static final String RESPONSE_JSON = "json"; // JSON形式で出力
+	public static final String RESPONSE_NDJSON = "ndjson"; // NDJSON形式（1行1オブジェクト）で出力
+	public static final String JSON_VIEW_SUFFIX = ".json"; // JSON形式の画面名の拡張子
+	public static final String NDJSON_VIEW_SUFFIX = ".ndjson"; // NDJSON形式の画面名の拡張子
+	public static final String CSV_VIEW_SUFFIX = ".csv"; // CSV出力の画面名の拡張子
+	public static final String JSON_CONTENT_TYPE = "application/json; charset=UTF-8";
+	public static final String NDJSON_CONTENT_TYPE = "application/x-ndjson; charset=UTF-8";
+	public static final String CSV_CONTENT_TYPE = "text/csv; charset=UTF-8";
 	public static final String DEFAULT_IDENTIFIER = "default";
+	public static final String DEFAULT_DATASOURCE = "default"; // 既定のデータソース名（DBプロパティファイルのurl・user・password）
+	public static final String DATASOURCE_ID = "lowcode.datasource.id"; // データソースの識別（DBプロパティファイルパス#データソース名、読込み時に設定する）
+	public static final long ROUTE_CHECK_INTERVAL_MILLIS = 1000L; // 設定ファイルの更新監視間隔（ミリ秒）
+	public static final String POOL_MAX_SIZE = "pool.maxSize";
+	public static final String POOL_MIN_IDLE = "pool.minIdle";
+	public static final String POOL_MAX_WAIT = "pool.maxWait";
+	public static final String POOL_IDLE_TIMEOUT = "pool.idleTimeout";
+	public static final String POOL_VALIDATION_TIMEOUT = "pool.validationTimeout";
+	public static final String POOL_LEAK_DETECTION_THRESHOLD = "pool.leakDetectionThreshold";
+	public static final String POOL_STATEMENT_CACHE_SIZE = "pool.statementCacheSize";
+	public static final int DEFAULT_POOL_MAX_SIZE = 10; // 最大コネクション数
+	public static final int DEFAULT_POOL_MIN_IDLE = 0; // 最小アイドルコネクション数
+	public static final long DEFAULT_POOL_MAX_WAIT = 30000L; // 取得待ちの最大時間（ミリ秒）
+	public static final long DEFAULT_POOL_IDLE_TIMEOUT = 600000L; // アイドル時間の上限（ミリ秒）
+	public static final int DEFAULT_POOL_VALIDATION_TIMEOUT = 5; // 取得時の検証タイムアウト（秒）
+	public static final long DEFAULT_POOL_LEAK_DETECTION_THRESHOLD = 0L; // リーク検出時間（ミリ秒、0は無効）
+	public static final int DEFAULT_POOL_STATEMENT_CACHE_SIZE = 50; // コネクション毎のPreparedStatementキャッシュ件数
+	public static final String REPLICA_URLS = "replica.urls";
+	public static final String REPLICA_USER = "replica.user";
+	public static final String REPLICA_PASSWORD = "replica.password";
+	public static final String REPLICA_BALANCE = "replica.balance";
+	public static final String REPLICA_HEALTH_CHECK_INTERVAL = "replica.healthCheckInterval";
+	public static final String REPLICA_STICKY_MILLIS = "replica.stickyMillis";
+	public static final String REPLICA_BALANCE_ROUND_ROBIN = "roundrobin"; // 順番に振り分ける
+	public static final String REPLICA_BALANCE_LEAST_IN_FLIGHT = "leastinflight"; // 貸出中のコネクションが最も少ないレプリカに振り分ける
+	public static final long DEFAULT_REPLICA_HEALTH_CHECK_INTERVAL = 5000L; // 切り離したレプリカの確認間隔（ミリ秒）
+	public static final long DEFAULT_REPLICA_STICKY_MILLIS = 0L; // 更新後にプライマリから参照する時間（ミリ秒、0は無効）
+	public static final String EXECUTOR_TYPE = "executor.type";
+	public static final String EXECUTOR_MAX_THREADS = "executor.maxThreads";
+	public static final String EXECUTOR_QUEUE_SIZE = "executor.queueSize";
+	public static final String EXECUTOR_TYPE_BOUNDED = "bounded"; // 上限付きスレッドプール
+	public static final String EXECUTOR_TYPE_VIRTUAL = "virtual"; // 仮想スレッド（JDK21以降）
+	public static final int DEFAULT_EXECUTOR_MAX_THREADS = 20; // 非同期実行の最大スレッド数
+	public static final int DEFAULT_EXECUTOR_QUEUE_SIZE = 100; // 非同期実行の待ち行列の上限
+	public static final String PARALLEL_MAX_THREADS = "parallel.maxThreads";
+	public static final String PARALLEL_QUEUE_SIZE = "parallel.queueSize";
+	public static final int DEFAULT_PARALLEL_MAX_THREADS = 20; // SQLステップの並列実行の最大スレッド数
+	public static final int DEFAULT_PARALLEL_QUEUE_SIZE = 100; // SQLステップの並列実行の待ち行列の上限
+	public static final String REQUEST_TIMEOUT = "request.timeout";
+	public static final long DEFAULT_REQUEST_TIMEOUT = 0L; // リクエストの処理期限（受付からのミリ秒、0は無期限）
+	public static final String FORM_MAX_BODY_SIZE = "form.maxBodySize";
+	public static final String FORM_MAX_PARAMETER_COUNT = "form.maxParameterCount";
+	public static final int DEFAULT_FORM_MAX_BODY_SIZE = 2097152; // フォームデータの最大サイズ（バイト）
+	public static final int DEFAULT_FORM_MAX_PARAMETER_COUNT = 1000; // フォームデータの最大項目数
+	public static final String CACHE_MAX_WEIGHT = "cache.maxWeight";
+	public static final long DEFAULT_CACHE_MAX_WEIGHT = 67108864L; // 実行結果キャッシュの上限（推定メモリ量、バイト）
+	public static final int DEFAULT_BATCH_SIZE = 100; // 一括登録で1回に送信する行数
+	public static final int DEFAULT_PAGE_SIZE = 20; // ページングの1ページの行数
+	public static final String CSV_MAX_RECORD_LENGTH = "csv.maxRecordLength";
+	public static final int DEFAULT_CSV_MAX_RECORD_LENGTH = 65536; // CSV一括登録の1レコードの最大文字数
+	public static final int DEFAULT_CSV_FETCH_SIZE = 1000; // CSV出力のフェッチサイズ（全件をメモリに読み込まないドライバの為）
+	public static final String SLOW_QUERY_LOGGER = "slowquery"; // スロークエリログのロガー名
+	public static final String SLOW_QUERY_THRESHOLD = "slowquery.thresholdMillis";
+	public static final String SLOW_QUERY_CAPACITY = "slowquery.capacity";
+	public static final String SLOW_QUERY_REDACT_KEYS = "slowquery.redactKeys";
+	public static final String SLOW_QUERY_EXPLAIN_DB = "slowquery.explainDb";
+	public static final long DEFAULT_SLOW_QUERY_THRESHOLD = 1000L; // スロークエリの閾値（ミリ秒、0以下は無効）
+	public static final int DEFAULT_SLOW_QUERY_CAPACITY = 100; // スロークエリの保持件数
+	public static final String DEFAULT_SLOW_QUERY_REDACT_KEYS = "password,passwd,pwd,secret,token"; // 値を伏せるバインド変数名（部分一致）
 }
@@ -0,0 +1,57 @@
+package common;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+
+/**
+ * ログ出力の共通クラス。
+ *
+ * メッセージは書式（String.format形式）と引数で指定し、出力レベルが有効な場合のみ文字列を作成する。
+ * 出力しないレベルのログでは、書式の変換・引数の文字列変換を行わない。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public final class LowCodeLog {
+	private LowCodeLog() {
+	}
+
+	/**
+	 * DEBUGログの出力
+	 *
+	 * @param log    ロガー
+	 * @param format 書式
+	 * @param args   引数
+	 */
+	public static void debug(Logger log, String format, Object... args) {
+		if (log.isDebugEnabled()) {
+			log.debug(String.format(format, args));
+		}
+	}
+
+	/**
+	 * INFOログの出力
+	 *
+	 * @param log    ロガー
+	 * @param format 書式
+	 * @param args   引数
+	 */
+	public static void info(Logger log, String format, Object... args) {
+		if (log.isInfoEnabled()) {
+			log.info(String.format(format, args));
+		}
+	}
+
+	/**
+	 * WARNログの出力
+	 *
+	 * @param log    ロガー
+	 * @param format 書式
+	 * @param args   引数
+	 */
+	public static void warn(Logger log, String format, Object... args) {
+		if (log.isEnabledFor(Level.WARN)) {
+			log.warn(String.format(format, args));
+		}
+	}
+}
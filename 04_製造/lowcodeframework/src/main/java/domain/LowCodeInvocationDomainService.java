@@ -2,19 +2,52 @@ package domain;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.log4j.Logger;
 
 import com.sun.jersey.api.view.Viewable;
 
 import common.LowCodeConsts;
+import common.LowCodeLog;
 import exception.ErrorViewTransitionException;
 import exception.LowCodeRequestException;
+import infrastructure.LowCodeCsvExport;
+import infrastructure.LowCodeDataSourceRouter;
+import infrastructure.LowCodeDataSources;
+import infrastructure.LowCodeDeadline;
+import infrastructure.LowCodeMetrics;
+import infrastructure.LowCodeMetricsRegistry;
+import infrastructure.LowCodePagination;
+import infrastructure.LowCodePhaseTimer;
 import infrastructure.LowCodeRepository;
+import infrastructure.LowCodeResultCache;
+import infrastructure.LowCodeResultCursor;
+import infrastructure.LowCodeResultTable;
+import infrastructure.LowCodeRoute;
+import infrastructure.LowCodeRouteRegistry;
+import infrastructure.LowCodeRouteTable;
+import infrastructure.LowCodeShardRule;
+import infrastructure.LowCodeSlowQueryLog;
+import infrastructure.LowCodeSqlTemplate;
 
 /**
  * ローコードフレームワークの業務クラス
@@ -25,80 +58,155 @@ import infrastructure.LowCodeRepository;
 public class LowCodeInvocationDomainService {
 	private Logger log = Logger.getLogger(LowCodeInvocationDomainService.class);
 	private LowCodeRepository repo; // リポジトリクラス
+	private LowCodeSlowQueryLog slowQueryLog; // スロークエリログ（記録しない場合はnull）
 
 	/**
 	 * コンストラクタ
 	 */
 	public LowCodeInvocationDomainService() {
+		this(null);
+	}
+
+	/**
+	 * コンストラクタ
+	 * 
+	 * @param slowQueryLog スロークエリログ（記録しない場合はnull）
+	 */
+	public LowCodeInvocationDomainService(LowCodeSlowQueryLog slowQueryLog) {
 		this.repo = new LowCodeRepository();
+		this.slowQueryLog = slowQueryLog;
 	}
 
 	/**
-	 * 設定ファイル読込
+	 * 設定ファイル読込。 解析済みのルート表から、識別子に対応するルートを取得する。
+	 * 識別子が見つからない場合は、デフォルトルートを返却する。
 	 * 
 	 * @param settingFile 設定ファイル
 	 * @param identifier  識別子
 	 * @return 設定情報
 	 * @throws LowCodeRequestException 入力チェック例外
 	 */
-	public Map<String, String> readSetting(File settingFile, String identifier) throws LowCodeRequestException {
+	public LowCodeRoute readSetting(File settingFile, String identifier) throws LowCodeRequestException {
+		LowCodeRouteTable table;
 		try {
-			return this.repo.readSetting(settingFile, identifier);
+			table = LowCodeRouteRegistry.getInstance(settingFile).getTable();
 		} catch (Exception e) {
 			throw new LowCodeRequestException(e.getMessage());
 		}
+		LowCodeRoute route = table.find(identifier);
+		if (route == null) {
+			// デフォルトページに遷移
+			LowCodeLog.warn(log, "指定された識別子が見つからなかった為、デフォルト画面に遷移します。識別子: %s", identifier);
+			route = table.getDefaultRoute();
+			if (route == null) {
+				throw new LowCodeRequestException("デフォルト画面の設定が見つかりません。");
+			}
+		}
+		return route;
 	}
 
 	/**
-	 * 設定ファイル内容チェック
+	 * 設定ファイル内容チェック。 設定ファイル読込時のチェック結果を参照する（ファイルシステムは参照しない）。
 	 * 
 	 * @param context 設定ファイルの内容
 	 * @throws LowCodeRequestException 入力チェック例外
 	 */
-	public void checkSettingContext(Map<String, String> context) throws LowCodeRequestException {
-		// Viewファイルのチェック
-		this.repo.checkFileExistence(context.get(LowCodeConsts.SETTING_VIEW), "Viewファイルのパスが見つかりません。");
-		// SQLファイルのチェック
-		if (!context.get(LowCodeConsts.SETTING_SQL).contentEquals("")) {
-			this.repo.checkFileExistence(context.get(LowCodeConsts.SETTING_SQL), "SQLファイルのパスが見つかりません。");
+	public void checkSettingContext(LowCodeRoute context) throws LowCodeRequestException {
+		if (context.getValidationError() != null) {
+			throw new LowCodeRequestException(context.getValidationError());
+		}
+	}
+
+	/**
+	 * エンジン設定ファイル読込。 ファイルが存在しない場合、読込みに失敗した場合は、空の設定を返却する（全て既定値）。
+	 * 
+	 * @param filePath エンジン設定ファイルパス
+	 * @return エンジン設定
+	 */
+	public Properties readEngineProperties(String filePath) {
+		if (!this.repo.existsFile(filePath)) {
+			return new Properties();
+		}
+		try {
+			return this.repo.readPropertiesFile(filePath);
+		} catch (IOException e) {
+			log.warn(String.format("エンジン設定ファイルの読込みに失敗した為、既定値を使用します。%s", e.getMessage()));
+			return new Properties();
 		}
-		// エラー画面ファイルのチェック
-		this.repo.checkFileExistence(context.get(LowCodeConsts.SETTING_ERROR_VIEW), "エラー画面ファイルのパスが見つかりません。");
 	}
 
 	/**
-	 * SQL実行
+	 * SQL実行。 設定ファイルで &lt;cache&gt;（有効期間、秒）が指定されたリソースは、SELECT文の実行結果をキャッシュする
+	 * （キャッシュする実行結果は、レプリカが指定されている場合もプライマリから読み込む）。
+	 * 更新系のリソースは、&lt;invalidates&gt; で指定した識別子・テーブル名のキャッシュを削除する。
 	 * 
 	 * @param dbPropertiesFilePath DB設定ファイルパス
-	 * @param sqlFilePath          SQLファイルパス
+	 * @param route                設定情報
 	 * @param bindVariable         バインド変数
 	 * @param viewTransitionPtn    画面遷移パターン
-	 * @return SQL実行結果
+	 * @param resultCache          実行結果キャッシュ
+	 * @return SQL実行結果（ストリーミングモードの場合はカーソル、UPDATE文の場合はnull）
 	 * @throws ErrorViewTransitionException エラー画面遷移例外
 	 */
-	public List<Map<String, String>> executeSql(String dbPropertiesFilePath, String sqlFilePath,
-			Map<String, String> bindVariable, String viewTransitionPtn) throws ErrorViewTransitionException {
+	public Object executeSql(String dbPropertiesFilePath, final LowCodeRoute route, final Map<String, String> bindVariable,
+			String viewTransitionPtn, LowCodeResultCache resultCache) throws ErrorViewTransitionException {
 		try {
-			// SQLファイル読込
-			String sqlContext = this.repo.readSqlFile(sqlFilePath);
+			long start = System.nanoTime();
+			// SQLテンプレート読込（解析済みのテンプレートはキャッシュから取得）
+			final LowCodeSqlTemplate template = this.repo.readSqlTemplate(route.get(LowCodeConsts.SETTING_SQL));
 
-			// バインド変数の置換
-			String sql;
-			if (bindVariable != null && bindVariable.size() > 0) {
-				sql = this.repo.changeBindVariable(sqlContext, bindVariable);
-			} else {
-				sql = sqlContext;
-			}
-			// DB情報が記載されているプロパティファイル読込み
-			Properties dbProperties = this.repo.readPropertiesFile(dbPropertiesFilePath);
-			// SQLの実行
-			log.info(String.format("SQLを実行します: %s", sql));
+			// 接続先のデータソースの選択（DBプロパティファイルは更新時のみ読込み）
+			final String dataSourceName = this.selectDataSourceName(route, Collections.singletonList(bindVariable));
+			final Properties dbProperties = this.repo.readDataSources(dbPropertiesFilePath).get(dataSourceName);
+			LowCodePhaseTimer.record(LowCodeMetrics.Phase.SQL_READ, start);
+			// SQLの実行（バインド変数はPreparedStatementのパラメータとして設定）
+			LowCodeLog.debug(log, "SQLを実行します: %s バインド変数名: %s", template.getSql(), bindVariable.keySet());
 			if (viewTransitionPtn.equals(LowCodeConsts.VIEW_TRANSITION_GET)) {
+				final int fetchSize = route.getInt(LowCodeConsts.SETTING_FETCH_SIZE, 0);
+				final int maxRows = route.getInt(LowCodeConsts.SETTING_MAX_ROWS, 0);
+				int cacheSeconds = route.getInt(LowCodeConsts.SETTING_CACHE, 0);
+				if (route.getBoolean(LowCodeConsts.SETTING_STREAMING)
+						|| (getResponseSuffix(route) != null && cacheSeconds <= 0)) {
+					// SELECT文実行（画面描画・JSON出力時に1行ずつ取得）
+					start = System.nanoTime();
+					LowCodeResultCursor cursor = this.repo.openSelectCursor(dbProperties, template, bindVariable,
+							fetchSize, maxRows);
+					this.recordSlowQuery(route, Collections.singletonList(template), bindVariable, start, -1);
+					return cursor;
+				}
+				if (cacheSeconds > 0) {
+					// SELECT文実行（実行結果をキャッシュ）
+					Set<String> tags = new HashSet<String>(route.getList(LowCodeConsts.SETTING_CACHE_TABLES));
+					tags.add(route.getIdentifier());
+					return resultCache.get(
+							LowCodeResultCache.createKey(route.getIdentifier(), dataSourceName, template, bindVariable,
+									maxRows),
+							tags,
+							cacheSeconds * 1000L, new LowCodeResultCache.Loader() {
+								public LowCodeResultTable load() throws SQLException {
+									long loadStart = System.nanoTime();
+									// 全セッションで共有する為、レプリカではなくプライマリから読み込む
+									LowCodeResultTable table = repo.executeSelectSql(dbProperties, template,
+											bindVariable, fetchSize, maxRows, true);
+									recordSlowQuery(route, Collections.singletonList(template), bindVariable,
+											loadStart, table.size());
+									return table;
+								}
+							});
+				}
 				// SELECT文実行
-				return this.repo.executeSelectSql(dbProperties, sql);
+				start = System.nanoTime();
+				LowCodeResultTable table = this.repo.executeSelectSql(dbProperties, template, bindVariable, fetchSize,
+						maxRows);
+				this.recordSlowQuery(route, Collections.singletonList(template), bindVariable, start, table.size());
+				return table;
 			} else {
 				// UPDATE（INSERT）文実行
-				this.repo.executeUpdateSql(dbProperties, sql);
+				start = System.nanoTime();
+				int count = this.repo.executeUpdateSql(dbProperties, template, bindVariable);
+				this.recordSlowQuery(route, Collections.singletonList(template), bindVariable, start, count);
+				// 更新したデータのキャッシュを削除
+				resultCache.invalidate(route.getList(LowCodeConsts.SETTING_INVALIDATES));
 				return null;
 			}
 		} catch (SQLException e) {
@@ -108,6 +216,496 @@ public class LowCodeInvocationDomainService {
 		}
 	}
 
+	/**
+	 * ページング付きのSQL実行。 &lt;pagekey&gt; が指定されたリソースは、SELECT文をキーセット方式に書き換え、
+	 * クエリパラメータ「cursor」のカーソルの次の1ページ分を取得する。 &lt;cache&gt; が指定されたリソースは、ページ毎に実行結果をキャッシュする。
+	 * 
+	 * @param dbPropertiesFilePath DB設定ファイルパス
+	 * @param route                設定情報
+	 * @param bindVariable         バインド変数
+	 * @param resultCache          実行結果キャッシュ
+	 * @return レスポンスモデル（「model」に実行結果、「page」にページ情報）
+	 * @throws ErrorViewTransitionException エラー画面遷移例外（カーソルが不正な場合を含む）
+	 */
+	public Map<String, Object> executePagedSql(String dbPropertiesFilePath, final LowCodeRoute route,
+			Map<String, String> bindVariable, LowCodeResultCache resultCache) throws ErrorViewTransitionException {
+		try {
+			long start = System.nanoTime();
+			LowCodePagination pagination = LowCodePagination.of(route);
+			String cursor = bindVariable.get(LowCodeConsts.PAGE_CURSOR_PARAMETER);
+			if (cursor != null && cursor.trim().isEmpty()) {
+				cursor = null;
+			}
+			// SQLテンプレート読込・キーセット方式への書換え（カーソルの値はバインド変数として設定）
+			final LowCodeSqlTemplate template = pagination
+					.rewrite(this.repo.readSqlTemplate(route.get(LowCodeConsts.SETTING_SQL)), cursor);
+			final Map<String, String> pageVariable = pagination.bind(bindVariable, cursor);
+
+			// 接続先のデータソースの選択（DBプロパティファイルは更新時のみ読込み）
+			String dataSourceName = this.selectDataSourceName(route, Collections.singletonList(bindVariable));
+			final Properties dbProperties = this.repo.readDataSources(dbPropertiesFilePath).get(dataSourceName);
+			LowCodePhaseTimer.record(LowCodeMetrics.Phase.SQL_READ, start);
+			LowCodeLog.debug(log, "SQLを実行します: %s バインド変数名: %s", template.getSql(), pageVariable.keySet());
+			final int fetchSize = route.getInt(LowCodeConsts.SETTING_FETCH_SIZE, 0);
+			int cacheSeconds = route.getInt(LowCodeConsts.SETTING_CACHE, 0);
+			LowCodeResultTable table;
+			if (cacheSeconds > 0) {
+				// SELECT文実行（実行結果をキャッシュ）
+				Set<String> tags = new HashSet<String>(route.getList(LowCodeConsts.SETTING_CACHE_TABLES));
+				tags.add(route.getIdentifier());
+				table = resultCache.get(
+						LowCodeResultCache.createKey(route.getIdentifier(), dataSourceName, template, pageVariable, 0),
+						tags, cacheSeconds * 1000L, new LowCodeResultCache.Loader() {
+							public LowCodeResultTable load() throws SQLException {
+								long loadStart = System.nanoTime();
+								// 全セッションで共有する為、レプリカではなくプライマリから読み込む
+								LowCodeResultTable loaded = repo.executeSelectSql(dbProperties, template, pageVariable,
+										fetchSize, 0, true);
+								recordSlowQuery(route, Collections.singletonList(template), pageVariable, loadStart,
+										loaded.size());
+								return loaded;
+							}
+						});
+			} else {
+				// SELECT文実行（1ページ + 1行を取得）
+				start = System.nanoTime();
+				table = this.repo.executeSelectSql(dbProperties, template, pageVariable, fetchSize, 0);
+				this.recordSlowQuery(route, Collections.singletonList(template), pageVariable, start, table.size());
+			}
+			return pagination.createModel(table, cursor);
+		} catch (SQLException e) {
+			throw new ErrorViewTransitionException(e.getMessage());
+		} catch (IOException e) {
+			throw new ErrorViewTransitionException(e.getMessage());
+		}
+	}
+
+	/**
+	 * SQLステップの実行。 &lt;step&gt; に記載した全てのSQLを、1つのコネクション・1つのトランザクションで実行する。
+	 * 
+	 * @param dbPropertiesFilePath DB設定ファイルパス
+	 * @param route                設定情報
+	 * @param bindVariable         バインド変数
+	 * @param viewTransitionPtn    画面遷移パターン
+	 * @param resultCache          実行結果キャッシュ
+	 * @return ステップ名 → SQL実行結果（SELECT文はLowCodeResultTable、UPDATE文は更新件数）
+	 * @throws ErrorViewTransitionException エラー画面遷移例外
+	 */
+	public Map<String, Object> executeSqlSteps(String dbPropertiesFilePath, LowCodeRoute route,
+			Map<String, String> bindVariable, String viewTransitionPtn, LowCodeResultCache resultCache)
+			throws ErrorViewTransitionException {
+		try {
+			long start = System.nanoTime();
+			// SQLテンプレート読込（解析済みのテンプレートはキャッシュから取得）
+			List<LowCodeSqlTemplate> templates = new ArrayList<LowCodeSqlTemplate>(route.getSteps().size());
+			for (String sqlFilePath : route.getSteps().values()) {
+				templates.add(this.repo.readSqlTemplate(sqlFilePath));
+			}
+
+			// 接続先のデータソースの選択（DBプロパティファイルは更新時のみ読込み）
+			Properties dbProperties = this.selectDataSource(dbPropertiesFilePath, route,
+					Collections.singletonList(bindVariable));
+			LowCodePhaseTimer.record(LowCodeMetrics.Phase.SQL_READ, start);
+			// SQLの実行
+			boolean update = !viewTransitionPtn.equals(LowCodeConsts.VIEW_TRANSITION_GET);
+			LowCodeLog.debug(log, "SQLステップを実行します: %s バインド変数名: %s", route.getSteps().keySet(),
+					bindVariable.keySet());
+			start = System.nanoTime();
+			List<Object> results = this.repo.executeSqlSteps(dbProperties, templates, bindVariable, update,
+					route.getInt(LowCodeConsts.SETTING_FETCH_SIZE, 0), route.getInt(LowCodeConsts.SETTING_MAX_ROWS, 0));
+			if (this.slowQueryLog != null) {
+				long rows = 0;
+				for (Object result : results) {
+					rows += result instanceof LowCodeResultTable ? ((LowCodeResultTable) result).size() : (Integer) result;
+				}
+				this.recordSlowQuery(route, templates, bindVariable, start, rows);
+			}
+			if (update) {
+				// 更新したデータのキャッシュを削除
+				resultCache.invalidate(route.getList(LowCodeConsts.SETTING_INVALIDATES));
+			}
+
+			Map<String, Object> model = new LinkedHashMap<String, Object>();
+			int i = 0;
+			for (String name : route.getSteps().keySet()) {
+				model.put(name, results.get(i++));
+			}
+			return model;
+		} catch (SQLException e) {
+			throw new ErrorViewTransitionException(e.getMessage());
+		} catch (IOException e) {
+			throw new ErrorViewTransitionException(e.getMessage());
+		}
+	}
+
+	/**
+	 * SQLステップの並列実行。 &lt;parallel&gt; が指定されたリソースの参照時に、&lt;step&gt; に記載した全てのSELECT文を、
+	 * ステップ毎に別のコネクション・別のスレッドで同時に実行する（ステップ間の読取り一貫性は保証しない）。
+	 * &lt;steptimeout&gt;（ミリ秒）を超えたステップ、スレッドプールの上限により実行できなかったステップは失敗とする。
+	 * ステップ毎にリクエストの処理期限と &lt;steptimeout&gt; の短い方を処理期限とし、超えた時点で実行中のSQLをキャンセルする
+	 * （スレッドの割り込みではJDBCのSQLは中止されない為）。
+	 * 失敗したステップがある場合、&lt;steperror&gt; が fail（既定値）の場合はエラー画面に遷移し、partial の場合は
+	 * 実行結果をnullとして、ステップ名 → エラーメッセージを「stepErrors」に設定する。
+	 * 
+	 * @param dbPropertiesFilePath DB設定ファイルパス
+	 * @param route                設定情報
+	 * @param bindVariable         バインド変数
+	 * @param executor             並列実行のExecutor
+	 * @return ステップ名 → SQL実行結果（LowCodeResultTable）
+	 * @throws ErrorViewTransitionException エラー画面遷移例外
+	 */
+	public Map<String, Object> executeParallelSteps(String dbPropertiesFilePath, final LowCodeRoute route,
+			final Map<String, String> bindVariable, Executor executor) throws ErrorViewTransitionException {
+		Map<String, FutureTask<LowCodeResultTable>> tasks = new LinkedHashMap<String, FutureTask<LowCodeResultTable>>();
+		Map<String, LowCodeDeadline> stepDeadlines = new HashMap<String, LowCodeDeadline>();
+		try {
+			long start = System.nanoTime();
+			// SQLテンプレート読込（解析済みのテンプレートはキャッシュから取得）
+			Map<String, LowCodeSqlTemplate> templates = new LinkedHashMap<String, LowCodeSqlTemplate>();
+			for (Map.Entry<String, String> step : route.getSteps().entrySet()) {
+				templates.put(step.getKey(), this.repo.readSqlTemplate(step.getValue()));
+			}
+
+			// 接続先のデータソースの選択（DBプロパティファイルは更新時のみ読込み）
+			final Properties dbProperties = this.selectDataSource(dbPropertiesFilePath, route,
+					Collections.singletonList(bindVariable));
+			LowCodePhaseTimer.record(LowCodeMetrics.Phase.SQL_READ, start);
+			// SQLの並列実行（性能情報・セッション・処理期限は実行スレッドに引き継ぐ）
+			final int fetchSize = route.getInt(LowCodeConsts.SETTING_FETCH_SIZE, 0);
+			final int maxRows = route.getInt(LowCodeConsts.SETTING_MAX_ROWS, 0);
+			final LowCodeMetrics metrics = LowCodeMetricsRegistry.getInstance().get(route.getIdentifier());
+			final String sessionId = LowCodeDataSourceRouter.currentSession();
+			final LowCodeDeadline deadline = LowCodeDeadline.current();
+			int timeout = route.getInt(LowCodeConsts.SETTING_STEP_TIMEOUT, 0);
+			LowCodeLog.debug(log, "SQLステップを並列実行します: %s バインド変数名: %s", templates.keySet(),
+					bindVariable.keySet());
+			Map<String, String> errors = new LinkedHashMap<String, String>();
+			for (final Map.Entry<String, LowCodeSqlTemplate> step : templates.entrySet()) {
+				// ステップの処理期限（リクエストの処理期限と <steptimeout> の短い方）
+				final LowCodeDeadline stepDeadline = new LowCodeDeadline(deadline, timeout);
+				stepDeadlines.put(step.getKey(), stepDeadline);
+				FutureTask<LowCodeResultTable> task = new FutureTask<LowCodeResultTable>(
+						new Callable<LowCodeResultTable>() {
+							public LowCodeResultTable call() throws SQLException {
+								LowCodePhaseTimer.begin(metrics);
+								LowCodeDataSourceRouter.bindSession(sessionId);
+								LowCodeDeadline.bind(stepDeadline);
+								ScheduledFuture<?> watchdog = stepDeadline.schedule();
+								try {
+									long stepStart = System.nanoTime();
+									LowCodeResultTable table = repo.executeSelectSql(dbProperties, step.getValue(),
+											bindVariable, fetchSize, maxRows);
+									recordSlowQuery(route, Collections.singletonList(step.getValue()), bindVariable,
+											stepStart, table.size());
+									return table;
+								} finally {
+									if (watchdog != null) {
+										watchdog.cancel(false);
+									}
+									LowCodeDeadline.unbind();
+									LowCodeDataSourceRouter.unbindSession();
+									LowCodePhaseTimer.end();
+								}
+							}
+						});
+				try {
+					executor.execute(task);
+					tasks.put(step.getKey(), task);
+				} catch (RejectedExecutionException e) {
+					errors.put(step.getKey(), String.format("並列実行の待ち行列が上限に達しました。ステップ: %s", step.getKey()));
+				}
+			}
+
+			// 実行結果の取得（タイムアウトは全ステップ共通の期限とする）
+			long waitUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+			Map<String, LowCodeResultTable> results = new HashMap<String, LowCodeResultTable>();
+			for (Map.Entry<String, FutureTask<LowCodeResultTable>> task : tasks.entrySet()) {
+				try {
+					LowCodeResultTable table = timeout > 0
+							? task.getValue().get(Math.max(waitUntil - System.nanoTime(), 0L), TimeUnit.NANOSECONDS)
+							: task.getValue().get();
+					results.put(task.getKey(), table);
+					LowCodePhaseTimer.addRows(table.size());
+				} catch (TimeoutException e) {
+					// 実行中のSQLをキャンセルし、コネクション・スレッドを解放させる
+					stepDeadlines.get(task.getKey()).cancel();
+					task.getValue().cancel(true);
+					errors.put(task.getKey(),
+							String.format("SQLステップがタイムアウトしました。ステップ: %s タイムアウト: %dミリ秒", task.getKey(), timeout));
+				} catch (ExecutionException e) {
+					errors.put(task.getKey(),
+							String.format("SQLステップの実行に失敗しました。ステップ: %s %s", task.getKey(), e.getCause().getMessage()));
+				}
+			}
+
+			Map<String, Object> model = new LinkedHashMap<String, Object>();
+			for (String name : templates.keySet()) {
+				model.put(name, results.get(name));
+			}
+			if (!errors.isEmpty()) {
+				String policy = route.get(LowCodeConsts.SETTING_STEP_ERROR);
+				if (policy == null || !policy.trim().equals(LowCodeConsts.STEP_ERROR_PARTIAL)) {
+					throw new ErrorViewTransitionException(errors.values().iterator().next());
+				}
+				for (String message : errors.values()) {
+					log.warn(message);
+				}
+				model.put(LowCodeConsts.STEP_ERRORS_MODEL, errors);
+			}
+			return model;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ErrorViewTransitionException("SQLステップの並列実行が中断されました。");
+		} catch (SQLException e) {
+			throw new ErrorViewTransitionException(e.getMessage());
+		} catch (IOException e) {
+			throw new ErrorViewTransitionException(e.getMessage());
+		} finally {
+			// エラー画面に遷移する場合は、実行中のステップのSQLをキャンセルし、未実行のステップを中止する
+			for (Map.Entry<String, FutureTask<LowCodeResultTable>> task : tasks.entrySet()) {
+				if (!task.getValue().isDone()) {
+					stepDeadlines.get(task.getKey()).cancel();
+					task.getValue().cancel(true);
+				}
+			}
+		}
+	}
+
+	/**
+	 * SQLの一括実行（バッチモード）。 行毎のバインド変数でUPDATE（INSERT）文を1つのトランザクションで実行する。
+	 * 
+	 * @param dbPropertiesFilePath DB設定ファイルパス
+	 * @param route                設定情報
+	 * @param rows                 行毎のバインド変数
+	 * @param resultCache          実行結果キャッシュ
+	 * @return 行毎の更新件数
+	 * @throws ErrorViewTransitionException エラー画面遷移例外
+	 */
+	public List<Integer> executeBatchSql(String dbPropertiesFilePath, LowCodeRoute route,
+			List<Map<String, String>> rows, LowCodeResultCache resultCache) throws ErrorViewTransitionException {
+		try {
+			long start = System.nanoTime();
+			// SQLテンプレート読込（解析済みのテンプレートはキャッシュから取得）
+			LowCodeSqlTemplate template = this.repo.readSqlTemplate(route.get(LowCodeConsts.SETTING_SQL));
+
+			// 接続先のデータソースの選択（全行が同じシャードであること）
+			Properties dbProperties = this.selectDataSource(dbPropertiesFilePath, route, rows);
+			LowCodePhaseTimer.record(LowCodeMetrics.Phase.SQL_READ, start);
+			// SQLの一括実行
+			int batchSize = Math.max(route.getInt(LowCodeConsts.SETTING_BATCH_SIZE, LowCodeConsts.DEFAULT_BATCH_SIZE),
+					1);
+			LowCodeLog.debug(log, "SQLを一括実行します: %s 行数: %d バッチサイズ: %d", template.getSql(), rows.size(), batchSize);
+			start = System.nanoTime();
+			int[] updateCounts = this.repo.executeBatchSql(dbProperties, template, rows, batchSize);
+			// スロークエリのバインド変数は先頭行のみ記録する
+			this.recordSlowQuery(route, Collections.singletonList(template),
+					rows.isEmpty() ? Collections.<String, String>emptyMap() : rows.get(0), start, rows.size());
+			// 更新したデータのキャッシュを削除
+			resultCache.invalidate(route.getList(LowCodeConsts.SETTING_INVALIDATES));
+
+			List<Integer> list = new ArrayList<Integer>(updateCounts.length);
+			for (int count : updateCounts) {
+				list.add(count);
+			}
+			return list;
+		} catch (SQLException e) {
+			throw new ErrorViewTransitionException(e.getMessage());
+		} catch (IOException e) {
+			throw new ErrorViewTransitionException(e.getMessage());
+		}
+	}
+
+	/**
+	 * CSV出力の作成。 SELECT文は画面の描画時（CSVの出力時）に実行する。
+	 * 
+	 * @param dbPropertiesFilePath DB設定ファイルパス
+	 * @param route                設定情報
+	 * @param bindVariable         バインド変数
+	 * @return CSV出力
+	 * @throws ErrorViewTransitionException エラー画面遷移例外
+	 */
+	public LowCodeCsvExport exportCsv(String dbPropertiesFilePath, LowCodeRoute route,
+			Map<String, String> bindVariable) throws ErrorViewTransitionException {
+		try {
+			long start = System.nanoTime();
+			// SQLテンプレート読込（解析済みのテンプレートはキャッシュから取得）
+			LowCodeSqlTemplate template = this.repo.readSqlTemplate(route.get(LowCodeConsts.SETTING_SQL));
+
+			// 接続先のデータソースの選択（DBプロパティファイルは更新時のみ読込み）
+			Properties dbProperties = this.selectDataSource(dbPropertiesFilePath, route,
+					Collections.singletonList(bindVariable));
+			LowCodePhaseTimer.record(LowCodeMetrics.Phase.SQL_READ, start);
+			LowCodeLog.debug(log, "CSVを出力します: %s バインド変数名: %s", template.getSql(), bindVariable.keySet());
+			return this.repo.createCsvExport(dbProperties, template, bindVariable,
+					route.getInt(LowCodeConsts.SETTING_FETCH_SIZE, 0), route.getInt(LowCodeConsts.SETTING_MAX_ROWS, 0),
+					LowCodeMetricsRegistry.getInstance().get(route.getIdentifier()));
+		} catch (SQLException e) {
+			throw new ErrorViewTransitionException(e.getMessage());
+		} catch (IOException e) {
+			throw new ErrorViewTransitionException(e.getMessage());
+		}
+	}
+
+	/**
+	 * CSVの一括登録。 &lt;importtable&gt; で指定したテーブルに、1行目を列名としたCSVを1つのトランザクションで登録する。
+	 * INSERT文で登録する場合は、&lt;batchsize&gt; 行毎にまとめてDBへ送信する。
+	 * 
+	 * @param dbPropertiesFilePath DB設定ファイルパス
+	 * @param route                設定情報
+	 * @param bindVariable         バインド変数（シャードの選択に使用）
+	 * @param body                 CSV（UTF-8）
+	 * @param maxRecordLength      1レコードの最大文字数
+	 * @param resultCache          実行結果キャッシュ
+	 * @return 登録件数
+	 * @throws ErrorViewTransitionException エラー画面遷移例外
+	 */
+	public long importCsv(String dbPropertiesFilePath, LowCodeRoute route, Map<String, String> bindVariable,
+			InputStream body, int maxRecordLength, LowCodeResultCache resultCache) throws ErrorViewTransitionException {
+		try {
+			long start = System.nanoTime();
+			// 接続先のデータソースの選択（DBプロパティファイルは更新時のみ読込み）
+			Properties dbProperties = this.selectDataSource(dbPropertiesFilePath, route,
+					Collections.singletonList(bindVariable));
+			LowCodePhaseTimer.record(LowCodeMetrics.Phase.SQL_READ, start);
+			// CSVの一括登録
+			String table = route.get(LowCodeConsts.SETTING_IMPORT_TABLE);
+			int batchSize = Math.max(route.getInt(LowCodeConsts.SETTING_BATCH_SIZE, LowCodeConsts.DEFAULT_BATCH_SIZE),
+					1);
+			LowCodeLog.debug(log, "CSVを一括登録します。テーブル: %s バッチサイズ: %d", table, batchSize);
+			long rows = this.repo.importCsv(dbProperties, table, body, batchSize, maxRecordLength,
+					LowCodeMetricsRegistry.getInstance().get(route.getIdentifier()));
+			LowCodeLog.info(log, "CSVを一括登録しました。テーブル: %s 件数: %d", table, rows);
+			// 更新したデータのキャッシュを削除
+			resultCache.invalidate(route.getList(LowCodeConsts.SETTING_INVALIDATES));
+			return rows;
+		} catch (SQLException e) {
+			throw new ErrorViewTransitionException(e.getMessage());
+		} catch (IOException e) {
+			throw new ErrorViewTransitionException(e.getMessage());
+		}
+	}
+
+	/**
+	 * データソースの選択。 &lt;shardkey&gt; が指定されたリソースはバインド変数の値でシャードを選択し、
+	 * &lt;datasource&gt; が指定されたリソースはそのデータソースを、いずれも無い場合は既定のデータソースを選択する。
+	 * 
+	 * @param dbPropertiesFilePath DB設定ファイルパス
+	 * @param route                設定情報
+	 * @param rows                 行毎のバインド変数
+	 * @return DBプロパティ
+	 * @throws IOException  IO例外
+	 * @throws SQLException データソースが定義されていない場合、シャードを選択できない場合、行毎にシャードが異なる場合
+	 */
+	private Properties selectDataSource(String dbPropertiesFilePath, LowCodeRoute route,
+			List<Map<String, String>> rows) throws IOException, SQLException {
+		return this.repo.readDataSources(dbPropertiesFilePath).get(this.selectDataSourceName(route, rows));
+	}
+
+	/**
+	 * データソース名の選択（選択方法は{@link #selectDataSource(String, LowCodeRoute, List)}と同じ）
+	 * 
+	 * @param route 設定情報
+	 * @param rows  行毎のバインド変数
+	 * @return データソース名（既定のデータソースの場合は「default」）
+	 * @throws SQLException シャードを選択できない場合、行毎にシャードが異なる場合
+	 */
+	private String selectDataSourceName(LowCodeRoute route, List<Map<String, String>> rows) throws SQLException {
+		LowCodeShardRule shardRule = LowCodeShardRule.of(route);
+		if (shardRule == null) {
+			String name = route.get(LowCodeConsts.SETTING_DATASOURCE);
+			return name == null || name.trim().isEmpty() ? LowCodeConsts.DEFAULT_DATASOURCE : name.trim();
+		}
+		String shard = null;
+		for (Map<String, String> row : rows) {
+			String selected = shardRule.select(row);
+			if (shard != null && !shard.equals(selected)) {
+				throw new SQLException(String.format("複数のシャードにまたがる一括登録はできません。シャード: %s, %s", shard, selected));
+			}
+			shard = selected;
+		}
+		LowCodeLog.debug(log, "シャードを選択しました。識別子: %s シャード: %s", route.getIdentifier(), shard);
+		return shard;
+	}
+
+	/**
+	 * スロークエリの記録。 スロークエリログが無い場合、閾値以下の場合は何もしない。
+	 * 
+	 * @param route        設定情報
+	 * @param templates    SQLテンプレート
+	 * @param bindVariable バインド変数
+	 * @param start        SQLの実行開始時刻（System.nanoTime()）
+	 * @param rows         行数（不明な場合は-1）
+	 */
+	private void recordSlowQuery(LowCodeRoute route, List<LowCodeSqlTemplate> templates,
+			Map<String, String> bindVariable, long start, long rows) {
+		if (this.slowQueryLog != null) {
+			this.slowQueryLog.record(route.getIdentifier(), templates, bindVariable, System.nanoTime() - start, rows);
+		}
+	}
+
+	/**
+	 * 画面情報の作成。 &lt;response&gt; に json・ndjson を指定したリソースは、JSON形式の画面名（識別子 + 拡張子）とする。
+	 * 
+	 * @param route         設定情報
+	 * @param responseModel レスポンスモデル
+	 * @return Viewable 遷移先Viewable
+	 */
+	public Viewable createViewable(LowCodeRoute route, Map<String, Object> responseModel) {
+		String suffix = getResponseSuffix(route);
+		if (suffix == null) {
+			return this.createViewable(route.get(LowCodeConsts.SETTING_VIEW), responseModel);
+		}
+		return this.repo.createViewable("/" + route.getIdentifier() + suffix, responseModel);
+	}
+
+	/**
+	 * エラー画面情報の作成。 &lt;response&gt; に json・ndjson を指定したリソースは、エラーメッセージを {"error":"メッセージ"} として出力する。
+	 * 
+	 * @param route   設定情報
+	 * @param message エラーメッセージ
+	 * @return Viewable 遷移先Viewable
+	 */
+	public Viewable createErrorViewable(LowCodeRoute route, String message) {
+		String suffix = getResponseSuffix(route);
+		if (suffix == null) {
+			return this.createViewable(route.get(LowCodeConsts.SETTING_ERROR_VIEW), null);
+		}
+		return this.repo.createViewable("/" + route.getIdentifier() + suffix,
+				Collections.<String, Object>singletonMap("error", message));
+	}
+
+	/**
+	 * CSV出力の画面情報の作成。 画面名は「識別子.csv」とする。
+	 * 
+	 * @param route         設定情報
+	 * @param responseModel レスポンスモデル（"model"にCSV出力）
+	 * @return Viewable 遷移先Viewable
+	 */
+	public Viewable createCsvViewable(LowCodeRoute route, Map<String, Object> responseModel) {
+		return this.repo.createViewable("/" + route.getIdentifier() + LowCodeConsts.CSV_VIEW_SUFFIX, responseModel);
+	}
+
+	/**
+	 * JSON形式の画面名の拡張子の取得
+	 * 
+	 * @param route 設定情報
+	 * @return 拡張子（JSON形式で出力しない場合はnull）
+	 */
+	private static String getResponseSuffix(LowCodeRoute route) {
+		String response = route.get(LowCodeConsts.SETTING_RESPONSE);
+		if (response == null) {
+			return null;
+		}
+		response = response.trim();
+		if (response.equals(LowCodeConsts.RESPONSE_JSON)) {
+			return LowCodeConsts.JSON_VIEW_SUFFIX;
+		}
+		if (response.equals(LowCodeConsts.RESPONSE_NDJSON)) {
+			return LowCodeConsts.NDJSON_VIEW_SUFFIX;
+		}
+		return null;
+	}
+
 	/**
 	 * 画面情報の作成
 	 * 
@@ -115,10 +713,10 @@ public class LowCodeInvocationDomainService {
 	 * @param responseModel レスポンスモデル
 	 * @return Viewable 遷移先Viewable
 	 */
-	public Viewable createViewable(String viewPath, Map<String, List<Map<String, String>>> responseModel) {
+	public Viewable createViewable(String viewPath, Map<String, Object> responseModel) {
 		File file = new File(viewPath);
 		viewPath = "/" + file.getName();
-		log.info(String.format("遷移先画面:  %s", viewPath));
+		LowCodeLog.info(log, "遷移先画面:  %s", viewPath);
 		return this.repo.createViewable(viewPath, responseModel);
 	}
 }
@@ -0,0 +1,20 @@
+package exception;
+
+/**
+ * 同時実行数超過例外クラス。 同時実行数の上限、または非同期実行の待ち行列の上限に達した場合に発生する。
+ * 
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeBusyException extends LowCodeSystemException {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * コンストラクタ
+	 * 
+	 * @param msg メッセージ
+	 */
+	public LowCodeBusyException(String msg) {
+		super(msg);
+	}
+}
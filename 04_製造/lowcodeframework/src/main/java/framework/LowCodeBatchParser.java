@@ -0,0 +1,166 @@
+package framework;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+
+import exception.LowCodeRequestException;
+
+/**
+ * 一括登録（バッチモード）の行データの解析クラス。
+ *
+ * 以下のいずれかの形式のメッセージボディから、1行分のバインド変数（Map）の一覧を作成する。
+ * <ul>
+ * <li>フォームデータ： 「name[0]=a&amp;name[1]=b」のように、キーの末尾に行番号を付ける。 行番号の無いキーは、全行に共通の値とする。</li>
+ * <li>JSON： 「[{"name":"a"},{"name":"b"}]」のように、オブジェクトの配列とする。 値は文字列に変換し、nullのキーは指定なしとする。</li>
+ * </ul>
+ * 生成後は不変で、スレッドセーフである。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeBatchParser {
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	private final int maxBodySize; // メッセージボディの最大サイズ（バイト）
+	private final int maxRowCount; // 最大行数
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param maxBodySize メッセージボディの最大サイズ（バイト）
+	 * @param maxRowCount 最大行数
+	 */
+	public LowCodeBatchParser(int maxBodySize, int maxRowCount) {
+		this.maxBodySize = maxBodySize;
+		this.maxRowCount = maxRowCount;
+	}
+
+	/**
+	 * JSON形式のメッセージボディか
+	 *
+	 * @param body メッセージボディ
+	 * @return 先頭の空白以外の文字が「[」の場合はtrue
+	 */
+	public static boolean isJsonArray(byte[] body) {
+		for (byte b : body) {
+			if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+				return b == '[';
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * フォームデータからの行データの作成
+	 *
+	 * @param params フォームデータ（キー → 値）
+	 * @return 行データ（キーに行番号が無い場合はnull）
+	 * @throws LowCodeRequestException 最大行数を超えた場合
+	 */
+	public List<Map<String, String>> fromForm(Map<String, List<String>> params) throws LowCodeRequestException {
+		Map<String, String> common = new HashMap<String, String>();
+		TreeMap<Integer, Map<String, String>> indexed = new TreeMap<Integer, Map<String, String>>();
+		for (Map.Entry<String, List<String>> entry : params.entrySet()) {
+			String key = entry.getKey();
+			int open = key.lastIndexOf('[');
+			int index = open > 0 && key.endsWith("]") ? parseIndex(key, open + 1, key.length() - 1) : -1;
+			if (index < 0) {
+				common.put(key, entry.getValue().get(0));
+				continue;
+			}
+			Map<String, String> row = indexed.get(index);
+			if (row == null) {
+				if (indexed.size() >= this.maxRowCount) {
+					throw new LowCodeRequestException(String.format("一括登録の行数が上限を超えています。上限: %d", this.maxRowCount));
+				}
+				row = new HashMap<String, String>();
+				indexed.put(index, row);
+			}
+			row.put(key.substring(0, open), entry.getValue().get(0));
+		}
+		if (indexed.isEmpty()) {
+			return null;
+		}
+		List<Map<String, String>> rows = new ArrayList<Map<String, String>>(indexed.size());
+		for (Map<String, String> row : indexed.values()) {
+			Map<String, String> merged = new HashMap<String, String>(common);
+			merged.putAll(row);
+			rows.add(merged);
+		}
+		return rows;
+	}
+
+	/**
+	 * JSON（オブジェクトの配列）からの行データの作成
+	 *
+	 * @param body メッセージボディ
+	 * @return 行データ
+	 * @throws LowCodeRequestException 形式が不正な場合、最大行数を超えた場合
+	 */
+	public List<Map<String, String>> fromJson(byte[] body) throws LowCodeRequestException {
+		if (body.length > this.maxBodySize) {
+			throw new LowCodeRequestException(
+					String.format("メッセージボディのサイズが上限を超えています。サイズ: %d 上限: %d", body.length, this.maxBodySize));
+		}
+		List<Map<String, String>> rows = new ArrayList<Map<String, String>>();
+		try {
+			JsonParser parser = JSON_FACTORY.createJsonParser(body);
+			try {
+				if (parser.nextToken() != JsonToken.START_ARRAY) {
+					throw new LowCodeRequestException("JSONの形式が不正です（オブジェクトの配列が必要です）。");
+				}
+				JsonToken token;
+				while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+					if (rows.size() >= this.maxRowCount) {
+						throw new LowCodeRequestException(
+								String.format("一括登録の行数が上限を超えています。上限: %d", this.maxRowCount));
+					}
+					Map<String, String> row = new HashMap<String, String>();
+					while (parser.nextToken() == JsonToken.FIELD_NAME) {
+						String name = parser.getCurrentName();
+						JsonToken value = parser.nextToken();
+						if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+							throw new LowCodeRequestException(
+									String.format("JSONの形式が不正です（値に配列・オブジェクトは指定できません）。キー: %s", name));
+						}
+						if (value != JsonToken.VALUE_NULL) {
+							row.put(name, parser.getText());
+						}
+					}
+					rows.add(row);
+				}
+				if (token != JsonToken.END_ARRAY) {
+					throw new LowCodeRequestException("JSONの形式が不正です（オブジェクトの配列が必要です）。");
+				}
+			} finally {
+				parser.close();
+			}
+		} catch (IOException e) {
+			throw new LowCodeRequestException(String.format("JSONの形式が不正です。%s", e.getMessage()));
+		}
+		return rows;
+	}
+
+	private static int parseIndex(String key, int from, int to) {
+		if (from >= to || to - from > 9) {
+			return -1;
+		}
+		int index = 0;
+		for (int i = from; i < to; i++) {
+			char c = key.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			index = index * 10 + (c - '0');
+		}
+		return index;
+	}
+}
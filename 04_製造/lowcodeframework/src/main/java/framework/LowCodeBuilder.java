@@ -1,5 +1,7 @@
 package framework;
 
+import java.io.InputStream;
+
 import javax.ws.rs.core.MultivaluedMap;
 
 /**
@@ -34,10 +36,44 @@ public interface LowCodeBuilder {
 	 */
 	public LowCodeBuilder setMessageBody(byte[] messageBody);
 
+	/**
+	 * セッションIDの設定。 DBプロパティファイルで「replica.stickyMillis」を指定した場合、同じセッションで更新してから指定時間内の参照は、
+	 * レプリカではなくプライマリから取得する。
+	 * 
+	 * @param sessionId セッションID
+	 * @return LowCodeBuilderクラス
+	 */
+	public LowCodeBuilder setSessionId(String sessionId);
+
+	/**
+	 * CSV出力の設定。 trueの場合、クエリパラメータをバインド変数としてSELECT文を実行し、実行結果をCSV形式で出力する（画面名は「識別子.csv」）。
+	 * 
+	 * @param csvExport CSV出力の場合はtrue
+	 * @return LowCodeBuilderクラス
+	 */
+	public LowCodeBuilder setCsvExport(boolean csvExport);
+
+	/**
+	 * CSV一括登録の入力の設定。 設定ファイルの &lt;importtable&gt; で指定したテーブルに、1行目を列名としたCSVを登録する。
+	 * 入力は1レコードずつ読み込む為、メッセージボディをbyte[]ではなくInputStreamで受け取って指定する。
+	 * 
+	 * @param csvBody CSV（UTF-8）
+	 * @return LowCodeBuilderクラス
+	 */
+	public LowCodeBuilder setCsvImport(InputStream csvBody);
+
 	/**
 	 * ビルド実行。 ローコード画面遷移フレームワークの実行インターフェース（LowCodeInvocation）を取得する。
 	 * 
 	 * @return LowCodeInvocationクラス
 	 */
 	public LowCodeInvocation build();
+
+	/**
+	 * エンジンの取得。 設定ディレクトリ毎に共有される、スレッドセーフなエンジン（LowCodeEngine）を取得する。
+	 * 取得したエンジンは保持して、複数のリクエストで使用できる。
+	 * 
+	 * @return LowCodeEngineクラス
+	 */
+	public LowCodeEngine buildEngine();
 }
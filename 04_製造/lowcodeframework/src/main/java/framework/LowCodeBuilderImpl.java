@@ -1,5 +1,6 @@
 package framework;
 
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -7,8 +8,12 @@ import java.util.Map.Entry;
 
 import javax.ws.rs.core.MultivaluedMap;
 
+import com.sun.jersey.api.view.Viewable;
+
+import application.LowCodeEngineImpl;
 import application.LowCodeInvocationImpl;
 import common.LowCodeConsts;
+import exception.LowCodeRequestException;
 
 /**
  * ローコード画面遷移フレームワークのビルダー実装クラス。
@@ -20,6 +25,9 @@ public class LowCodeBuilderImpl implements LowCodeBuilder {
 	private String setting; // 設定ディレクトリパス
 	private Map<String, String> queryParams; // クエリパラメータ
 	private byte[] messageBody; // メッセージボディ
+	private String sessionId; // セッションID
+	private boolean csvExport; // CSV出力
+	private InputStream csvBody; // CSV一括登録の入力
 
 	/**
 	 * 設定ファイルパスの設定
@@ -58,35 +66,107 @@ public class LowCodeBuilderImpl implements LowCodeBuilder {
 		return this;
 	}
 
+	/**
+	 * セッションIDの設定
+	 * 
+	 * @param sessionId セッションID
+	 * @return LowCodeBuilderクラス
+	 */
+	public LowCodeBuilder setSessionId(String sessionId) {
+		this.sessionId = sessionId;
+		return this;
+	}
+
+	/**
+	 * CSV出力の設定
+	 * 
+	 * @param csvExport CSV出力の場合はtrue
+	 * @return LowCodeBuilderクラス
+	 */
+	public LowCodeBuilder setCsvExport(boolean csvExport) {
+		this.csvExport = csvExport;
+		return this;
+	}
+
+	/**
+	 * CSV一括登録の入力の設定
+	 * 
+	 * @param csvBody CSV（UTF-8）
+	 * @return LowCodeBuilderクラス
+	 */
+	public LowCodeBuilder setCsvImport(InputStream csvBody) {
+		this.csvBody = csvBody;
+		return this;
+	}
+
 	/**
 	 * ビルド実行。 ローコード画面遷移フレームワークの実行インターフェース（LowCodeInvocation）を取得する。
 	 * 
 	 * @return LowCodeInvocationクラス
 	 */
 	public LowCodeInvocation build() {
-		LowCodeInvocation invocation;
-		if (messageBody != null) {
-			Map<String, String> messageBodyMap = this.changeBytesToMap(this.messageBody);
-			invocation = new LowCodeInvocationImpl(setting, messageBodyMap, LowCodeConsts.VIEW_TRANSITION_POST);
+		LowCodeEngineImpl engine = LowCodeEngineImpl.getInstance(this.setting);
+		LowCodeRequest request;
+		if (this.csvBody != null) {
+			request = new LowCodeRequest(queryParams, LowCodeConsts.VIEW_TRANSITION_IMPORT, null, this.sessionId,
+					this.csvBody);
+		} else if (this.csvExport) {
+			request = new LowCodeRequest(queryParams, LowCodeConsts.VIEW_TRANSITION_EXPORT, null, this.sessionId);
+		} else if (messageBody != null) {
+			try {
+				request = this.createPostRequest(engine, this.messageBody);
+			} catch (final LowCodeRequestException e) {
+				// メッセージボディのエラーは実行時に通知する
+				return new LowCodeInvocation() {
+					public Viewable invoke(String identifer) throws LowCodeRequestException {
+						throw e;
+					}
+				};
+			}
 		} else {
-			invocation = new LowCodeInvocationImpl(setting, queryParams, LowCodeConsts.VIEW_TRANSITION_GET);
+			request = new LowCodeRequest(queryParams, LowCodeConsts.VIEW_TRANSITION_GET, null, this.sessionId);
+		}
+		return new LowCodeInvocationImpl(engine, request);
+	}
+
+	/**
+	 * エンジンの取得。 設定ディレクトリ毎に共有される、スレッドセーフなエンジン（LowCodeEngine）を取得する。
+	 * 
+	 * @return LowCodeEngineクラス
+	 */
+	public LowCodeEngine buildEngine() {
+		return LowCodeEngineImpl.getInstance(this.setting);
+	}
+
+	/**
+	 * POSTリクエストの作成。 メッセージボディがJSONの配列、またはキーに行番号（name[0]）の付いたフォームデータの場合は、
+	 * 一括登録の行データとして保持する。
+	 * 
+	 * @param engine エンジン
+	 * @param bytes  メッセージボディ
+	 * @return リクエスト
+	 * @throws LowCodeRequestException メッセージボディが上限を超えた場合、形式が不正な場合
+	 */
+	private LowCodeRequest createPostRequest(LowCodeEngineImpl engine, byte[] bytes) throws LowCodeRequestException {
+		if (LowCodeBatchParser.isJsonArray(bytes)) {
+			List<Map<String, String>> rows = engine.getBatchParser().fromJson(bytes);
+			return new LowCodeRequest(null, LowCodeConsts.VIEW_TRANSITION_POST, rows, this.sessionId);
 		}
-		return invocation;
+		Map<String, List<String>> params = engine.getFormParser().parse(bytes);
+		return new LowCodeRequest(this.changeToSingleValueMap(params), LowCodeConsts.VIEW_TRANSITION_POST,
+				engine.getBatchParser().fromForm(params), this.sessionId);
 	}
 
 	/**
-	 * バイト文字列から、Map型に変換する。
+	 * フォームデータから、Map型に変換する。 同じキーが複数回指定された場合は、最初の値を使用する。
 	 * 
-	 * @param bytes バイト文字列
+	 * @param params フォームデータ
 	 * @return 変換したMap
 	 */
-	private Map<String, String> changeBytesToMap(byte[] bytes) {
-		String bytesStr = new String(bytes);
-		String[] strArr = bytesStr.split("&");
-		Map<String, String> map = new HashMap<String, String>();
-		for (String str : strArr) {
-			String[] tmpArr = str.split("=");
-			map.put(tmpArr[0], tmpArr[1]);
+	private Map<String, String> changeToSingleValueMap(Map<String, List<String>> params) {
+		Map<String, String> map = new HashMap<String, String>(params.size() * 2);
+		for (Entry<String, List<String>> entry : params.entrySet()) {
+			map.put(entry.getKey(), entry.getValue().get(0));
 		}
 		return map;
 	}
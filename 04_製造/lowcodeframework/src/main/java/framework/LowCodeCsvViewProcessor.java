@@ -0,0 +1,66 @@
+package framework;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.Provider;
+
+import com.sun.jersey.api.core.HttpContext;
+import com.sun.jersey.api.view.Viewable;
+import com.sun.jersey.spi.template.ViewProcessor;
+
+import common.LowCodeConsts;
+import infrastructure.LowCodeCsvExport;
+
+/**
+ * CSV形式の画面出力クラス。
+ *
+ * 「DBからデータを取得してCSV出力」の画面情報（画面名の拡張子が .csv）を、JSPを使用せずにレスポンスのOutputStreamへ直接出力する。
+ * SELECT文は出力時に実行し、実行結果を1行ずつ出力する為、件数によらずメモリ使用量は一定となる。
+ * 出力開始後にSQLの実行に失敗した場合は、レスポンスが途中で終了する。 Jerseyのパッケージスキャン対象に framework パッケージを追加して使用する。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+@Provider
+public class LowCodeCsvViewProcessor implements ViewProcessor<String> {
+	@Context
+	private HttpContext httpContext; // HTTPコンテキスト（Content-Typeの設定に使用）
+
+	/**
+	 * 画面名の解決
+	 *
+	 * @param name 画面名
+	 * @return 画面名（.csv以外はnull）
+	 */
+	public String resolve(String name) {
+		return name.endsWith(LowCodeConsts.CSV_VIEW_SUFFIX) ? name : null;
+	}
+
+	/**
+	 * 画面の出力
+	 *
+	 * @param name     画面名
+	 * @param viewable 画面情報
+	 * @param out      出力先
+	 * @throws IOException IO例外、SQLの実行に失敗した場合
+	 */
+	public void writeTo(String name, Viewable viewable, OutputStream out) throws IOException {
+		if (this.httpContext != null) {
+			// 最初の書込みまではレスポンスヘッダを変更できる
+			MultivaluedMap<String, Object> headers = this.httpContext.getResponse().getHttpHeaders();
+			headers.putSingle(HttpHeaders.CONTENT_TYPE, LowCodeConsts.CSV_CONTENT_TYPE);
+			headers.putSingle("Content-Disposition",
+					"attachment; filename=\"" + name.substring(name.lastIndexOf('/') + 1) + "\"");
+		}
+		Object model = viewable.getModel() instanceof Map ? ((Map<?, ?>) viewable.getModel()).get("model") : null;
+		if (model instanceof LowCodeCsvExport) {
+			((LowCodeCsvExport) model).writeTo(out);
+		}
+		out.flush();
+	}
+}
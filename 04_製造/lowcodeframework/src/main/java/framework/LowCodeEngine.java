@@ -0,0 +1,62 @@
+package framework;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+import com.sun.jersey.api.view.Viewable;
+
+import exception.LowCodeRequestException;
+import exception.LowCodeSystemException;
+
+/**
+ * ローコード画面遷移フレームワークのエンジンインターフェース。
+ *
+ * 設定ディレクトリ毎に1つだけ生成され、複数のリクエストから同時に使用できる（スレッドセーフ）。
+ * リクエスト毎の入力値は、{@link LowCodeRequest}として実行時に指定する。
+ * 設定ファイルの &lt;concurrency&gt; で、識別子毎の同時実行数の上限を指定できる（上限に達した場合はLowCodeBusyException）。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public interface LowCodeEngine {
+	/**
+	 * 画面遷移の実行
+	 *
+	 * @param identifer 識別子
+	 * @param request   リクエスト
+	 * @return 遷移画面Viewable
+	 * @throws LowCodeRequestException 入力チェック例外クラス
+	 * @throws LowCodeSystemException  想定外例外クラス
+	 */
+	public Viewable invoke(String identifer, LowCodeRequest request)
+			throws LowCodeRequestException, LowCodeSystemException;
+
+	/**
+	 * 画面遷移の非同期実行。 エンジン設定ファイル（lowcode.properties）で指定したExecutorで実行する。
+	 * 例外が発生した場合は、LowCodeRequestException・LowCodeSystemExceptionで異常終了する。
+	 *
+	 * JAX-RS 2.0のAsyncResponseを使用する場合は、以下のように結果を通知する。
+	 * 
+	 * <pre>
+	 * engine.invokeAsync(identifer, request).whenComplete((view, e) -&gt; asyncResponse.resume(e == null ? view : e));
+	 * </pre>
+	 *
+	 * クライアントの切断時（ConnectionCallback#onDisconnect）に、返却値の toCompletableFuture().cancel(true) を呼び出すと、
+	 * 実行中のSQLをキャンセルする。
+	 *
+	 * @param identifer 識別子
+	 * @param request   リクエスト
+	 * @return 遷移画面Viewable
+	 */
+	public CompletionStage<Viewable> invokeAsync(String identifer, LowCodeRequest request);
+
+	/**
+	 * 画面遷移の非同期実行。 指定したExecutorで実行する。
+	 *
+	 * @param identifer 識別子
+	 * @param request   リクエスト
+	 * @param executor  Executor
+	 * @return 遷移画面Viewable
+	 */
+	public CompletionStage<Viewable> invokeAsync(String identifer, LowCodeRequest request, Executor executor);
+}
@@ -0,0 +1,136 @@
+package framework;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import exception.LowCodeRequestException;
+
+/**
+ * フォームデータ（application/x-www-form-urlencoded）の解析クラス。
+ *
+ * メッセージボディをバイト列のまま先頭から1回だけ走査し、「+」を空白に、「%XX」を1バイトに変換した上で、UTF-8として文字列に変換する。
+ * 正規表現・中間文字列は使用しない。 同じキーが複数回指定された場合は、全ての値を指定順に保持する。
+ * 「key=」「key」は空文字の値として扱い、キーが空の項目は無視する。
+ * メッセージボディのサイズ・項目数には上限を設ける（大量のキーによるハッシュ衝突攻撃の対策）。 生成後は不変で、スレッドセーフである。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeFormParser {
+	private final int maxBodySize; // メッセージボディの最大サイズ（バイト）
+	private final int maxParameterCount; // 最大項目数
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param maxBodySize       メッセージボディの最大サイズ（バイト）
+	 * @param maxParameterCount 最大項目数
+	 */
+	public LowCodeFormParser(int maxBodySize, int maxParameterCount) {
+		this.maxBodySize = maxBodySize;
+		this.maxParameterCount = maxParameterCount;
+	}
+
+	/**
+	 * フォームデータの解析
+	 *
+	 * @param body メッセージボディ
+	 * @return キー → 値（指定順）
+	 * @throws LowCodeRequestException 上限を超えた場合、形式が不正な場合
+	 */
+	public Map<String, List<String>> parse(byte[] body) throws LowCodeRequestException {
+		if (body.length > this.maxBodySize) {
+			throw new LowCodeRequestException(
+					String.format("メッセージボディのサイズが上限を超えています。サイズ: %d 上限: %d", body.length, this.maxBodySize));
+		}
+		Map<String, List<String>> params = new LinkedHashMap<String, List<String>>();
+		byte[] buffer = new byte[Math.min(body.length, 256)];
+		int count = 0;
+		int start = 0;
+		while (start < body.length) {
+			// 項目の範囲（start～end）と、キー・値の区切り位置（eq）を探す
+			int end = start;
+			int eq = -1;
+			while (end < body.length && body[end] != '&') {
+				if (eq < 0 && body[end] == '=') {
+					eq = end;
+				}
+				end++;
+			}
+			if (end > start && eq != start) {
+				if (++count > this.maxParameterCount) {
+					throw new LowCodeRequestException(
+							String.format("フォームデータの項目数が上限を超えています。上限: %d", this.maxParameterCount));
+				}
+				if (buffer.length < end - start) {
+					buffer = new byte[end - start];
+				}
+				int keyEnd = eq < 0 ? end : eq;
+				String key = decode(body, start, keyEnd, buffer);
+				String value = eq < 0 ? "" : decode(body, eq + 1, end, buffer);
+				List<String> values = params.get(key);
+				if (values == null) {
+					values = new ArrayList<String>(1);
+					params.put(key, values);
+				}
+				values.add(value);
+			}
+			start = end + 1;
+		}
+		return params;
+	}
+
+	/**
+	 * URLデコード。 「+」を空白に、「%XX」を1バイトに変換し、UTF-8として文字列に変換する。
+	 *
+	 * @param body   メッセージボディ
+	 * @param from   開始位置
+	 * @param to     終了位置
+	 * @param buffer 作業領域（to - from バイト以上）
+	 * @return 文字列
+	 * @throws LowCodeRequestException 形式が不正な場合
+	 */
+	private static String decode(byte[] body, int from, int to, byte[] buffer) throws LowCodeRequestException {
+		int length = 0;
+		boolean ascii = true;
+		for (int i = from; i < to; i++) {
+			byte b = body[i];
+			if (b == '+') {
+				b = ' ';
+			} else if (b == '%') {
+				if (i + 2 >= to) {
+					throw new LowCodeRequestException("フォームデータの形式が不正です（%の後に16進数2桁が必要です）。");
+				}
+				int high = Character.digit(body[i + 1], 16);
+				int low = Character.digit(body[i + 2], 16);
+				if (high < 0 || low < 0) {
+					throw new LowCodeRequestException("フォームデータの形式が不正です（%の後に16進数2桁が必要です）。");
+				}
+				b = (byte) ((high << 4) + low);
+				i += 2;
+			}
+			ascii &= b >= 0;
+			buffer[length++] = b;
+		}
+		if (ascii) {
+			// ASCIIのみの場合は、デコーダを使用せずに変換する
+			return new String(buffer, 0, length, StandardCharsets.ISO_8859_1);
+		}
+		CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPORT)
+				.onUnmappableCharacter(CodingErrorAction.REPORT);
+		try {
+			CharBuffer chars = decoder.decode(ByteBuffer.wrap(buffer, 0, length));
+			return chars.toString();
+		} catch (CharacterCodingException e) {
+			throw new LowCodeRequestException("フォームデータの形式が不正です（UTF-8として変換できません）。");
+		}
+	}
+}
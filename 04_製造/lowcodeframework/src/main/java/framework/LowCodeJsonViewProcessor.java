@@ -0,0 +1,175 @@
+package framework;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.ext.Provider;
+
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.util.MinimalPrettyPrinter;
+
+import com.sun.jersey.api.core.HttpContext;
+import com.sun.jersey.api.view.Viewable;
+import com.sun.jersey.spi.template.ViewProcessor;
+
+import common.LowCodeConsts;
+import infrastructure.LowCodeResultCursor;
+
+/**
+ * JSON・NDJSON形式の画面出力クラス。
+ *
+ * 設定ファイルの &lt;response&gt; に json または ndjson を指定したリソースの画面情報（画面名の拡張子が .json・.ndjson）を、
+ * JSPを使用せずにレスポンスのOutputStreamへ直接出力する。 ストリーミングモードのカーソルは、1行ずつDBから取得しながら出力する為、
+ * 実行結果の件数によらずメモリ使用量は一定となり、最初の行から順に送信される。
+ * <ul>
+ * <li>json： レスポンスモデルを1つのオブジェクトとして出力する（例：{"model":[{"ID":"1","NAME":"suzuki"}]}）。</li>
+ * <li>ndjson： 実行結果の1行を1つのオブジェクトとして、1行ずつ改行区切りで出力する。 実行結果以外の値は {"キー":値} の1行とする。</li>
+ * </ul>
+ * 値は文字列（SQLがNULLの場合はnull）で出力する。 Jerseyのパッケージスキャン対象に framework パッケージを追加して使用する。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+@Provider
+public class LowCodeJsonViewProcessor implements ViewProcessor<String> {
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	@Context
+	private HttpContext httpContext; // HTTPコンテキスト（Content-Typeの設定に使用）
+
+	/**
+	 * 画面名の解決
+	 *
+	 * @param name 画面名
+	 * @return 画面名（.json・.ndjson以外はnull）
+	 */
+	public String resolve(String name) {
+		return name.endsWith(LowCodeConsts.JSON_VIEW_SUFFIX) || name.endsWith(LowCodeConsts.NDJSON_VIEW_SUFFIX) ? name
+				: null;
+	}
+
+	/**
+	 * 画面の出力
+	 *
+	 * @param name     画面名
+	 * @param viewable 画面情報
+	 * @param out      出力先
+	 * @throws IOException IO例外
+	 */
+	public void writeTo(String name, Viewable viewable, OutputStream out) throws IOException {
+		boolean ndjson = name.endsWith(LowCodeConsts.NDJSON_VIEW_SUFFIX);
+		if (this.httpContext != null) {
+			// 最初の書込みまではレスポンスヘッダを変更できる
+			this.httpContext.getResponse().getHttpHeaders().putSingle(HttpHeaders.CONTENT_TYPE,
+					ndjson ? LowCodeConsts.NDJSON_CONTENT_TYPE : LowCodeConsts.JSON_CONTENT_TYPE);
+		}
+		Map<?, ?> model = viewable.getModel() instanceof Map ? (Map<?, ?>) viewable.getModel() : null;
+		JsonGenerator generator = JSON_FACTORY.createJsonGenerator(out, JsonEncoding.UTF8);
+		try {
+			if (ndjson) {
+				// 行の区切りは改行のみとする（既定ではルートの値の間に空白が出力される）
+				generator.setPrettyPrinter(new MinimalPrettyPrinter() {
+					@Override
+					public void writeRootValueSeparator(JsonGenerator jg) {
+					}
+				});
+				writeLines(generator, model);
+			} else {
+				writeValue(generator, model);
+			}
+		} finally {
+			generator.flush();
+			// 途中で失敗した場合もコネクションを返却する
+			if (model != null) {
+				for (Object value : model.values()) {
+					if (value instanceof LowCodeResultCursor) {
+						((LowCodeResultCursor) value).close();
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * NDJSON形式の出力
+	 *
+	 * @param generator JSON出力
+	 * @param model     レスポンスモデル
+	 * @throws IOException IO例外
+	 */
+	private static void writeLines(JsonGenerator generator, Map<?, ?> model) throws IOException {
+		if (model == null) {
+			return;
+		}
+		for (Map.Entry<?, ?> entry : model.entrySet()) {
+			if (isRows(entry.getValue())) {
+				for (Object row : (Iterable<?>) entry.getValue()) {
+					writeValue(generator, row);
+					generator.writeRaw('\n');
+				}
+			} else {
+				generator.writeStartObject();
+				generator.writeFieldName(String.valueOf(entry.getKey()));
+				writeValue(generator, entry.getValue());
+				generator.writeEndObject();
+				generator.writeRaw('\n');
+			}
+		}
+	}
+
+	/**
+	 * 値の出力。 Map・Iterable（カーソルを含む）は再帰的に出力する。
+	 *
+	 * @param generator JSON出力
+	 * @param value     値
+	 * @throws IOException IO例外
+	 */
+	private static void writeValue(JsonGenerator generator, Object value) throws IOException {
+		if (value == null) {
+			generator.writeNull();
+		} else if (value instanceof Map) {
+			generator.writeStartObject();
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				generator.writeFieldName(String.valueOf(entry.getKey()));
+				writeValue(generator, entry.getValue());
+			}
+			generator.writeEndObject();
+		} else if (value instanceof Iterable) {
+			generator.writeStartArray();
+			for (Object item : (Iterable<?>) value) {
+				writeValue(generator, item);
+			}
+			generator.writeEndArray();
+		} else if (value instanceof Number) {
+			generator.writeNumber(value.toString());
+		} else if (value instanceof Boolean) {
+			generator.writeBoolean((Boolean) value);
+		} else {
+			generator.writeString(value.toString());
+		}
+	}
+
+	/**
+	 * 実行結果（行の一覧）か
+	 *
+	 * @param value 値
+	 * @return 実行結果の場合はtrue
+	 */
+	private static boolean isRows(Object value) {
+		if (value instanceof LowCodeResultCursor) {
+			return true;
+		}
+		if (!(value instanceof Iterable)) {
+			return false;
+		}
+		for (Object row : (Iterable<?>) value) {
+			return row instanceof Map;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,39 @@
+package framework;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import infrastructure.LowCodeMetricsRegistry;
+
+/**
+ * 識別子毎の性能情報の出力サーブレット。
+ *
+ * リクエスト件数・エラー件数・行数と、処理段階毎の処理時間（パーセンタイル）をテキスト形式（Prometheusのテキスト形式）で出力する。
+ * web.xmlに&lt;servlet&gt;として登録して使用する。 同じ情報はJMX（lowcode:type=Metrics）からも参照できる。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeMetricsServlet extends HttpServlet {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * 性能情報の出力
+	 *
+	 * @param request  リクエスト
+	 * @param response レスポンス
+	 * @throws IOException IO例外
+	 */
+	@Override
+	protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		response.setContentType("text/plain; version=0.0.4; charset=UTF-8");
+		response.setHeader("Cache-Control", "no-cache");
+		PrintWriter writer = response.getWriter();
+		LowCodeMetricsRegistry.getInstance().writeText(writer);
+		writer.flush();
+	}
+}
@@ -0,0 +1,120 @@
+package framework;
+
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ローコード画面遷移フレームワークのリクエストクラス。
+ *
+ * 1回の画面遷移で使用する入力値（バインド変数・画面遷移パターン・一括登録の行データ・セッションID・CSV一括登録の入力）を保持する。 生成後は変更しない。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeRequest {
+	private final Map<String, String> bindVariable; // バインド変数
+	private final String viewTransitionPtn; // 画面遷移パターン
+	private final List<Map<String, String>> batchRows; // 一括登録の行データ
+	private final String sessionId; // セッションID（更新後のレプリカ参照の抑止に使用）
+	private final InputStream csvBody; // CSV一括登録の入力（メッセージボディ）
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param bindVariable      バインド変数
+	 * @param viewTransitionPtn 画面遷移パターン
+	 */
+	public LowCodeRequest(Map<String, String> bindVariable, String viewTransitionPtn) {
+		this(bindVariable, viewTransitionPtn, null);
+	}
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param bindVariable      バインド変数
+	 * @param viewTransitionPtn 画面遷移パターン
+	 * @param batchRows         一括登録の行データ（無い場合はnull）
+	 */
+	public LowCodeRequest(Map<String, String> bindVariable, String viewTransitionPtn,
+			List<Map<String, String>> batchRows) {
+		this(bindVariable, viewTransitionPtn, batchRows, null);
+	}
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param bindVariable      バインド変数
+	 * @param viewTransitionPtn 画面遷移パターン
+	 * @param batchRows         一括登録の行データ（無い場合はnull）
+	 * @param sessionId         セッションID（無い場合はnull）
+	 */
+	public LowCodeRequest(Map<String, String> bindVariable, String viewTransitionPtn,
+			List<Map<String, String>> batchRows, String sessionId) {
+		this(bindVariable, viewTransitionPtn, batchRows, sessionId, null);
+	}
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param bindVariable      バインド変数
+	 * @param viewTransitionPtn 画面遷移パターン
+	 * @param batchRows         一括登録の行データ（無い場合はnull）
+	 * @param sessionId         セッションID（無い場合はnull）
+	 * @param csvBody           CSV一括登録の入力（無い場合はnull）
+	 */
+	public LowCodeRequest(Map<String, String> bindVariable, String viewTransitionPtn,
+			List<Map<String, String>> batchRows, String sessionId, InputStream csvBody) {
+		this.bindVariable = bindVariable != null ? bindVariable : Collections.<String, String>emptyMap();
+		this.viewTransitionPtn = viewTransitionPtn;
+		this.batchRows = batchRows;
+		this.sessionId = sessionId;
+		this.csvBody = csvBody;
+	}
+
+	/**
+	 * バインド変数の取得
+	 *
+	 * @return バインド変数
+	 */
+	public Map<String, String> getBindVariable() {
+		return this.bindVariable;
+	}
+
+	/**
+	 * 画面遷移パターンの取得
+	 *
+	 * @return 画面遷移パターン
+	 */
+	public String getViewTransitionPtn() {
+		return this.viewTransitionPtn;
+	}
+
+	/**
+	 * 一括登録の行データの取得
+	 *
+	 * @return 一括登録の行データ（無い場合はnull）
+	 */
+	public List<Map<String, String>> getBatchRows() {
+		return this.batchRows;
+	}
+
+	/**
+	 * セッションIDの取得
+	 *
+	 * @return セッションID（無い場合はnull）
+	 */
+	public String getSessionId() {
+		return this.sessionId;
+	}
+
+	/**
+	 * CSV一括登録の入力の取得。 1回だけ読み込むことができる。
+	 *
+	 * @return CSV一括登録の入力（無い場合はnull）
+	 */
+	public InputStream getCsvBody() {
+		return this.csvBody;
+	}
+}
@@ -0,0 +1,35 @@
+package framework;
+
+import javax.servlet.ServletRequestEvent;
+import javax.servlet.ServletRequestListener;
+
+import infrastructure.LowCodeResultCursor;
+
+/**
+ * リクエスト終了時の後処理リスナー。
+ *
+ * ストリーミングモードのリソースで、画面の描画中に読み込みきらなかったカーソルをクローズし、コネクションをプールへ返却する。
+ * web.xmlに&lt;listener&gt;として登録して使用する。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeRequestCleanupListener implements ServletRequestListener {
+	/**
+	 * リクエスト開始時の処理（何もしない）
+	 *
+	 * @param event リクエストイベント
+	 */
+	public void requestInitialized(ServletRequestEvent event) {
+		// 何もしない
+	}
+
+	/**
+	 * リクエスト終了時の処理。 カレントスレッドで開いているカーソルを全てクローズする。
+	 *
+	 * @param event リクエストイベント
+	 */
+	public void requestDestroyed(ServletRequestEvent event) {
+		LowCodeResultCursor.closeAll();
+	}
+}
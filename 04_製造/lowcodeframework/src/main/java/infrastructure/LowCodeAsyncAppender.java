@@ -0,0 +1,436 @@
+package infrastructure;
+
+import java.util.Enumeration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.log4j.Appender;
+import org.apache.log4j.Layout;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.Priority;
+import org.apache.log4j.helpers.AppenderAttachableImpl;
+import org.apache.log4j.helpers.OnlyOnceErrorHandler;
+import org.apache.log4j.spi.AppenderAttachable;
+import org.apache.log4j.spi.ErrorHandler;
+import org.apache.log4j.spi.Filter;
+import org.apache.log4j.spi.LoggingEvent;
+import org.apache.log4j.spi.OptionHandler;
+
+/**
+ * 非同期ログ出力のアペンダークラス。
+ *
+ * ログイベントをロックを使用しない固定長のリングバッファに格納し、1つのバックグラウンドスレッドが、log4j.xmlで指定した
+ * アペンダー（&lt;appender-ref&gt;）へ出力する。 リクエスト処理のスレッドではファイル出力を待たない。
+ * バッファが一杯の場合の動作は、Policyで指定する（drop: 破棄して件数を記録する / block: 空きが出るまで待つ）。
+ * 破棄したログの件数は、次にバッファが空になった時にWARNで出力する。
+ * AppenderSkeletonは出力処理全体を同期化する為、継承せずにAppenderを直接実装する。
+ *
+ * <pre>
+ * &lt;appender name="Async" class="infrastructure.LowCodeAsyncAppender"&gt;
+ *    &lt;param name="BufferSize" value="8192" /&gt;
+ *    &lt;param name="Policy" value="drop" /&gt;
+ *    &lt;appender-ref ref="Appender1" /&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeAsyncAppender implements Appender, AppenderAttachable, OptionHandler {
+	/** バッファが一杯の場合に破棄する */
+	public static final String POLICY_DROP = "drop";
+	/** バッファが一杯の場合に空きが出るまで待つ */
+	public static final String POLICY_BLOCK = "block";
+
+	private static final long IDLE_PARK_NANOS = 10000000L; // バッファが空の場合の待ち時間（10ms）
+	private static final long FULL_PARK_NANOS = 100000L; // バッファが一杯の場合の待ち時間（0.1ms）
+	private static final long CLOSE_TIMEOUT_MILLIS = 5000L; // クローズ時の出力待ち時間
+
+	private final AppenderAttachableImpl appenders = new AppenderAttachableImpl(); // 出力先アペンダー
+	private final AtomicLong dropCount = new AtomicLong(); // 破棄した件数（累計）
+	private String name; // アペンダー名
+	private volatile Priority threshold; // 出力レベルの下限
+	private volatile Filter headFilter; // フィルタ（先頭）
+	private Filter tailFilter; // フィルタ（末尾）
+	private volatile ErrorHandler errorHandler = new OnlyOnceErrorHandler(); // エラー処理
+	private int bufferSize = 8192; // バッファサイズ（2のべき乗に切り上げる）
+	private volatile boolean block; // バッファが一杯の場合に待つ場合はtrue
+	private volatile boolean locationInfo; // 出力位置の情報を取得する場合はtrue
+	private volatile Ring ring; // リングバッファ（クローズ後はnull）
+
+	/**
+	 * リングバッファと出力スレッド
+	 */
+	private class Ring implements Runnable {
+		private final AtomicReferenceArray<LoggingEvent> slots; // スロット
+		private final AtomicLongArray sequences; // スロット毎の格納済み位置
+		private final AtomicLong tail = new AtomicLong(); // 次に格納する位置
+		private final int mask; // 位置 → スロットの変換マスク
+		private final Thread writer; // 出力スレッド
+		private long reportedDrops; // 出力済みの破棄件数（出力スレッドのみ参照）
+		private volatile boolean running = true; // 停止を指示された場合はfalse
+		private volatile boolean sleeping; // 出力スレッドが待機中の場合はtrue
+
+		private Ring(int capacity) {
+			this.slots = new AtomicReferenceArray<LoggingEvent>(capacity);
+			this.sequences = new AtomicLongArray(capacity);
+			for (int i = 0; i < capacity; i++) {
+				this.sequences.set(i, i);
+			}
+			this.mask = capacity - 1;
+			this.reportedDrops = dropCount.get();
+			this.writer = new Thread(this, "lowcode-log-writer");
+			this.writer.setDaemon(true);
+		}
+
+		/**
+		 * 格納。 格納位置をCASで確保し、スロットへの格納後に格納済み位置を更新する。
+		 *
+		 * @param event ログイベント
+		 * @return バッファが一杯の場合はfalse
+		 */
+		private boolean offer(LoggingEvent event) {
+			while (true) {
+				long position = this.tail.get();
+				int index = (int) position & this.mask;
+				long diff = this.sequences.get(index) - position;
+				if (diff == 0) {
+					if (this.tail.compareAndSet(position, position + 1)) {
+						this.slots.set(index, event);
+						this.sequences.lazySet(index, position + 1);
+						if (this.sleeping) {
+							LockSupport.unpark(this.writer);
+						}
+						return true;
+					}
+				} else if (diff < 0) {
+					// 出力スレッドが1周前のスロットを読み終えていない（バッファが一杯）
+					return false;
+				}
+			}
+		}
+
+		/**
+		 * 出力スレッドの処理。 バッファのログを順に出力先アペンダーへ渡し、バッファが空の場合は待機する。
+		 * 停止を指示された場合は、バッファに残っているログを出力してから終了する。
+		 */
+		public void run() {
+			int capacity = this.mask + 1;
+			long head = 0;
+			while (true) {
+				int index = (int) head & this.mask;
+				if (this.sequences.get(index) == head + 1) {
+					LoggingEvent event = this.slots.get(index);
+					this.slots.lazySet(index, null);
+					this.sequences.lazySet(index, head + capacity);
+					head++;
+					dispatch(event);
+					continue;
+				}
+				// バッファが空
+				long drops = dropCount.get();
+				if (drops != this.reportedDrops) {
+					dispatch(new LoggingEvent(LowCodeAsyncAppender.class.getName(),
+							Logger.getLogger(LowCodeAsyncAppender.class), Level.WARN,
+							String.format("ログのバッファが一杯の為、%d件のログを破棄しました。", drops - this.reportedDrops), null));
+					this.reportedDrops = drops;
+				}
+				if (!this.running && this.tail.get() == head) {
+					return;
+				}
+				this.sleeping = true;
+				if (this.sequences.get(index) != head + 1 && this.running) {
+					LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+				}
+				this.sleeping = false;
+			}
+		}
+
+		/**
+		 * 停止。 バッファに残っているログの出力を待つ。
+		 */
+		private void stop() {
+			this.running = false;
+			LockSupport.unpark(this.writer);
+			try {
+				this.writer.join(CLOSE_TIMEOUT_MILLIS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * コンストラクタ
+	 */
+	public LowCodeAsyncAppender() {
+		this.activateOptions();
+	}
+
+	/**
+	 * バッファサイズの設定（log4j.xmlのBufferSize）
+	 *
+	 * @param bufferSize バッファサイズ（2のべき乗に切り上げる）
+	 */
+	public void setBufferSize(int bufferSize) {
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * バッファサイズの取得
+	 *
+	 * @return バッファサイズ
+	 */
+	public int getBufferSize() {
+		return this.bufferSize;
+	}
+
+	/**
+	 * バッファが一杯の場合の動作の設定（log4j.xmlのPolicy）
+	 *
+	 * @param policy drop または block
+	 */
+	public void setPolicy(String policy) {
+		this.block = POLICY_BLOCK.equalsIgnoreCase(policy.trim());
+	}
+
+	/**
+	 * バッファが一杯の場合の動作の取得
+	 *
+	 * @return drop または block
+	 */
+	public String getPolicy() {
+		return this.block ? POLICY_BLOCK : POLICY_DROP;
+	}
+
+	/**
+	 * 出力位置の情報を取得するかの設定（log4j.xmlのLocationInfo）。 取得する場合は、ログ毎にスタックトレースを作成する。
+	 *
+	 * @param locationInfo 取得する場合はtrue
+	 */
+	public void setLocationInfo(boolean locationInfo) {
+		this.locationInfo = locationInfo;
+	}
+
+	/**
+	 * 出力位置の情報を取得するかの取得
+	 *
+	 * @return 取得する場合はtrue
+	 */
+	public boolean getLocationInfo() {
+		return this.locationInfo;
+	}
+
+	/**
+	 * 出力レベルの下限の設定（log4j.xmlのThreshold）
+	 *
+	 * @param threshold 出力レベルの下限
+	 */
+	public void setThreshold(Priority threshold) {
+		this.threshold = threshold;
+	}
+
+	/**
+	 * 出力レベルの下限の取得
+	 *
+	 * @return 出力レベルの下限
+	 */
+	public Priority getThreshold() {
+		return this.threshold;
+	}
+
+	/**
+	 * 破棄した件数の取得
+	 *
+	 * @return 破棄した件数（累計）
+	 */
+	public long getDropCount() {
+		return this.dropCount.get();
+	}
+
+	/**
+	 * 設定の反映。 バッファを作成して、出力スレッドを開始する（作り直す場合は、古いバッファに残っているログを出力してから切り替える）。
+	 */
+	public synchronized void activateOptions() {
+		Ring old = this.ring;
+		Ring created = new Ring(Integer.highestOneBit(Math.max(this.bufferSize, 2) - 1) << 1);
+		created.writer.start();
+		this.ring = created;
+		if (old != null) {
+			old.stop();
+		}
+	}
+
+	/**
+	 * ログイベントの格納。 スレッド名・NDC・MDC・メッセージは、呼出し元スレッドで確定させてから格納する。
+	 *
+	 * @param event ログイベント
+	 */
+	public void doAppend(LoggingEvent event) {
+		Priority threshold = this.threshold;
+		if (threshold != null && !event.getLevel().isGreaterOrEqual(threshold)) {
+			return;
+		}
+		for (Filter filter = this.headFilter; filter != null; filter = filter.getNext()) {
+			int decision = filter.decide(event);
+			if (decision == Filter.DENY) {
+				return;
+			}
+			if (decision == Filter.ACCEPT) {
+				break;
+			}
+		}
+		Ring ring = this.ring;
+		if (ring == null) {
+			this.errorHandler.error(String.format("クローズ済みのアペンダーには出力できません。アペンダー: %s", this.name));
+			return;
+		}
+		event.getNDC();
+		event.getThreadName();
+		event.getMDCCopy();
+		event.getRenderedMessage();
+		event.getThrowableStrRep();
+		if (this.locationInfo) {
+			event.getLocationInformation();
+		}
+		while (!ring.offer(event)) {
+			if (!this.block || !ring.running) {
+				this.dropCount.incrementAndGet();
+				return;
+			}
+			LockSupport.unpark(ring.writer);
+			LockSupport.parkNanos(FULL_PARK_NANOS);
+		}
+	}
+
+	/**
+	 * クローズ。 バッファに残っているログを出力してから、出力先アペンダーをクローズする。
+	 */
+	public void close() {
+		Ring old;
+		synchronized (this) {
+			old = this.ring;
+			if (old == null) {
+				return;
+			}
+			this.ring = null;
+		}
+		old.stop();
+		synchronized (this.appenders) {
+			@SuppressWarnings("unchecked")
+			Enumeration<Appender> all = this.appenders.getAllAppenders();
+			while (all != null && all.hasMoreElements()) {
+				all.nextElement().close();
+			}
+		}
+	}
+
+	/**
+	 * レイアウトが必要か
+	 *
+	 * @return レイアウトは出力先アペンダーで指定する為、false
+	 */
+	public boolean requiresLayout() {
+		return false;
+	}
+
+	public void setLayout(Layout layout) {
+		// レイアウトは出力先アペンダーで指定する
+	}
+
+	public Layout getLayout() {
+		return null;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	public void setErrorHandler(ErrorHandler errorHandler) {
+		if (errorHandler != null) {
+			this.errorHandler = errorHandler;
+		}
+	}
+
+	public ErrorHandler getErrorHandler() {
+		return this.errorHandler;
+	}
+
+	public synchronized void addFilter(Filter newFilter) {
+		if (this.headFilter == null) {
+			this.headFilter = newFilter;
+		} else {
+			this.tailFilter.setNext(newFilter);
+		}
+		this.tailFilter = newFilter;
+	}
+
+	public Filter getFilter() {
+		return this.headFilter;
+	}
+
+	public synchronized void clearFilters() {
+		this.headFilter = null;
+		this.tailFilter = null;
+	}
+
+	public void addAppender(Appender newAppender) {
+		synchronized (this.appenders) {
+			this.appenders.addAppender(newAppender);
+		}
+	}
+
+	@SuppressWarnings("rawtypes")
+	public Enumeration getAllAppenders() {
+		synchronized (this.appenders) {
+			return this.appenders.getAllAppenders();
+		}
+	}
+
+	public Appender getAppender(String name) {
+		synchronized (this.appenders) {
+			return this.appenders.getAppender(name);
+		}
+	}
+
+	public boolean isAttached(Appender appender) {
+		synchronized (this.appenders) {
+			return this.appenders.isAttached(appender);
+		}
+	}
+
+	public void removeAllAppenders() {
+		synchronized (this.appenders) {
+			this.appenders.removeAllAppenders();
+		}
+	}
+
+	public void removeAppender(Appender appender) {
+		synchronized (this.appenders) {
+			this.appenders.removeAppender(appender);
+		}
+	}
+
+	public void removeAppender(String name) {
+		synchronized (this.appenders) {
+			this.appenders.removeAppender(name);
+		}
+	}
+
+	private void dispatch(LoggingEvent event) {
+		try {
+			synchronized (this.appenders) {
+				this.appenders.appendLoopOnAppenders(event);
+			}
+		} catch (RuntimeException e) {
+			this.errorHandler.error("ログの出力に失敗しました。", e, 0);
+		}
+	}
+}
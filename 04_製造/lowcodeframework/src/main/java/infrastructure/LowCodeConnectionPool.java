@@ -0,0 +1,493 @@
+package infrastructure;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+
+import common.LowCodeConsts;
+
+/**
+ * DBコネクションプールクラス。
+ *
+ * DBプロパティファイルの接続先・プールの設定（url, user, password, pool.*）毎にプールを作成し、コネクションを再利用する。
+ * データソースの識別（LowCodeConsts.DATASOURCE_ID）が同じで設定が異なるプールを作成した場合は、変更前のプールを置き換え、
+ * 変更前のプールのコネクションは返却時に切断する。
+ * プールの上限数・取得待ちの最大時間・アイドル時間・リーク検出時間は、DBプロパティファイルで設定する。
+ * 貸し出したコネクションのclose()を呼び出すと、物理的には切断せずにプールへ返却する。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeConnectionPool {
+	private static final ConcurrentMap<String, LowCodeConnectionPool> POOLS = new ConcurrentHashMap<String, LowCodeConnectionPool>();
+	private static final ConcurrentMap<String, String> CURRENT_KEYS = new ConcurrentHashMap<String, String>(); // データソースの識別 → 使用中のプールのキー
+	private static final ScheduledExecutorService HOUSEKEEPER = createHousekeeper();
+
+	private final Logger log = Logger.getLogger(LowCodeConnectionPool.class); // ログ
+	private final String url; // 接続先URL
+	private final String user; // ユーザ
+	private final String password; // パスワード
+	private final int maxSize; // 最大コネクション数
+	private final int minIdle; // 最小アイドルコネクション数
+	private final long maxWaitMillis; // 取得待ちの最大時間（ミリ秒）
+	private final long idleTimeoutMillis; // アイドル時間の上限（ミリ秒）
+	private final int validationTimeoutSeconds; // 取得時の検証タイムアウト（秒）
+	private final long leakDetectionMillis; // リーク検出時間（ミリ秒、0以下は無効）
+	private final int statementCacheSize; // コネクション毎のPreparedStatementキャッシュ件数（0以下は無効）
+
+	private final Semaphore permits; // 貸出可能数
+	private volatile boolean retired; // 設定の変更で置き換えられた場合はtrue（返却されたコネクションは切断する）
+	private volatile ScheduledFuture<?> housekeeping; // 定期実行
+	private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<PooledConnection>();
+	private final Set<PooledConnection> active = Collections
+			.newSetFromMap(new ConcurrentHashMap<PooledConnection, Boolean>());
+	private final AtomicLong borrowCount = new AtomicLong();
+	private final AtomicLong totalWaitNanos = new AtomicLong();
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+	private final AtomicLong timeoutCount = new AtomicLong();
+	private final AtomicLong leakCount = new AtomicLong();
+	private final AtomicLong statementHitCount = new AtomicLong();
+	private final AtomicLong statementMissCount = new AtomicLong();
+	private final AtomicLong statementEvictionCount = new AtomicLong();
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param dbProperties DBプロパティファイル
+	 */
+	LowCodeConnectionPool(Properties dbProperties) {
+		this.url = dbProperties.getProperty("url");
+		this.user = dbProperties.getProperty("user");
+		this.password = dbProperties.getProperty("password");
+		this.maxSize = intProperty(dbProperties, LowCodeConsts.POOL_MAX_SIZE, LowCodeConsts.DEFAULT_POOL_MAX_SIZE);
+		this.minIdle = intProperty(dbProperties, LowCodeConsts.POOL_MIN_IDLE, LowCodeConsts.DEFAULT_POOL_MIN_IDLE);
+		this.maxWaitMillis = longProperty(dbProperties, LowCodeConsts.POOL_MAX_WAIT,
+				LowCodeConsts.DEFAULT_POOL_MAX_WAIT);
+		this.idleTimeoutMillis = longProperty(dbProperties, LowCodeConsts.POOL_IDLE_TIMEOUT,
+				LowCodeConsts.DEFAULT_POOL_IDLE_TIMEOUT);
+		this.validationTimeoutSeconds = intProperty(dbProperties, LowCodeConsts.POOL_VALIDATION_TIMEOUT,
+				LowCodeConsts.DEFAULT_POOL_VALIDATION_TIMEOUT);
+		this.leakDetectionMillis = longProperty(dbProperties, LowCodeConsts.POOL_LEAK_DETECTION_THRESHOLD,
+				LowCodeConsts.DEFAULT_POOL_LEAK_DETECTION_THRESHOLD);
+		this.statementCacheSize = intProperty(dbProperties, LowCodeConsts.POOL_STATEMENT_CACHE_SIZE,
+				LowCodeConsts.DEFAULT_POOL_STATEMENT_CACHE_SIZE);
+		this.permits = new Semaphore(this.maxSize, true);
+	}
+
+	/**
+	 * DBプロパティファイルに対応するプールの取得。 同じデータソース・接続先・プールの設定に対しては、同じインスタンスを返却する。
+	 * 同じデータソースで設定が変更された場合は、新しいプールを作成して変更前のプールを置き換える。
+	 *
+	 * @param dbProperties DBプロパティファイル
+	 * @return コネクションプール
+	 */
+	public static LowCodeConnectionPool getInstance(Properties dbProperties) {
+		String key = createKey(dbProperties);
+		LowCodeConnectionPool pool = POOLS.get(key);
+		if (pool == null) {
+			LowCodeConnectionPool created = new LowCodeConnectionPool(dbProperties);
+			pool = POOLS.putIfAbsent(key, created);
+			if (pool == null) {
+				pool = created;
+				created.schedule();
+				String id = dbProperties.getProperty(LowCodeConsts.DATASOURCE_ID);
+				String previous = id != null ? CURRENT_KEYS.put(id, key) : null;
+				if (previous != null && !previous.equals(key)) {
+					LowCodeConnectionPool replaced = POOLS.remove(previous);
+					if (replaced != null) {
+						replaced.retire();
+					}
+				}
+			}
+		}
+		return pool;
+	}
+
+	/**
+	 * プールのキーの作成。 データソースの識別・接続先・プールの設定（url, user, password, pool.*）を連結する。
+	 *
+	 * @param dbProperties DBプロパティファイル
+	 * @return キー
+	 */
+	static String createKey(Properties dbProperties) {
+		Map<String, String> key = new TreeMap<String, String>();
+		for (String name : dbProperties.stringPropertyNames()) {
+			if (name.equals("url") || name.equals("user") || name.equals("password") || name.startsWith("pool.")
+					|| name.equals(LowCodeConsts.DATASOURCE_ID)) {
+				key.put(name, dbProperties.getProperty(name));
+			}
+		}
+		return key.toString();
+	}
+
+	/**
+	 * 作成済みの全プールの取得
+	 *
+	 * @return コネクションプール一覧
+	 */
+	public static Collection<LowCodeConnectionPool> getInstances() {
+		return Collections.unmodifiableCollection(POOLS.values());
+	}
+
+	/**
+	 * コネクションの取得。 アイドルコネクションを検証してから貸し出し、無い場合は新規に接続する。
+	 * 最大コネクション数に達している場合は、取得待ちの最大時間まで返却を待つ。
+	 * カレントスレッドに処理期限が関連付けられている場合は、期限までの残り時間の方が短ければ、残り時間まで待つ。
+	 *
+	 * @return DBコネクション（close()でプールへ返却する）
+	 * @throws SQLException 取得待ちがタイムアウトした場合、処理期限を超過した場合、または接続に失敗した場合
+	 */
+	public Connection getConnection() throws SQLException {
+		long start = System.nanoTime();
+		LowCodeDeadline deadline = LowCodeDeadline.current();
+		long waitMillis = this.maxWaitMillis;
+		if (deadline != null) {
+			deadline.check();
+			waitMillis = Math.min(waitMillis, deadline.remainingMillis());
+		}
+		try {
+			if (!this.permits.tryAcquire(waitMillis, TimeUnit.MILLISECONDS)) {
+				if (waitMillis < this.maxWaitMillis) {
+					throw deadline.newTimeoutException();
+				}
+				this.timeoutCount.incrementAndGet();
+				throw new SQLTransientConnectionException(String.format("コネクションの取得がタイムアウトしました。(%dms) %s", this.maxWaitMillis,
+						this.getStatistics()));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("コネクションの取得中に割り込みが発生しました。", e);
+		}
+		this.recordWait(System.nanoTime() - start);
+
+		try {
+			PooledConnection pooled = this.takeValidConnection();
+			if (pooled == null) {
+				pooled = new PooledConnection(this.connect());
+			}
+			pooled.borrowedAt = System.currentTimeMillis();
+			pooled.borrowTrace = this.leakDetectionMillis > 0 ? new Throwable("コネクション取得箇所") : null;
+			pooled.leakReported = false;
+			this.active.add(pooled);
+			this.borrowCount.incrementAndGet();
+			return pooled.newProxy();
+		} catch (SQLException e) {
+			this.permits.release();
+			throw e;
+		} catch (RuntimeException e) {
+			this.permits.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * 統計情報の取得
+	 *
+	 * @return 統計情報
+	 */
+	public LowCodePoolStatistics getStatistics() {
+		return new LowCodePoolStatistics(this.active.size(), this.idle.size(), this.permits.getQueueLength(),
+				this.borrowCount.get(), this.totalWaitNanos.get(), this.maxWaitNanos.get(), this.timeoutCount.get(),
+				this.leakCount.get(), this.statementHitCount.get(), this.statementMissCount.get(),
+				this.statementEvictionCount.get());
+	}
+
+	/**
+	 * 貸出中のコネクション数の取得
+	 *
+	 * @return 貸出中のコネクション数
+	 */
+	int getActiveCount() {
+		return this.active.size();
+	}
+
+	/**
+	 * 接続先URLの取得
+	 *
+	 * @return 接続先URL
+	 */
+	public String getUrl() {
+		return this.url;
+	}
+
+	/**
+	 * 置き換えられたか
+	 *
+	 * @return 設定の変更で置き換えられた場合はtrue
+	 */
+	public boolean isRetired() {
+		return this.retired;
+	}
+
+	/**
+	 * 置き換え。 待機中のコネクションを切断し、以降に返却されたコネクションも切断する。
+	 */
+	private void retire() {
+		this.retired = true;
+		ScheduledFuture<?> housekeeping = this.housekeeping;
+		if (housekeeping != null) {
+			housekeeping.cancel(false);
+		}
+		this.closeIdleConnections();
+		log.info(String.format("設定が変更された為、コネクションプールを置き換えました。url: %s", this.url));
+	}
+
+	/**
+	 * 待機中（アイドル）のコネクションを全て切断する。
+	 */
+	public void closeIdleConnections() {
+		PooledConnection pooled;
+		while ((pooled = this.idle.pollFirst()) != null) {
+			pooled.closePhysical();
+		}
+	}
+
+	/**
+	 * 検証済みのアイドルコネクションを取り出す。
+	 *
+	 * @return アイドルコネクション（無い場合はnull）
+	 */
+	private PooledConnection takeValidConnection() {
+		PooledConnection pooled;
+		while ((pooled = this.idle.pollFirst()) != null) {
+			try {
+				if (pooled.raw.isValid(this.validationTimeoutSeconds)) {
+					return pooled;
+				}
+			} catch (SQLException e) {
+				// 検証失敗は破棄して次のコネクションを使う
+			}
+			log.warn(String.format("無効なコネクションを破棄しました。url: %s", this.url));
+			pooled.closePhysical();
+		}
+		return null;
+	}
+
+	/**
+	 * 物理接続
+	 *
+	 * @return DBコネクション
+	 * @throws SQLException SQLException
+	 */
+	private Connection connect() throws SQLException {
+		Connection conn = DriverManager.getConnection(this.url, this.user, this.password);
+		// 自動コミットOFF
+		conn.setAutoCommit(false);
+		return conn;
+	}
+
+	/**
+	 * コネクションの返却
+	 *
+	 * @param pooled 返却するコネクション
+	 */
+	private void release(PooledConnection pooled) {
+		if (!this.active.remove(pooled)) {
+			return;
+		}
+		try {
+			if (pooled.raw.isClosed()) {
+				return;
+			}
+			if (!pooled.raw.getAutoCommit()) {
+				// 未確定のトランザクションは破棄する
+				pooled.raw.rollback();
+			} else {
+				pooled.raw.setAutoCommit(false);
+			}
+			if (this.retired) {
+				pooled.closePhysical();
+				return;
+			}
+			pooled.lastUsed = System.currentTimeMillis();
+			this.idle.offerFirst(pooled);
+		} catch (SQLException e) {
+			pooled.closePhysical();
+		} finally {
+			this.permits.release();
+		}
+	}
+
+	/**
+	 * 取得待ち時間の記録
+	 *
+	 * @param waitNanos 取得待ち時間（ナノ秒）
+	 */
+	private void recordWait(long waitNanos) {
+		this.totalWaitNanos.addAndGet(waitNanos);
+		long max;
+		while (waitNanos > (max = this.maxWaitNanos.get())) {
+			if (this.maxWaitNanos.compareAndSet(max, waitNanos)) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * アイドルコネクションの削除とリーク検出。 定期的に実行される。
+	 */
+	void housekeep() {
+		long now = System.currentTimeMillis();
+
+		// アイドル時間を超えたコネクションの削除（最小アイドル数は残す）
+		List<PooledConnection> expired = new ArrayList<PooledConnection>();
+		Iterator<PooledConnection> it = this.idle.descendingIterator();
+		int remain = this.idle.size();
+		while (it.hasNext() && remain > this.minIdle) {
+			PooledConnection pooled = it.next();
+			if (now - pooled.lastUsed > this.idleTimeoutMillis) {
+				expired.add(pooled);
+				remain--;
+			}
+		}
+		for (PooledConnection pooled : expired) {
+			if (this.idle.remove(pooled)) {
+				pooled.closePhysical();
+			}
+		}
+
+		// リーク検出
+		if (this.leakDetectionMillis > 0) {
+			for (PooledConnection pooled : this.active) {
+				if (!pooled.leakReported && now - pooled.borrowedAt > this.leakDetectionMillis) {
+					pooled.leakReported = true;
+					this.leakCount.incrementAndGet();
+					log.warn(String.format("コネクションが%dms以上返却されていません。リークの可能性があります。url: %s",
+							now - pooled.borrowedAt, this.url), pooled.borrowTrace);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 定期実行の登録
+	 */
+	private void schedule() {
+		long period = Math.max(1000L, Math.min(this.idleTimeoutMillis,
+				this.leakDetectionMillis > 0 ? this.leakDetectionMillis : Long.MAX_VALUE) / 2);
+		this.housekeeping = HOUSEKEEPER.scheduleWithFixedDelay(new Runnable() {
+			public void run() {
+				try {
+					housekeep();
+				} catch (RuntimeException e) {
+					log.error(String.format("コネクションプールの定期処理に失敗しました。%s", e.getMessage()));
+				}
+			}
+		}, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	private static ScheduledExecutorService createHousekeeper() {
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "lowcode-pool-housekeeper");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		return executor;
+	}
+
+	private static int intProperty(Properties properties, String key, int defaultValue) {
+		String value = properties.getProperty(key);
+		return value == null || value.trim().isEmpty() ? defaultValue : Integer.parseInt(value.trim());
+	}
+
+	private static long longProperty(Properties properties, String key, long defaultValue) {
+		String value = properties.getProperty(key);
+		return value == null || value.trim().isEmpty() ? defaultValue : Long.parseLong(value.trim());
+	}
+
+	/**
+	 * プール内の物理コネクション
+	 */
+	private class PooledConnection {
+		private final Connection raw; // 物理コネクション
+		private final LowCodeStatementCache statementCache; // PreparedStatementキャッシュ
+		private volatile long lastUsed = System.currentTimeMillis(); // 最終返却日時
+		private volatile long borrowedAt; // 貸出日時
+		private volatile Throwable borrowTrace; // 貸出箇所
+		private volatile boolean leakReported; // リーク検出済み
+
+		PooledConnection(Connection raw) {
+			this.raw = raw;
+			this.statementCache = new LowCodeStatementCache(statementCacheSize, statementHitCount,
+					statementMissCount, statementEvictionCount);
+		}
+
+		/**
+		 * 貸出用のコネクションの作成。 close()でプールへ返却し、返却後の操作はSQLExceptionとする。
+		 * prepareStatement(String)は、PreparedStatementキャッシュから取得する。
+		 *
+		 * @return 貸出用のコネクション
+		 */
+		Connection newProxy() {
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+					new Class<?>[] { Connection.class }, new InvocationHandler() {
+						private boolean closed;
+
+						public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+							String name = method.getName();
+							if (name.equals("close")) {
+								if (!closed) {
+									closed = true;
+									release(PooledConnection.this);
+								}
+								return null;
+							} else if (name.equals("isClosed")) {
+								return closed || raw.isClosed();
+							} else if (name.equals("equals")) {
+								return proxy == args[0];
+							} else if (name.equals("hashCode")) {
+								return System.identityHashCode(proxy);
+							} else if (name.equals("toString")) {
+								return "LowCodePooledConnection[" + raw + "]";
+							} else if (closed) {
+								throw new SQLException("コネクションは既にプールへ返却されています。");
+							} else if (name.equals("prepareStatement") && args.length == 1) {
+								return statementCache.prepare(raw, (Connection) proxy, (String) args[0]);
+							}
+							try {
+								return method.invoke(raw, args);
+							} catch (InvocationTargetException e) {
+								throw e.getCause();
+							}
+						}
+					});
+		}
+
+		void closePhysical() {
+			this.statementCache.closeAll();
+			try {
+				this.raw.close();
+			} catch (SQLException e) {
+				log.warn(String.format("コネクションの切断に失敗しました。%s", e.getMessage()));
+			}
+		}
+	}
+}
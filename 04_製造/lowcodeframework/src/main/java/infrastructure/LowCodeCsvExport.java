@@ -0,0 +1,235 @@
+package infrastructure;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ScheduledFuture;
+
+import org.apache.log4j.Logger;
+
+import common.LowCodeConsts;
+import common.LowCodeLog;
+
+/**
+ * CSV出力クラス。
+ *
+ * SELECT文の実行結果を、1行目を列名としたCSV形式でOutputStreamへ出力する。 SQLは出力時（画面の描画時）に実行し、実行結果を全件メモリに保持しない。
+ * <ul>
+ * <li>COPY： PostgreSQLでバインド変数の無いSQLの場合、COPY (SQL) TO STDOUT で出力する（DBがCSVを作成する）。</li>
+ * <li>JDBC： それ以外の場合、フェッチサイズ単位で取得しながら1行ずつ出力する。</li>
+ * </ul>
+ * 出力中の行数・バイト数は、性能情報（転送行数・転送バイト数）に随時加算する。 1回だけ出力できる。
+ * 生成時のカレントスレッドの処理期限を、出力時（画面の描画スレッド）のコネクションの取得・SQLの実行・読込みに適用する
+ * （COPYの場合は、開始時のみ期限を確認する）。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeCsvExport {
+	private final Logger log = Logger.getLogger(LowCodeCsvExport.class); // ログ
+	private final Properties dbProperties; // DBプロパティファイル
+	private final LowCodeSqlTemplate template; // SQLテンプレート
+	private final Map<String, String> bindVariable; // バインド変数
+	private final int fetchSize; // フェッチサイズ
+	private final int maxRows; // 最大取得件数（0以下は無制限）
+	private final LowCodeMetrics metrics; // 性能情報（記録しない場合はnull）
+	private final LowCodeDeadline deadline; // 処理期限（生成時のカレントスレッドの処理期限、無い場合はnull）
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param dbProperties DBプロパティファイル
+	 * @param template     SQLテンプレート
+	 * @param bindVariable バインド変数
+	 * @param fetchSize    フェッチサイズ（0以下は既定値）
+	 * @param maxRows      最大取得件数（0以下は無制限）
+	 * @param metrics      性能情報（記録しない場合はnull）
+	 */
+	LowCodeCsvExport(Properties dbProperties, LowCodeSqlTemplate template, Map<String, String> bindVariable,
+			int fetchSize, int maxRows, LowCodeMetrics metrics) {
+		this.dbProperties = dbProperties;
+		this.template = template;
+		this.bindVariable = bindVariable;
+		this.fetchSize = fetchSize > 0 ? fetchSize : LowCodeConsts.DEFAULT_CSV_FETCH_SIZE;
+		this.maxRows = maxRows;
+		this.metrics = metrics;
+		this.deadline = LowCodeDeadline.current();
+	}
+
+	/**
+	 * CSVの出力
+	 *
+	 * @param out 出力先（クローズしない）
+	 * @return 出力行数（列名の行を除く）
+	 * @throws IOException IO例外、SQLの実行に失敗した場合、処理期限を超過した場合
+	 */
+	public long writeTo(OutputStream out) throws IOException {
+		OutputStream counting = new CountingOutputStream(out, this.metrics);
+		Connection conn = null;
+		if (this.metrics != null) {
+			this.metrics.beginTransfer();
+		}
+		// 出力するスレッドに処理期限を関連付け、期限になった時点で実行中のSQLをキャンセルする
+		LowCodeDeadline previous = LowCodeDeadline.current();
+		ScheduledFuture<?> watchdog = null;
+		if (this.deadline != null) {
+			LowCodeDeadline.bind(this.deadline);
+			watchdog = this.deadline.schedule();
+		}
+		try {
+			// PostgreSQLへ接続（参照のため、レプリカのプールから取得）
+			conn = LowCodeDataSourceRouter.getInstance(this.dbProperties).getConnection(true);
+			long rows;
+			if (this.template.getParameters().isEmpty() && this.maxRows <= 0 && LowCodePgCopy.isSupported(conn)) {
+				LowCodeDeadline.checkCurrent();
+				rows = LowCodePgCopy.copyOut(conn,
+						"COPY (" + trimSemicolon(this.template.getSql()) + ") TO STDOUT WITH (FORMAT csv, HEADER true)",
+						counting);
+				if (this.metrics != null) {
+					this.metrics.addTransferRows(rows);
+				}
+			} else {
+				rows = this.writeRows(conn, counting);
+			}
+			conn.commit();
+			LowCodeLog.debug(log, "CSVを出力しました。行数: %d", rows);
+			return rows;
+		} catch (SQLException e) {
+			if (conn != null) {
+				try {
+					conn.rollback();
+				} catch (SQLException ex) {
+					ex.printStackTrace();
+				}
+			}
+			log.error(String.format("CSVの出力に失敗しました。%s", e.getMessage()));
+			throw new IOException(e.getMessage(), e);
+		} finally {
+			if (watchdog != null) {
+				watchdog.cancel(false);
+			}
+			LowCodeDeadline.bind(previous);
+			if (this.metrics != null) {
+				this.metrics.endTransfer();
+			}
+			try {
+				if (conn != null)
+					conn.close();
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * JDBCで取得した実行結果の出力。 フェッチサイズ毎にフラッシュする。
+	 *
+	 * @param conn DBコネクション
+	 * @param out  出力先
+	 * @return 出力行数
+	 * @throws SQLException SQLException
+	 * @throws IOException  IO例外
+	 */
+	private long writeRows(Connection conn, OutputStream out) throws SQLException, IOException {
+		PreparedStatement stmt = conn.prepareStatement(this.template.getSql());
+		try {
+			stmt.setFetchSize(this.fetchSize);
+			if (this.maxRows > 0) {
+				stmt.setMaxRows(this.maxRows);
+			}
+			this.template.bind(stmt, this.bindVariable);
+			// 処理期限は読込みの終了まで監視する
+			LowCodeDeadline.watch(stmt);
+			ResultSet rset = null;
+			try {
+				rset = stmt.executeQuery();
+				LowCodeCsvWriter writer = new LowCodeCsvWriter(
+						new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+				String[] values = LowCodeResultTable.readColumnNames(rset);
+				writer.writeRecord(values);
+				long rows = 0;
+				int pending = 0;
+				while (rset.next()) {
+					for (int i = 0; i < values.length; i++) {
+						values[i] = rset.getString(i + 1);
+					}
+					writer.writeRecord(values);
+					rows++;
+					if (++pending >= this.fetchSize) {
+						writer.flush();
+						this.addRows(pending);
+						pending = 0;
+						LowCodeDeadline.checkCurrent();
+					}
+				}
+				writer.flush();
+				this.addRows(pending);
+				return rows;
+			} finally {
+				LowCodeDeadline.unwatch(stmt);
+				if (rset != null) {
+					rset.close();
+				}
+			}
+		} finally {
+			stmt.close();
+		}
+	}
+
+	private void addRows(long rows) {
+		if (this.metrics != null && rows > 0) {
+			this.metrics.addTransferRows(rows);
+		}
+	}
+
+	private static String trimSemicolon(String sql) {
+		String trimmed = sql.trim();
+		while (trimmed.endsWith(";")) {
+			trimmed = trimmed.substring(0, trimmed.length() - 1).trim();
+		}
+		return trimmed;
+	}
+
+	/**
+	 * 転送バイト数を性能情報に加算する出力
+	 */
+	private static class CountingOutputStream extends FilterOutputStream {
+		private final LowCodeMetrics metrics; // 性能情報（記録しない場合はnull）
+
+		private CountingOutputStream(OutputStream out, LowCodeMetrics metrics) {
+			super(out);
+			this.metrics = metrics;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			this.out.write(b);
+			if (this.metrics != null) {
+				this.metrics.addTransferBytes(1);
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			this.out.write(b, off, len);
+			if (this.metrics != null) {
+				this.metrics.addTransferBytes(len);
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			// レスポンスの出力先はクローズしない
+			this.flush();
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package infrastructure;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV形式（RFC 4180）の読込みクラス。
+ *
+ * 1レコードずつ読み込む為、データ全体をメモリに保持しない。 ダブルクォートで囲んだ値には、カンマ・改行・ダブルクォート（""）を含めることができる。
+ * PostgreSQLのCOPY（FORMAT csv）と同様に、囲まれていない空の値はnull、囲まれた空の値（""）は空文字とする。 スレッドセーフではない。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeCsvReader {
+	private final Reader reader; // 入力
+	private final int maxRecordLength; // 1レコードの最大文字数
+	private final char[] buffer = new char[8192]; // 読込みバッファ
+	private int position; // バッファの読込み位置
+	private int limit; // バッファの有効文字数
+	private long lineNumber; // 読込み済みのレコード数
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param reader          入力
+	 * @param maxRecordLength 1レコードの最大文字数
+	 */
+	public LowCodeCsvReader(Reader reader, int maxRecordLength) {
+		this.reader = reader;
+		this.maxRecordLength = maxRecordLength;
+	}
+
+	/**
+	 * 1レコードの読込み。 空行は読み飛ばす。
+	 *
+	 * @return 値の一覧（終端の場合はnull）
+	 * @throws IOException IO例外、レコードが最大文字数を超えた場合、ダブルクォートが閉じられていない場合
+	 */
+	public List<String> readRecord() throws IOException {
+		int c = this.read();
+		while (c == '\r' || c == '\n') {
+			c = this.read();
+		}
+		if (c < 0) {
+			return null;
+		}
+		this.lineNumber++;
+		List<String> values = new ArrayList<String>();
+		StringBuilder value = new StringBuilder();
+		boolean quoted = false; // ダブルクォートで囲まれた値
+		boolean inQuotes = false; // ダブルクォートの内側
+		int length = 0;
+		while (true) {
+			if (++length > this.maxRecordLength) {
+				throw new IOException(String.format("CSVのレコードが最大文字数を超えました。レコード: %d 最大文字数: %d", this.lineNumber,
+						this.maxRecordLength));
+			}
+			if (c < 0) {
+				if (inQuotes) {
+					throw new IOException(String.format("CSVのダブルクォートが閉じられていません。レコード: %d", this.lineNumber));
+				}
+				values.add(toValue(value, quoted));
+				return values;
+			}
+			if (inQuotes) {
+				if (c == '"') {
+					c = this.read();
+					if (c != '"') {
+						inQuotes = false;
+						continue;
+					}
+				}
+				value.append((char) c);
+			} else if (c == '"' && value.length() == 0 && !quoted) {
+				quoted = true;
+				inQuotes = true;
+			} else if (c == ',') {
+				values.add(toValue(value, quoted));
+				value.setLength(0);
+				quoted = false;
+			} else if (c == '\r' || c == '\n') {
+				if (c == '\r') {
+					this.skipLineFeed();
+				}
+				values.add(toValue(value, quoted));
+				return values;
+			} else {
+				value.append((char) c);
+			}
+			c = this.read();
+		}
+	}
+
+	/**
+	 * 読込み済みのレコード数の取得
+	 *
+	 * @return レコード数（空行を除く）
+	 */
+	public long getLineNumber() {
+		return this.lineNumber;
+	}
+
+	private static String toValue(StringBuilder value, boolean quoted) {
+		return value.length() == 0 && !quoted ? null : value.toString();
+	}
+
+	private int read() throws IOException {
+		if (this.position >= this.limit) {
+			this.limit = this.reader.read(this.buffer, 0, this.buffer.length);
+			this.position = 0;
+			if (this.limit <= 0) {
+				this.limit = 0;
+				return -1;
+			}
+		}
+		return this.buffer[this.position++];
+	}
+
+	private void skipLineFeed() throws IOException {
+		int c = this.read();
+		if (c >= 0 && c != '\n') {
+			this.position--;
+		}
+	}
+}
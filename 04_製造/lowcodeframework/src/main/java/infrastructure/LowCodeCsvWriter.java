@@ -0,0 +1,80 @@
+package infrastructure;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * CSV形式（RFC 4180）の出力クラス。
+ *
+ * カンマ・改行・ダブルクォートを含む値と空文字はダブルクォートで囲み、nullは空の値として出力する（{@link LowCodeCsvReader}・PostgreSQLのCOPYと同じ形式）。
+ * レコードの区切りは CRLF とする。 スレッドセーフではない。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeCsvWriter {
+	private final Writer writer; // 出力先
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param writer 出力先（バッファリングされていること）
+	 */
+	public LowCodeCsvWriter(Writer writer) {
+		this.writer = writer;
+	}
+
+	/**
+	 * 1レコードの出力
+	 *
+	 * @param values 値の一覧
+	 * @throws IOException IO例外
+	 */
+	public void writeRecord(String[] values) throws IOException {
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) {
+				this.writer.write(',');
+			}
+			this.writeValue(values[i]);
+		}
+		this.writer.write("\r\n");
+	}
+
+	/**
+	 * 出力先のフラッシュ
+	 *
+	 * @throws IOException IO例外
+	 */
+	public void flush() throws IOException {
+		this.writer.flush();
+	}
+
+	private void writeValue(String value) throws IOException {
+		if (value == null) {
+			return;
+		}
+		if (!value.isEmpty() && !needsQuote(value)) {
+			this.writer.write(value);
+			return;
+		}
+		this.writer.write('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"') {
+				this.writer.write('"');
+			}
+			this.writer.write(c);
+		}
+		this.writer.write('"');
+	}
+
+	private static boolean needsQuote(String value) {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,374 @@
+package infrastructure;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+
+import common.LowCodeConsts;
+import common.LowCodeLog;
+
+/**
+ * 参照・更新の接続先の振分けクラス。
+ *
+ * DBプロパティファイルの「url」をプライマリ、「replica.urls」（カンマ区切り）を参照用のレプリカとし、
+ * 参照（SELECT文）のコネクションはレプリカから、更新のコネクションはプライマリから取得する。 接続先毎に別のコネクションプールを使用する。
+ * <ul>
+ * <li>振分け方法： 「replica.balance」に roundrobin（順番）または leastinflight（貸出中のコネクションが最も少ないレプリカ）を指定する。</li>
+ * <li>障害時： 接続に失敗したレプリカ（SQLStateのクラス「08」、SQLNonTransientConnectionException）は切り離して、
+ * 次のレプリカ（全て切り離した場合はプライマリ）から取得する。 取得待ちのタイムアウト・処理期限の超過・割り込みの場合は切り離さずにthrowする。
+ * 切り離したレプリカは「replica.healthCheckInterval」（ミリ秒）毎に接続を確認し、接続できた場合は戻す。</li>
+ * <li>更新の反映待ち： 「replica.stickyMillis」（ミリ秒）を指定した場合、同じセッションで更新してから指定時間内の参照はプライマリから取得する
+ * （レプリカへの反映遅延で、更新前のデータが表示されないようにする為）。</li>
+ * <li>実行結果キャッシュ： 全セッションで共有する実行結果は、{@link #getPrimaryConnection()}でプライマリから読み込む
+ * （更新によるキャッシュの削除後に、反映前のレプリカから更新前のデータを読み込んでキャッシュしない為）。</li>
+ * </ul>
+ * レプリカを指定しない場合は、全てプライマリから取得する。
+ * 同じデータソース（LowCodeConsts.DATASOURCE_ID）で設定が変更された場合は、新しい振分けを作成して変更前の振分けを置き換える。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeDataSourceRouter {
+	private static final ConcurrentMap<String, LowCodeDataSourceRouter> ROUTERS = new ConcurrentHashMap<String, LowCodeDataSourceRouter>();
+	private static final ConcurrentMap<String, String> CURRENT_KEYS = new ConcurrentHashMap<String, String>(); // データソースの識別 → 使用中の振分けのキー
+	private static final ThreadLocal<String> SESSION = new ThreadLocal<String>();
+	private static final ScheduledExecutorService HEALTH_CHECKER = createHealthChecker();
+
+	private final Logger log = Logger.getLogger(LowCodeDataSourceRouter.class); // ログ
+	private final LowCodeConnectionPool primary; // プライマリのコネクションプール
+	private final Replica[] replicas; // レプリカ
+	private final boolean leastInFlight; // 貸出中のコネクション数で振り分ける場合はtrue
+	private final long healthCheckMillis; // 切り離したレプリカの確認間隔（ミリ秒）
+	private final long stickyMillis; // 更新後にプライマリから参照する時間（ミリ秒、0以下は無効）
+	private final AtomicInteger next = new AtomicInteger(); // 次に振り分けるレプリカ（順番の場合）
+	private final ConcurrentMap<String, Long> lastWrites = new ConcurrentHashMap<String, Long>(); // セッション → 最終更新日時
+	private final AtomicLong replicaReadCount = new AtomicLong(); // レプリカからの参照件数
+	private final AtomicLong primaryReadCount = new AtomicLong(); // プライマリからの参照件数
+	private final AtomicLong failoverCount = new AtomicLong(); // レプリカの切り離し回数
+	private volatile ScheduledFuture<?> healthChecking; // 定期実行
+
+	/**
+	 * レプリカ
+	 */
+	private static class Replica {
+		private final LowCodeConnectionPool pool; // コネクションプール
+		private volatile boolean healthy = true; // 接続可能な場合はtrue
+
+		private Replica(LowCodeConnectionPool pool) {
+			this.pool = pool;
+		}
+	}
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param dbProperties DBプロパティファイル
+	 */
+	LowCodeDataSourceRouter(Properties dbProperties) {
+		this.primary = LowCodeConnectionPool.getInstance(dbProperties);
+		List<Replica> replicas = new ArrayList<Replica>();
+		String id = dbProperties.getProperty(LowCodeConsts.DATASOURCE_ID);
+		for (String url : dbProperties.getProperty(LowCodeConsts.REPLICA_URLS, "").split(",")) {
+			if (url.trim().isEmpty()) {
+				continue;
+			}
+			Properties replicaProperties = new Properties();
+			replicaProperties.putAll(dbProperties);
+			if (id != null) {
+				// レプリカ毎に別のデータソースとして識別する
+				replicaProperties.setProperty(LowCodeConsts.DATASOURCE_ID, id + "#replica." + replicas.size());
+			}
+			replicaProperties.setProperty("url", url.trim());
+			replicaProperties.setProperty("user",
+					dbProperties.getProperty(LowCodeConsts.REPLICA_USER, dbProperties.getProperty("user", "")));
+			replicaProperties.setProperty("password",
+					dbProperties.getProperty(LowCodeConsts.REPLICA_PASSWORD, dbProperties.getProperty("password", "")));
+			replicas.add(new Replica(LowCodeConnectionPool.getInstance(replicaProperties)));
+		}
+		this.replicas = replicas.toArray(new Replica[replicas.size()]);
+		this.leastInFlight = LowCodeConsts.REPLICA_BALANCE_LEAST_IN_FLIGHT
+				.equals(dbProperties.getProperty(LowCodeConsts.REPLICA_BALANCE, "").trim());
+		this.healthCheckMillis = longProperty(dbProperties, LowCodeConsts.REPLICA_HEALTH_CHECK_INTERVAL,
+				LowCodeConsts.DEFAULT_REPLICA_HEALTH_CHECK_INTERVAL);
+		this.stickyMillis = longProperty(dbProperties, LowCodeConsts.REPLICA_STICKY_MILLIS,
+				LowCodeConsts.DEFAULT_REPLICA_STICKY_MILLIS);
+	}
+
+	/**
+	 * DBプロパティファイルに対応する振分けの取得。 同じデータソース・設定内容（全てのプロパティ）に対しては、同じインスタンスを返却する。
+	 * 同じデータソースで設定が変更された場合は、新しい振分けを作成して変更前の振分けを置き換える（変更前のプールは
+	 * {@link LowCodeConnectionPool#getInstance(Properties)}で置き換える）。
+	 *
+	 * @param dbProperties DBプロパティファイル
+	 * @return 参照・更新の接続先の振分け
+	 */
+	public static LowCodeDataSourceRouter getInstance(Properties dbProperties) {
+		String key = new TreeMap<Object, Object>(dbProperties).toString();
+		LowCodeDataSourceRouter router = ROUTERS.get(key);
+		if (router == null) {
+			LowCodeDataSourceRouter created = new LowCodeDataSourceRouter(dbProperties);
+			router = ROUTERS.putIfAbsent(key, created);
+			if (router == null) {
+				router = created;
+				created.schedule();
+				String id = dbProperties.getProperty(LowCodeConsts.DATASOURCE_ID);
+				String previous = id != null ? CURRENT_KEYS.put(id, key) : null;
+				if (previous != null && !previous.equals(key)) {
+					LowCodeDataSourceRouter replaced = ROUTERS.remove(previous);
+					if (replaced != null && replaced.healthChecking != null) {
+						replaced.healthChecking.cancel(false);
+					}
+				}
+			}
+		}
+		return router;
+	}
+
+	/**
+	 * セッションの関連付け。 カレントスレッドの処理をセッション（更新の反映待ちの単位）に関連付ける。
+	 *
+	 * @param sessionId セッションID（関連付けない場合はnull）
+	 */
+	public static void bindSession(String sessionId) {
+		if (sessionId != null) {
+			SESSION.set(sessionId);
+		} else {
+			SESSION.remove();
+		}
+	}
+
+	/**
+	 * カレントスレッドに関連付けたセッションの取得（別スレッドへの引継ぎに使用）
+	 *
+	 * @return セッションID（関連付けていない場合はnull）
+	 */
+	public static String currentSession() {
+		return SESSION.get();
+	}
+
+	/**
+	 * セッションの関連付けの解除
+	 */
+	public static void unbindSession() {
+		SESSION.remove();
+	}
+
+	/**
+	 * コネクションの取得
+	 *
+	 * @param readOnly 参照のみの場合はtrue（レプリカから取得する）、更新する場合はfalse（プライマリから取得する）
+	 * @return DBコネクション（close()でプールへ返却する）
+	 * @throws SQLException 取得に失敗した場合
+	 */
+	public Connection getConnection(boolean readOnly) throws SQLException {
+		String session = SESSION.get();
+		if (!readOnly) {
+			if (this.stickyMillis > 0 && session != null && this.replicas.length > 0) {
+				this.lastWrites.put(session, System.currentTimeMillis());
+			}
+			return this.primary.getConnection();
+		}
+		if (this.replicas.length > 0 && !this.isSticky(session)) {
+			Connection conn = this.getReplicaConnection();
+			if (conn != null) {
+				this.replicaReadCount.incrementAndGet();
+				return conn;
+			}
+		}
+		this.primaryReadCount.incrementAndGet();
+		return this.primary.getConnection();
+	}
+
+	/**
+	 * プライマリからの参照用のコネクションの取得。 レプリカへの反映遅延の影響を受けない参照（実行結果キャッシュの読込み）に使用する。
+	 * 更新ではない為、セッションの最終更新日時は記録しない。
+	 *
+	 * @return DBコネクション（close()でプールへ返却する）
+	 * @throws SQLException 取得に失敗した場合
+	 */
+	public Connection getPrimaryConnection() throws SQLException {
+		this.primaryReadCount.incrementAndGet();
+		return this.primary.getConnection();
+	}
+
+	/**
+	 * レプリカからの参照件数の取得
+	 *
+	 * @return 参照件数
+	 */
+	public long getReplicaReadCount() {
+		return this.replicaReadCount.get();
+	}
+
+	/**
+	 * プライマリからの参照件数の取得
+	 *
+	 * @return 参照件数
+	 */
+	public long getPrimaryReadCount() {
+		return this.primaryReadCount.get();
+	}
+
+	/**
+	 * レプリカの切り離し回数の取得
+	 *
+	 * @return 切り離し回数
+	 */
+	public long getFailoverCount() {
+		return this.failoverCount.get();
+	}
+
+	/**
+	 * 更新の反映待ちか
+	 *
+	 * @param session セッションID
+	 * @return 反映待ち時間内の場合はtrue
+	 */
+	private boolean isSticky(String session) {
+		if (this.stickyMillis <= 0 || session == null) {
+			return false;
+		}
+		Long lastWrite = this.lastWrites.get(session);
+		return lastWrite != null && System.currentTimeMillis() - lastWrite < this.stickyMillis;
+	}
+
+	/**
+	 * レプリカからのコネクションの取得。 接続に失敗したレプリカは切り離して、次のレプリカから取得する。
+	 *
+	 * @return DBコネクション（全てのレプリカが切り離されている場合はnull）
+	 * @throws SQLException 接続の失敗以外（取得待ちのタイムアウト、処理期限の超過、割り込み）で取得できなかった場合
+	 */
+	private Connection getReplicaConnection() throws SQLException {
+		int count = this.replicas.length;
+		int start = this.leastInFlight ? this.leastInFlightIndex()
+				: (this.next.getAndIncrement() & Integer.MAX_VALUE) % count;
+		for (int i = 0; i < count; i++) {
+			Replica replica = this.replicas[(start + i) % count];
+			if (!replica.healthy) {
+				continue;
+			}
+			try {
+				return replica.pool.getConnection();
+			} catch (SQLException e) {
+				if (!isConnectFailure(e)) {
+					throw e;
+				}
+				replica.healthy = false;
+				this.failoverCount.incrementAndGet();
+				log.warn(String.format("レプリカに接続できない為、切り離します。url: %s %s", replica.pool.getUrl(), e.getMessage()));
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 接続の失敗か（レプリカを切り離す例外か）
+	 *
+	 * @param e 例外
+	 * @return 接続の失敗の場合はtrue
+	 */
+	static boolean isConnectFailure(SQLException e) {
+		if (e instanceof SQLTimeoutException) {
+			return false;
+		}
+		if (e instanceof SQLNonTransientConnectionException) {
+			return true;
+		}
+		String state = e.getSQLState();
+		return state != null && state.startsWith("08");
+	}
+
+	private int leastInFlightIndex() {
+		int index = 0;
+		int min = Integer.MAX_VALUE;
+		for (int i = 0; i < this.replicas.length; i++) {
+			if (this.replicas[i].healthy) {
+				int active = this.replicas[i].pool.getActiveCount();
+				if (active < min) {
+					min = active;
+					index = i;
+				}
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * 切り離したレプリカの接続確認と、反映待ち時間を過ぎたセッションの削除。 定期的に実行される。
+	 */
+	void healthCheck() {
+		for (Replica replica : this.replicas) {
+			if (replica.healthy) {
+				continue;
+			}
+			try {
+				Connection conn = replica.pool.getConnection();
+				conn.close();
+				replica.healthy = true;
+				LowCodeLog.info(log, "レプリカに接続できた為、戻します。url: %s", replica.pool.getUrl());
+			} catch (SQLException e) {
+				LowCodeLog.debug(log, "レプリカに接続できません。url: %s %s", replica.pool.getUrl(), e.getMessage());
+			}
+		}
+		long now = System.currentTimeMillis();
+		Iterator<Map.Entry<String, Long>> it = this.lastWrites.entrySet().iterator();
+		while (it.hasNext()) {
+			if (now - it.next().getValue() >= this.stickyMillis) {
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * 定期実行の登録（レプリカが無い場合は登録しない）
+	 */
+	private void schedule() {
+		if (this.replicas.length == 0) {
+			return;
+		}
+		long period = Math.max(100L, this.healthCheckMillis);
+		this.healthChecking = HEALTH_CHECKER.scheduleWithFixedDelay(new Runnable() {
+			public void run() {
+				try {
+					healthCheck();
+				} catch (RuntimeException e) {
+					log.error(String.format("レプリカの接続確認に失敗しました。%s", e.getMessage()));
+				}
+			}
+		}, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	private static ScheduledExecutorService createHealthChecker() {
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "lowcode-replica-health-check");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		return executor;
+	}
+
+	private static long longProperty(Properties properties, String key, long defaultValue) {
+		String value = properties.getProperty(key);
+		return value == null || value.trim().isEmpty() ? defaultValue : Long.parseLong(value.trim());
+	}
+}
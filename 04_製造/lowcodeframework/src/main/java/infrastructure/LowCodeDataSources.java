@@ -0,0 +1,128 @@
+package infrastructure;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import common.LowCodeConsts;
+
+/**
+ * DBプロパティファイルに定義したデータソース（接続先）の一覧クラス。
+ *
+ * 「datasource.名前.url」「datasource.名前.user」「datasource.名前.password」のように、キーの先頭に「datasource.名前.」を付けて
+ * 名前付きのデータソースを定義する。 接続先毎に別のコネクションプールを使用する。 名前付きのデータソースで指定していないコネクションプールの設定（pool.*）は、
+ * 先頭の付かない設定を引き継ぐ。 先頭の付かない「url」「user」「password」は、既定のデータソース（名前：default）とする。
+ * DBプロパティファイルは更新日時・サイズが変わった場合のみ読み込み直す。 設定を変更したデータソースは、次の接続時に新しいコネクションプールを作成し、
+ * 変更前のプールは貸出中のコネクションの返却後に切断する（データソース毎に識別「DBプロパティファイルパス#データソース名」を設定する）。
+ * 生成後は不変で、スレッドセーフである。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeDataSources {
+	private static final String PREFIX = "datasource."; // 名前付きのデータソースのキーの先頭
+	private static final String POOL_PREFIX = "pool."; // コネクションプールの設定のキーの先頭
+	private static final ConcurrentMap<String, LowCodeDataSources> CACHE = new ConcurrentHashMap<String, LowCodeDataSources>();
+
+	private final Map<String, Properties> dataSources; // 名前 → DBプロパティ
+	private final long lastModified; // DBプロパティファイルの更新日時
+	private final long length; // DBプロパティファイルのサイズ
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param path         DBプロパティファイルパス（データソースの識別に使用、nullの場合は識別を設定しない）
+	 * @param properties   DBプロパティファイル
+	 * @param lastModified DBプロパティファイルの更新日時
+	 * @param length       DBプロパティファイルのサイズ
+	 */
+	LowCodeDataSources(String path, Properties properties, long lastModified, long length) {
+		Map<String, Properties> dataSources = new LinkedHashMap<String, Properties>();
+		Properties defaults = new Properties();
+		for (String key : properties.stringPropertyNames()) {
+			if (!key.startsWith(PREFIX)) {
+				defaults.setProperty(key, properties.getProperty(key));
+			}
+		}
+		dataSources.put(LowCodeConsts.DEFAULT_DATASOURCE, defaults);
+		for (String key : properties.stringPropertyNames()) {
+			int dot = key.indexOf('.', PREFIX.length());
+			if (!key.startsWith(PREFIX) || dot < 0) {
+				continue;
+			}
+			String name = key.substring(PREFIX.length(), dot);
+			Properties dataSource = dataSources.get(name);
+			if (dataSource == null) {
+				dataSource = new Properties();
+				for (String defaultKey : defaults.stringPropertyNames()) {
+					if (defaultKey.startsWith(POOL_PREFIX)) {
+						dataSource.setProperty(defaultKey, defaults.getProperty(defaultKey));
+					}
+				}
+				dataSources.put(name, dataSource);
+			}
+			dataSource.setProperty(key.substring(dot + 1), properties.getProperty(key));
+		}
+		if (path != null) {
+			for (Map.Entry<String, Properties> dataSource : dataSources.entrySet()) {
+				dataSource.getValue().setProperty(LowCodeConsts.DATASOURCE_ID, path + "#" + dataSource.getKey());
+			}
+		}
+		this.dataSources = Collections.unmodifiableMap(dataSources);
+		this.lastModified = lastModified;
+		this.length = length;
+	}
+
+	/**
+	 * DBプロパティファイルに対応するデータソース一覧の取得。 前回の読込み後にファイルが更新されている場合は、読み込み直す。
+	 *
+	 * @param dbPropertiesFilePath DBプロパティファイルパス
+	 * @param repo                 リポジトリクラス
+	 * @return データソース一覧
+	 * @throws IOException IO例外
+	 */
+	static LowCodeDataSources getInstance(String dbPropertiesFilePath, LowCodeRepository repo) throws IOException {
+		File file = new File(dbPropertiesFilePath);
+		long lastModified = file.lastModified();
+		long length = file.length();
+		LowCodeDataSources dataSources = CACHE.get(dbPropertiesFilePath);
+		if (dataSources != null && dataSources.lastModified == lastModified && dataSources.length == length) {
+			return dataSources;
+		}
+		dataSources = new LowCodeDataSources(file.getAbsolutePath(), repo.readPropertiesFile(dbPropertiesFilePath),
+				lastModified, length);
+		CACHE.put(dbPropertiesFilePath, dataSources);
+		return dataSources;
+	}
+
+	/**
+	 * データソースの取得
+	 *
+	 * @param name データソース名（nullの場合は既定のデータソース）
+	 * @return DBプロパティ（変更しないこと）
+	 * @throws SQLException データソースが定義されていない場合
+	 */
+	public Properties get(String name) throws SQLException {
+		Properties dataSource = this.dataSources.get(name != null ? name : LowCodeConsts.DEFAULT_DATASOURCE);
+		if (dataSource == null) {
+			throw new SQLException(String.format("データソースが定義されていません。データソース: %s", name));
+		}
+		return dataSource;
+	}
+
+	/**
+	 * データソース名の一覧の取得
+	 *
+	 * @return データソース名（定義順ではない）
+	 */
+	public Set<String> getNames() {
+		return this.dataSources.keySet();
+	}
+}
@@ -0,0 +1,275 @@
+package infrastructure;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+/**
+ * リクエストの処理期限クラス。
+ *
+ * リクエストの受付時に生成し、処理中はカレントスレッドに関連付ける（SQLステップの並列実行のスレッドにも引き継ぐ）。
+ * コネクションの取得待ち・SQLの実行・実行結果の読込みの全体を期限の対象とする。
+ * <ul>
+ * <li>コネクションの取得： 取得待ちの最大時間を、期限までの残り時間に短縮する。</li>
+ * <li>SQLの実行： ステートメントにクエリタイムアウト（秒、切り上げ）を設定し、期限になった時点で実行中のステートメントをキャンセルする。</li>
+ * <li>実行結果の読込み： 一定行数毎に期限を確認する。</li>
+ * </ul>
+ * {@link #cancel()}（クライアントの切断時など）を呼び出した場合は、期限前でも実行中のステートメントをキャンセルする。
+ * SQLステップの並列実行では、リクエストの処理期限を親とするステップ毎の処理期限を使用する（親の期限切れ・キャンセルは子にも及ぶ）。
+ * 期限切れ・キャンセルの場合はSQLTimeoutExceptionをthrowする。 スレッドセーフである。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeDeadline {
+	private static final Logger log = Logger.getLogger(LowCodeDeadline.class); // ログ
+	private static final ThreadLocal<LowCodeDeadline> CURRENT = new ThreadLocal<LowCodeDeadline>();
+	private static final ScheduledExecutorService WATCHDOG = createWatchdog();
+
+	private final LowCodeDeadline parent; // 親の処理期限（無い場合はnull）
+	private final long startNanos; // 受付時刻（System.nanoTime()）
+	private volatile long timeoutMillis; // 処理期限（受付からのミリ秒、0以下は無期限）
+	private volatile boolean cancelled; // キャンセルされた場合はtrue
+	private final Set<Statement> statements = Collections
+			.newSetFromMap(new ConcurrentHashMap<Statement, Boolean>()); // 実行中のステートメント
+
+	/**
+	 * コンストラクタ。 現在時刻を受付時刻とする。
+	 *
+	 * @param timeoutMillis 処理期限（受付からのミリ秒、0以下は無期限）
+	 */
+	public LowCodeDeadline(long timeoutMillis) {
+		this(null, timeoutMillis);
+	}
+
+	/**
+	 * コンストラクタ。 現在時刻を受付時刻とし、親の処理期限の方が短い場合は親の期限までとする。
+	 * 監視したステートメントは、親の期限切れ・キャンセルでもキャンセルする。
+	 *
+	 * @param parent        親の処理期限（無い場合はnull）
+	 * @param timeoutMillis 処理期限（受付からのミリ秒、0以下は親の期限まで）
+	 */
+	public LowCodeDeadline(LowCodeDeadline parent, long timeoutMillis) {
+		this.parent = parent;
+		this.startNanos = System.nanoTime();
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	/**
+	 * 処理期限の短縮。 指定した時間の方が短い場合のみ変更する（リソース毎の期限を全体の期限に重ねる）。
+	 *
+	 * @param timeoutMillis 処理期限（受付からのミリ秒、0以下は変更しない）
+	 */
+	public void limit(long timeoutMillis) {
+		if (timeoutMillis > 0 && (this.timeoutMillis <= 0 || timeoutMillis < this.timeoutMillis)) {
+			this.timeoutMillis = timeoutMillis;
+		}
+	}
+
+	/**
+	 * カレントスレッドへの関連付け
+	 *
+	 * @param deadline 処理期限（関連付けない場合はnull）
+	 */
+	public static void bind(LowCodeDeadline deadline) {
+		if (deadline != null) {
+			CURRENT.set(deadline);
+		} else {
+			CURRENT.remove();
+		}
+	}
+
+	/**
+	 * カレントスレッドの関連付けの解除
+	 */
+	public static void unbind() {
+		CURRENT.remove();
+	}
+
+	/**
+	 * カレントスレッドに関連付けた処理期限の取得
+	 *
+	 * @return 処理期限（関連付けていない場合はnull）
+	 */
+	public static LowCodeDeadline current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * カレントスレッドの処理期限の確認（関連付けていない場合は何もしない）
+	 *
+	 * @throws SQLTimeoutException 期限切れ・キャンセルされた場合
+	 */
+	public static void checkCurrent() throws SQLTimeoutException {
+		LowCodeDeadline deadline = CURRENT.get();
+		if (deadline != null) {
+			deadline.check();
+		}
+	}
+
+	/**
+	 * 実行するステートメントの監視の開始。 カレントスレッドの処理期限までのクエリタイムアウトを設定し、期限になった時点でキャンセルする。
+	 * 処理期限を関連付けていない場合は何もしない。 実行後は必ず {@link #unwatch(Statement)} を呼び出すこと。
+	 *
+	 * @param stmt ステートメント
+	 * @throws SQLException 期限切れ・キャンセルされた場合、クエリタイムアウトの設定に失敗した場合
+	 */
+	public static void watch(Statement stmt) throws SQLException {
+		LowCodeDeadline deadline = CURRENT.get();
+		if (deadline == null) {
+			return;
+		}
+		deadline.check();
+		long remaining = deadline.remainingMillis();
+		if (remaining != Long.MAX_VALUE) {
+			// DB側でも打ち切れるよう、クエリタイムアウト（秒）を設定する
+			stmt.setQueryTimeout((int) Math.min((remaining + 999) / 1000, Integer.MAX_VALUE));
+		}
+		// 親の期限切れ・キャンセルでもキャンセルできるよう、親の処理期限にも登録する
+		for (LowCodeDeadline d = deadline; d != null; d = d.parent) {
+			d.statements.add(stmt);
+		}
+		// 監視の開始前にキャンセルされた場合
+		if (deadline.isCancelled()) {
+			deadline.remove(stmt);
+			throw deadline.newTimeoutException();
+		}
+	}
+
+	/**
+	 * 実行したステートメントの監視の終了（ステートメントのクローズ前に呼び出す）
+	 *
+	 * @param stmt ステートメント（nullの場合は何もしない）
+	 */
+	public static void unwatch(Statement stmt) {
+		LowCodeDeadline deadline = CURRENT.get();
+		if (deadline != null && stmt != null) {
+			deadline.remove(stmt);
+		}
+	}
+
+	/**
+	 * 期限までの残り時間の取得
+	 *
+	 * @return 残り時間（ミリ秒、期限切れの場合は0以下、無期限の場合はLong.MAX_VALUE。親の方が短い場合は親の残り時間）
+	 */
+	public long remainingMillis() {
+		long timeout = this.timeoutMillis;
+		long remaining = timeout <= 0 ? Long.MAX_VALUE
+				: timeout - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.startNanos);
+		return this.parent != null ? Math.min(remaining, this.parent.remainingMillis()) : remaining;
+	}
+
+	/**
+	 * 期限切れか
+	 *
+	 * @return 期限を過ぎた場合はtrue
+	 */
+	public boolean isExpired() {
+		return this.remainingMillis() <= 0;
+	}
+
+	/**
+	 * キャンセルされたか
+	 *
+	 * @return キャンセルされた場合はtrue（親がキャンセルされた場合を含む）
+	 */
+	public boolean isCancelled() {
+		return this.cancelled || (this.parent != null && this.parent.isCancelled());
+	}
+
+	/**
+	 * 処理期限の確認
+	 *
+	 * @throws SQLTimeoutException 期限切れ・キャンセルされた場合
+	 */
+	public void check() throws SQLTimeoutException {
+		if (this.isCancelled() || this.isExpired()) {
+			throw this.newTimeoutException();
+		}
+	}
+
+	/**
+	 * 期限切れ・キャンセルの例外の作成
+	 *
+	 * @return 例外
+	 */
+	public SQLTimeoutException newTimeoutException() {
+		if (this.parent != null && (this.parent.isCancelled() || this.parent.isExpired())) {
+			return this.parent.newTimeoutException();
+		}
+		if (this.cancelled) {
+			return new SQLTimeoutException("リクエストがキャンセルされた為、SQLの実行を中止しました。");
+		}
+		return new SQLTimeoutException(String.format("処理期限を超過した為、SQLの実行を中止しました。(%dms)", this.timeoutMillis));
+	}
+
+	/**
+	 * キャンセル。 実行中のステートメントをキャンセルし、以降のSQLの実行・コネクションの取得を中止する。
+	 */
+	public void cancel() {
+		this.cancelled = true;
+		this.cancelStatements();
+	}
+
+	/**
+	 * 期限の監視の開始。 期限になった時点で実行中のステートメントをキャンセルする。 無期限の場合は何もしない。
+	 *
+	 * @return 監視（期限前に処理が終わった場合はキャンセルすること。無期限の場合はnull）
+	 */
+	public ScheduledFuture<?> schedule() {
+		long remaining = this.remainingMillis();
+		if (remaining == Long.MAX_VALUE) {
+			return null;
+		}
+		return WATCHDOG.schedule(new Runnable() {
+			public void run() {
+				cancelStatements();
+			}
+		}, Math.max(remaining, 0L), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * ステートメントの監視の終了。 監視を開始したスレッド以外（画面の描画後にカーソルをクローズするスレッド等）から終了する場合に使用する。
+	 *
+	 * @param stmt ステートメント
+	 */
+	void remove(Statement stmt) {
+		for (LowCodeDeadline d = this; d != null; d = d.parent) {
+			d.statements.remove(stmt);
+		}
+	}
+
+	private void cancelStatements() {
+		for (Statement stmt : this.statements) {
+			try {
+				stmt.cancel();
+			} catch (SQLException e) {
+				log.warn(String.format("SQLのキャンセルに失敗しました。%s", e.getMessage()));
+			}
+		}
+	}
+
+	private static ScheduledExecutorService createWatchdog() {
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "lowcode-deadline");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		// 期限前に終わったリクエストの監視は待ち行列から削除する
+		executor.setRemoveOnCancelPolicy(true);
+		return executor;
+	}
+}
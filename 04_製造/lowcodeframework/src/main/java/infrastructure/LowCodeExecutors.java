@@ -0,0 +1,98 @@
+package infrastructure;
+
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+
+import common.LowCodeConsts;
+
+/**
+ * 非同期実行用のExecutorの生成クラス。
+ *
+ * エンジン設定ファイル（lowcode.properties）の executor.type により、以下のいずれかを生成する。
+ * <ul>
+ * <li>bounded： 最大スレッド数・待ち行列の上限付きのスレッドプール（既定）。 上限を超えた場合は実行を拒否する。</li>
+ * <li>virtual： タスク毎に仮想スレッドを生成するExecutor（JDK21以降）。 使用できない場合はboundedで代替する。</li>
+ * </ul>
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeExecutors {
+	private static final Logger log = Logger.getLogger(LowCodeExecutors.class); // ログ
+
+	/**
+	 * コンストラクタ（インスタンス化不可）
+	 */
+	private LowCodeExecutors() {
+	}
+
+	/**
+	 * Executorの生成
+	 *
+	 * @param properties エンジン設定
+	 * @return Executor
+	 */
+	public static ExecutorService create(Properties properties) {
+		String type = properties.getProperty(LowCodeConsts.EXECUTOR_TYPE, LowCodeConsts.EXECUTOR_TYPE_BOUNDED).trim();
+		if (LowCodeConsts.EXECUTOR_TYPE_VIRTUAL.equals(type)) {
+			ExecutorService executor = newVirtualThreadPerTaskExecutor();
+			if (executor != null) {
+				return executor;
+			}
+			log.warn("仮想スレッドが使用できない為、上限付きスレッドプールで非同期実行します。");
+		} else if (!LowCodeConsts.EXECUTOR_TYPE_BOUNDED.equals(type)) {
+			log.warn(String.format("%sの設定値が不正な為、上限付きスレッドプールで非同期実行します。設定値: %s",
+					LowCodeConsts.EXECUTOR_TYPE, type));
+		}
+		return newBoundedExecutor(
+				intProperty(properties, LowCodeConsts.EXECUTOR_MAX_THREADS, LowCodeConsts.DEFAULT_EXECUTOR_MAX_THREADS),
+				intProperty(properties, LowCodeConsts.EXECUTOR_QUEUE_SIZE, LowCodeConsts.DEFAULT_EXECUTOR_QUEUE_SIZE));
+	}
+
+	/**
+	 * 上限付きスレッドプールの生成。 アイドル状態のスレッドは終了する。
+	 *
+	 * @param maxThreads 最大スレッド数
+	 * @param queueSize  待ち行列の上限
+	 * @return Executor
+	 */
+	public static ExecutorService newBoundedExecutor(int maxThreads, int queueSize) {
+		final AtomicInteger sequence = new AtomicInteger();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60L, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<Runnable>(Math.max(queueSize, 1)), new ThreadFactory() {
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r, "lowcode-async-" + sequence.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				}, new ThreadPoolExecutor.AbortPolicy());
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * 仮想スレッドのExecutorの生成。 ビルド対象のJDKに依存しないよう、リフレクションで生成する。
+	 *
+	 * @return Executor（仮想スレッドが使用できない場合はnull）
+	 */
+	static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	private static int intProperty(Properties properties, String key, int defaultValue) {
+		String value = properties.getProperty(key);
+		return value == null || value.trim().isEmpty() ? defaultValue : Integer.parseInt(value.trim());
+	}
+}
@@ -0,0 +1,111 @@
+package infrastructure;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 処理時間のヒストグラムクラス。
+ *
+ * 値（ナノ秒）を2のべき乗毎に8分割したバケットに記録する（相対誤差は最大約12%）。 記録はバケットのカウンタを加算するだけで、ロックを使用しない。
+ * パーセンタイルは、該当するバケットの上限値を返却する。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeHistogram {
+	private static final int SUB_BUCKET_BITS = 3; // 2のべき乗毎の分割数（2^3 = 8）
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT); // バケット毎の件数
+	private final AtomicLong count = new AtomicLong(); // 件数
+	private final AtomicLong sum = new AtomicLong(); // 合計
+	private final AtomicLong max = new AtomicLong(); // 最大値
+
+	/**
+	 * 値の記録
+	 *
+	 * @param value 値（ナノ秒）
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		this.buckets.incrementAndGet(bucketIndex(value));
+		this.count.incrementAndGet();
+		this.sum.addAndGet(value);
+		long current;
+		while (value > (current = this.max.get())) {
+			if (this.max.compareAndSet(current, value)) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * 件数の取得
+	 *
+	 * @return 件数
+	 */
+	public long getCount() {
+		return this.count.get();
+	}
+
+	/**
+	 * 合計の取得
+	 *
+	 * @return 合計（ナノ秒）
+	 */
+	public long getSum() {
+		return this.sum.get();
+	}
+
+	/**
+	 * 最大値の取得
+	 *
+	 * @return 最大値（ナノ秒）
+	 */
+	public long getMax() {
+		return this.max.get();
+	}
+
+	/**
+	 * パーセンタイルの取得
+	 *
+	 * @param percentile パーセンタイル（0～100）
+	 * @return パーセンタイル値（ナノ秒、記録が無い場合は0）
+	 */
+	public long getPercentile(double percentile) {
+		long total = this.count.get();
+		if (total == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+		long seen = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			seen += this.buckets.get(i);
+			if (seen >= target) {
+				return Math.min(bucketUpperBound(i), this.max.get());
+			}
+		}
+		return this.max.get();
+	}
+
+	static int bucketIndex(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+	}
+
+	static long bucketUpperBound(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int shift = index / SUB_BUCKET_COUNT - 1;
+		long lower = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+		return lower + (1L << shift) - 1;
+	}
+}
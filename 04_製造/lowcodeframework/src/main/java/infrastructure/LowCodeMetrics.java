@@ -0,0 +1,223 @@
+package infrastructure;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 識別子毎の性能情報クラス。
+ *
+ * リクエスト件数・エラー件数・行数と、リクエスト全体および処理段階（{@link Phase}）毎の処理時間のヒストグラムを保持する。
+ * CSV出力・CSV一括登録の転送行数・転送バイト数は、転送中も随時加算する（進捗の確認に使用）。 記録はロックを使用せずに行う。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeMetrics implements LowCodeMetricsMXBean {
+	/**
+	 * 処理段階
+	 */
+	public enum Phase {
+		/** 設定ファイルの読込み（ルート検索） */
+		ROUTE,
+		/** 設定ファイルの入力チェック */
+		VALIDATION,
+		/** SQLファイル・DB設定ファイルの読込み */
+		SQL_READ,
+		/** SQLの実行 */
+		DB_EXECUTE,
+		/** 実行結果の読込み */
+		ROW_MAPPING,
+		/** 画面情報の作成 */
+		VIEW;
+
+		/**
+		 * 表示名の取得
+		 *
+		 * @return 表示名（小文字）
+		 */
+		public String getLabel() {
+			return this.name().toLowerCase();
+		}
+	}
+
+	private final String identifier; // 識別子
+	private final LowCodeHistogram total = new LowCodeHistogram(); // リクエスト全体の処理時間
+	private final LowCodeHistogram[] phases = new LowCodeHistogram[Phase.values().length]; // 処理段階毎の処理時間
+	private final AtomicLong requestCount = new AtomicLong(); // リクエスト件数
+	private final AtomicLong errorCount = new AtomicLong(); // エラー件数
+	private final AtomicLong timeoutCount = new AtomicLong(); // 処理期限の超過件数
+	private final AtomicLong cancelCount = new AtomicLong(); // キャンセル件数
+	private final AtomicLong rowCount = new AtomicLong(); // 行数
+	private final AtomicLong transferRowCount = new AtomicLong(); // CSVの転送行数
+	private final AtomicLong transferByteCount = new AtomicLong(); // CSVの転送バイト数
+	private final AtomicInteger activeTransferCount = new AtomicInteger(); // 転送中のCSVの件数
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param identifier 識別子
+	 */
+	LowCodeMetrics(String identifier) {
+		this.identifier = identifier;
+		for (int i = 0; i < this.phases.length; i++) {
+			this.phases[i] = new LowCodeHistogram();
+		}
+	}
+
+	/**
+	 * 処理段階の処理時間の記録
+	 *
+	 * @param phase 処理段階
+	 * @param nanos 処理時間（ナノ秒）
+	 */
+	public void recordPhase(Phase phase, long nanos) {
+		this.phases[phase.ordinal()].record(nanos);
+	}
+
+	/**
+	 * リクエストの記録
+	 *
+	 * @param nanos 処理時間（ナノ秒）
+	 * @param rows  行数
+	 * @param error エラーの場合はtrue
+	 */
+	public void recordRequest(long nanos, long rows, boolean error) {
+		this.total.record(nanos);
+		this.requestCount.incrementAndGet();
+		this.rowCount.addAndGet(rows);
+		if (error) {
+			this.errorCount.incrementAndGet();
+		}
+	}
+
+	/**
+	 * 処理期限の超過・キャンセルの記録
+	 *
+	 * @param cancelled キャンセルの場合はtrue、処理期限の超過の場合はfalse
+	 */
+	public void recordTimeout(boolean cancelled) {
+		if (cancelled) {
+			this.cancelCount.incrementAndGet();
+		} else {
+			this.timeoutCount.incrementAndGet();
+		}
+	}
+
+	/**
+	 * CSVの転送開始の記録
+	 */
+	public void beginTransfer() {
+		this.activeTransferCount.incrementAndGet();
+	}
+
+	/**
+	 * CSVの転送終了の記録
+	 */
+	public void endTransfer() {
+		this.activeTransferCount.decrementAndGet();
+	}
+
+	/**
+	 * CSVの転送行数の加算
+	 *
+	 * @param rows 行数
+	 */
+	public void addTransferRows(long rows) {
+		this.transferRowCount.addAndGet(rows);
+	}
+
+	/**
+	 * CSVの転送バイト数の加算
+	 *
+	 * @param bytes バイト数
+	 */
+	public void addTransferBytes(long bytes) {
+		this.transferByteCount.addAndGet(bytes);
+	}
+
+	/**
+	 * リクエスト全体の処理時間の取得
+	 *
+	 * @return ヒストグラム
+	 */
+	public LowCodeHistogram getTotal() {
+		return this.total;
+	}
+
+	/**
+	 * 処理段階の処理時間の取得
+	 *
+	 * @param phase 処理段階
+	 * @return ヒストグラム
+	 */
+	public LowCodeHistogram getPhase(Phase phase) {
+		return this.phases[phase.ordinal()];
+	}
+
+	public String getIdentifier() {
+		return this.identifier;
+	}
+
+	public long getRequestCount() {
+		return this.requestCount.get();
+	}
+
+	public long getErrorCount() {
+		return this.errorCount.get();
+	}
+
+	public long getTimeoutCount() {
+		return this.timeoutCount.get();
+	}
+
+	public long getCancelCount() {
+		return this.cancelCount.get();
+	}
+
+	public long getRowCount() {
+		return this.rowCount.get();
+	}
+
+	public long getTransferRowCount() {
+		return this.transferRowCount.get();
+	}
+
+	public long getTransferByteCount() {
+		return this.transferByteCount.get();
+	}
+
+	public int getActiveTransferCount() {
+		return this.activeTransferCount.get();
+	}
+
+	public double getMeanMillis() {
+		long count = this.total.getCount();
+		return count == 0 ? 0 : toMillis(this.total.getSum()) / count;
+	}
+
+	public double getP50Millis() {
+		return toMillis(this.total.getPercentile(50));
+	}
+
+	public double getP99Millis() {
+		return toMillis(this.total.getPercentile(99));
+	}
+
+	public double getMaxMillis() {
+		return toMillis(this.total.getMax());
+	}
+
+	public Map<String, Double> getPhaseP99Millis() {
+		Map<String, Double> map = new LinkedHashMap<String, Double>();
+		for (Phase phase : Phase.values()) {
+			map.put(phase.getLabel(), toMillis(this.getPhase(phase).getPercentile(99)));
+		}
+		return map;
+	}
+
+	private static double toMillis(long nanos) {
+		return nanos / 1000000.0;
+	}
+}
@@ -0,0 +1,109 @@
+package infrastructure;
+
+import java.util.Map;
+
+/**
+ * 識別子毎の性能情報のJMXインターフェース。 時間はミリ秒で返却する。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public interface LowCodeMetricsMXBean {
+	/**
+	 * 識別子の取得
+	 *
+	 * @return 識別子
+	 */
+	String getIdentifier();
+
+	/**
+	 * リクエスト件数の取得
+	 *
+	 * @return リクエスト件数
+	 */
+	long getRequestCount();
+
+	/**
+	 * エラー件数の取得
+	 *
+	 * @return エラー件数
+	 */
+	long getErrorCount();
+
+	/**
+	 * 処理期限の超過件数の取得
+	 *
+	 * @return 処理期限の超過件数
+	 */
+	long getTimeoutCount();
+
+	/**
+	 * キャンセル件数の取得（クライアントの切断など）
+	 *
+	 * @return キャンセル件数
+	 */
+	long getCancelCount();
+
+	/**
+	 * 取得・更新行数の合計の取得
+	 *
+	 * @return 行数
+	 */
+	long getRowCount();
+
+	/**
+	 * CSV出力・CSV一括登録の転送行数の取得（転送中も随時加算される）
+	 *
+	 * @return 転送行数
+	 */
+	long getTransferRowCount();
+
+	/**
+	 * CSV出力・CSV一括登録の転送バイト数の取得（転送中も随時加算される）
+	 *
+	 * @return 転送バイト数
+	 */
+	long getTransferByteCount();
+
+	/**
+	 * 転送中のCSVの件数の取得
+	 *
+	 * @return 転送中の件数
+	 */
+	int getActiveTransferCount();
+
+	/**
+	 * 処理時間の平均の取得
+	 *
+	 * @return 平均（ミリ秒）
+	 */
+	double getMeanMillis();
+
+	/**
+	 * 処理時間の50パーセンタイルの取得
+	 *
+	 * @return 50パーセンタイル（ミリ秒）
+	 */
+	double getP50Millis();
+
+	/**
+	 * 処理時間の99パーセンタイルの取得
+	 *
+	 * @return 99パーセンタイル（ミリ秒）
+	 */
+	double getP99Millis();
+
+	/**
+	 * 処理時間の最大値の取得
+	 *
+	 * @return 最大値（ミリ秒）
+	 */
+	double getMaxMillis();
+
+	/**
+	 * 処理段階毎の99パーセンタイルの取得
+	 *
+	 * @return 処理段階名 → 99パーセンタイル（ミリ秒）
+	 */
+	Map<String, Double> getPhaseP99Millis();
+}
@@ -0,0 +1,152 @@
+package infrastructure;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import javax.management.ObjectName;
+
+import org.apache.log4j.Logger;
+
+/**
+ * 識別子毎の性能情報のレジストリクラス。
+ *
+ * 性能情報は識別子毎に1つだけ生成し、JMX（lowcode:type=Metrics,identifier=識別子）に登録する。
+ * テキスト形式（Prometheusのテキスト形式）での出力も行う。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeMetricsRegistry {
+	private static final LowCodeMetricsRegistry INSTANCE = new LowCodeMetricsRegistry();
+	private static final double[] QUANTILES = { 0.5, 0.9, 0.99 };
+
+	private final Logger log = Logger.getLogger(LowCodeMetricsRegistry.class); // ログ
+	private final ConcurrentMap<String, LowCodeMetrics> metrics = new ConcurrentSkipListMap<String, LowCodeMetrics>(); // 識別子 → 性能情報
+
+	/**
+	 * インスタンスの取得
+	 *
+	 * @return レジストリ
+	 */
+	public static LowCodeMetricsRegistry getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * 識別子に対応する性能情報の取得。 初めて取得した時に、JMXに登録する。
+	 *
+	 * @param identifier 識別子
+	 * @return 性能情報
+	 */
+	public LowCodeMetrics get(String identifier) {
+		LowCodeMetrics current = this.metrics.get(identifier);
+		if (current == null) {
+			LowCodeMetrics created = new LowCodeMetrics(identifier);
+			current = this.metrics.putIfAbsent(identifier, created);
+			if (current == null) {
+				current = created;
+				this.register(created);
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * 全ての性能情報の取得
+	 *
+	 * @return 識別子 → 性能情報（識別子順）
+	 */
+	public Map<String, LowCodeMetrics> getAll() {
+		return this.metrics;
+	}
+
+	/**
+	 * テキスト形式での出力。 時間は秒で出力する。
+	 *
+	 * @param out 出力先
+	 * @throws IOException IO例外
+	 */
+	public void writeText(Appendable out) throws IOException {
+		out.append("# TYPE lowcode_requests_total counter\n");
+		for (LowCodeMetrics m : this.metrics.values()) {
+			line(out, "lowcode_requests_total", m.getIdentifier(), null, null, m.getRequestCount());
+		}
+		out.append("# TYPE lowcode_errors_total counter\n");
+		for (LowCodeMetrics m : this.metrics.values()) {
+			line(out, "lowcode_errors_total", m.getIdentifier(), null, null, m.getErrorCount());
+		}
+		out.append("# TYPE lowcode_timeouts_total counter\n");
+		for (LowCodeMetrics m : this.metrics.values()) {
+			line(out, "lowcode_timeouts_total", m.getIdentifier(), null, null, m.getTimeoutCount());
+		}
+		out.append("# TYPE lowcode_cancels_total counter\n");
+		for (LowCodeMetrics m : this.metrics.values()) {
+			line(out, "lowcode_cancels_total", m.getIdentifier(), null, null, m.getCancelCount());
+		}
+		out.append("# TYPE lowcode_rows_total counter\n");
+		for (LowCodeMetrics m : this.metrics.values()) {
+			line(out, "lowcode_rows_total", m.getIdentifier(), null, null, m.getRowCount());
+		}
+		out.append("# TYPE lowcode_transfer_rows_total counter\n");
+		for (LowCodeMetrics m : this.metrics.values()) {
+			line(out, "lowcode_transfer_rows_total", m.getIdentifier(), null, null, m.getTransferRowCount());
+		}
+		out.append("# TYPE lowcode_transfer_bytes_total counter\n");
+		for (LowCodeMetrics m : this.metrics.values()) {
+			line(out, "lowcode_transfer_bytes_total", m.getIdentifier(), null, null, m.getTransferByteCount());
+		}
+		out.append("# TYPE lowcode_transfers_active gauge\n");
+		for (LowCodeMetrics m : this.metrics.values()) {
+			line(out, "lowcode_transfers_active", m.getIdentifier(), null, null, m.getActiveTransferCount());
+		}
+		out.append("# TYPE lowcode_request_seconds summary\n");
+		for (LowCodeMetrics m : this.metrics.values()) {
+			summary(out, "lowcode_request_seconds", m.getIdentifier(), null, m.getTotal());
+		}
+		out.append("# TYPE lowcode_phase_seconds summary\n");
+		for (LowCodeMetrics m : this.metrics.values()) {
+			for (LowCodeMetrics.Phase phase : LowCodeMetrics.Phase.values()) {
+				summary(out, "lowcode_phase_seconds", m.getIdentifier(), phase.getLabel(), m.getPhase(phase));
+			}
+		}
+	}
+
+	private void register(LowCodeMetrics created) {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(created,
+					new ObjectName("lowcode:type=Metrics,identifier=" + ObjectName.quote(created.getIdentifier())));
+		} catch (Exception e) {
+			log.warn(String.format("性能情報をJMXに登録できませんでした。識別子: %s %s", created.getIdentifier(), e.getMessage()));
+		}
+	}
+
+	private static void summary(Appendable out, String name, String identifier, String phase,
+			LowCodeHistogram histogram) throws IOException {
+		for (double quantile : QUANTILES) {
+			line(out, name, identifier, phase, String.valueOf(quantile),
+					histogram.getPercentile(quantile * 100) / 1e9);
+		}
+		line(out, name + "_max", identifier, phase, null, histogram.getMax() / 1e9);
+		line(out, name + "_sum", identifier, phase, null, histogram.getSum() / 1e9);
+		line(out, name + "_count", identifier, phase, null, histogram.getCount());
+	}
+
+	private static void line(Appendable out, String name, String identifier, String phase, String quantile,
+			Object value) throws IOException {
+		out.append(name).append("{identifier=\"").append(escape(identifier)).append('"');
+		if (phase != null) {
+			out.append(",phase=\"").append(phase).append('"');
+		}
+		if (quantile != null) {
+			out.append(",quantile=\"").append(quantile).append('"');
+		}
+		out.append("} ").append(String.valueOf(value)).append('\n');
+	}
+
+	private static String escape(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+}
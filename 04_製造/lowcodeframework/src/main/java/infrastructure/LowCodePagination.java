@@ -0,0 +1,255 @@
+package infrastructure;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import common.LowCodeConsts;
+
+/**
+ * キーセット方式のページングクラス。
+ *
+ * 設定ファイルの &lt;pagekey&gt;（カンマ区切りの並び順の列名、一意となること）・&lt;pagesize&gt;（1ページの行数）を指定したリソースは、
+ * SQLを副問合せとして囲み、前ページの最終行のキーより後の行を &lt;pagesize&gt; + 1行だけ取得する（OFFSETを使用しない為、何ページ目でも同じ速度となる）。
+ * <ul>
+ * <li>カーソル： 前ページの最終行のキーの値と列の型を符号化した文字列。 クエリパラメータ「cursor」で指定する（無い場合は1ページ目）。
+ * カーソルの値は列の型でバインドする（数値に見える文字列の列、日付・タイムスタンプの列も元の型で比較する）。</li>
+ * <li>並び順： &lt;pageorder&gt; に asc（昇順、既定値）または desc（降順）を指定する。</li>
+ * <li>ページ情報： レスポンスモデルの「page」に、size（1ページの行数）・count（このページの行数）・hasNext（次ページの有無）・
+ * cursor（このページのカーソル）・nextCursor（次ページのカーソル、無い場合はnull）を設定する。</li>
+ * </ul>
+ * SQLファイルには ORDER BY・LIMIT を記載しない。 キーの列はNULLを含まないこと。 生成後は不変で、スレッドセーフである。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodePagination {
+	private static final String KEY_VARIABLE = "lowcode.pagekey."; // カーソルの値のバインド変数名の先頭
+
+	private final String[] keys; // キーの列名
+	private final boolean descending; // 降順の場合はtrue
+	private final int pageSize; // 1ページの行数
+
+	private LowCodePagination(String[] keys, boolean descending, int pageSize) {
+		this.keys = keys;
+		this.descending = descending;
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * ルートからのページングの作成
+	 *
+	 * @param route ルート
+	 * @return ページング（&lt;pagekey&gt; が指定されていない場合はnull）
+	 * @throws IllegalArgumentException 設定内容が不正な場合
+	 */
+	public static LowCodePagination of(LowCodeRoute route) {
+		List<String> keys = route.getList(LowCodeConsts.SETTING_PAGE_KEY);
+		if (keys.isEmpty()) {
+			return null;
+		}
+		for (String key : keys) {
+			if (!LowCodeRepository.isSqlName(key) || key.indexOf('.') >= 0) {
+				throw new IllegalArgumentException(String.format("ページキーの列名が不正です: %s", key));
+			}
+		}
+		String order = route.get(LowCodeConsts.SETTING_PAGE_ORDER);
+		order = order != null ? order.trim() : "";
+		if (!order.isEmpty() && !order.equalsIgnoreCase("asc") && !order.equalsIgnoreCase("desc")) {
+			return invalid(LowCodeConsts.SETTING_PAGE_ORDER);
+		}
+		int pageSize;
+		try {
+			pageSize = route.getInt(LowCodeConsts.SETTING_PAGE_SIZE, LowCodeConsts.DEFAULT_PAGE_SIZE);
+		} catch (NumberFormatException e) {
+			return invalid(LowCodeConsts.SETTING_PAGE_SIZE);
+		}
+		if (pageSize <= 0) {
+			return invalid(LowCodeConsts.SETTING_PAGE_SIZE);
+		}
+		return new LowCodePagination(keys.toArray(new String[keys.size()]), order.equalsIgnoreCase("desc"), pageSize);
+	}
+
+	private static LowCodePagination invalid(String tagName) {
+		throw new IllegalArgumentException(String.format("%sの設定値が不正です。", tagName));
+	}
+
+	/**
+	 * 1ページの行数の取得
+	 *
+	 * @return 行数
+	 */
+	public int getPageSize() {
+		return this.pageSize;
+	}
+
+	/**
+	 * キーセット方式のSQLへの書換え。
+	 * 「SELECT * FROM (SQL) lowcode_page WHERE (キーがカーソルより後) ORDER BY キー FETCH FIRST ページサイズ + 1 ROWS ONLY」とする。
+	 *
+	 * @param template SQLテンプレート
+	 * @param cursor   カーソル（1ページ目の場合はnull）
+	 * @return 書き換えたSQLテンプレート
+	 * @throws SQLException カーソルが不正な場合
+	 */
+	public LowCodeSqlTemplate rewrite(LowCodeSqlTemplate template, String cursor) throws SQLException {
+		StringBuilder suffix = new StringBuilder(") lowcode_page");
+		List<LowCodeSqlTemplate.Parameter> parameters = new ArrayList<LowCodeSqlTemplate.Parameter>();
+		if (cursor != null) {
+			List<Key> values = this.decode(cursor);
+			// (k1 > ?) OR (k1 = ? AND k2 > ?) OR ...（行値式の比較に対応しないDBの為、展開して記載する）
+			String comparison = this.descending ? " < ?" : " > ?";
+			suffix.append(" WHERE ");
+			for (int i = 0; i < this.keys.length; i++) {
+				suffix.append(i > 0 ? " OR (" : "(");
+				for (int j = 0; j < i; j++) {
+					suffix.append(this.keys[j]).append(" = ? AND ");
+					parameters.add(LowCodeSqlTemplate.Parameter.typed(KEY_VARIABLE + j, values.get(j).sqlType));
+				}
+				suffix.append(this.keys[i]).append(comparison).append(')');
+				parameters.add(LowCodeSqlTemplate.Parameter.typed(KEY_VARIABLE + i, values.get(i).sqlType));
+			}
+		}
+		suffix.append(" ORDER BY ");
+		for (int i = 0; i < this.keys.length; i++) {
+			suffix.append(i > 0 ? ", " : "").append(this.keys[i]).append(this.descending ? " DESC" : "");
+		}
+		suffix.append(" FETCH FIRST ").append(this.pageSize + 1).append(" ROWS ONLY");
+		return template.wrap("SELECT * FROM (", suffix.toString(), parameters);
+	}
+
+	/**
+	 * カーソルの値をバインド変数に追加する
+	 *
+	 * @param bindVariable バインド変数
+	 * @param cursor       カーソル（1ページ目の場合はnull）
+	 * @return バインド変数（カーソルが無い場合は元のバインド変数）
+	 * @throws SQLException カーソルが不正な場合
+	 */
+	public Map<String, String> bind(Map<String, String> bindVariable, String cursor) throws SQLException {
+		if (cursor == null) {
+			return bindVariable;
+		}
+		List<Key> values = this.decode(cursor);
+		Map<String, String> bound = new HashMap<String, String>(bindVariable);
+		for (int i = 0; i < values.size(); i++) {
+			bound.put(KEY_VARIABLE + i, values.get(i).value);
+		}
+		return bound;
+	}
+
+	/**
+	 * レスポンスモデルの作成。 ページサイズ + 1行目がある場合は次ページありとして、ページサイズまでの行を「model」に設定する。
+	 *
+	 * @param table  実行結果（ページサイズ + 1行まで）
+	 * @param cursor このページのカーソル（1ページ目の場合はnull）
+	 * @return レスポンスモデル（「model」に実行結果、「page」にページ情報）
+	 * @throws SQLException キーの列が実行結果に無い場合、キーの値がNULLの場合
+	 */
+	public Map<String, Object> createModel(LowCodeResultTable table, String cursor) throws SQLException {
+		boolean hasNext = table.size() > this.pageSize;
+		LowCodeResultTable rows = table.limit(this.pageSize);
+		Map<String, Object> page = new LinkedHashMap<String, Object>();
+		page.put("size", this.pageSize);
+		page.put("count", rows.size());
+		page.put("hasNext", hasNext);
+		page.put("cursor", cursor);
+		page.put("nextCursor", hasNext ? this.encode(rows, rows.size() - 1) : null);
+		Map<String, Object> model = new LinkedHashMap<String, Object>();
+		model.put("model", rows);
+		model.put("page", Collections.unmodifiableMap(page));
+		return model;
+	}
+
+	/**
+	 * 行のキーのカーソルへの符号化
+	 *
+	 * @param table 実行結果
+	 * @param row   行位置
+	 * @return カーソル
+	 * @throws SQLException キーの列が実行結果に無い場合、キーの値がNULLの場合
+	 */
+	private String encode(LowCodeResultTable table, int row) throws SQLException {
+		List<String> columnNames = table.getColumnNames();
+		StringBuilder text = new StringBuilder();
+		for (String key : this.keys) {
+			int column = -1;
+			for (int i = 0; i < columnNames.size(); i++) {
+				// DBにより列名の大文字・小文字が異なる為、区別しない
+				if (columnNames.get(i).equalsIgnoreCase(key)) {
+					column = i;
+					break;
+				}
+			}
+			if (column < 0) {
+				throw new SQLException(String.format("ページキーの列がSELECT文の実行結果にありません: %s", key));
+			}
+			String value = table.getValue(row, column);
+			if (value == null) {
+				throw new SQLException(String.format("ページキーの値がNULLです: %s", key));
+			}
+			// 列の型:値の長さ:値 を連結する（値に区切り文字を含む場合の為）
+			text.append(table.getColumnType(column)).append(':').append(value.length()).append(':').append(value);
+		}
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(text.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * カーソルの復号
+	 *
+	 * @param cursor カーソル
+	 * @return キーの値（キーの順）
+	 * @throws SQLException カーソルが不正な場合、キーの数が一致しない場合
+	 */
+	private List<Key> decode(String cursor) throws SQLException {
+		String text;
+		try {
+			text = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException e) {
+			throw new SQLException("ページのカーソルが不正です。");
+		}
+		List<Key> values = new ArrayList<Key>();
+		int pos = 0;
+		while (pos < text.length()) {
+			int typeEnd = text.indexOf(':', pos);
+			int colon = typeEnd < 0 ? -1 : text.indexOf(':', typeEnd + 1);
+			int sqlType;
+			int length;
+			try {
+				sqlType = colon < 0 ? 0 : Integer.parseInt(text.substring(pos, typeEnd));
+				length = colon < 0 ? -1 : Integer.parseInt(text.substring(typeEnd + 1, colon));
+			} catch (NumberFormatException e) {
+				sqlType = 0;
+				length = -1;
+			}
+			if (length < 0 || colon + 1 + length > text.length()) {
+				throw new SQLException("ページのカーソルが不正です。");
+			}
+			values.add(new Key(sqlType, text.substring(colon + 1, colon + 1 + length)));
+			pos = colon + 1 + length;
+		}
+		if (values.size() != this.keys.length) {
+			throw new SQLException("ページのカーソルが不正です。");
+		}
+		return values;
+	}
+
+	/**
+	 * カーソルのキーの値
+	 */
+	private static class Key {
+		private final int sqlType; // 列の型（java.sql.Types）
+		private final String value; // 値
+
+		private Key(int sqlType, String value) {
+			this.sqlType = sqlType;
+			this.value = value;
+		}
+	}
+}
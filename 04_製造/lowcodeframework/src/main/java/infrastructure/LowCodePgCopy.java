@@ -0,0 +1,113 @@
+package infrastructure;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.apache.log4j.Logger;
+
+/**
+ * PostgreSQLのCOPYの実行クラス。
+ *
+ * PostgreSQLのJDBCドライバ（org.postgresql.copy.CopyManager）をリフレクションで呼び出す為、コンパイル時にドライバを必要としない。
+ * ドライバがクラスパスに無い場合、コネクションがPostgreSQLでない場合は、COPYを使用できない（{@link #isSupported(Connection)}がfalse）。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+final class LowCodePgCopy {
+	private static final Logger LOG = Logger.getLogger(LowCodePgCopy.class);
+	private static final Class<?> PG_CONNECTION = findClass("org.postgresql.PGConnection");
+	private static final Method GET_COPY_API = findMethod(PG_CONNECTION, "getCopyAPI");
+	private static final Method COPY_IN = findMethod(findClass("org.postgresql.copy.CopyManager"), "copyIn",
+			String.class, InputStream.class);
+	private static final Method COPY_OUT = findMethod(findClass("org.postgresql.copy.CopyManager"), "copyOut",
+			String.class, OutputStream.class);
+
+	private LowCodePgCopy() {
+	}
+
+	/**
+	 * COPYを使用できるか
+	 *
+	 * @param conn DBコネクション
+	 * @return PostgreSQLのコネクションの場合はtrue
+	 */
+	static boolean isSupported(Connection conn) {
+		if (GET_COPY_API == null || COPY_IN == null || COPY_OUT == null) {
+			return false;
+		}
+		try {
+			return conn.isWrapperFor(PG_CONNECTION);
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * COPY FROM STDIN の実行
+	 *
+	 * @param conn DBコネクション
+	 * @param sql  COPY文
+	 * @param in   入力（COPY文で指定した形式）
+	 * @return 登録件数
+	 * @throws SQLException SQLException
+	 */
+	static long copyIn(Connection conn, String sql, InputStream in) throws SQLException {
+		return invoke(conn, COPY_IN, sql, in);
+	}
+
+	/**
+	 * COPY TO STDOUT の実行
+	 *
+	 * @param conn DBコネクション
+	 * @param sql  COPY文
+	 * @param out  出力先
+	 * @return 出力件数
+	 * @throws SQLException SQLException
+	 */
+	static long copyOut(Connection conn, String sql, OutputStream out) throws SQLException {
+		return invoke(conn, COPY_OUT, sql, out);
+	}
+
+	private static long invoke(Connection conn, Method method, String sql, Object stream) throws SQLException {
+		try {
+			Object copyApi = GET_COPY_API.invoke(conn.unwrap(PG_CONNECTION));
+			return (Long) method.invoke(copyApi, sql, stream);
+		} catch (InvocationTargetException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof SQLException) {
+				throw (SQLException) cause;
+			}
+			throw new SQLException(String.format("COPYの実行に失敗しました。%s", cause.getMessage()), cause);
+		} catch (IllegalAccessException e) {
+			throw new SQLException(String.format("COPYを実行できません。%s", e.getMessage()), e);
+		}
+	}
+
+	private static Class<?> findClass(String name) {
+		try {
+			return Class.forName(name);
+		} catch (ClassNotFoundException e) {
+			return null;
+		} catch (LinkageError e) {
+			LOG.warn(String.format("PostgreSQLのJDBCドライバを読み込めません。%s", e.getMessage()));
+			return null;
+		}
+	}
+
+	private static Method findMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+		if (type == null) {
+			return null;
+		}
+		try {
+			return type.getMethod(name, parameterTypes);
+		} catch (NoSuchMethodException e) {
+			LOG.warn(String.format("PostgreSQLのJDBCドライバのバージョンが古い為、COPYを使用しません。%s", e.getMessage()));
+			return null;
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package infrastructure;
+
+/**
+ * 処理段階の計測クラス。
+ *
+ * リクエストの処理中、カレントスレッドに識別子毎の性能情報を関連付け、各層から処理段階の処理時間・行数を記録する。
+ * 関連付けが無い場合（計測対象外の処理）は何もしない。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodePhaseTimer {
+	private static final ThreadLocal<LowCodePhaseTimer> CURRENT = new ThreadLocal<LowCodePhaseTimer>();
+
+	private final LowCodeMetrics metrics; // 性能情報
+	private long rows; // 行数
+
+	private LowCodePhaseTimer(LowCodeMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * 計測の開始。 カレントスレッドに性能情報を関連付ける。
+	 *
+	 * @param metrics 性能情報
+	 */
+	public static void begin(LowCodeMetrics metrics) {
+		CURRENT.set(new LowCodePhaseTimer(metrics));
+	}
+
+	/**
+	 * 計測の終了。 カレントスレッドの関連付けを解除する。
+	 *
+	 * @return 記録した行数
+	 */
+	public static long end() {
+		LowCodePhaseTimer timer = CURRENT.get();
+		CURRENT.remove();
+		return timer != null ? timer.rows : 0;
+	}
+
+	/**
+	 * 処理段階の処理時間の記録
+	 *
+	 * @param phase      処理段階
+	 * @param startNanos 開始時刻（System.nanoTime()）
+	 * @return 現在時刻（System.nanoTime()、次の処理段階の開始時刻として使用する）
+	 */
+	public static long record(LowCodeMetrics.Phase phase, long startNanos) {
+		long now = System.nanoTime();
+		LowCodePhaseTimer timer = CURRENT.get();
+		if (timer != null) {
+			timer.metrics.recordPhase(phase, now - startNanos);
+		}
+		return now;
+	}
+
+	/**
+	 * 行数の加算
+	 *
+	 * @param rows 取得・更新した行数
+	 */
+	public static void addRows(long rows) {
+		LowCodePhaseTimer timer = CURRENT.get();
+		if (timer != null) {
+			timer.rows += rows;
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package infrastructure;
+
+/**
+ * コネクションプールの統計情報クラス。 取得時点のスナップショットであり、生成後は不変である。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodePoolStatistics {
+	private final int active; // 貸出中のコネクション数
+	private final int idle; // 待機中のコネクション数
+	private final int waiting; // コネクション取得待ちのスレッド数
+	private final long borrowCount; // 貸出回数
+	private final long totalWaitNanos; // 取得待ち時間の合計（ナノ秒）
+	private final long maxWaitNanos; // 取得待ち時間の最大（ナノ秒）
+	private final long timeoutCount; // 取得タイムアウト回数
+	private final long leakCount; // リーク検出回数
+	private final long statementHitCount; // PreparedStatementキャッシュのヒット回数
+	private final long statementMissCount; // PreparedStatementキャッシュのミス回数
+	private final long statementEvictionCount; // PreparedStatementキャッシュの追い出し回数
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param active                 貸出中のコネクション数
+	 * @param idle                   待機中のコネクション数
+	 * @param waiting                コネクション取得待ちのスレッド数
+	 * @param borrowCount            貸出回数
+	 * @param totalWaitNanos         取得待ち時間の合計（ナノ秒）
+	 * @param maxWaitNanos           取得待ち時間の最大（ナノ秒）
+	 * @param timeoutCount           取得タイムアウト回数
+	 * @param leakCount              リーク検出回数
+	 * @param statementHitCount      PreparedStatementキャッシュのヒット回数
+	 * @param statementMissCount     PreparedStatementキャッシュのミス回数
+	 * @param statementEvictionCount PreparedStatementキャッシュの追い出し回数
+	 */
+	public LowCodePoolStatistics(int active, int idle, int waiting, long borrowCount, long totalWaitNanos,
+			long maxWaitNanos, long timeoutCount, long leakCount, long statementHitCount, long statementMissCount,
+			long statementEvictionCount) {
+		this.active = active;
+		this.idle = idle;
+		this.waiting = waiting;
+		this.borrowCount = borrowCount;
+		this.totalWaitNanos = totalWaitNanos;
+		this.maxWaitNanos = maxWaitNanos;
+		this.timeoutCount = timeoutCount;
+		this.leakCount = leakCount;
+		this.statementHitCount = statementHitCount;
+		this.statementMissCount = statementMissCount;
+		this.statementEvictionCount = statementEvictionCount;
+	}
+
+	/**
+	 * 貸出中のコネクション数の取得
+	 *
+	 * @return 貸出中のコネクション数
+	 */
+	public int getActive() {
+		return this.active;
+	}
+
+	/**
+	 * 待機中のコネクション数の取得
+	 *
+	 * @return 待機中のコネクション数
+	 */
+	public int getIdle() {
+		return this.idle;
+	}
+
+	/**
+	 * コネクション取得待ちのスレッド数の取得
+	 *
+	 * @return コネクション取得待ちのスレッド数
+	 */
+	public int getWaiting() {
+		return this.waiting;
+	}
+
+	/**
+	 * 貸出回数の取得
+	 *
+	 * @return 貸出回数
+	 */
+	public long getBorrowCount() {
+		return this.borrowCount;
+	}
+
+	/**
+	 * 取得待ち時間の合計（ナノ秒）の取得
+	 *
+	 * @return 取得待ち時間の合計（ナノ秒）
+	 */
+	public long getTotalWaitNanos() {
+		return this.totalWaitNanos;
+	}
+
+	/**
+	 * 取得待ち時間の最大（ナノ秒）の取得
+	 *
+	 * @return 取得待ち時間の最大（ナノ秒）
+	 */
+	public long getMaxWaitNanos() {
+		return this.maxWaitNanos;
+	}
+
+	/**
+	 * 取得タイムアウト回数の取得
+	 *
+	 * @return 取得タイムアウト回数
+	 */
+	public long getTimeoutCount() {
+		return this.timeoutCount;
+	}
+
+	/**
+	 * リーク検出回数の取得
+	 *
+	 * @return リーク検出回数
+	 */
+	public long getLeakCount() {
+		return this.leakCount;
+	}
+
+	/**
+	 * PreparedStatementキャッシュのヒット回数の取得
+	 *
+	 * @return PreparedStatementキャッシュのヒット回数
+	 */
+	public long getStatementHitCount() {
+		return this.statementHitCount;
+	}
+
+	/**
+	 * PreparedStatementキャッシュのミス回数の取得
+	 *
+	 * @return PreparedStatementキャッシュのミス回数
+	 */
+	public long getStatementMissCount() {
+		return this.statementMissCount;
+	}
+
+	/**
+	 * PreparedStatementキャッシュの追い出し回数の取得
+	 *
+	 * @return PreparedStatementキャッシュの追い出し回数
+	 */
+	public long getStatementEvictionCount() {
+		return this.statementEvictionCount;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"active=%d, idle=%d, waiting=%d, borrow=%d, totalWait=%dms, maxWait=%dms, timeout=%d, leak=%d, stmtHit=%d, stmtMiss=%d, stmtEviction=%d",
+				active, idle, waiting, borrowCount, totalWaitNanos / 1000000L, maxWaitNanos / 1000000L, timeoutCount,
+				leakCount, statementHitCount, statementMissCount, statementEvictionCount);
+	}
+}
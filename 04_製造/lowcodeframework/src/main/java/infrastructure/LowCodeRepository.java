@@ -1,22 +1,27 @@
 package infrastructure;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.regex.Pattern;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -31,7 +36,6 @@ import org.xml.sax.SAXException;
 import com.sun.jersey.api.view.Viewable;
 
 import common.LowCodeConsts;
-import exception.LowCodeRequestException;
 
 /**
  * ローコード画面遷移フレームワークのリポジトリクラス。
@@ -40,76 +44,65 @@ import exception.LowCodeRequestException;
  * @version 1.0.0
  */
 public class LowCodeRepository {
+	private static final Pattern SQL_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?"); // テーブル名・列名
+
 	/**
-	 * 設定ファイル読込
+	 * 設定ファイル読込。 設定ファイル内の全リソースを解析して、識別子毎のルートを作成する。
 	 * 
 	 * @param settingFile 設定ファイル
-	 * @param identifier  識別子
-	 * @return 読み込んだ設定情報
+	 * @return 識別子 → ルート（同じ識別子が複数ある場合は、先に記載されたものを採用する）
 	 * @throws ParserConfigurationException ParserConfigurationException
 	 * @throws IOException                  IOException
 	 * @throws SAXException                 SAXException
 	 */
-	public Map<String, String> readSetting(File settingFile, String identifier)
+	public Map<String, LowCodeRoute> readRoutes(File settingFile)
 			throws ParserConfigurationException, SAXException, IOException {
-		Map<String, String> context = new HashMap<String, String>();
+		Map<String, LowCodeRoute> routes = new LinkedHashMap<String, LowCodeRoute>();
 		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
 		DocumentBuilder builder = factory.newDocumentBuilder();
 		Document doc = builder.parse(settingFile);
 		Element root = doc.getDocumentElement();
 		NodeList children = root.getChildNodes();
-		Boolean targetFlag = false;
 
 		for (int i = 0; i < children.getLength(); i++) {
-
 			Node child = children.item(i);
-
-			if (child instanceof Element) {
-				Element childElement = (Element) child;
-				NodeList grandChildren = childElement.getChildNodes();
-				for (int j = 0; j < grandChildren.getLength(); j++) {
-					Node grandChild = grandChildren.item(j);
-					if (grandChild instanceof Element) {
-						Element grandChildElement = (Element) grandChild;
-						if (grandChildElement.getTagName().equals(LowCodeConsts.SETTING_IDENTIFIER)) {
-							if (grandChildElement.getTextContent().equals(identifier)) {
-								context.put(grandChildElement.getTagName(), grandChildElement.getTextContent());
-								targetFlag = !targetFlag;
-							}
-						} else {
-							if (targetFlag) {
-								context.put(grandChildElement.getTagName(), grandChildElement.getTextContent());
-							}
+			if (!(child instanceof Element)) {
+				continue;
+			}
+			Map<String, String> context = new LinkedHashMap<String, String>();
+			Map<String, String> steps = new LinkedHashMap<String, String>();
+			NodeList grandChildren = child.getChildNodes();
+			for (int j = 0; j < grandChildren.getLength(); j++) {
+				Node grandChild = grandChildren.item(j);
+				if (grandChild instanceof Element) {
+					Element grandChildElement = (Element) grandChild;
+					if (LowCodeConsts.SETTING_STEP.equals(grandChildElement.getTagName())) {
+						// SQLステップ（同じステップ名は先に記載したものを使用）
+						String name = grandChildElement.getAttribute(LowCodeConsts.SETTING_STEP_NAME).trim();
+						if (!steps.containsKey(name)) {
+							steps.put(name, grandChildElement.getTextContent().trim());
 						}
+					} else if (!context.containsKey(grandChildElement.getTagName())) {
+						context.put(grandChildElement.getTagName(), grandChildElement.getTextContent());
 					}
 				}
 			}
-
-			if (targetFlag) {
-				return context;
+			String identifier = context.get(LowCodeConsts.SETTING_IDENTIFIER);
+			if (identifier != null && !routes.containsKey(identifier)) {
+				routes.put(identifier, new LowCodeRoute(context, steps, null));
 			}
 		}
-
-		// 識別子が見つからない場合
-		return null;
+		return routes;
 	}
 
 	/**
 	 * 設定ファイル内のファイルパス存在チェック
 	 * 
-	 * @param filePath     ファイルパス
-	 * @param errorMessage エラーメッセージ
-	 * @throws LowCodeRequestException 入力チェック例外
+	 * @param filePath ファイルパス
+	 * @return ファイルが存在する場合はtrue
 	 */
-	public void checkFileExistence(String filePath, String errorMessage) throws LowCodeRequestException {
-		try {
-			File file = new File(filePath);
-			if (!file.exists()) {
-				throw new Exception();
-			}
-		} catch (Exception e) {
-			throw new LowCodeRequestException(errorMessage);
-		}
+	public boolean existsFile(String filePath) {
+		return filePath != null && new File(filePath).exists();
 	}
 
 	/**
@@ -122,15 +115,29 @@ public class LowCodeRepository {
 	public String readSqlFile(String sqlFilePath) throws IOException {
 		File file = new File(sqlFilePath);
 
-		BufferedReader br = new BufferedReader(new FileReader(file));
-
-		String lines = "";
-		String line;
-		while ((line = br.readLine()) != null) {
-			lines += line;
+		BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+		try {
+			StringBuilder lines = new StringBuilder((int) Math.min(file.length(), Integer.MAX_VALUE));
+			char[] buffer = new char[4096];
+			int read;
+			while ((read = br.read(buffer)) >= 0) {
+				lines.append(buffer, 0, read);
+			}
+			return lines.toString();
+		} finally {
+			br.close();
 		}
-		br.close();
-		return lines;
+	}
+
+	/**
+	 * SQLテンプレートの取得。 解析済みのSQLテンプレートをキャッシュから取得する。
+	 * 
+	 * @param sqlFilePath SQLファイルパス
+	 * @return SQLテンプレート
+	 * @throws IOException IO例外
+	 */
+	public LowCodeSqlTemplate readSqlTemplate(String sqlFilePath) throws IOException {
+		return LowCodeSqlTemplateCache.getInstance().get(sqlFilePath);
 	}
 
 	/**
@@ -143,58 +150,80 @@ public class LowCodeRepository {
 	 */
 	public Properties readPropertiesFile(String filePath) throws FileNotFoundException, IOException {
 		Properties conf = new Properties();
-		conf.load(new FileInputStream(filePath));
+		FileInputStream in = new FileInputStream(filePath);
+		try {
+			conf.load(in);
+		} finally {
+			in.close();
+		}
 		return conf;
 	}
 
 	/**
-	 * バインド変数の変換
+	 * データソース一覧の取得。 DBプロパティファイルが更新されていない場合は、読込み済みの一覧を返却する。
 	 * 
-	 * @param sqlContext   SQL
-	 * @param bindVariable バインド変数
-	 * @return 変換したSQLの内容
+	 * @param dbPropertiesFilePath DBプロパティファイルパス
+	 * @return データソース一覧
+	 * @throws IOException IO例外
 	 */
-	public String changeBindVariable(String sqlContext, Map<String, String> bindVariable) {
-		String sql = new String(sqlContext);
-		for (Map.Entry<String, String> entry : bindVariable.entrySet()) {
-			String target = "{{" + entry.getKey() + "}}";
-			sql = sql.replace(target, entry.getValue());
-		}
-		return sql;
+	public LowCodeDataSources readDataSources(String dbPropertiesFilePath) throws IOException {
+		return LowCodeDataSources.getInstance(dbPropertiesFilePath, this);
 	}
 
 	/**
 	 * SELECT文実行
 	 * 
 	 * @param dbProperties DBプロパティファイル
-	 * @param sql          SQL
-	 * @return SQL実行結果（※Listオブジェクトに、実行結果のMapが含まれている）
+	 * @param template     SQLテンプレート
+	 * @param bindVariable バインド変数
+	 * @param fetchSize    フェッチサイズ（0以下はドライバの既定値）
+	 * @param maxRows      最大取得件数（0以下は無制限）
+	 * @return SQL実行結果（※Listオブジェクトに、実行結果の行（Mapビュー）が含まれている）
 	 * @throws SQLException SQLException
 	 */
-	public List<Map<String, String>> executeSelectSql(Properties dbProperties, String sql) throws SQLException {
+	public LowCodeResultTable executeSelectSql(Properties dbProperties, LowCodeSqlTemplate template,
+			Map<String, String> bindVariable, int fetchSize, int maxRows) throws SQLException {
+		return this.executeSelectSql(dbProperties, template, bindVariable, fetchSize, maxRows, false);
+	}
+
+	/**
+	 * SELECT文実行（参照先の指定あり）。 実行結果キャッシュに格納する実行結果は、レプリカへの反映遅延で更新前のデータを
+	 * 全セッションに返却しないよう、プライマリから参照する。
+	 * 
+	 * @param dbProperties DBプロパティファイル
+	 * @param template     SQLテンプレート
+	 * @param bindVariable バインド変数
+	 * @param fetchSize    フェッチサイズ（0以下はドライバの既定値）
+	 * @param maxRows      最大取得件数（0以下は無制限）
+	 * @param primary      プライマリから参照する場合はtrue、レプリカから参照する場合はfalse
+	 * @return SQL実行結果
+	 * @throws SQLException SQLException
+	 */
+	public LowCodeResultTable executeSelectSql(Properties dbProperties, LowCodeSqlTemplate template,
+			Map<String, String> bindVariable, int fetchSize, int maxRows, boolean primary) throws SQLException {
 		Connection conn = null;
-		Statement stmt = null;
+		PreparedStatement stmt = null;
 		ResultSet rset = null;
 
 		try {
-			// PostgreSQLへ接続
-			conn = this.getConnection(dbProperties);
+			long start = System.nanoTime();
+			// PostgreSQLへ接続（参照のため、プライマリの指定が無い場合はレプリカのプールから取得）
+			conn = primary ? LowCodeDataSourceRouter.getInstance(dbProperties).getPrimaryConnection()
+					: this.getConnection(dbProperties, true);
 
 			// SQL実行
-			stmt = conn.createStatement();
-			rset = stmt.executeQuery(sql);
+			stmt = conn.prepareStatement(template.getSql());
+			LowCodeDeadline.watch(stmt);
+			this.setFetchOptions(stmt, fetchSize, maxRows);
+			template.bind(stmt, bindVariable);
+			rset = stmt.executeQuery();
+			start = LowCodePhaseTimer.record(LowCodeMetrics.Phase.DB_EXECUTE, start);
 
-			ResultSetMetaData rsmd = rset.getMetaData();
-
-			List<Map<String, String>> list = new ArrayList<Map<String, String>>();
-			while (rset.next()) {
-				Map<String, String> result = new HashMap<String, String>();
-				for (int i = 1; i <= rsmd.getColumnCount(); i++) {
-					result.put(rsmd.getColumnName(i), rset.getString(rsmd.getColumnName(i)));
-				}
-				list.add(result);
-			}
+			// 実行結果の読込み（列名は1回だけ取得し、値は列位置で取得する）
+			LowCodeResultTable list = LowCodeResultTable.read(rset);
 			conn.commit();
+			LowCodePhaseTimer.record(LowCodeMetrics.Phase.ROW_MAPPING, start);
+			LowCodePhaseTimer.addRows(list.size());
 			return list;
 		} catch (SQLException e) {
 			if (conn != null) {
@@ -205,6 +234,7 @@ public class LowCodeRepository {
 			try {
 				if (rset != null)
 					rset.close();
+				LowCodeDeadline.unwatch(stmt);
 				if (stmt != null)
 					stmt.close();
 				if (conn != null)
@@ -216,27 +246,101 @@ public class LowCodeRepository {
 		}
 	}
 
+	/**
+	 * SELECT文実行（ストリーミングモード）。 実行結果を1行ずつ読み込むカーソルを返却する。
+	 * コネクションはカーソルをクローズするまで保持する。
+	 * 
+	 * @param dbProperties DBプロパティファイル
+	 * @param template     SQLテンプレート
+	 * @param bindVariable バインド変数
+	 * @param fetchSize    フェッチサイズ（0以下はドライバの既定値）
+	 * @param maxRows      最大取得件数（0以下は無制限）
+	 * @return SQL実行結果のカーソル
+	 * @throws SQLException SQLException
+	 */
+	public LowCodeResultCursor openSelectCursor(Properties dbProperties, LowCodeSqlTemplate template,
+			Map<String, String> bindVariable, int fetchSize, int maxRows) throws SQLException {
+		Connection conn = null;
+		PreparedStatement stmt = null;
+		ResultSet rset = null;
+
+		try {
+			long start = System.nanoTime();
+			// PostgreSQLへ接続（参照のため、レプリカのプールから取得）
+			conn = this.getConnection(dbProperties, true);
+
+			// SQL実行（自動コミットOFFのため、フェッチサイズ単位で取得される）
+			stmt = conn.prepareStatement(template.getSql());
+			this.setFetchOptions(stmt, fetchSize, maxRows);
+			template.bind(stmt, bindVariable);
+			// 処理期限は画面の描画中の読込みも含めて、カーソルのクローズまで監視する
+			LowCodeDeadline.watch(stmt);
+			rset = stmt.executeQuery();
+			LowCodePhaseTimer.record(LowCodeMetrics.Phase.DB_EXECUTE, start);
+			return new LowCodeResultCursor(conn, stmt, rset);
+		} catch (SQLException e) {
+			try {
+				if (rset != null)
+					rset.close();
+				LowCodeDeadline.unwatch(stmt);
+				if (stmt != null)
+					stmt.close();
+				if (conn != null) {
+					conn.rollback();
+					conn.close();
+				}
+			} catch (SQLException ex) {
+				ex.printStackTrace();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * フェッチサイズと最大取得件数の設定
+	 * 
+	 * @param stmt      ステートメント
+	 * @param fetchSize フェッチサイズ（0以下は設定しない）
+	 * @param maxRows   最大取得件数（0以下は設定しない）
+	 * @throws SQLException SQLException
+	 */
+	private void setFetchOptions(PreparedStatement stmt, int fetchSize, int maxRows) throws SQLException {
+		if (fetchSize > 0) {
+			stmt.setFetchSize(fetchSize);
+		}
+		if (maxRows > 0) {
+			stmt.setMaxRows(maxRows);
+		}
+	}
+
 	/**
 	 * UPDATE文（INSERT文）実行
 	 * 
 	 * @param dbProperties DBプロパティファイル
-	 * @param sql          SQL
+	 * @param template     SQLテンプレート
+	 * @param bindVariable バインド変数
 	 * @return SQL実行件数
 	 * @throws SQLException SQLException
 	 */
-	public int executeUpdateSql(Properties dbProperties, String sql) throws SQLException {
+	public int executeUpdateSql(Properties dbProperties, LowCodeSqlTemplate template,
+			Map<String, String> bindVariable) throws SQLException {
 		Connection conn = null;
-		Statement stmt = null;
+		PreparedStatement stmt = null;
 		ResultSet rset = null;
 
 		try {
-			// PostgreSQLへ接続
-			conn = this.getConnection(dbProperties);
+			long start = System.nanoTime();
+			// PostgreSQLへ接続（プライマリのプールから取得）
+			conn = this.getConnection(dbProperties, false);
 
 			// SQL実行
-			stmt = conn.createStatement();
-			int rowcount = stmt.executeUpdate(sql);
+			stmt = conn.prepareStatement(template.getSql());
+			LowCodeDeadline.watch(stmt);
+			template.bind(stmt, bindVariable);
+			int rowcount = stmt.executeUpdate();
 			conn.commit();
+			LowCodePhaseTimer.record(LowCodeMetrics.Phase.DB_EXECUTE, start);
+			LowCodePhaseTimer.addRows(rowcount);
 			return rowcount;
 		} catch (SQLException e) {
 			if (conn != null) {
@@ -247,6 +351,134 @@ public class LowCodeRepository {
 			try {
 				if (rset != null)
 					rset.close();
+				LowCodeDeadline.unwatch(stmt);
+				if (stmt != null)
+					stmt.close();
+				if (conn != null)
+					conn.close();
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+
+		}
+	}
+
+	/**
+	 * 複数のSQL（SQLステップ）の実行。 全てのSQLを1つのコネクション・1つのトランザクションで記載順に実行する。
+	 * いずれかのSQLでエラーが発生した場合は、全てロールバックする。
+	 * 
+	 * @param dbProperties DBプロパティファイル
+	 * @param templates    SQLテンプレート（実行順）
+	 * @param bindVariable バインド変数
+	 * @param update       UPDATE（INSERT）文の場合はtrue、SELECT文の場合はfalse
+	 * @param fetchSize    フェッチサイズ（0以下はドライバの既定値）
+	 * @param maxRows      最大取得件数（0以下は無制限）
+	 * @return SQL毎の実行結果（SELECT文はLowCodeResultTable、UPDATE文は更新件数）
+	 * @throws SQLException SQLException
+	 */
+	public List<Object> executeSqlSteps(Properties dbProperties, List<LowCodeSqlTemplate> templates,
+			Map<String, String> bindVariable, boolean update, int fetchSize, int maxRows) throws SQLException {
+		Connection conn = null;
+		List<Object> results = new ArrayList<Object>(templates.size());
+
+		try {
+			long start = System.nanoTime();
+			// PostgreSQLへ接続（SELECT文のみの場合はレプリカ、UPDATE文の場合はプライマリのプールから取得）
+			conn = this.getConnection(dbProperties, !update);
+
+			// SQL実行（ステートメントはコネクション毎にキャッシュされる）
+			for (LowCodeSqlTemplate template : templates) {
+				PreparedStatement stmt = conn.prepareStatement(template.getSql());
+				try {
+					LowCodeDeadline.watch(stmt);
+					template.bind(stmt, bindVariable);
+					if (update) {
+						int rowcount = stmt.executeUpdate();
+						start = LowCodePhaseTimer.record(LowCodeMetrics.Phase.DB_EXECUTE, start);
+						LowCodePhaseTimer.addRows(rowcount);
+						results.add(rowcount);
+					} else {
+						this.setFetchOptions(stmt, fetchSize, maxRows);
+						ResultSet rset = stmt.executeQuery();
+						start = LowCodePhaseTimer.record(LowCodeMetrics.Phase.DB_EXECUTE, start);
+						try {
+							LowCodeResultTable table = LowCodeResultTable.read(rset);
+							start = LowCodePhaseTimer.record(LowCodeMetrics.Phase.ROW_MAPPING, start);
+							LowCodePhaseTimer.addRows(table.size());
+							results.add(table);
+						} finally {
+							rset.close();
+						}
+					}
+				} finally {
+					LowCodeDeadline.unwatch(stmt);
+					stmt.close();
+				}
+			}
+			conn.commit();
+			return results;
+		} catch (SQLException e) {
+			if (conn != null) {
+				conn.rollback();
+			}
+			throw e;
+		} finally {
+			try {
+				if (conn != null)
+					conn.close();
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * UPDATE（INSERT）文の一括実行。 全行を1つのトランザクションで実行し、バッチサイズ毎にまとめてDBへ送信する。
+	 * いずれかの行でエラーが発生した場合は、全行をロールバックする。
+	 * 
+	 * @param dbProperties DBプロパティファイル
+	 * @param template     SQLテンプレート
+	 * @param rows         行毎のバインド変数
+	 * @param batchSize    バッチサイズ（1回に送信する行数）
+	 * @return 行毎の更新件数（ドライバが件数を返却しない場合はStatement.SUCCESS_NO_INFO）
+	 * @throws SQLException SQLException
+	 */
+	public int[] executeBatchSql(Properties dbProperties, LowCodeSqlTemplate template, List<Map<String, String>> rows,
+			int batchSize) throws SQLException {
+		Connection conn = null;
+		PreparedStatement stmt = null;
+		int[] updateCounts = new int[rows.size()];
+
+		try {
+			long start = System.nanoTime();
+			// PostgreSQLへ接続（プライマリのプールから取得）
+			conn = this.getConnection(dbProperties, false);
+
+			// SQL実行
+			stmt = conn.prepareStatement(template.getSql());
+			LowCodeDeadline.watch(stmt);
+			int sent = 0;
+			for (int i = 0; i < rows.size(); i++) {
+				template.bind(stmt, rows.get(i));
+				stmt.addBatch();
+				if (i + 1 - sent >= batchSize || i == rows.size() - 1) {
+					int[] counts = stmt.executeBatch();
+					System.arraycopy(counts, 0, updateCounts, sent, counts.length);
+					sent = i + 1;
+				}
+			}
+			conn.commit();
+			LowCodePhaseTimer.record(LowCodeMetrics.Phase.DB_EXECUTE, start);
+			LowCodePhaseTimer.addRows(rows.size());
+			return updateCounts;
+		} catch (SQLException e) {
+			if (conn != null) {
+				conn.rollback();
+			}
+			throw e;
+		} finally {
+			try {
+				LowCodeDeadline.unwatch(stmt);
 				if (stmt != null)
 					stmt.close();
 				if (conn != null)
@@ -254,26 +486,269 @@ public class LowCodeRepository {
 			} catch (SQLException e) {
 				e.printStackTrace();
 			}
+		}
+	}
+
+	/**
+	 * CSV出力の作成。 SQLは出力時（{@link LowCodeCsvExport#writeTo(java.io.OutputStream)}）に実行する。
+	 * 
+	 * @param dbProperties DBプロパティファイル
+	 * @param template     SQLテンプレート
+	 * @param bindVariable バインド変数
+	 * @param fetchSize    フェッチサイズ（0以下は既定値）
+	 * @param maxRows      最大取得件数（0以下は無制限）
+	 * @param metrics      性能情報（記録しない場合はnull）
+	 * @return CSV出力
+	 */
+	public LowCodeCsvExport createCsvExport(Properties dbProperties, LowCodeSqlTemplate template,
+			Map<String, String> bindVariable, int fetchSize, int maxRows, LowCodeMetrics metrics) {
+		return new LowCodeCsvExport(dbProperties, template, bindVariable, fetchSize, maxRows, metrics);
+	}
+
+	/**
+	 * CSVの一括登録。 1行目を列名としたCSVを、全行1つのトランザクションでテーブルに登録する。
+	 * PostgreSQLの場合は COPY FROM STDIN で登録し、それ以外の場合はINSERT文をバッチサイズ毎にまとめてDBへ送信する。
+	 * いずれも入力を1レコードずつ読み込む為、CSV全体をメモリに保持しない。 いずれかの行でエラーが発生した場合は、全行をロールバックする。
+	 * 
+	 * @param dbProperties    DBプロパティファイル
+	 * @param table           テーブル名
+	 * @param body            CSV（UTF-8、クローズしない）
+	 * @param batchSize       バッチサイズ（1回に送信する行数）
+	 * @param maxRecordLength 1レコードの最大文字数
+	 * @param metrics         性能情報（記録しない場合はnull）
+	 * @return 登録件数
+	 * @throws SQLException SQLException、テーブル名・列名が不正な場合、列数が一致しない場合
+	 * @throws IOException  IO例外、CSVの形式が不正な場合
+	 */
+	public long importCsv(Properties dbProperties, String table, InputStream body, int batchSize,
+			int maxRecordLength, LowCodeMetrics metrics) throws SQLException, IOException {
+		if (table == null || !isSqlName(table.trim())) {
+			throw new SQLException(String.format("テーブル名が不正です: %s", table));
+		}
+		InputStream in = new BufferedInputStream(new CountingInputStream(body, metrics));
+		Connection conn = null;
+		if (metrics != null) {
+			metrics.beginTransfer();
+		}
+		try {
+			long start = System.nanoTime();
+			// PostgreSQLへ接続（プライマリのプールから取得）
+			conn = this.getConnection(dbProperties, false);
+
+			// 列名の読込み
+			List<String> columns = readCsvHeader(in, maxRecordLength);
+			StringBuilder columnList = new StringBuilder();
+			for (String column : columns) {
+				if (column == null || !isSqlName(column.trim())) {
+					throw new SQLException(String.format("CSVの列名が不正です: %s", column));
+				}
+				columnList.append(columnList.length() > 0 ? ", " : "").append(column.trim());
+			}
+
+			// SQL実行
+			long rows;
+			if (LowCodePgCopy.isSupported(conn)) {
+				rows = LowCodePgCopy.copyIn(conn,
+						"COPY " + table.trim() + " (" + columnList + ") FROM STDIN WITH (FORMAT csv)", in);
+				if (metrics != null) {
+					metrics.addTransferRows(rows);
+				}
+			} else {
+				rows = this.insertCsvRows(conn, table.trim(), columnList.toString(), columns.size(),
+						new LowCodeCsvReader(new InputStreamReader(in, StandardCharsets.UTF_8), maxRecordLength),
+						batchSize, metrics);
+			}
+			conn.commit();
+			LowCodePhaseTimer.record(LowCodeMetrics.Phase.DB_EXECUTE, start);
+			LowCodePhaseTimer.addRows(rows);
+			return rows;
+		} catch (SQLException e) {
+			if (conn != null) {
+				conn.rollback();
+			}
+			throw e;
+		} catch (IOException e) {
+			if (conn != null) {
+				conn.rollback();
+			}
+			throw e;
+		} finally {
+			if (metrics != null) {
+				metrics.endTransfer();
+			}
+			try {
+				if (conn != null)
+					conn.close();
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * CSVの行のINSERT文での登録。 バッチサイズ毎にまとめてDBへ送信する（コミットはしない）。
+	 * 
+	 * @param conn        DBコネクション
+	 * @param table       テーブル名
+	 * @param columnList  列名（カンマ区切り）
+	 * @param columnCount 列数
+	 * @param reader      CSV（列名の行を読込み済み）
+	 * @param batchSize   バッチサイズ（1回に送信する行数）
+	 * @param metrics     性能情報（記録しない場合はnull）
+	 * @return 登録件数
+	 * @throws SQLException SQLException、列数が一致しない場合
+	 * @throws IOException  IO例外
+	 */
+	private long insertCsvRows(Connection conn, String table, String columnList, int columnCount,
+			LowCodeCsvReader reader, int batchSize, LowCodeMetrics metrics) throws SQLException, IOException {
+		StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (").append(columnList)
+				.append(") VALUES (");
+		for (int i = 0; i < columnCount; i++) {
+			sql.append(i > 0 ? ", ?" : "?");
+		}
+		PreparedStatement stmt = conn.prepareStatement(sql.append(')').toString());
+		try {
+			LowCodeDeadline.watch(stmt);
+			long rows = 0;
+			int pending = 0;
+			List<String> values;
+			while ((values = reader.readRecord()) != null) {
+				if (values.size() != columnCount) {
+					throw new SQLException(String.format("CSVの列数が列名の行と一致しません。レコード: %d", reader.getLineNumber() + 1));
+				}
+				for (int i = 0; i < columnCount; i++) {
+					stmt.setString(i + 1, values.get(i));
+				}
+				stmt.addBatch();
+				if (++pending >= batchSize) {
+					stmt.executeBatch();
+					rows += pending;
+					if (metrics != null) {
+						metrics.addTransferRows(pending);
+					}
+					pending = 0;
+				}
+			}
+			if (pending > 0) {
+				stmt.executeBatch();
+				rows += pending;
+				if (metrics != null) {
+					metrics.addTransferRows(pending);
+				}
+			}
+			return rows;
+		} finally {
+			LowCodeDeadline.unwatch(stmt);
+			stmt.close();
+		}
+	}
 
+	/**
+	 * CSVの列名の行の読込み。 列名の行のみを読み込み、残りの入力はそのまま（COPYに渡すことができる）とする。
+	 * 
+	 * @param in              CSV
+	 * @param maxRecordLength 1レコードの最大文字数
+	 * @return 列名
+	 * @throws IOException IO例外、列名の行が無い場合
+	 */
+	private static List<String> readCsvHeader(InputStream in, int maxRecordLength) throws IOException {
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		int b;
+		while ((b = in.read()) >= 0 && b != '\n') {
+			if (line.size() >= maxRecordLength) {
+				throw new IOException(String.format("CSVの列名の行が最大文字数を超えました。最大文字数: %d", maxRecordLength));
+			}
+			line.write(b);
+		}
+		String header = new String(line.toByteArray(), StandardCharsets.UTF_8);
+		if (header.startsWith("\uFEFF")) {
+			// BOMを除く
+			header = header.substring(1);
+		}
+		List<String> columns = new LowCodeCsvReader(new StringReader(header), maxRecordLength).readRecord();
+		if (columns == null) {
+			throw new IOException("CSVの列名の行がありません。");
 		}
+		return columns;
+	}
+
+	/**
+	 * テーブル名・列名として使用できるか（SQLに埋め込む為、英数字・アンダースコアのみとする）
+	 * 
+	 * @param name 名前（スキーマ名.テーブル名も可）
+	 * @return 使用できる場合はtrue
+	 */
+	static boolean isSqlName(String name) {
+		return SQL_NAME.matcher(name).matches();
 	}
 
 	/**
-	 * DBコネクション取得
+	 * 実行計画の取得。 SQLの先頭に「EXPLAIN」を付けて実行し、実行結果の全列をタブ区切り・全行を改行区切りで返却する。
+	 * 実行計画の取得のみで、データは変更しない（トランザクションはロールバックする）。
 	 * 
 	 * @param dbProperties DBプロパティファイル
-	 * @return DBコネクション
+	 * @param template     SQLテンプレート
+	 * @param bindVariable バインド変数
+	 * @return 実行計画
+	 * @throws SQLException SQLException
+	 */
+	public String explainSql(Properties dbProperties, LowCodeSqlTemplate template, Map<String, String> bindVariable)
+			throws SQLException {
+		Connection conn = null;
+		PreparedStatement stmt = null;
+		ResultSet rset = null;
+
+		try {
+			// PostgreSQLへ接続（参照のため、レプリカのプールから取得）
+			conn = this.getConnection(dbProperties, true);
+
+			// SQL実行
+			stmt = conn.prepareStatement("EXPLAIN " + template.getSql());
+			template.bind(stmt, bindVariable);
+			rset = stmt.executeQuery();
+
+			// 実行結果の読込み
+			StringBuilder plan = new StringBuilder();
+			int columnCount = rset.getMetaData().getColumnCount();
+			while (rset.next()) {
+				if (plan.length() > 0) {
+					plan.append('\n');
+				}
+				for (int i = 1; i <= columnCount; i++) {
+					if (i > 1) {
+						plan.append('\t');
+					}
+					plan.append(rset.getString(i));
+				}
+			}
+			return plan.toString();
+		} finally {
+			try {
+				if (rset != null)
+					rset.close();
+				if (stmt != null)
+					stmt.close();
+				if (conn != null) {
+					conn.rollback();
+					conn.close();
+				}
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * DBコネクション取得。 DBプロパティファイルの接続先に対応するコネクションプールから取得する。
+	 * レプリカが指定されている場合、参照のみのコネクションはレプリカから取得する。
+	 * 
+	 * @param dbProperties DBプロパティファイル
+	 * @param readOnly     参照のみの場合はtrue
+	 * @return DBコネクション（close()でプールへ返却する）
 	 * @throws SQLException
 	 */
-	private Connection getConnection(Properties dbProperties) throws SQLException {
-		String url = dbProperties.getProperty("url");
-		String user = dbProperties.getProperty("user");
-		String password = dbProperties.getProperty("password");
-		// PostgreSQLへ接続
-		Connection conn = DriverManager.getConnection(url, user, password);
-		// 自動コミットOFF
-		conn.setAutoCommit(false);
-		return conn;
+	private Connection getConnection(Properties dbProperties, boolean readOnly) throws SQLException {
+		return LowCodeDataSourceRouter.getInstance(dbProperties).getConnection(readOnly);
 	}
 
 	/**
@@ -283,7 +758,42 @@ public class LowCodeRepository {
 	 * @param responseModel レスポンスモデル
 	 * @return Viewableクラス
 	 */
-	public Viewable createViewable(String viewPath, Map<String, List<Map<String, String>>> responseModel) {
+	public Viewable createViewable(String viewPath, Map<String, Object> responseModel) {
 		return new Viewable(viewPath, responseModel);
 	}
+
+	/**
+	 * 転送バイト数を性能情報に加算する入力
+	 */
+	private static class CountingInputStream extends FilterInputStream {
+		private final LowCodeMetrics metrics; // 性能情報（記録しない場合はnull）
+
+		private CountingInputStream(InputStream in, LowCodeMetrics metrics) {
+			super(in);
+			this.metrics = metrics;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = this.in.read();
+			if (b >= 0 && this.metrics != null) {
+				this.metrics.addTransferBytes(1);
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int read = this.in.read(b, off, len);
+			if (read > 0 && this.metrics != null) {
+				this.metrics.addTransferBytes(read);
+			}
+			return read;
+		}
+
+		@Override
+		public void close() {
+			// リクエストの入力はクローズしない
+		}
+	}
 }
@@ -0,0 +1,291 @@
+package infrastructure;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+
+import common.LowCodeLog;
+
+/**
+ * SELECT文の実行結果のキャッシュクラス。
+ *
+ * キーは「識別子 + SQLで使用するバインド変数の値」とし、キャッシュ毎の有効期間（TTL）と、全体の重み（推定メモリ量）の上限を設ける。
+ * 上限を超えた場合は、最も長く参照されていないキャッシュから削除する。
+ * 各キャッシュにはタグ（識別子・テーブル名）を付け、更新系のリソースからタグを指定して削除する。
+ * 同じキーに対する同時のキャッシュミスは、1回のDB検索にまとめる。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeResultCache {
+	private final Logger log = Logger.getLogger(LowCodeResultCache.class); // ログ
+	private final long maxWeight; // 重みの上限
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true); // キー → キャッシュ（参照順）
+	private final ConcurrentMap<String, FutureTask<LowCodeResultTable>> loading = new ConcurrentHashMap<String, FutureTask<LowCodeResultTable>>(); // 検索中のキー
+	private final AtomicLong generation = new AtomicLong(); // 削除（無効化）の世代
+	private final AtomicLong hitCount = new AtomicLong(); // ヒット件数
+	private final AtomicLong missCount = new AtomicLong(); // ミス件数
+	private final AtomicLong evictionCount = new AtomicLong(); // 上限超過による削除件数
+	private long weight; // 現在の重み
+
+	/**
+	 * DB検索処理のインターフェース
+	 */
+	public interface Loader {
+		/**
+		 * DB検索
+		 *
+		 * @return SQL実行結果
+		 * @throws SQLException SQLException
+		 */
+		LowCodeResultTable load() throws SQLException;
+	}
+
+	/**
+	 * キャッシュ
+	 */
+	private static class Entry {
+		private final LowCodeResultTable table; // SQL実行結果
+		private final Set<String> tags; // タグ
+		private final long expireMillis; // 有効期限
+		private final long weight; // 重み
+
+		private Entry(LowCodeResultTable table, Set<String> tags, long expireMillis) {
+			this.table = table;
+			this.tags = tags;
+			this.expireMillis = expireMillis;
+			this.weight = table.getWeight();
+		}
+	}
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param maxWeight 重みの上限（推定メモリ量、バイト）
+	 */
+	public LowCodeResultCache(long maxWeight) {
+		this.maxWeight = maxWeight;
+	}
+
+	/**
+	 * キャッシュキーの作成。 SQLで使用するバインド変数の値のみを、SQL内の出現順に連結する（不要なパラメータは無視する）。
+	 *
+	 * 同じSQLでも接続先（データソース・シャード）が異なる場合は、別のキーとする。
+	 *
+	 * @param identifier     識別子
+	 * @param dataSourceName 接続先のデータソース名（シャードを選択した場合はシャードのデータソース名）
+	 * @param template       SQLテンプレート
+	 * @param bindVariable   バインド変数
+	 * @param maxRows        最大取得件数
+	 * @return キャッシュキー
+	 * @throws SQLException バインド変数が指定されていない場合
+	 */
+	public static String createKey(String identifier, String dataSourceName, LowCodeSqlTemplate template,
+			Map<String, String> bindVariable, int maxRows) throws SQLException {
+		StringBuilder key = new StringBuilder(identifier).append('|').append(dataSourceName.length()).append(':')
+				.append(dataSourceName).append('|').append(template.getLastModified()).append('|').append(maxRows);
+		for (LowCodeSqlTemplate.Parameter parameter : template.getParameters()) {
+			String value = parameter.value(bindVariable);
+			key.append('|').append(value.length()).append(':').append(value);
+		}
+		return key.toString();
+	}
+
+	/**
+	 * キャッシュの取得。 キャッシュが無い場合、有効期限が切れている場合はDB検索して、結果をキャッシュする。
+	 * 同じキーのDB検索が実行中の場合は、その結果を待って返却する。
+	 *
+	 * @param key       キャッシュキー
+	 * @param tags      タグ（識別子・テーブル名）
+	 * @param ttlMillis 有効期間（ミリ秒）
+	 * @param loader    DB検索処理
+	 * @return SQL実行結果
+	 * @throws SQLException SQLException
+	 */
+	public LowCodeResultTable get(String key, Set<String> tags, long ttlMillis, final Loader loader)
+			throws SQLException {
+		LowCodeResultTable table = this.find(key);
+		if (table != null) {
+			this.hitCount.incrementAndGet();
+			return table;
+		}
+		this.missCount.incrementAndGet();
+
+		FutureTask<LowCodeResultTable> task = new FutureTask<LowCodeResultTable>(
+				new Callable<LowCodeResultTable>() {
+					public LowCodeResultTable call() throws SQLException {
+						return loader.load();
+					}
+				});
+		FutureTask<LowCodeResultTable> running = this.loading.putIfAbsent(key, task);
+		if (running == null) {
+			// 自スレッドでDB検索する
+			long startGeneration = this.generation.get();
+			try {
+				task.run();
+				table = this.await(task);
+				this.put(key, new Entry(table, tags, System.currentTimeMillis() + ttlMillis), startGeneration);
+				return table;
+			} finally {
+				this.loading.remove(key, task);
+			}
+		}
+		// 他スレッドのDB検索結果を待つ
+		return this.await(running);
+	}
+
+	/**
+	 * タグを指定したキャッシュの削除
+	 *
+	 * @param tags タグ（識別子・テーブル名）
+	 */
+	public void invalidate(Collection<String> tags) {
+		if (tags.isEmpty()) {
+			return;
+		}
+		int removed = 0;
+		synchronized (this) {
+			this.generation.incrementAndGet();
+			Iterator<Entry> it = this.entries.values().iterator();
+			while (it.hasNext()) {
+				Entry entry = it.next();
+				for (String tag : tags) {
+					if (entry.tags.contains(tag)) {
+						it.remove();
+						this.weight -= entry.weight;
+						removed++;
+						break;
+					}
+				}
+			}
+		}
+		LowCodeLog.debug(log, "キャッシュを削除しました。タグ: %s 件数: %d", tags, removed);
+	}
+
+	/**
+	 * 全キャッシュの削除
+	 */
+	public synchronized void clear() {
+		this.generation.incrementAndGet();
+		this.entries.clear();
+		this.weight = 0;
+	}
+
+	/**
+	 * キャッシュ件数の取得
+	 *
+	 * @return キャッシュ件数
+	 */
+	public synchronized int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * 現在の重みの取得
+	 *
+	 * @return 現在の重み（推定メモリ量、バイト）
+	 */
+	public synchronized long getWeight() {
+		return this.weight;
+	}
+
+	/**
+	 * ヒット件数の取得
+	 *
+	 * @return ヒット件数
+	 */
+	public long getHitCount() {
+		return this.hitCount.get();
+	}
+
+	/**
+	 * ミス件数の取得
+	 *
+	 * @return ミス件数
+	 */
+	public long getMissCount() {
+		return this.missCount.get();
+	}
+
+	/**
+	 * 上限超過による削除件数の取得
+	 *
+	 * @return 削除件数
+	 */
+	public long getEvictionCount() {
+		return this.evictionCount.get();
+	}
+
+	private synchronized LowCodeResultTable find(String key) {
+		Entry entry = this.entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (entry.expireMillis <= System.currentTimeMillis()) {
+			this.entries.remove(key);
+			this.weight -= entry.weight;
+			return null;
+		}
+		return entry.table;
+	}
+
+	private synchronized void put(String key, Entry entry, long startGeneration) {
+		if (this.generation.get() != startGeneration) {
+			// DB検索中に削除された実行結果はキャッシュしない（削除と同じロックの中で確認する）
+			return;
+		}
+		if (entry.weight > this.maxWeight) {
+			// 上限を超える実行結果はキャッシュしない
+			return;
+		}
+		Entry old = this.entries.put(key, entry);
+		if (old != null) {
+			this.weight -= old.weight;
+		}
+		this.weight += entry.weight;
+		Iterator<Entry> it = this.entries.values().iterator();
+		while (this.weight > this.maxWeight && it.hasNext()) {
+			Entry eldest = it.next();
+			it.remove();
+			this.weight -= eldest.weight;
+			this.evictionCount.incrementAndGet();
+		}
+	}
+
+	private LowCodeResultTable await(FutureTask<LowCodeResultTable> task) throws SQLException {
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return task.get();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof SQLException) {
+				throw (SQLException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new SQLException(cause.getMessage(), cause);
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
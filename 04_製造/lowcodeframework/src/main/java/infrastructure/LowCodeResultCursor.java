@@ -0,0 +1,253 @@
+package infrastructure;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ScheduledFuture;
+
+import org.apache.log4j.Logger;
+
+/**
+ * SELECT文の実行結果を1行ずつ読み込むカーソルクラス（ストリーミングモード）。
+ *
+ * 実行結果を全件メモリに保持せず、画面の描画時に1行ずつDBから取得する。 取得件数はフェッチサイズ単位となる。
+ * 最終行まで読み込んだ時点、またはclose()を呼び出した時点で、コネクションをプールへ返却する。
+ * 読み込み途中のカーソルは、リクエスト終了時に{@link #closeAll()}で返却する（LowCodeRequestCleanupListener）。
+ * 非同期実行の場合は、実行スレッドから{@link #detachAll()}で切り離し、結果を受け取るスレッドで{@link #adopt()}により登録し直す。
+ * 作成時のカレントスレッドの処理期限は、画面の描画中の読込みにも適用する（クローズまでステートメントを監視し、
+ * 読込み中は期限になった時点でキャンセルする。 一定行数毎に期限を確認する）。
+ * 1回だけ読み込むことができる。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeResultCursor implements Iterator<Map<String, String>>, Iterable<Map<String, String>>, Closeable {
+	private static final ThreadLocal<List<LowCodeResultCursor>> OPEN_CURSORS = new ThreadLocal<List<LowCodeResultCursor>>();
+
+	private final Logger log = Logger.getLogger(LowCodeResultCursor.class); // ログ
+	private final Connection conn; // DBコネクション
+	private final Statement stmt; // ステートメント
+	private final ResultSet rset; // 実行結果
+	private final String[] columnNames; // 列名
+	private final Map<String, Integer> columnIndex; // 列名 → 列位置
+	private final LowCodeDeadline deadline; // 処理期限（作成時のカレントスレッドの処理期限、無い場合はnull）
+	private volatile ScheduledFuture<?> watchdog; // 読込み中の処理期限の監視
+	private boolean fetched; // 次の行を読込済み
+	private boolean hasNext; // 次の行が存在する
+	private boolean iterated; // iterator()取得済み
+	private volatile boolean closed; // クローズ済み
+	private volatile List<LowCodeResultCursor> owner; // 登録先のスレッドのカーソル一覧（切り離し中はnull）
+	private int rowCount; // 読込件数
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param conn DBコネクション
+	 * @param stmt ステートメント（カレントスレッドの処理期限で監視中のもの）
+	 * @param rset 実行結果
+	 * @throws SQLException SQLException
+	 */
+	LowCodeResultCursor(Connection conn, Statement stmt, ResultSet rset) throws SQLException {
+		this.conn = conn;
+		this.stmt = stmt;
+		this.rset = rset;
+		this.columnNames = LowCodeResultTable.readColumnNames(rset);
+		this.columnIndex = LowCodeResultTable.createColumnIndex(this.columnNames);
+		this.deadline = LowCodeDeadline.current();
+		this.register();
+	}
+
+	/**
+	 * カレントスレッドで開いているカーソルを全てクローズする。
+	 */
+	public static void closeAll() {
+		for (LowCodeResultCursor cursor : detachAll()) {
+			cursor.close();
+		}
+	}
+
+	/**
+	 * カレントスレッドで開いているカーソルの切り離し。 非同期実行の実行スレッドから、結果を受け取るスレッドへ引き継ぐ為に使用する。
+	 *
+	 * @return 切り離したカーソル（クローズされていないもの）
+	 */
+	public static List<LowCodeResultCursor> detachAll() {
+		List<LowCodeResultCursor> cursors = OPEN_CURSORS.get();
+		if (cursors == null) {
+			return Collections.emptyList();
+		}
+		OPEN_CURSORS.remove();
+		List<LowCodeResultCursor> detached;
+		synchronized (cursors) {
+			detached = new ArrayList<LowCodeResultCursor>(cursors);
+			cursors.clear();
+		}
+		for (LowCodeResultCursor cursor : detached) {
+			cursor.owner = null;
+		}
+		return detached;
+	}
+
+	/**
+	 * カレントスレッドへの登録。 他のスレッドに登録されている場合は、そのスレッドから外す（リクエスト終了時にカレントスレッドでクローズする）。
+	 */
+	public void adopt() {
+		List<LowCodeResultCursor> current = OPEN_CURSORS.get();
+		if (this.closed || (current != null && this.owner == current)) {
+			return;
+		}
+		this.unregister();
+		this.register();
+	}
+
+	private void register() {
+		List<LowCodeResultCursor> cursors = OPEN_CURSORS.get();
+		if (cursors == null) {
+			cursors = new ArrayList<LowCodeResultCursor>();
+			OPEN_CURSORS.set(cursors);
+		}
+		synchronized (cursors) {
+			cursors.add(this);
+		}
+		this.owner = cursors;
+	}
+
+	private void unregister() {
+		List<LowCodeResultCursor> cursors = this.owner;
+		if (cursors != null) {
+			synchronized (cursors) {
+				cursors.remove(this);
+			}
+			this.owner = null;
+		}
+	}
+
+	/**
+	 * イテレータの取得。 カーソルは1回だけ読み込むことができる。
+	 *
+	 * @return イテレータ（本インスタンス）
+	 */
+	public Iterator<Map<String, String>> iterator() {
+		if (this.iterated) {
+			throw new IllegalStateException("カーソルは既に読み込まれています。");
+		}
+		this.iterated = true;
+		// 読み込むスレッド（画面の描画スレッド）でリクエスト終了時にクローズする
+		this.adopt();
+		// 読込み中に処理期限になった場合は、実行中のステートメント（フェッチ）をキャンセルする
+		if (this.deadline != null && !this.closed) {
+			this.watchdog = this.deadline.schedule();
+		}
+		return this;
+	}
+
+	/**
+	 * 次の行が存在するか。 最終行まで読み込んだ場合は、カーソルをクローズする。
+	 *
+	 * @return 次の行が存在する場合はtrue
+	 */
+	public boolean hasNext() {
+		if (!this.fetched) {
+			this.fetched = true;
+			try {
+				this.hasNext = !this.closed && this.rset.next();
+			} catch (SQLException e) {
+				this.close();
+				throw new IllegalStateException(e.getMessage(), e);
+			}
+			if (!this.hasNext) {
+				this.close();
+			}
+		}
+		return this.hasNext;
+	}
+
+	/**
+	 * 次の行の取得
+	 *
+	 * @return 列名 → 値
+	 */
+	public Map<String, String> next() {
+		if (!this.hasNext()) {
+			throw new NoSuchElementException();
+		}
+		this.fetched = false;
+		try {
+			if ((++this.rowCount & (LowCodeResultTable.DEADLINE_CHECK_ROWS - 1)) == 0 && this.deadline != null) {
+				this.deadline.check();
+			}
+			String[] cells = new String[this.columnNames.length];
+			for (int i = 0; i < cells.length; i++) {
+				cells[i] = this.rset.getString(i + 1);
+			}
+			return new LowCodeResultRow(this.columnNames, this.columnIndex, cells, 0);
+		} catch (SQLException e) {
+			this.close();
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 削除（未サポート）
+	 */
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * 読込件数の取得
+	 *
+	 * @return 読込件数
+	 */
+	public int getRowCount() {
+		return this.rowCount;
+	}
+
+	/**
+	 * クローズ済みか
+	 *
+	 * @return クローズ済みの場合はtrue
+	 */
+	public boolean isClosed() {
+		return this.closed;
+	}
+
+	/**
+	 * カーソルのクローズ。 実行結果・ステートメントをクローズし、コネクションをプールへ返却する。
+	 */
+	public void close() {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		// 登録したスレッドのカーソル一覧から外す（クローズするスレッドが異なる場合も含む）
+		this.unregister();
+		if (this.watchdog != null) {
+			this.watchdog.cancel(false);
+		}
+		if (this.deadline != null) {
+			this.deadline.remove(this.stmt);
+		}
+		try {
+			this.rset.close();
+			this.stmt.close();
+			this.conn.commit();
+		} catch (SQLException e) {
+			log.warn(String.format("カーソルのクローズに失敗しました。%s", e.getMessage()));
+		} finally {
+			try {
+				this.conn.close();
+			} catch (SQLException e) {
+				log.warn(String.format("コネクションの返却に失敗しました。%s", e.getMessage()));
+			}
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package infrastructure;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * SELECT文の実行結果の1行を表すMapビュークラス。
+ *
+ * 列名と列位置の対応は実行結果全体で共有し、行の値は配列で保持する。 JSPのEL式（${row.name}）から参照できるようMapとして振る舞うが、変更はできない。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeResultRow extends AbstractMap<String, String> {
+	private final String[] columnNames; // 列名
+	private final Map<String, Integer> columnIndex; // 列名 → 列位置
+	private final String[] cells; // 値
+	private final int offset; // 行の先頭位置
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param columnNames 列名
+	 * @param columnIndex 列名 → 列位置
+	 * @param cells       値
+	 * @param offset      行の先頭位置
+	 */
+	LowCodeResultRow(String[] columnNames, Map<String, Integer> columnIndex, String[] cells, int offset) {
+		this.columnNames = columnNames;
+		this.columnIndex = columnIndex;
+		this.cells = cells;
+		this.offset = offset;
+	}
+
+	@Override
+	public String get(Object key) {
+		Integer index = this.columnIndex.get(key);
+		return index != null ? this.cells[this.offset + index] : null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return this.columnIndex.containsKey(key);
+	}
+
+	@Override
+	public int size() {
+		return this.columnNames.length;
+	}
+
+	@Override
+	public Set<Map.Entry<String, String>> entrySet() {
+		return new AbstractSet<Map.Entry<String, String>>() {
+			@Override
+			public Iterator<Map.Entry<String, String>> iterator() {
+				return new Iterator<Map.Entry<String, String>>() {
+					private int i;
+
+					public boolean hasNext() {
+						return i < columnNames.length;
+					}
+
+					public Map.Entry<String, String> next() {
+						if (!hasNext()) {
+							throw new NoSuchElementException();
+						}
+						Map.Entry<String, String> entry = new SimpleImmutableEntry<String, String>(columnNames[i],
+								cells[offset + i]);
+						i++;
+						return entry;
+					}
+
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return columnNames.length;
+			}
+		};
+	}
+}
@@ -0,0 +1,206 @@
+package infrastructure;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * SELECT文の実行結果クラス。
+ *
+ * 列名は1回だけ保持し、全行の値を1つの配列に行順で格納する（行毎のMapは作成しない）。
+ * 各行は{@link LowCodeResultRow}（Mapビュー）として参照できるため、従来の List&lt;Map&lt;String, String&gt;&gt;
+ * と同様にJSPのEL式（${it.model.get(0).name}）から参照できる。 生成後は不変である。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeResultTable extends AbstractList<Map<String, String>> implements RandomAccess {
+	static final int DEADLINE_CHECK_ROWS = 1024; // 処理期限を確認する行数の間隔（2の累乗）
+
+	private final String[] columnNames; // 列名
+	private final int[] columnTypes; // 列の型（java.sql.Types、不明な場合はnull）
+	private final Map<String, Integer> columnIndex; // 列名 → 列位置
+	private final String[] cells; // 全行の値（行順）
+	private final int rowCount; // 行数
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param columnNames 列名
+	 * @param cells       全行の値（行順）
+	 * @param rowCount    行数
+	 */
+	LowCodeResultTable(String[] columnNames, String[] cells, int rowCount) {
+		this(columnNames, null, cells, rowCount);
+	}
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param columnNames 列名
+	 * @param columnTypes 列の型（java.sql.Types、不明な場合はnull）
+	 * @param cells       全行の値（行順）
+	 * @param rowCount    行数
+	 */
+	LowCodeResultTable(String[] columnNames, int[] columnTypes, String[] cells, int rowCount) {
+		this.columnNames = columnNames;
+		this.columnTypes = columnTypes;
+		this.columnIndex = createColumnIndex(columnNames);
+		this.cells = cells;
+		this.rowCount = rowCount;
+	}
+
+	/**
+	 * 実行結果の読込み。 ResultSetの残りの行を全て読み込む。 読込み中も一定行数毎に処理期限を確認する。
+	 *
+	 * @param rset ResultSet
+	 * @return 実行結果
+	 * @throws SQLException SQLException、処理期限を超過した場合
+	 */
+	public static LowCodeResultTable read(ResultSet rset) throws SQLException {
+		String[] columnNames = readColumnNames(rset);
+		int[] columnTypes = readColumnTypes(rset);
+		int columnCount = columnNames.length;
+		String[] cells = new String[Math.max(columnCount, 1) * 16];
+		int rowCount = 0;
+		while (rset.next()) {
+			int offset = rowCount * columnCount;
+			if (offset + columnCount > cells.length) {
+				cells = Arrays.copyOf(cells, Math.max(cells.length * 2, offset + columnCount));
+			}
+			for (int i = 0; i < columnCount; i++) {
+				cells[offset + i] = rset.getString(i + 1);
+			}
+			if ((++rowCount & (DEADLINE_CHECK_ROWS - 1)) == 0) {
+				LowCodeDeadline.checkCurrent();
+			}
+		}
+		return new LowCodeResultTable(columnNames, columnTypes, cells, rowCount);
+	}
+
+	/**
+	 * 先頭から指定行数までの実行結果の取得。 値の配列は共有する。
+	 *
+	 * @param rows 行数
+	 * @return 実行結果（行数以下の場合は自身）
+	 */
+	LowCodeResultTable limit(int rows) {
+		return rows >= this.rowCount ? this : new LowCodeResultTable(this.columnNames, this.columnTypes, this.cells,
+				rows);
+	}
+
+	/**
+	 * 列名の読込み
+	 *
+	 * @param rset ResultSet
+	 * @return 列名
+	 * @throws SQLException SQLException
+	 */
+	static String[] readColumnNames(ResultSet rset) throws SQLException {
+		ResultSetMetaData rsmd = rset.getMetaData();
+		String[] columnNames = new String[rsmd.getColumnCount()];
+		for (int i = 0; i < columnNames.length; i++) {
+			columnNames[i] = rsmd.getColumnName(i + 1);
+		}
+		return columnNames;
+	}
+
+	/**
+	 * 列の型の読込み
+	 *
+	 * @param rset ResultSet
+	 * @return 列の型（java.sql.Types）
+	 * @throws SQLException SQLException
+	 */
+	static int[] readColumnTypes(ResultSet rset) throws SQLException {
+		ResultSetMetaData rsmd = rset.getMetaData();
+		int[] columnTypes = new int[rsmd.getColumnCount()];
+		for (int i = 0; i < columnTypes.length; i++) {
+			columnTypes[i] = rsmd.getColumnType(i + 1);
+		}
+		return columnTypes;
+	}
+
+	/**
+	 * 列名 → 列位置の作成
+	 *
+	 * @param columnNames 列名
+	 * @return 列名 → 列位置
+	 */
+	static Map<String, Integer> createColumnIndex(String[] columnNames) {
+		Map<String, Integer> columnIndex = new HashMap<String, Integer>(columnNames.length * 2);
+		for (int i = 0; i < columnNames.length; i++) {
+			columnIndex.put(columnNames[i], i);
+		}
+		return Collections.unmodifiableMap(columnIndex);
+	}
+
+	@Override
+	public Map<String, String> get(int index) {
+		if (index < 0 || index >= this.rowCount) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.rowCount);
+		}
+		return new LowCodeResultRow(this.columnNames, this.columnIndex, this.cells, index * this.columnNames.length);
+	}
+
+	@Override
+	public int size() {
+		return this.rowCount;
+	}
+
+	/**
+	 * 列名の取得
+	 *
+	 * @return 列名
+	 */
+	public List<String> getColumnNames() {
+		return Collections.unmodifiableList(Arrays.asList(this.columnNames));
+	}
+
+	/**
+	 * 列の型の取得
+	 *
+	 * @param column 列位置
+	 * @return 列の型（java.sql.Types、不明な場合はTypes.OTHER）
+	 */
+	int getColumnType(int column) {
+		return this.columnTypes != null ? this.columnTypes[column] : Types.OTHER;
+	}
+
+	/**
+	 * 値の取得
+	 *
+	 * @param row    行位置
+	 * @param column 列位置
+	 * @return 値
+	 */
+	public String getValue(int row, int column) {
+		if (row < 0 || row >= this.rowCount || column < 0 || column >= this.columnNames.length) {
+			throw new IndexOutOfBoundsException("Row: " + row + ", Column: " + column);
+		}
+		return this.cells[row * this.columnNames.length + column];
+	}
+
+	/**
+	 * 重み（推定メモリ量）の取得。 キャッシュの上限管理に使用する。
+	 *
+	 * @return 推定メモリ量（バイト）
+	 */
+	public long getWeight() {
+		long weight = 64L + 8L * this.rowCount * this.columnNames.length;
+		for (int i = 0; i < this.rowCount * this.columnNames.length; i++) {
+			if (this.cells[i] != null) {
+				weight += 40L + 2L * this.cells[i].length();
+			}
+		}
+		return weight;
+	}
+}
@@ -0,0 +1,166 @@
+package infrastructure;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import common.LowCodeConsts;
+
+/**
+ * 設定ファイルの1リソース分の設定情報（ルート）クラス。 生成後は不変であり、複数スレッドから共有して参照する。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeRoute {
+	private final String identifier; // 識別子
+	private final Map<String, String> context; // 設定情報（タグ名 → 値）
+	private final Map<String, String> steps; // SQLステップ（ステップ名 → SQLファイルパス、記載順）
+	private final String validationError; // 設定内容チェックのエラーメッセージ（正常な場合はnull）
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param context 設定情報（タグ名 → 値）
+	 */
+	public LowCodeRoute(Map<String, String> context) {
+		this(context, Collections.<String, String>emptyMap(), null);
+	}
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param context         設定情報（タグ名 → 値）
+	 * @param steps           SQLステップ（ステップ名 → SQLファイルパス、記載順）
+	 * @param validationError 設定内容チェックのエラーメッセージ（正常な場合はnull）
+	 */
+	public LowCodeRoute(Map<String, String> context, Map<String, String> steps, String validationError) {
+		this.identifier = context.get(LowCodeConsts.SETTING_IDENTIFIER);
+		this.context = Collections.unmodifiableMap(new LinkedHashMap<String, String>(context));
+		this.steps = Collections.unmodifiableMap(new LinkedHashMap<String, String>(steps));
+		this.validationError = validationError;
+	}
+
+	/**
+	 * 設定内容チェック済みのルートの作成
+	 *
+	 * @param validationError 設定内容チェックのエラーメッセージ（正常な場合はnull）
+	 * @return ルート
+	 */
+	public LowCodeRoute withValidationError(String validationError) {
+		return new LowCodeRoute(this.context, this.steps, validationError);
+	}
+
+	/**
+	 * 識別子の取得
+	 *
+	 * @return 識別子
+	 */
+	public String getIdentifier() {
+		return this.identifier;
+	}
+
+	/**
+	 * 設定値の取得
+	 *
+	 * @param tagName タグ名
+	 * @return 設定値（設定されていない場合はnull）
+	 */
+	public String get(String tagName) {
+		return this.context.get(tagName);
+	}
+
+	/**
+	 * SQLファイルが設定されているか
+	 *
+	 * @return SQLファイルが設定されている場合はtrue
+	 */
+	public boolean hasSql() {
+		String sql = this.context.get(LowCodeConsts.SETTING_SQL);
+		return sql != null && !sql.isEmpty();
+	}
+
+	/**
+	 * 設定内容チェックのエラーメッセージの取得
+	 *
+	 * @return エラーメッセージ（正常な場合はnull）
+	 */
+	public String getValidationError() {
+		return this.validationError;
+	}
+
+	/**
+	 * 設定値の取得（真偽値）
+	 *
+	 * @param tagName タグ名
+	 * @return 設定値が"true"の場合はtrue
+	 */
+	public boolean getBoolean(String tagName) {
+		String value = this.context.get(tagName);
+		return value != null && Boolean.parseBoolean(value.trim());
+	}
+
+	/**
+	 * 設定値の取得（数値）
+	 *
+	 * @param tagName      タグ名
+	 * @param defaultValue 設定されていない場合の値
+	 * @return 設定値
+	 */
+	public int getInt(String tagName, int defaultValue) {
+		String value = this.context.get(tagName);
+		if (value == null || value.trim().isEmpty()) {
+			return defaultValue;
+		}
+		return Integer.parseInt(value.trim());
+	}
+
+	/**
+	 * 設定値の取得（カンマ区切りの一覧）
+	 *
+	 * @param tagName タグ名
+	 * @return 設定値の一覧（設定されていない場合は空）
+	 */
+	public List<String> getList(String tagName) {
+		String value = this.context.get(tagName);
+		if (value == null || value.trim().isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<String> list = new ArrayList<String>();
+		for (String item : value.split(",")) {
+			if (!item.trim().isEmpty()) {
+				list.add(item.trim());
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * SQLステップの取得。 &lt;step name="ステップ名"&gt;SQLファイルパス&lt;/step&gt; の記載順に返却する。
+	 *
+	 * @return SQLステップ（ステップ名 → SQLファイルパス、変更不可）
+	 */
+	public Map<String, String> getSteps() {
+		return this.steps;
+	}
+
+	/**
+	 * SQLステップが設定されているか
+	 *
+	 * @return SQLステップが1つ以上ある場合はtrue
+	 */
+	public boolean hasSteps() {
+		return !this.steps.isEmpty();
+	}
+
+	/**
+	 * 設定情報の取得
+	 *
+	 * @return 設定情報（変更不可）
+	 */
+	public Map<String, String> getContext() {
+		return this.context;
+	}
+}
@@ -0,0 +1,220 @@
+package infrastructure;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.log4j.Logger;
+
+import common.LowCodeConsts;
+
+/**
+ * 設定ファイルのルート表を保持するレジストリクラス。
+ *
+ * 設定ファイルは初回参照時に一度だけ解析し、ルート表（不変のスナップショット）として保持する。
+ * 解析時に全ルートの設定内容（ファイルパスの存在等）をチェックし、エラーのあるルートにはエラーメッセージを持たせる。
+ * リクエスト時にはファイルシステムを参照しない（ファイルの追加・削除は、設定ファイルの更新時に反映される）。
+ * 設定ファイルの更新日時・サイズを一定間隔で監視し、変更があった場合は新しいルート表を作成して差し替える。
+ * 再読込に失敗した場合は、直前のルート表を使い続ける。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeRouteRegistry {
+	private static final String[] NUMBER_SETTINGS = { LowCodeConsts.SETTING_FETCH_SIZE,
+			LowCodeConsts.SETTING_MAX_ROWS, LowCodeConsts.SETTING_CONCURRENCY, LowCodeConsts.SETTING_CACHE,
+			LowCodeConsts.SETTING_BATCH_SIZE, LowCodeConsts.SETTING_PAGE_SIZE,
+			LowCodeConsts.SETTING_STEP_TIMEOUT, LowCodeConsts.SETTING_TIMEOUT };
+	private static final ConcurrentMap<String, LowCodeRouteRegistry> REGISTRIES = new ConcurrentHashMap<String, LowCodeRouteRegistry>();
+
+	private final Logger log = Logger.getLogger(LowCodeRouteRegistry.class); // ログ
+	private final File settingFile; // 設定ファイル
+	private final LowCodeRepository repo; // リポジトリクラス
+	private final long checkIntervalMillis; // 更新監視間隔（ミリ秒）
+	private volatile LowCodeRouteTable table; // 現在のルート表
+	private volatile long nextCheckMillis; // 次回の更新確認時刻
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param settingFile         設定ファイル
+	 * @param repo                リポジトリクラス
+	 * @param checkIntervalMillis 更新監視間隔（ミリ秒）
+	 */
+	LowCodeRouteRegistry(File settingFile, LowCodeRepository repo, long checkIntervalMillis) {
+		this.settingFile = settingFile;
+		this.repo = repo;
+		this.checkIntervalMillis = checkIntervalMillis;
+	}
+
+	/**
+	 * 設定ファイルに対応するレジストリの取得。 同じ設定ファイルに対しては、同じインスタンスを返却する。
+	 *
+	 * @param settingFile 設定ファイル
+	 * @return レジストリ
+	 */
+	public static LowCodeRouteRegistry getInstance(File settingFile) {
+		String key = settingFile.getAbsolutePath();
+		LowCodeRouteRegistry registry = REGISTRIES.get(key);
+		if (registry == null) {
+			LowCodeRouteRegistry created = new LowCodeRouteRegistry(settingFile, new LowCodeRepository(),
+					LowCodeConsts.ROUTE_CHECK_INTERVAL_MILLIS);
+			registry = REGISTRIES.putIfAbsent(key, created);
+			if (registry == null) {
+				registry = created;
+			}
+		}
+		return registry;
+	}
+
+	/**
+	 * 現在のルート表の取得。 監視間隔を過ぎている場合は、設定ファイルの更新有無を確認してから返却する。
+	 *
+	 * @return ルート表
+	 * @throws Exception 初回の設定ファイル読込に失敗した場合
+	 */
+	public LowCodeRouteTable getTable() throws Exception {
+		LowCodeRouteTable current = this.table;
+		if (current == null || System.currentTimeMillis() >= this.nextCheckMillis) {
+			current = this.reloadIfModified();
+		}
+		return current;
+	}
+
+	/**
+	 * 設定ファイルが更新されていれば、ルート表を再作成して差し替える。
+	 *
+	 * @return 差し替え後のルート表
+	 * @throws Exception 初回の設定ファイル読込に失敗した場合
+	 */
+	private synchronized LowCodeRouteTable reloadIfModified() throws Exception {
+		LowCodeRouteTable current = this.table;
+		long now = System.currentTimeMillis();
+		if (current != null && now < this.nextCheckMillis) {
+			// 他スレッドが確認済み
+			return current;
+		}
+		this.nextCheckMillis = now + this.checkIntervalMillis;
+
+		long lastModified = this.settingFile.lastModified();
+		long length = this.settingFile.length();
+		if (current != null && current.getLastModified() == lastModified && current.getLength() == length) {
+			return current;
+		}
+
+		try {
+			LowCodeRouteTable loaded = new LowCodeRouteTable(this.validate(this.repo.readRoutes(this.settingFile)),
+					lastModified, length);
+			this.table = loaded;
+			if (current != null) {
+				log.info(String.format("設定ファイルを再読込しました。ファイル: %s", this.settingFile.getPath()));
+			}
+			return loaded;
+		} catch (Exception e) {
+			if (current == null) {
+				throw e;
+			}
+			log.error(String.format("設定ファイルの再読込に失敗した為、変更前の設定を使用します。%s", e.getMessage()));
+			return current;
+		}
+	}
+
+	/**
+	 * 全ルートの設定内容チェック。 エラーのあるルートは、まとめてログに出力する。
+	 *
+	 * @param routes 識別子 → ルート
+	 * @return 識別子 → チェック済みのルート
+	 */
+	Map<String, LowCodeRoute> validate(Map<String, LowCodeRoute> routes) {
+		Map<String, LowCodeRoute> validated = new LinkedHashMap<String, LowCodeRoute>();
+		StringBuilder errors = new StringBuilder();
+		int errorCount = 0;
+		for (Map.Entry<String, LowCodeRoute> entry : routes.entrySet()) {
+			String error = this.validate(entry.getValue());
+			validated.put(entry.getKey(), entry.getValue().withValidationError(error));
+			if (error != null) {
+				errorCount++;
+				errors.append(String.format("%n  %s: %s", entry.getKey(), error));
+			}
+		}
+		if (errorCount > 0) {
+			log.warn(String.format("設定ファイルに誤りのあるリソースがあります。ファイル: %s 件数: %d%s", this.settingFile.getPath(),
+					errorCount, errors));
+		}
+		return validated;
+	}
+
+	/**
+	 * ルートの設定内容チェック
+	 *
+	 * @param route ルート
+	 * @return エラーメッセージ（正常な場合はnull）
+	 */
+	private String validate(LowCodeRoute route) {
+		// 出力形式のチェック（JSON・NDJSON形式の場合、Viewファイルは使用しない）
+		String response = route.get(LowCodeConsts.SETTING_RESPONSE);
+		response = response != null ? response.trim() : "";
+		if (!response.isEmpty() && !response.equals(LowCodeConsts.RESPONSE_JSON)
+				&& !response.equals(LowCodeConsts.RESPONSE_NDJSON)) {
+			return String.format("%sの設定値が不正です。", LowCodeConsts.SETTING_RESPONSE);
+		}
+		// Viewファイルのチェック
+		if (response.isEmpty() && !this.repo.existsFile(route.get(LowCodeConsts.SETTING_VIEW))) {
+			return "Viewファイルのパスが見つかりません。";
+		}
+		// SQLファイルのチェック
+		if (route.hasSql() && !this.repo.existsFile(route.get(LowCodeConsts.SETTING_SQL))) {
+			return "SQLファイルのパスが見つかりません。";
+		}
+		// SQLステップのチェック
+		for (Map.Entry<String, String> step : route.getSteps().entrySet()) {
+			if (step.getKey().isEmpty()) {
+				return "SQLステップの名前が指定されていません。";
+			}
+			if (!this.repo.existsFile(step.getValue())) {
+				return String.format("SQLファイルのパスが見つかりません。ステップ: %s", step.getKey());
+			}
+		}
+		// エラー画面ファイルのチェック
+		if (!this.repo.existsFile(route.get(LowCodeConsts.SETTING_ERROR_VIEW))) {
+			return "エラー画面ファイルのパスが見つかりません。";
+		}
+		// 数値設定のチェック
+		for (String tagName : NUMBER_SETTINGS) {
+			try {
+				route.getInt(tagName, 0);
+			} catch (NumberFormatException e) {
+				return String.format("%sの設定値が不正です。", tagName);
+			}
+		}
+		// SQLステップの並列実行の設定のチェック
+		if (route.getBoolean(LowCodeConsts.SETTING_PARALLEL) && !route.hasSteps()) {
+			return String.format("%sを指定する場合は、SQLステップを設定してください。", LowCodeConsts.SETTING_PARALLEL);
+		}
+		String stepError = route.get(LowCodeConsts.SETTING_STEP_ERROR);
+		if (stepError != null && !stepError.trim().equals(LowCodeConsts.STEP_ERROR_FAIL)
+				&& !stepError.trim().equals(LowCodeConsts.STEP_ERROR_PARTIAL)) {
+			return String.format("%sの設定値が不正です。", LowCodeConsts.SETTING_STEP_ERROR);
+		}
+		// CSV一括登録のテーブル名のチェック
+		String importTable = route.get(LowCodeConsts.SETTING_IMPORT_TABLE);
+		if (importTable != null && !LowCodeRepository.isSqlName(importTable.trim())) {
+			return String.format("%sの設定値が不正です。", LowCodeConsts.SETTING_IMPORT_TABLE);
+		}
+		// シャードの振分けルールのチェック
+		try {
+			LowCodeShardRule.of(route);
+		} catch (IllegalArgumentException e) {
+			return e.getMessage();
+		}
+		// ページングの設定のチェック
+		try {
+			LowCodePagination.of(route);
+		} catch (IllegalArgumentException e) {
+			return e.getMessage();
+		}
+		return null;
+	}
+}
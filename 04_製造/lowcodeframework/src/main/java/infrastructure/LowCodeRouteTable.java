@@ -0,0 +1,83 @@
+package infrastructure;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import common.LowCodeConsts;
+
+/**
+ * 設定ファイルを解析したルート表（識別子 → ルート）クラス。 設定ファイル読込時点のスナップショットであり、生成後は不変である。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeRouteTable {
+	private final Map<String, LowCodeRoute> routes; // 識別子 → ルート
+	private final LowCodeRoute defaultRoute; // デフォルトルート
+	private final long lastModified; // 読込時の設定ファイル更新日時
+	private final long length; // 読込時の設定ファイルサイズ
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param routes       識別子 → ルート
+	 * @param lastModified 読込時の設定ファイル更新日時
+	 * @param length       読込時の設定ファイルサイズ
+	 */
+	public LowCodeRouteTable(Map<String, LowCodeRoute> routes, long lastModified, long length) {
+		this.routes = Collections.unmodifiableMap(new HashMap<String, LowCodeRoute>(routes));
+		this.defaultRoute = this.routes.get(LowCodeConsts.DEFAULT_IDENTIFIER);
+		this.lastModified = lastModified;
+		this.length = length;
+	}
+
+	/**
+	 * ルートの検索
+	 *
+	 * @param identifier 識別子
+	 * @return ルート（識別子が見つからない場合はnull）
+	 */
+	public LowCodeRoute find(String identifier) {
+		if (identifier == null) {
+			return null;
+		}
+		return this.routes.get(identifier);
+	}
+
+	/**
+	 * デフォルトルートの取得
+	 *
+	 * @return デフォルトルート（設定されていない場合はnull）
+	 */
+	public LowCodeRoute getDefaultRoute() {
+		return this.defaultRoute;
+	}
+
+	/**
+	 * 全ルートの取得
+	 *
+	 * @return 識別子 → ルート（変更不可）
+	 */
+	public Map<String, LowCodeRoute> getRoutes() {
+		return this.routes;
+	}
+
+	/**
+	 * 読込時の設定ファイル更新日時の取得
+	 *
+	 * @return 更新日時
+	 */
+	public long getLastModified() {
+		return this.lastModified;
+	}
+
+	/**
+	 * 読込時の設定ファイルサイズの取得
+	 *
+	 * @return ファイルサイズ
+	 */
+	public long getLength() {
+		return this.length;
+	}
+}
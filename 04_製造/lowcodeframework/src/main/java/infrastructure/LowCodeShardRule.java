@@ -0,0 +1,115 @@
+package infrastructure;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import common.LowCodeConsts;
+
+/**
+ * シャードの振分けルールクラス。
+ *
+ * 設定ファイルの &lt;shardkey&gt;（バインド変数名）の値から、&lt;shards&gt;（カンマ区切りのデータソース名）のいずれかを選択する。
+ * <ul>
+ * <li>ハッシュ： &lt;shardranges&gt; を指定しない場合、値のハッシュ値をシャード数で割った余りで選択する
+ * （シャード数を変更すると振分け先が変わる為、データの移動が必要となる）。</li>
+ * <li>範囲： &lt;shardranges&gt; に昇順の境界値（カンマ区切り、シャード数 - 1個）を指定した場合、値（整数）が最初の境界値未満のものを1番目のシャード、
+ * 次の境界値未満のものを2番目のシャードとし、最後の境界値以上のものを最後のシャードとする。</li>
+ * </ul>
+ * 生成後は不変で、スレッドセーフである。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeShardRule {
+	private final String key; // シャードキー（バインド変数名）
+	private final String[] shards; // データソース名
+	private final long[] bounds; // 範囲の境界値（ハッシュの場合はnull）
+
+	private LowCodeShardRule(String key, String[] shards, long[] bounds) {
+		this.key = key;
+		this.shards = shards;
+		this.bounds = bounds;
+	}
+
+	/**
+	 * ルートからの振分けルールの作成
+	 *
+	 * @param route ルート
+	 * @return 振分けルール（&lt;shardkey&gt; が指定されていない場合はnull）
+	 * @throws IllegalArgumentException 設定内容が不正な場合
+	 */
+	public static LowCodeShardRule of(LowCodeRoute route) {
+		String key = route.get(LowCodeConsts.SETTING_SHARD_KEY);
+		if (key == null || key.trim().isEmpty()) {
+			return null;
+		}
+		List<String> shards = route.getList(LowCodeConsts.SETTING_SHARDS);
+		if (shards.isEmpty()) {
+			throw new IllegalArgumentException("シャードのデータソースが指定されていません。");
+		}
+		List<String> ranges = route.getList(LowCodeConsts.SETTING_SHARD_RANGES);
+		long[] bounds = null;
+		if (!ranges.isEmpty()) {
+			if (ranges.size() != shards.size() - 1) {
+				throw new IllegalArgumentException("シャードの境界値の数は、シャード数 - 1としてください。");
+			}
+			bounds = new long[ranges.size()];
+			for (int i = 0; i < bounds.length; i++) {
+				try {
+					bounds[i] = Long.parseLong(ranges.get(i));
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException(String.format("シャードの境界値が不正です: %s", ranges.get(i)));
+				}
+				if (i > 0 && bounds[i] <= bounds[i - 1]) {
+					throw new IllegalArgumentException("シャードの境界値は昇順に指定してください。");
+				}
+			}
+		}
+		return new LowCodeShardRule(key.trim(), shards.toArray(new String[shards.size()]), bounds);
+	}
+
+	/**
+	 * シャードの選択
+	 *
+	 * @param bindVariable バインド変数
+	 * @return データソース名
+	 * @throws SQLException シャードキーのバインド変数が指定されていない場合、範囲の場合に整数でない場合
+	 */
+	public String select(Map<String, String> bindVariable) throws SQLException {
+		String value = bindVariable.get(this.key);
+		if (value == null) {
+			throw new SQLException(String.format("シャードキーのバインド変数が指定されていません。キー: %s", this.key));
+		}
+		if (this.bounds == null) {
+			return this.shards[hash(value) % this.shards.length];
+		}
+		long number;
+		try {
+			number = Long.parseLong(value.trim());
+		} catch (NumberFormatException e) {
+			throw new SQLException(String.format("シャードキーの値が整数ではありません。キー: %s", this.key));
+		}
+		int i = 0;
+		while (i < this.bounds.length && number >= this.bounds[i]) {
+			i++;
+		}
+		return this.shards[i];
+	}
+
+	/**
+	 * ハッシュ値の計算。 連番の値も均等に分散させる為、String.hashCode()を攪拌する（JVMによらず同じ値となる）。
+	 *
+	 * @param value 値
+	 * @return ハッシュ値（0以上）
+	 */
+	static int hash(String value) {
+		int h = value.hashCode();
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h & Integer.MAX_VALUE;
+	}
+}
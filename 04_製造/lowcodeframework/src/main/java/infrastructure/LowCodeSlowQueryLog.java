@@ -0,0 +1,250 @@
+package infrastructure;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.log4j.Logger;
+
+import common.LowCodeConsts;
+import common.LowCodeLog;
+
+/**
+ * スロークエリログクラス。
+ *
+ * 閾値を超えたSQLを、識別子・処理時間・行数・バインド変数（伏字・切詰め済み）と共に、上限件数の循環バッファと専用のログ（slowquery）に記録する。
+ * 実行計画の取得先DB（本番DBの代わりのローカルDB）が指定されている場合は、記録したSQLのEXPLAINを別スレッドで取得する。
+ * 閾値以下のSQLは、処理時間の比較のみで何もしない。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeSlowQueryLog {
+	private static final int MAX_VALUE_LENGTH = 64; // バインド変数の値の最大文字数
+	private static final String REDACTED = "***"; // 伏字
+
+	private final Logger log = Logger.getLogger(LowCodeConsts.SLOW_QUERY_LOGGER); // スロークエリログ
+	private final long thresholdNanos; // 閾値（ナノ秒、0以下は無効）
+	private final Entry[] entries; // 循環バッファ
+	private final String[] redactKeys; // 値を伏せるバインド変数名（小文字）
+	private final Properties explainDbProperties; // 実行計画の取得先DB設定（取得しない場合はnull）
+	private final ExecutorService explainExecutor; // 実行計画の取得スレッド（取得しない場合はnull）
+	private final LowCodeRepository repo = new LowCodeRepository(); // リポジトリクラス
+	private long sequence; // 記録件数
+
+	/**
+	 * スロークエリ
+	 */
+	public static class Entry {
+		private final long timestamp; // 記録日時
+		private final String identifier; // 識別子
+		private final String sql; // SQL
+		private final double durationMillis; // 処理時間（ミリ秒）
+		private final long rows; // 行数（不明な場合は-1）
+		private final Map<String, String> bindVariable; // バインド変数（伏字・切詰め済み）
+		private volatile String plan; // 実行計画（未取得の場合はnull）
+
+		private Entry(String identifier, String sql, long nanos, long rows, Map<String, String> bindVariable) {
+			this.timestamp = System.currentTimeMillis();
+			this.identifier = identifier;
+			this.sql = sql;
+			this.durationMillis = nanos / 1000000.0;
+			this.rows = rows;
+			this.bindVariable = bindVariable;
+		}
+
+		/**
+		 * 記録日時の取得
+		 *
+		 * @return 記録日時（エポックミリ秒）
+		 */
+		public long getTimestamp() {
+			return this.timestamp;
+		}
+
+		/**
+		 * 識別子の取得
+		 *
+		 * @return 識別子
+		 */
+		public String getIdentifier() {
+			return this.identifier;
+		}
+
+		/**
+		 * SQLの取得
+		 *
+		 * @return SQL（SQLステップの場合は「;」区切り）
+		 */
+		public String getSql() {
+			return this.sql;
+		}
+
+		/**
+		 * 処理時間の取得
+		 *
+		 * @return 処理時間（ミリ秒）
+		 */
+		public double getDurationMillis() {
+			return this.durationMillis;
+		}
+
+		/**
+		 * 行数の取得
+		 *
+		 * @return 行数（不明な場合は-1）
+		 */
+		public long getRows() {
+			return this.rows;
+		}
+
+		/**
+		 * バインド変数の取得
+		 *
+		 * @return バインド変数（伏字・切詰め済み）
+		 */
+		public Map<String, String> getBindVariable() {
+			return this.bindVariable;
+		}
+
+		/**
+		 * 実行計画の取得
+		 *
+		 * @return 実行計画（未取得の場合はnull）
+		 */
+		public String getPlan() {
+			return this.plan;
+		}
+	}
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param thresholdMillis     閾値（ミリ秒、0以下は無効）
+	 * @param capacity            保持件数
+	 * @param redactKeys          値を伏せるバインド変数名（部分一致、大文字・小文字は区別しない）
+	 * @param explainDbProperties 実行計画の取得先DB設定（取得しない場合はnull）
+	 */
+	public LowCodeSlowQueryLog(long thresholdMillis, int capacity, List<String> redactKeys,
+			Properties explainDbProperties) {
+		this.thresholdNanos = thresholdMillis * 1000000L;
+		this.entries = new Entry[Math.max(capacity, 1)];
+		this.redactKeys = new String[redactKeys.size()];
+		for (int i = 0; i < this.redactKeys.length; i++) {
+			this.redactKeys[i] = redactKeys.get(i).trim().toLowerCase();
+		}
+		this.explainDbProperties = explainDbProperties;
+		this.explainExecutor = explainDbProperties != null ? LowCodeExecutors.newBoundedExecutor(1, capacity) : null;
+	}
+
+	/**
+	 * スロークエリか
+	 *
+	 * @param nanos 処理時間（ナノ秒）
+	 * @return 閾値を超えた場合はtrue
+	 */
+	public boolean isSlow(long nanos) {
+		return this.thresholdNanos > 0 && nanos > this.thresholdNanos;
+	}
+
+	/**
+	 * SQLの記録。 閾値を超えた場合のみ記録する。
+	 *
+	 * @param identifier   識別子
+	 * @param templates    SQLテンプレート（SQLステップの場合は複数）
+	 * @param bindVariable バインド変数
+	 * @param nanos        処理時間（ナノ秒）
+	 * @param rows         行数（不明な場合は-1）
+	 */
+	public void record(String identifier, final List<LowCodeSqlTemplate> templates,
+			final Map<String, String> bindVariable, long nanos, long rows) {
+		if (!this.isSlow(nanos)) {
+			return;
+		}
+		StringBuilder sql = new StringBuilder();
+		Map<String, String> redacted = new LinkedHashMap<String, String>();
+		for (LowCodeSqlTemplate template : templates) {
+			if (sql.length() > 0) {
+				sql.append(";\n");
+			}
+			sql.append(template.getSql());
+			for (LowCodeSqlTemplate.Parameter parameter : template.getParameters()) {
+				for (String name : parameter.getNames()) {
+					redacted.put(name, this.redact(name, bindVariable.get(name)));
+				}
+			}
+		}
+		final Entry entry = new Entry(identifier, sql.toString(), nanos, rows,
+				Collections.unmodifiableMap(redacted));
+		synchronized (this) {
+			this.entries[(int) (this.sequence++ % this.entries.length)] = entry;
+		}
+		log.warn(String.format("スロークエリ: 識別子: %s 処理時間: %.1fms 行数: %d バインド変数: %s SQL: %s", identifier,
+				entry.getDurationMillis(), rows, entry.getBindVariable(), entry.getSql()));
+
+		if (this.explainExecutor != null) {
+			try {
+				this.explainExecutor.execute(new Runnable() {
+					public void run() {
+						explain(entry, templates, bindVariable);
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				LowCodeLog.debug(log, "実行計画の取得待ちが上限に達した為、取得しません。識別子: %s", entry.getIdentifier());
+			}
+		}
+	}
+
+	/**
+	 * 記録したスロークエリの取得
+	 *
+	 * @return スロークエリ（新しい順）
+	 */
+	public synchronized List<Entry> getEntries() {
+		int size = (int) Math.min(this.sequence, this.entries.length);
+		List<Entry> list = new ArrayList<Entry>(size);
+		for (int i = 1; i <= size; i++) {
+			list.add(this.entries[(int) ((this.sequence - i) % this.entries.length)]);
+		}
+		return list;
+	}
+
+	private void explain(Entry entry, List<LowCodeSqlTemplate> templates, Map<String, String> bindVariable) {
+		StringBuilder plan = new StringBuilder();
+		try {
+			for (LowCodeSqlTemplate template : templates) {
+				if (plan.length() > 0) {
+					plan.append('\n');
+				}
+				plan.append(this.repo.explainSql(this.explainDbProperties, template, bindVariable));
+			}
+		} catch (SQLException e) {
+			LowCodeLog.debug(log, "実行計画を取得できませんでした。識別子: %s %s", entry.getIdentifier(), e.getMessage());
+			return;
+		}
+		entry.plan = plan.toString();
+		log.warn(String.format("スロークエリの実行計画: 識別子: %s\n%s", entry.getIdentifier(), entry.getPlan()));
+	}
+
+	private String redact(String name, String value) {
+		if (value == null) {
+			return null;
+		}
+		String lower = name.toLowerCase();
+		for (String key : this.redactKeys) {
+			if (!key.isEmpty() && lower.contains(key)) {
+				return REDACTED;
+			}
+		}
+		if (value.length() > MAX_VALUE_LENGTH) {
+			return value.substring(0, MAX_VALUE_LENGTH) + String.format("...(%d文字)", value.length());
+		}
+		return value;
+	}
+}
@@ -0,0 +1,290 @@
+package infrastructure;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 解析済みのSQLテンプレートクラス。 生成後は不変であり、複数スレッドから共有して参照する。
+ *
+ * SQLファイル内のバインド変数（{{name}}）を、PreparedStatementのパラメータ（?）に置き換える。
+ * <ul>
+ * <li>文字列リテラル外の {{name}} は、値が数値であれば数値、それ以外は文字列としてバインドする。</li>
+ * <li>文字列リテラル内の {{name}}（例: '{{name}}'、'%{{name}}%'）は、リテラル全体を1つの文字列パラメータとしてバインドする。</li>
+ * </ul>
+ * 文字列パラメータは型を指定せずに（Types.OTHER）バインドし、SQLのリテラルと同様に列の型（日付・タイムスタンプ・数値・真偽値・UUID等）への変換をDBに任せる。
+ * （PostgreSQLのJDBCドライバはsetStringの値をvarcharとして送信する為、varchar以外の列との比較・登録がエラーになる）
+ * 列の型が分かっているパラメータ（ページングのカーソルの値）は、値からは推測せずに列の型でバインドする。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeSqlTemplate {
+	private static final Pattern INTEGER = Pattern.compile("-?\\d{1,18}");
+	private static final Pattern DECIMAL = Pattern.compile("-?\\d+(\\.\\d+)?");
+	private static final String OPEN = "{{";
+	private static final String CLOSE = "}}";
+
+	private final String sql; // パラメータ（?）に置き換えたSQL
+	private final List<Parameter> parameters; // パラメータ一覧（出現順）
+	private final long lastModified; // 読込時のSQLファイル更新日時
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param sql          パラメータ（?）に置き換えたSQL
+	 * @param parameters   パラメータ一覧（出現順）
+	 * @param lastModified 読込時のSQLファイル更新日時
+	 */
+	private LowCodeSqlTemplate(String sql, List<Parameter> parameters, long lastModified) {
+		this.sql = sql;
+		this.parameters = Collections.unmodifiableList(parameters);
+		this.lastModified = lastModified;
+	}
+
+	/**
+	 * SQLテンプレートの解析
+	 *
+	 * @param sqlContext   SQLファイルの内容
+	 * @param lastModified SQLファイル更新日時
+	 * @return SQLテンプレート
+	 */
+	public static LowCodeSqlTemplate parse(String sqlContext, long lastModified) {
+		StringBuilder sql = new StringBuilder(sqlContext.length());
+		List<Parameter> parameters = new ArrayList<Parameter>();
+		int length = sqlContext.length();
+		int i = 0;
+		while (i < length) {
+			char c = sqlContext.charAt(i);
+			if (c == '\'') {
+				// 文字列リテラル（'' はエスケープ）
+				int end = i + 1;
+				while (end < length) {
+					if (sqlContext.charAt(end) == '\'') {
+						if (end + 1 < length && sqlContext.charAt(end + 1) == '\'') {
+							end += 2;
+							continue;
+						}
+						break;
+					}
+					end++;
+				}
+				String literal = sqlContext.substring(i + 1, Math.min(end, length));
+				if (literal.contains(OPEN)) {
+					parameters.add(Parameter.literal(literal.replace("''", "'")));
+					sql.append('?');
+				} else {
+					sql.append(sqlContext, i, Math.min(end + 1, length));
+				}
+				i = end + 1;
+			} else if (sqlContext.startsWith(OPEN, i)) {
+				int end = sqlContext.indexOf(CLOSE, i + OPEN.length());
+				if (end < 0) {
+					sql.append(sqlContext, i, length);
+					break;
+				}
+				parameters.add(Parameter.variable(sqlContext.substring(i + OPEN.length(), end)));
+				sql.append('?');
+				i = end + CLOSE.length();
+			} else {
+				sql.append(c);
+				i++;
+			}
+		}
+		return new LowCodeSqlTemplate(sql.toString(), parameters, lastModified);
+	}
+
+	/**
+	 * SQLを前後の文字列で囲んだSQLテンプレートの作成（副問合せへの書換えに使用）。
+	 * 元のSQLの末尾のセミコロンは除き、元のパラメータの後に、後ろの文字列に含まれるパラメータ（?）のバインド変数を続ける。
+	 *
+	 * @param prefix           前の文字列
+	 * @param suffix           後ろの文字列（パラメータは ? で記載する）
+	 * @param suffixParameters 後ろの文字列のパラメータ（出現順）
+	 * @return SQLテンプレート
+	 */
+	LowCodeSqlTemplate wrap(String prefix, String suffix, List<Parameter> suffixParameters) {
+		List<Parameter> parameters = new ArrayList<Parameter>(this.parameters.size() + suffixParameters.size());
+		parameters.addAll(this.parameters);
+		parameters.addAll(suffixParameters);
+		String sql = this.sql.trim();
+		while (sql.endsWith(";")) {
+			sql = sql.substring(0, sql.length() - 1).trim();
+		}
+		return new LowCodeSqlTemplate(prefix + sql + suffix, parameters, this.lastModified);
+	}
+
+	/**
+	 * バインド変数の設定
+	 *
+	 * @param stmt         PreparedStatement
+	 * @param bindVariable バインド変数
+	 * @throws SQLException バインド変数が指定されていない場合
+	 */
+	public void bind(PreparedStatement stmt, Map<String, String> bindVariable) throws SQLException {
+		for (int i = 0; i < this.parameters.size(); i++) {
+			this.parameters.get(i).bind(stmt, i + 1, bindVariable);
+		}
+	}
+
+	/**
+	 * パラメータ（?）に置き換えたSQLの取得
+	 *
+	 * @return SQL
+	 */
+	public String getSql() {
+		return this.sql;
+	}
+
+	/**
+	 * パラメータ一覧の取得
+	 *
+	 * @return パラメータ一覧（出現順）
+	 */
+	public List<Parameter> getParameters() {
+		return this.parameters;
+	}
+
+	/**
+	 * 読込時のSQLファイル更新日時の取得
+	 *
+	 * @return 更新日時
+	 */
+	public long getLastModified() {
+		return this.lastModified;
+	}
+
+	/**
+	 * SQLのパラメータ。 バインド変数1つ、またはバインド変数を含む文字列リテラル1つに対応する。
+	 */
+	public static class Parameter {
+		private final String name; // バインド変数名（文字列リテラルの場合はnull）
+		private final String[] texts; // 文字列リテラルの固定部分
+		private final String[] names; // 文字列リテラル内のバインド変数名
+		private final Integer sqlType; // 列の型（java.sql.Types、値から推測する場合はnull）
+
+		private Parameter(String name, String[] texts, String[] names, Integer sqlType) {
+			this.name = name;
+			this.texts = texts;
+			this.names = names;
+			this.sqlType = sqlType;
+		}
+
+		static Parameter variable(String name) {
+			return new Parameter(name.trim(), null, null, null);
+		}
+
+		static Parameter typed(String name, int sqlType) {
+			return new Parameter(name.trim(), null, null, sqlType);
+		}
+
+		static Parameter literal(String literal) {
+			List<String> texts = new ArrayList<String>();
+			List<String> names = new ArrayList<String>();
+			int pos = 0;
+			int open;
+			while ((open = literal.indexOf(OPEN, pos)) >= 0) {
+				int close = literal.indexOf(CLOSE, open + OPEN.length());
+				if (close < 0) {
+					break;
+				}
+				texts.add(literal.substring(pos, open));
+				names.add(literal.substring(open + OPEN.length(), close).trim());
+				pos = close + CLOSE.length();
+			}
+			texts.add(literal.substring(pos));
+			return new Parameter(null, texts.toArray(new String[texts.size()]), names.toArray(new String[names.size()]),
+					null);
+		}
+
+		/**
+		 * パラメータに含まれるバインド変数名の取得
+		 *
+		 * @return バインド変数名一覧
+		 */
+		public String[] getNames() {
+			return this.name != null ? new String[] { this.name } : this.names.clone();
+		}
+
+		/**
+		 * パラメータ値の作成
+		 *
+		 * @param bindVariable バインド変数
+		 * @return パラメータ値
+		 * @throws SQLException バインド変数が指定されていない場合
+		 */
+		public String value(Map<String, String> bindVariable) throws SQLException {
+			if (this.name != null) {
+				return lookup(bindVariable, this.name);
+			}
+			StringBuilder value = new StringBuilder(this.texts[0]);
+			for (int i = 0; i < this.names.length; i++) {
+				value.append(lookup(bindVariable, this.names[i])).append(this.texts[i + 1]);
+			}
+			return value.toString();
+		}
+
+		void bind(PreparedStatement stmt, int index, Map<String, String> bindVariable) throws SQLException {
+			String value = this.value(bindVariable);
+			if (this.sqlType != null) {
+				bindTyped(stmt, index, value, this.sqlType);
+			} else if (this.name != null && INTEGER.matcher(value).matches()) {
+				stmt.setLong(index, Long.parseLong(value));
+			} else if (this.name != null && DECIMAL.matcher(value).matches()) {
+				stmt.setBigDecimal(index, new BigDecimal(value));
+			} else {
+				stmt.setObject(index, value, Types.OTHER);
+			}
+		}
+
+		/**
+		 * 列の型でのバインド。 数値の列は数値、文字列の列は文字列、それ以外（日付・タイムスタンプ等）は型を指定せずにバインドする
+		 * （文字列表現からの変換はDBに任せる）。
+		 */
+		private static void bindTyped(PreparedStatement stmt, int index, String value, int sqlType)
+				throws SQLException {
+			switch (sqlType) {
+			case Types.TINYINT:
+			case Types.SMALLINT:
+			case Types.INTEGER:
+			case Types.BIGINT:
+			case Types.REAL:
+			case Types.FLOAT:
+			case Types.DOUBLE:
+			case Types.NUMERIC:
+			case Types.DECIMAL:
+				try {
+					stmt.setBigDecimal(index, new BigDecimal(value));
+				} catch (NumberFormatException e) {
+					throw new SQLException(String.format("数値の列の値が不正です: %s", value));
+				}
+				break;
+			case Types.CHAR:
+			case Types.VARCHAR:
+			case Types.LONGVARCHAR:
+			case Types.NCHAR:
+			case Types.NVARCHAR:
+			case Types.LONGNVARCHAR:
+				stmt.setString(index, value);
+				break;
+			default:
+				stmt.setObject(index, value, Types.OTHER);
+				break;
+			}
+		}
+
+		private static String lookup(Map<String, String> bindVariable, String name) throws SQLException {
+			String value = bindVariable != null ? bindVariable.get(name) : null;
+			if (value == null) {
+				throw new SQLException(String.format("バインド変数が指定されていません: %s", name));
+			}
+			return value;
+		}
+	}
+}
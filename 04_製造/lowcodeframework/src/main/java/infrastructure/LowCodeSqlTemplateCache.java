@@ -0,0 +1,64 @@
+package infrastructure;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 解析済みSQLテンプレートのキャッシュクラス。
+ *
+ * SQLファイルパス毎に解析済みのSQLテンプレートを保持し、SQLファイルの更新日時が変わった場合のみ再読込する。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeSqlTemplateCache {
+	private static final LowCodeSqlTemplateCache INSTANCE = new LowCodeSqlTemplateCache(new LowCodeRepository());
+
+	private final ConcurrentMap<String, LowCodeSqlTemplate> templates = new ConcurrentHashMap<String, LowCodeSqlTemplate>();
+	private final LowCodeRepository repo; // リポジトリクラス
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param repo リポジトリクラス
+	 */
+	LowCodeSqlTemplateCache(LowCodeRepository repo) {
+		this.repo = repo;
+	}
+
+	/**
+	 * インスタンスの取得
+	 *
+	 * @return SQLテンプレートキャッシュ
+	 */
+	public static LowCodeSqlTemplateCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * SQLテンプレートの取得。 キャッシュが無い場合、またはSQLファイルが更新されている場合は読込み直す。
+	 *
+	 * @param sqlFilePath SQLファイルパス
+	 * @return SQLテンプレート
+	 * @throws IOException IO例外
+	 */
+	public LowCodeSqlTemplate get(String sqlFilePath) throws IOException {
+		long lastModified = new File(sqlFilePath).lastModified();
+		LowCodeSqlTemplate template = this.templates.get(sqlFilePath);
+		if (template != null && template.getLastModified() == lastModified) {
+			return template;
+		}
+		template = LowCodeSqlTemplate.parse(this.repo.readSqlFile(sqlFilePath), lastModified);
+		this.templates.put(sqlFilePath, template);
+		return template;
+	}
+
+	/**
+	 * キャッシュのクリア
+	 */
+	public void clear() {
+		this.templates.clear();
+	}
+}
@@ -0,0 +1,203 @@
+package infrastructure;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * プール内の物理コネクション毎のPreparedStatementキャッシュクラス。
+ *
+ * SQLの文字列そのものをキーに、最大件数までPreparedStatementを保持する（LRU）。 空白の違いも別のSQLとして扱う（文字列リテラル内の空白は値の一部の為）。
+ * 貸し出したPreparedStatementのclose()では物理的にクローズせず、パラメータをクリアしてキャッシュへ戻す。
+ * 同じPreparedStatementを使い続けることで、ドライバ・DBサーバ側の解析結果と実行計画が再利用される。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+class LowCodeStatementCache {
+	private final int maxSize; // 最大キャッシュ件数
+	private final AtomicLong hitCount; // ヒット回数
+	private final AtomicLong missCount; // ミス回数
+	private final AtomicLong evictionCount; // 追い出し回数
+	private final LinkedHashMap<String, CachedStatement> statements;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param maxSize       最大キャッシュ件数
+	 * @param hitCount      ヒット回数（プール全体で集計）
+	 * @param missCount     ミス回数（プール全体で集計）
+	 * @param evictionCount 追い出し回数（プール全体で集計）
+	 */
+	LowCodeStatementCache(final int maxSize, AtomicLong hitCount, AtomicLong missCount,
+			final AtomicLong evictionCount) {
+		this.maxSize = maxSize;
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.evictionCount = evictionCount;
+		this.statements = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+				if (size() <= maxSize) {
+					return false;
+				}
+				evictionCount.incrementAndGet();
+				eldest.getValue().evict();
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * PreparedStatementの取得。 キャッシュに未使用のものがあれば再利用し、無ければ作成してキャッシュする。
+	 *
+	 * @param raw   物理コネクション
+	 * @param owner 貸出用のコネクション（getConnection()の戻り値）
+	 * @param sql   SQL
+	 * @return PreparedStatement（close()でキャッシュへ戻す）
+	 * @throws SQLException SQLException
+	 */
+	synchronized PreparedStatement prepare(Connection raw, Connection owner, String sql) throws SQLException {
+		if (this.maxSize <= 0) {
+			return raw.prepareStatement(sql);
+		}
+		CachedStatement cached = this.statements.get(sql);
+		if (cached != null && !cached.inUse) {
+			this.hitCount.incrementAndGet();
+			cached.inUse = true;
+			return cached.newProxy(owner);
+		}
+		this.missCount.incrementAndGet();
+		PreparedStatement stmt = raw.prepareStatement(sql);
+		if (cached != null) {
+			// 同じSQLを同時に使用している場合は、キャッシュせずに使い捨てる
+			return stmt;
+		}
+		cached = new CachedStatement(stmt);
+		cached.inUse = true;
+		this.statements.put(sql, cached);
+		return cached.newProxy(owner);
+	}
+
+	/**
+	 * 全PreparedStatementのクローズ
+	 */
+	synchronized void closeAll() {
+		List<CachedStatement> all = new ArrayList<CachedStatement>(this.statements.values());
+		this.statements.clear();
+		for (CachedStatement cached : all) {
+			cached.evict();
+		}
+	}
+
+	/**
+	 * キャッシュ件数の取得
+	 *
+	 * @return キャッシュ件数
+	 */
+	synchronized int size() {
+		return this.statements.size();
+	}
+
+	/**
+	 * キャッシュ内のPreparedStatement
+	 */
+	private class CachedStatement {
+		private final PreparedStatement raw; // 物理PreparedStatement
+		private boolean inUse; // 貸出中
+		private boolean evicted; // キャッシュから追い出し済み
+
+		CachedStatement(PreparedStatement raw) {
+			this.raw = raw;
+		}
+
+		/**
+		 * キャッシュから追い出す。 貸出中の場合は、返却時にクローズする。
+		 */
+		void evict() {
+			synchronized (LowCodeStatementCache.this) {
+				this.evicted = true;
+				if (!this.inUse) {
+					this.closeQuietly();
+				}
+			}
+		}
+
+		/**
+		 * キャッシュへ戻す。 次の利用者に影響しないよう、パラメータと実行時の設定を初期化する。
+		 */
+		void giveBack() {
+			synchronized (LowCodeStatementCache.this) {
+				this.inUse = false;
+				if (this.evicted) {
+					this.closeQuietly();
+					return;
+				}
+				try {
+					this.raw.clearParameters();
+					this.raw.setMaxRows(0);
+					this.raw.setFetchSize(0);
+					this.raw.setQueryTimeout(0);
+				} catch (SQLException e) {
+					statements.values().remove(this);
+					this.evicted = true;
+					this.closeQuietly();
+				}
+			}
+		}
+
+		PreparedStatement newProxy(final Connection owner) {
+			return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+					new Class<?>[] { PreparedStatement.class }, new InvocationHandler() {
+						private boolean closed;
+
+						public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+							String name = method.getName();
+							if (name.equals("close")) {
+								if (!closed) {
+									closed = true;
+									giveBack();
+								}
+								return null;
+							} else if (name.equals("isClosed")) {
+								return closed || raw.isClosed();
+							} else if (name.equals("getConnection")) {
+								return owner;
+							} else if (name.equals("equals")) {
+								return proxy == args[0];
+							} else if (name.equals("hashCode")) {
+								return System.identityHashCode(proxy);
+							} else if (name.equals("toString")) {
+								return "LowCodeCachedStatement[" + raw + "]";
+							} else if (closed) {
+								throw new SQLException("PreparedStatementは既にクローズされています。");
+							}
+							try {
+								return method.invoke(raw, args);
+							} catch (InvocationTargetException e) {
+								throw e.getCause();
+							}
+						}
+					});
+		}
+
+		private void closeQuietly() {
+			try {
+				this.raw.close();
+			} catch (SQLException e) {
+				// 物理コネクション切断時にもクローズされる為、何もしない
+			}
+		}
+	}
+}
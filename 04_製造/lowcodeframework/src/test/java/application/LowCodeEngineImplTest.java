@@ -0,0 +1,623 @@
+package application;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.nio.charset.StandardCharsets;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sun.jersey.api.view.Viewable;
+
+import common.LowCodeConsts;
+import domain.LowCodeInvocationDomainService;
+import exception.LowCodeBusyException;
+import framework.LowCodeRequest;
+import infrastructure.LowCodeConnectionPool;
+import infrastructure.LowCodeCsvExport;
+import infrastructure.LowCodeMetrics;
+import infrastructure.LowCodeMetricsRegistry;
+import infrastructure.LowCodeRepository;
+import infrastructure.LowCodeResultCursor;
+
+/**
+ * LowCodeEngineImplのテストクラス。 インメモリDB（H2）に対して実行する。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeEngineImplTest {
+	private static final String DB_URL = "jdbc:h2:mem:engine;DB_CLOSE_DELAY=-1";
+	private static final AtomicInteger PAUSE_COUNT = new AtomicInteger(); // PAUSEの呼出し回数
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Before
+	public void setUp() throws Exception {
+		Connection conn = DriverManager.getConnection(DB_URL, "sa", "");
+		try {
+			Statement stmt = conn.createStatement();
+			stmt.execute("CREATE TABLE IF NOT EXISTS Employee (id INTEGER, name VARCHAR(100))");
+			stmt.execute("TRUNCATE TABLE Employee");
+			stmt.execute("INSERT INTO Employee VALUES (1, 'suzuki')");
+			stmt.close();
+		} finally {
+			conn.close();
+		}
+	}
+
+	/**
+	 * 対象： LowCodeEngineImpl#getInstance
+	 *
+	 * 概要： 同じ設定ディレクトリに対して、エンジンを複数回取得する正常ケース。
+	 *
+	 * 結果： 末尾の区切り文字の有無に関わらず、同じインスタンスが返却されること。
+	 */
+	@Test
+	public void test_正常系_エンジン共有() {
+		String setting = folder.getRoot().getPath();
+		assertSame(LowCodeEngineImpl.getInstance(setting),
+				LowCodeEngineImpl.getInstance(setting + File.separator));
+	}
+
+	/**
+	 * 対象： LowCodeEngineImpl#invoke
+	 *
+	 * 概要： 1つのエンジンで、バインド変数の異なるリクエストを続けて実行する正常ケース。
+	 *
+	 * 結果： リクエスト毎のバインド変数でSQLが実行されること。
+	 */
+	@Test
+	public void test_正常系_DBからデータを取得して画面遷移() throws Exception {
+		LowCodeEngineImpl engine = LowCodeEngineImpl.getInstance(this.createSetting("").getPath());
+
+		Map<String, String> bindVariable = new HashMap<String, String>();
+		bindVariable.put("id", "1");
+		Viewable view = engine.invoke("test_get", new LowCodeRequest(bindVariable, LowCodeConsts.VIEW_TRANSITION_GET));
+		assertEquals(view.getTemplateName(), "/test_get.jsp");
+		assertEquals(this.getModel(view).size(), 1);
+		assertEquals(this.getModel(view).get(0).get("NAME"), "suzuki");
+
+		bindVariable = new HashMap<String, String>();
+		bindVariable.put("id", "2");
+		view = engine.invoke("test_get", new LowCodeRequest(bindVariable, LowCodeConsts.VIEW_TRANSITION_GET));
+		assertEquals(this.getModel(view).size(), 0);
+	}
+
+	/**
+	 * 対象： LowCodeEngineImpl#invokeAsync
+	 *
+	 * 概要： 画面遷移を非同期実行する正常ケース。
+	 *
+	 * 結果： 非同期実行の結果として、遷移先画面が取得できること。
+	 */
+	@Test
+	public void test_正常系_非同期実行() throws Exception {
+		LowCodeEngineImpl engine = LowCodeEngineImpl.getInstance(this.createSetting("").getPath());
+
+		Map<String, String> bindVariable = new HashMap<String, String>();
+		bindVariable.put("id", "1");
+		Viewable view = engine
+				.invokeAsync("test_get", new LowCodeRequest(bindVariable, LowCodeConsts.VIEW_TRANSITION_GET))
+				.toCompletableFuture().get(10, TimeUnit.SECONDS);
+		assertEquals(view.getTemplateName(), "/test_get.jsp");
+		assertEquals(this.getModel(view).get(0).get("NAME"), "suzuki");
+	}
+
+	/**
+	 * 対象： LowCodeEngineImpl#invokeAsync、LowCodeResultCursor
+	 *
+	 * 概要： ストリーミング（&lt;streaming&gt;）のリソースを非同期実行し、結果を受け取ったスレッドでカーソルを扱う正常ケース。
+	 *
+	 * 結果： 実行スレッドにカーソルが残らないこと。結果を受け取ったスレッドのリクエスト終了時（closeAll）にクローズされ、
+	 * コネクションがプールに返却されること。別のスレッドで読み込んだ場合も、読込み終了時に両スレッドから外れること。
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void test_正常系_ストリーミングの非同期実行() throws Exception {
+		File setting = this.createSetting("<streaming>true</streaming>");
+		LowCodeEngineImpl engine = LowCodeEngineImpl.getInstance(setting.getPath());
+		LowCodeConnectionPool pool = this.getPool(setting);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Callable<Integer> workerCursors = new Callable<Integer>() {
+			public Integer call() {
+				return LowCodeResultCursor.detachAll().size();
+			}
+		};
+		Map<String, String> bindVariable = new HashMap<String, String>();
+		bindVariable.put("id", "1");
+		LowCodeRequest request = new LowCodeRequest(bindVariable, LowCodeConsts.VIEW_TRANSITION_GET);
+		try {
+			// 読み込まずにリクエストが終了した場合
+			Viewable view = engine.invokeAsync("test_get", request, executor).toCompletableFuture().get(10,
+					TimeUnit.SECONDS);
+			LowCodeResultCursor cursor = (LowCodeResultCursor) ((Map<String, Object>) view.getModel()).get("model");
+			assertEquals(executor.submit(workerCursors).get(), Integer.valueOf(0));
+			assertFalse(cursor.isClosed());
+			LowCodeResultCursor.closeAll();
+			assertTrue(cursor.isClosed());
+			assertEquals(pool.getStatistics().getActive(), 0);
+
+			// 完了の通知（whenComplete）を受けた別のスレッドで読み込む場合
+			final CompletableFuture<Viewable> future = engine.invokeAsync("test_get", request, executor)
+					.toCompletableFuture();
+			final List<String> names = new ArrayList<String>();
+			Thread renderer = new Thread(new Runnable() {
+				public void run() {
+					try {
+						Map<String, Object> model = (Map<String, Object>) future.get(10, TimeUnit.SECONDS).getModel();
+						for (Map<String, String> row : (LowCodeResultCursor) model.get("model")) {
+							names.add(row.get("NAME"));
+						}
+						names.add(String.valueOf(LowCodeResultCursor.detachAll().size()));
+					} catch (Exception e) {
+						names.add(e.toString());
+					}
+				}
+			});
+			renderer.start();
+			renderer.join(10000);
+			assertEquals(names, Arrays.asList("suzuki", "0"));
+			assertEquals(executor.submit(workerCursors).get(), Integer.valueOf(0));
+			assertEquals(pool.getStatistics().getActive(), 0);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * 対象： LowCodeEngineImpl#invokeAsync
+	 *
+	 * 概要： 同時実行数の上限（&lt;concurrency&gt;）を超えて非同期実行する準正常ケース。
+	 *
+	 * 結果： 上限を超えた実行はLowCodeBusyExceptionで異常終了すること。実行が終了すると、再び実行できること。
+	 */
+	@Test
+	public void test_準正常系_同時実行数超過() throws Exception {
+		LowCodeEngineImpl engine = LowCodeEngineImpl
+				.getInstance(this.createSetting("<concurrency>1</concurrency>").getPath());
+		final List<Runnable> tasks = new ArrayList<Runnable>();
+		Executor executor = new Executor() {
+			public void execute(Runnable command) {
+				tasks.add(command);
+			}
+		};
+		Map<String, String> bindVariable = new HashMap<String, String>();
+		bindVariable.put("id", "1");
+		LowCodeRequest request = new LowCodeRequest(bindVariable, LowCodeConsts.VIEW_TRANSITION_GET);
+
+		CompletableFuture<Viewable> first = engine.invokeAsync("test_get", request, executor).toCompletableFuture();
+		CompletableFuture<Viewable> second = engine.invokeAsync("test_get", request, executor).toCompletableFuture();
+		try {
+			second.get();
+			fail("LowCodeBusyException");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof LowCodeBusyException);
+		}
+
+		tasks.get(0).run();
+		assertEquals(first.get().getTemplateName(), "/test_get.jsp");
+		engine.invokeAsync("test_get", request, executor);
+		assertEquals(tasks.size(), 2);
+	}
+
+	/**
+	 * 対象： LowCodeEngineImpl#invoke
+	 *
+	 * 概要： DEBUGログを有効にして、パスワードを含むバインド変数でSQLを実行する正常ケース。
+	 *
+	 * 結果： SQLの実行ログにバインド変数名が出力され、バインド変数の値は出力されないこと。
+	 */
+	@Test
+	public void test_正常系_SQL実行ログのバインド変数() throws Exception {
+		final List<String> messages = new ArrayList<String>();
+		AppenderSkeleton appender = new AppenderSkeleton() {
+			@Override
+			protected void append(LoggingEvent event) {
+				messages.add(event.getRenderedMessage());
+			}
+
+			public void close() {
+				this.closed = true;
+			}
+
+			public boolean requiresLayout() {
+				return false;
+			}
+		};
+		Logger logger = Logger.getLogger(LowCodeInvocationDomainService.class);
+		Level level = logger.getLevel();
+		logger.addAppender(appender);
+		logger.setLevel(Level.DEBUG);
+		try {
+			LowCodeEngineImpl engine = LowCodeEngineImpl.getInstance(this.createSetting("").getPath());
+			Map<String, String> bindVariable = new HashMap<String, String>();
+			bindVariable.put("id", "1");
+			bindVariable.put("password", "secret-value");
+			engine.invoke("test_get", new LowCodeRequest(bindVariable, LowCodeConsts.VIEW_TRANSITION_GET));
+		} finally {
+			logger.removeAppender(appender);
+			logger.setLevel(level);
+		}
+		boolean logged = false;
+		for (String message : messages) {
+			assertFalse(message, message.contains("secret-value"));
+			logged |= message.startsWith("SQLを実行します") && message.contains("password");
+		}
+		assertTrue(messages.toString(), logged);
+	}
+
+	/**
+	 * 対象： LowCodeEngineImpl#invoke
+	 *
+	 * 概要： 複数のSQLステップ（&lt;step&gt;）を設定したリソースを実行する正常ケース。
+	 *
+	 * 結果： ステップ名毎に実行結果がレスポンスモデルに設定されること。全ステップでコネクションの取得が1回であること（&lt;sql&gt;と合わせて2回）。
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void test_正常系_SQLステップ() throws Exception {
+		File header = folder.newFile("header.sql");
+		File detail = folder.newFile("detail.sql");
+		this.write(header, "select count(*) as cnt from Employee");
+		this.write(detail, "select name from Employee where id = {{id}}");
+		File setting = this.createSetting("<step name=\"header\">" + header.getPath() + "</step><step name=\"detail\">"
+				+ detail.getPath() + "</step>");
+		LowCodeEngineImpl engine = LowCodeEngineImpl.getInstance(setting.getPath());
+		LowCodeConnectionPool pool = this.getPool(setting);
+
+		Map<String, String> bindVariable = new HashMap<String, String>();
+		bindVariable.put("id", "1");
+		long borrowCount = pool.getStatistics().getBorrowCount();
+		Viewable view = engine.invoke("test_get", new LowCodeRequest(bindVariable, LowCodeConsts.VIEW_TRANSITION_GET));
+		Map<String, Object> model = (Map<String, Object>) view.getModel();
+		assertEquals(((List<Map<String, String>>) model.get("header")).get(0).get("CNT"), "1");
+		assertEquals(((List<Map<String, String>>) model.get("detail")).get(0).get("NAME"), "suzuki");
+		assertEquals(pool.getStatistics().getBorrowCount() - borrowCount, 2);
+	}
+
+	/**
+	 * 対象： LowCodeEngineImpl#invoke
+	 *
+	 * 概要： SQLステップの並列実行（&lt;parallel&gt;）を設定したリソースを実行する正常ケース。
+	 *
+	 * 結果： 処理時間が各ステップの合計ではなく、最も遅いステップ程度となること。
+	 * &lt;steperror&gt; が partial の場合は、タイムアウト・エラーのステップの実行結果がnullとなり、エラーメッセージが設定されること。
+	 * タイムアウトのステップは、割り込みを無視するSQLでもキャンセルされ、コネクションがプールへ返却されること。
+	 * 既定（fail）の場合はエラー画面に遷移すること。
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void test_正常系_SQLステップの並列実行() throws Exception {
+		Connection conn = DriverManager.getConnection(DB_URL, "sa", "");
+		try {
+			Statement stmt = conn.createStatement();
+			// 割り込みでは中断しない待機（JDBCドライバのソケット読込みと同様）
+			stmt.execute("CREATE ALIAS IF NOT EXISTS PAUSE FOR \"" + LowCodeEngineImplTest.class.getName() + ".pause\"");
+			stmt.close();
+		} finally {
+			conn.close();
+		}
+		File setting = this.createSetting("");
+		String[][] sqls = { { "name", "select name, pause(300) as s from Employee where id = {{id}}" },
+				{ "count", "select count(*) as cnt, pause(300) as s from Employee" },
+				{ "sleep", "select pause(300) as s" }, { "slow", "select pause(1) as s from system_range(1, 5000)" },
+				{ "missing", "select * from Missing" } };
+		Map<String, String> steps = new HashMap<String, String>();
+		for (String[] sql : sqls) {
+			File file = new File(setting, sql[0] + ".sql");
+			this.write(file, sql[1]);
+			steps.put(sql[0], "<step name=\"" + sql[0] + "\">" + file.getPath() + "</step>");
+		}
+		String resource = "<resource><identifier>%s</identifier><view>" + new File(setting, "test_get.jsp").getPath()
+				+ "</view><errorview>" + new File(setting, "system_error.jsp").getPath()
+				+ "</errorview><parallel>true</parallel>%s</resource>";
+		this.write(new File(setting, LowCodeConsts.SETTING_XML_FILE), "<resources>"
+				+ String.format(resource, "test_parallel",
+						steps.get("name") + steps.get("count") + steps.get("sleep"))
+				+ String.format(resource, "test_partial", "<steptimeout>1000</steptimeout><steperror>partial</steperror>"
+						+ steps.get("name") + steps.get("slow") + steps.get("missing"))
+				+ String.format(resource, "test_fail", steps.get("name") + steps.get("missing")) + "</resources>");
+		LowCodeEngineImpl engine = LowCodeEngineImpl.getInstance(setting.getPath());
+		LowCodeConnectionPool pool = this.getPool(setting);
+		Map<String, String> bindVariable = new HashMap<String, String>();
+		bindVariable.put("id", "1");
+
+		long start = System.nanoTime();
+		Viewable view = engine.invoke("test_parallel",
+				new LowCodeRequest(bindVariable, LowCodeConsts.VIEW_TRANSITION_GET));
+		long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		Map<String, Object> model = (Map<String, Object>) view.getModel();
+		assertEquals(((List<Map<String, String>>) model.get("name")).get(0).get("NAME"), "suzuki");
+		assertEquals(((List<Map<String, String>>) model.get("count")).get(0).get("CNT"), "1");
+		assertEquals(((List<Map<String, String>>) model.get("sleep")).size(), 1);
+		assertTrue(String.valueOf(elapsedMillis), elapsedMillis < 800);
+
+		PAUSE_COUNT.set(0);
+		start = System.nanoTime();
+		view = engine.invoke("test_partial", new LowCodeRequest(bindVariable, LowCodeConsts.VIEW_TRANSITION_GET));
+		elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		model = (Map<String, Object>) view.getModel();
+		assertEquals(view.getTemplateName(), "/test_get.jsp");
+		assertEquals(((List<Map<String, String>>) model.get("name")).get(0).get("NAME"), "suzuki");
+		assertTrue(model.containsKey("slow"));
+		assertEquals(model.get("slow"), null);
+		assertEquals(model.get("missing"), null);
+		assertEquals(((Map<String, String>) model.get(LowCodeConsts.STEP_ERRORS_MODEL)).keySet(),
+				new HashSet<String>(Arrays.asList("slow", "missing")));
+		assertTrue(String.valueOf(elapsedMillis), elapsedMillis < 3000);
+		// タイムアウトのステップのSQLがキャンセルされ（5000行の待機の途中で中止）、コネクションが返却されること
+		for (int i = 0; i < 50 && pool.getStatistics().getActive() > 0; i++) {
+			Thread.sleep(100);
+		}
+		assertEquals(pool.getStatistics().getActive(), 0);
+		assertTrue(String.valueOf(PAUSE_COUNT.get()), PAUSE_COUNT.get() < 4000);
+
+		view = engine.invoke("test_fail", new LowCodeRequest(bindVariable, LowCodeConsts.VIEW_TRANSITION_GET));
+		assertEquals(view.getTemplateName(), "/system_error.jsp");
+	}
+
+	/**
+	 * 対象： LowCodeEngineImpl#invoke、LowCodeEngineImpl#invokeAsync
+	 *
+	 * 概要： 処理期限（&lt;timeout&gt;）を超過するSQL、実行中に非同期実行をキャンセルしたSQLの異常ケース。
+	 *
+	 * 結果： 処理期限でSQLがキャンセルされ、エラー画面に遷移すること。キャンセルした場合も実行中のSQLが中止されること。
+	 * 処理期限の超過件数・キャンセル件数が性能情報に記録されること。
+	 */
+	@Test
+	public void test_異常系_処理期限の超過とキャンセル() throws Exception {
+		File setting = this.createSetting("<timeout>300</timeout>");
+		this.write(new File(setting, "test_select.sql"),
+				"select count(*) as cnt from system_range(1, 100000) a, system_range(1, 100000) b where a.x > {{id}}");
+		LowCodeEngineImpl engine = LowCodeEngineImpl.getInstance(setting.getPath());
+		LowCodeMetrics metrics = LowCodeMetricsRegistry.getInstance().get("test_get");
+		long timeoutCount = metrics.getTimeoutCount();
+		long cancelCount = metrics.getCancelCount();
+		Map<String, String> bindVariable = new HashMap<String, String>();
+		bindVariable.put("id", "0");
+
+		long start = System.nanoTime();
+		Viewable view = engine.invoke("test_get", new LowCodeRequest(bindVariable, LowCodeConsts.VIEW_TRANSITION_GET));
+		long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		assertEquals(view.getTemplateName(), "/system_error.jsp");
+		assertTrue(String.valueOf(elapsedMillis), elapsedMillis < 3000);
+		assertEquals(metrics.getTimeoutCount() - timeoutCount, 1);
+
+		// 処理期限の前に、実行中の非同期実行をキャンセルする
+		CompletableFuture<Viewable> future = engine
+				.invokeAsync("test_get", new LowCodeRequest(bindVariable, LowCodeConsts.VIEW_TRANSITION_GET))
+				.toCompletableFuture();
+		Thread.sleep(100);
+		assertTrue(future.cancel(true));
+		for (int i = 0; i < 50 && metrics.getCancelCount() == cancelCount; i++) {
+			Thread.sleep(100);
+		}
+		assertEquals(metrics.getCancelCount() - cancelCount, 1);
+	}
+
+	/**
+	 * 対象： LowCodeEngineImpl#invoke
+	 *
+	 * 概要： レプリカを指定したデータソースで、実行結果キャッシュ（&lt;cache&gt;）のリソースを更新の前後に参照する正常ケース。
+	 * レプリカには更新が反映されない（反映遅延の）状態とする。
+	 *
+	 * 結果： 更新によるキャッシュの削除後は、更新したセッション・別のセッションのいずれも更新後のデータが返却されること
+	 * （キャッシュは反映前のレプリカから読み込まれないこと）。キャッシュしないリソースはレプリカから参照されること。
+	 */
+	@Test
+	public void test_正常系_レプリカ構成での実行結果キャッシュ() throws Exception {
+		String[] dbNames = { "engine_cache_primary", "engine_cache_replica" };
+		for (String dbName : dbNames) {
+			Connection conn = DriverManager.getConnection("jdbc:h2:mem:" + dbName + ";DB_CLOSE_DELAY=-1", "sa", "");
+			try {
+				Statement stmt = conn.createStatement();
+				stmt.execute("CREATE TABLE IF NOT EXISTS Employee (id INTEGER, name VARCHAR(100))");
+				stmt.execute("TRUNCATE TABLE Employee");
+				stmt.execute("INSERT INTO Employee VALUES (1, 'suzuki')");
+				stmt.close();
+			} finally {
+				conn.close();
+			}
+		}
+		File setting = this.createSetting("");
+		this.write(new File(setting, LowCodeConsts.DB_PROPERTIES_FILE),
+				"url=jdbc:h2:mem:engine_cache_primary\nuser=sa\npassword=\nreplica.urls=jdbc:h2:mem:engine_cache_replica\n"
+						+ "replica.stickyMillis=60000\n");
+		File update = new File(setting, "test_update.sql");
+		this.write(update, "update Employee set name = {{name}} where id = {{id}}");
+		String resource = "<resource><identifier>%s</identifier><view>" + new File(setting, "test_get.jsp").getPath()
+				+ "</view><errorview>" + new File(setting, "system_error.jsp").getPath() + "</errorview><sql>%s</sql>%s"
+				+ "</resource>";
+		String select = new File(setting, "test_select.sql").getPath();
+		this.write(new File(setting, LowCodeConsts.SETTING_XML_FILE), "<resources>"
+				+ String.format(resource, "test_cache", select, "<cache>60</cache>")
+				+ String.format(resource, "test_nocache", select, "")
+				+ String.format(resource, "test_update", update.getPath(), "<invalidates>test_cache</invalidates>")
+				+ "</resources>");
+		LowCodeEngineImpl engine = LowCodeEngineImpl.getInstance(setting.getPath());
+		Map<String, String> bindVariable = new HashMap<String, String>();
+		bindVariable.put("id", "1");
+		bindVariable.put("name", "tanaka");
+
+		assertEquals(this.getModel(engine.invoke("test_cache",
+				new LowCodeRequest(bindVariable, LowCodeConsts.VIEW_TRANSITION_GET, null, "writer"))).get(0)
+				.get("NAME"), "suzuki");
+		engine.invoke("test_update", new LowCodeRequest(bindVariable, LowCodeConsts.VIEW_TRANSITION_POST, null, "writer"));
+
+		// 別のセッションの参照でキャッシュを読み込み直し、更新したセッションはそのキャッシュを参照する
+		assertEquals(this.getModel(engine.invoke("test_cache",
+				new LowCodeRequest(bindVariable, LowCodeConsts.VIEW_TRANSITION_GET, null, "reader"))).get(0)
+				.get("NAME"), "tanaka");
+		assertEquals(this.getModel(engine.invoke("test_cache",
+				new LowCodeRequest(bindVariable, LowCodeConsts.VIEW_TRANSITION_GET, null, "writer"))).get(0)
+				.get("NAME"), "tanaka");
+		assertEquals(this.getModel(engine.invoke("test_nocache",
+				new LowCodeRequest(bindVariable, LowCodeConsts.VIEW_TRANSITION_GET, null, "reader"))).get(0)
+				.get("NAME"), "suzuki");
+	}
+
+	/**
+	 * 対象： LowCodeEngineImpl#invoke
+	 *
+	 * 概要： 名前付きのデータソースを、シャードキー（&lt;shardkey&gt;）の値の範囲で選択する正常ケース。
+	 *
+	 * 結果： シャードキーの値に対応するデータソースでSQLが実行されること。シャードキーが無い場合はエラー画面に遷移すること。
+	 */
+	@Test
+	public void test_正常系_シャード選択() throws Exception {
+		String[] shards = { "shard_a", "shard_b" };
+		for (String shard : shards) {
+			Connection conn = DriverManager.getConnection("jdbc:h2:mem:engine_" + shard + ";DB_CLOSE_DELAY=-1", "sa", "");
+			try {
+				Statement stmt = conn.createStatement();
+				stmt.execute("CREATE TABLE IF NOT EXISTS Employee (id INTEGER, name VARCHAR(100))");
+				stmt.execute("TRUNCATE TABLE Employee");
+				stmt.execute("INSERT INTO Employee VALUES (1, '" + shard + "'), (200, '" + shard + "')");
+				stmt.close();
+			} finally {
+				conn.close();
+			}
+		}
+		File setting = this.createSetting(
+				"<shardkey>id</shardkey><shards>a,b</shards><shardranges>100</shardranges>");
+		this.write(new File(setting, LowCodeConsts.DB_PROPERTIES_FILE),
+				"pool.maxSize=2\ndatasource.a.url=jdbc:h2:mem:engine_shard_a\ndatasource.a.user=sa\n"
+						+ "datasource.b.url=jdbc:h2:mem:engine_shard_b\ndatasource.b.user=sa\n");
+		LowCodeEngineImpl engine = LowCodeEngineImpl.getInstance(setting.getPath());
+
+		Map<String, String> bindVariable = new HashMap<String, String>();
+		bindVariable.put("id", "1");
+		Viewable view = engine.invoke("test_get", new LowCodeRequest(bindVariable, LowCodeConsts.VIEW_TRANSITION_GET));
+		assertEquals(this.getModel(view).get(0).get("NAME"), "shard_a");
+
+		bindVariable.put("id", "200");
+		view = engine.invoke("test_get", new LowCodeRequest(bindVariable, LowCodeConsts.VIEW_TRANSITION_GET));
+		assertEquals(this.getModel(view).get(0).get("NAME"), "shard_b");
+
+		view = engine.invoke("test_get",
+				new LowCodeRequest(new HashMap<String, String>(), LowCodeConsts.VIEW_TRANSITION_GET));
+		assertEquals(view.getTemplateName(), "/system_error.jsp");
+	}
+
+	/**
+	 * 対象： LowCodeEngineImpl#invoke
+	 *
+	 * 概要： 「CSVをDBに一括登録して画面遷移」の後に、「DBからデータを取得してCSV出力」を実行する正常ケース。
+	 *
+	 * 結果： 登録件数がレスポンスモデルに設定されること。CSV出力の画面名が「識別子.csv」となり、登録したデータが出力されること。
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void test_正常系_CSV一括登録とCSV出力() throws Exception {
+		LowCodeEngineImpl engine = LowCodeEngineImpl
+				.getInstance(this.createSetting("<importtable>Employee</importtable><batchsize>2</batchsize>").getPath());
+
+		byte[] csv = "id,name\n2,sato\n3,tanaka\n4,\"ito, jiro\"\n".getBytes(StandardCharsets.UTF_8);
+		Viewable view = engine.invoke("test_get", new LowCodeRequest(null, LowCodeConsts.VIEW_TRANSITION_IMPORT, null,
+				null, new ByteArrayInputStream(csv)));
+		assertEquals(view.getTemplateName(), "/test_get.jsp");
+		assertEquals(((Map<String, Object>) view.getModel()).get("model"), 3L);
+
+		Map<String, String> bindVariable = new HashMap<String, String>();
+		bindVariable.put("id", "4");
+		view = engine.invoke("test_get", new LowCodeRequest(bindVariable, LowCodeConsts.VIEW_TRANSITION_EXPORT));
+		assertEquals(view.getTemplateName(), "/test_get.csv");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		((LowCodeCsvExport) ((Map<String, Object>) view.getModel()).get("model")).writeTo(out);
+		assertEquals(new String(out.toByteArray(), StandardCharsets.UTF_8),
+				"ID,NAME\r\n4,\"ito, jiro\"\r\n");
+	}
+
+	/**
+	 * 割り込みを無視する待機（H2のユーザ定義関数 PAUSE）
+	 *
+	 * @param millis 待機時間（ミリ秒）
+	 * @return 待機時間
+	 */
+	public static long pause(long millis) {
+		PAUSE_COUNT.incrementAndGet();
+		long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+		boolean interrupted = false;
+		long remaining;
+		while ((remaining = end - System.nanoTime()) > 0) {
+			try {
+				TimeUnit.NANOSECONDS.sleep(remaining);
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		return millis;
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<Map<String, String>> getModel(Viewable view) {
+		return (List<Map<String, String>>) ((Map<String, Object>) view.getModel()).get("model");
+	}
+
+	private LowCodeConnectionPool getPool(File setting) throws Exception {
+		// エンジンと同じく、DBプロパティファイルから読み込んだ既定のデータソースのプールを取得する
+		return LowCodeConnectionPool.getInstance(new LowCodeRepository()
+				.readDataSources(new File(setting, LowCodeConsts.DB_PROPERTIES_FILE).getPath()).get(null));
+	}
+
+	private File createSetting(String options) throws IOException {
+		File dir = folder.newFolder("setting");
+		File view = new File(dir, "test_get.jsp");
+		File errorView = new File(dir, "system_error.jsp");
+		File sql = new File(dir, "test_select.sql");
+		view.createNewFile();
+		errorView.createNewFile();
+		this.write(sql, "select id, name from Employee where id = {{id}}");
+		this.write(new File(dir, LowCodeConsts.DB_PROPERTIES_FILE), "url=" + DB_URL + "\nuser=sa\npassword=\n");
+		this.write(new File(dir, LowCodeConsts.SETTING_XML_FILE),
+				"<resources><resource><identifier>test_get</identifier><view>" + view.getPath() + "</view><sql>"
+						+ sql.getPath() + "</sql><errorview>" + errorView.getPath()
+						+ "</errorview>" + options + "</resource></resources>");
+		return dir;
+	}
+
+	private void write(File file, String text) throws IOException {
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		writer.write(text);
+		writer.close();
+	}
+}
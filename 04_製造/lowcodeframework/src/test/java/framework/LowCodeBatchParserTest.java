@@ -0,0 +1,87 @@
+package framework;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import exception.LowCodeRequestException;
+
+/**
+ * LowCodeBatchParserのテストクラス。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeBatchParserTest {
+	private final LowCodeFormParser formParser = new LowCodeFormParser(1024, 100);
+	private final LowCodeBatchParser parser = new LowCodeBatchParser(1024, 3);
+
+	/**
+	 * 対象： LowCodeBatchParser#fromForm
+	 *
+	 * 概要： キーに行番号の付いたフォームデータから、行データを作成する正常ケース。
+	 *
+	 * 結果： 行番号順に行データが作成されること。行番号の無いキーは全行に設定されること。
+	 */
+	@Test
+	public void test_正常系_フォームデータ() throws LowCodeRequestException {
+		List<Map<String, String>> rows = this.parser.fromForm(this.formParser
+				.parse("name[1]=b&dept=10&name[0]=a&email[0]=a%40test&email[1]=b%40test".getBytes(StandardCharsets.UTF_8)));
+		assertEquals(rows.size(), 2);
+		assertEquals(rows.get(0).get("name"), "a");
+		assertEquals(rows.get(0).get("email"), "a@test");
+		assertEquals(rows.get(1).get("name"), "b");
+		assertEquals(rows.get(1).get("dept"), "10");
+
+		assertNull(this.parser.fromForm(this.formParser.parse("name=a".getBytes(StandardCharsets.UTF_8))));
+	}
+
+	/**
+	 * 対象： LowCodeBatchParser#fromJson
+	 *
+	 * 概要： JSON（オブジェクトの配列）から、行データを作成する正常ケース。
+	 *
+	 * 結果： 値が文字列に変換されること。nullのキーは指定なしとなること。
+	 */
+	@Test
+	public void test_正常系_JSON() throws LowCodeRequestException {
+		byte[] body = " [{\"id\": 1, \"name\": \"鈴木\"}, {\"id\": 2, \"name\": null}]".getBytes(StandardCharsets.UTF_8);
+		assertTrue(LowCodeBatchParser.isJsonArray(body));
+		List<Map<String, String>> rows = this.parser.fromJson(body);
+		assertEquals(rows.size(), 2);
+		assertEquals(rows.get(0).get("id"), "1");
+		assertEquals(rows.get(0).get("name"), "鈴木");
+		assertEquals(rows.get(1).containsKey("name"), false);
+	}
+
+	/**
+	 * 対象： LowCodeBatchParser#fromJson
+	 *
+	 * 概要： 形式が不正なJSON、行数が上限を超えたJSONを解析する異常ケース。
+	 *
+	 * 結果： LowCodeRequestExceptionが発生すること。
+	 */
+	@Test
+	public void test_異常系_JSON不正() {
+		this.assertInvalid("[{\"id\": [1]}]");
+		this.assertInvalid("[{\"id\": 1}");
+		this.assertInvalid("[1, 2]");
+		this.assertInvalid("[{}, {}, {}, {}]");
+	}
+
+	private void assertInvalid(String json) {
+		try {
+			this.parser.fromJson(json.getBytes(StandardCharsets.UTF_8));
+			fail("LowCodeRequestException");
+		} catch (LowCodeRequestException e) {
+			// 想定通り
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package framework;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import exception.LowCodeRequestException;
+
+/**
+ * LowCodeFormParserのテストクラス。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeFormParserTest {
+	private final LowCodeFormParser parser = new LowCodeFormParser(1024, 5);
+
+	/**
+	 * 対象： LowCodeFormParser#parse
+	 *
+	 * 概要： URLエンコードされたフォームデータを解析する正常ケース。
+	 *
+	 * 結果： 「+」が空白に、「%XX」がUTF-8の文字に変換されること。同じキーの値が全て保持されること。「key=」「key」は空文字であること。
+	 */
+	@Test
+	public void test_正常系_フォームデータ解析() throws LowCodeRequestException {
+		Map<String, List<String>> params = this.parser
+				.parse("name=%E9%88%B4%E6%9C%A8+%E5%A4%AA%E9%83%8E&id=1&id=2&empty=&flag&&=skip"
+						.getBytes(StandardCharsets.US_ASCII));
+		assertEquals(params.keySet().size(), 4);
+		assertEquals(params.get("name"), Arrays.asList("鈴木 太郎"));
+		assertEquals(params.get("id"), Arrays.asList("1", "2"));
+		assertEquals(params.get("empty"), Arrays.asList(""));
+		assertEquals(params.get("flag"), Arrays.asList(""));
+	}
+
+	/**
+	 * 対象： LowCodeFormParser#parse
+	 *
+	 * 概要： 項目数・サイズが上限を超えたフォームデータを解析する異常ケース。
+	 *
+	 * 結果： LowCodeRequestExceptionが発生すること。
+	 */
+	@Test
+	public void test_異常系_上限超過() {
+		this.assertInvalid("a=1&b=2&c=3&d=4&e=5&f=6".getBytes(StandardCharsets.US_ASCII));
+		this.assertInvalid(new byte[1025]);
+	}
+
+	/**
+	 * 対象： LowCodeFormParser#parse
+	 *
+	 * 概要： 形式が不正なフォームデータを解析する異常ケース。
+	 *
+	 * 結果： LowCodeRequestExceptionが発生すること。
+	 */
+	@Test
+	public void test_異常系_形式不正() {
+		this.assertInvalid("a=%4".getBytes(StandardCharsets.US_ASCII));
+		this.assertInvalid("a=%zz".getBytes(StandardCharsets.US_ASCII));
+		this.assertInvalid("a=%E9%88".getBytes(StandardCharsets.US_ASCII));
+	}
+
+	private void assertInvalid(byte[] body) {
+		try {
+			this.parser.parse(body);
+			fail("LowCodeRequestException");
+		} catch (LowCodeRequestException e) {
+			// 想定通り
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package framework;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.sun.jersey.api.view.Viewable;
+
+/**
+ * LowCodeJsonViewProcessorのテストクラス。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeJsonViewProcessorTest {
+	private final LowCodeJsonViewProcessor processor = new LowCodeJsonViewProcessor();
+
+	/**
+	 * 対象： LowCodeJsonViewProcessor#resolve
+	 *
+	 * 概要： 画面名の拡張子で出力対象を判定する正常ケース。
+	 *
+	 * 結果： .json・.ndjson の画面名はそのまま返却されること。JSPの画面名はnullが返却されること。
+	 */
+	@Test
+	public void test_正常系_画面名の解決() {
+		assertEquals(this.processor.resolve("/test_get.json"), "/test_get.json");
+		assertEquals(this.processor.resolve("/test_get.ndjson"), "/test_get.ndjson");
+		assertNull(this.processor.resolve("/test_get.jsp"));
+	}
+
+	/**
+	 * 対象： LowCodeJsonViewProcessor#writeTo
+	 *
+	 * 概要： レスポンスモデルをJSON形式で出力する正常ケース。
+	 *
+	 * 結果： モデル全体が1つのオブジェクトとして出力されること。NULLの値はnullとして出力されること。
+	 */
+	@Test
+	public void test_正常系_JSON出力() throws IOException {
+		assertEquals(this.write("/test_get.json", this.createModel()),
+				"{\"model\":[{\"ID\":\"1\",\"NAME\":\"suzuki\"},{\"ID\":\"2\",\"NAME\":null}],\"count\":2}");
+	}
+
+	/**
+	 * 対象： LowCodeJsonViewProcessor#writeTo
+	 *
+	 * 概要： レスポンスモデルをNDJSON形式で出力する正常ケース。
+	 *
+	 * 結果： 実行結果の1行毎に改行区切りで出力されること。実行結果以外の値は {"キー":値} の1行として出力されること。
+	 */
+	@Test
+	public void test_正常系_NDJSON出力() throws IOException {
+		assertEquals(this.write("/test_get.ndjson", this.createModel()),
+				"{\"ID\":\"1\",\"NAME\":\"suzuki\"}\n{\"ID\":\"2\",\"NAME\":null}\n{\"count\":2}\n");
+	}
+
+	private String write(String name, Map<String, Object> model) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		this.processor.writeTo(this.processor.resolve(name), new Viewable(name, model), out);
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private Map<String, Object> createModel() {
+		List<Map<String, String>> rows = new ArrayList<Map<String, String>>();
+		Map<String, String> row = new LinkedHashMap<String, String>();
+		row.put("ID", "1");
+		row.put("NAME", "suzuki");
+		rows.add(row);
+		row = new LinkedHashMap<String, String>();
+		row.put("ID", "2");
+		row.put("NAME", null);
+		rows.add(row);
+		Map<String, Object> model = new LinkedHashMap<String, Object>();
+		model.put("model", rows);
+		model.put("count", 2);
+		return model;
+	}
+}
@@ -0,0 +1,128 @@
+package infrastructure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.Test;
+
+/**
+ * LowCodeAsyncAppenderのテストクラス。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeAsyncAppenderTest {
+	/**
+	 * 出力されたログを保持するアペンダー
+	 */
+	private static class ListAppender extends AppenderSkeleton {
+		private final List<String> messages = Collections.synchronizedList(new ArrayList<String>());
+		private final CountDownLatch release; // 出力を待たせる場合のラッチ
+
+		private ListAppender(CountDownLatch release) {
+			this.release = release;
+		}
+
+		@Override
+		protected void append(LoggingEvent event) {
+			try {
+				this.release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			this.messages.add(event.getRenderedMessage());
+		}
+
+		public void close() {
+			this.closed = true;
+		}
+
+		public boolean requiresLayout() {
+			return false;
+		}
+	}
+
+	/**
+	 * 対象： LowCodeAsyncAppender#doAppend, close
+	 *
+	 * 概要： 複数スレッドからバッファサイズを超える件数のログを出力する正常ケース（block）。
+	 *
+	 * 結果： 全てのログが、スレッド毎に出力順のまま出力先アペンダーに渡されること。
+	 */
+	@Test
+	public void test_正常系_非同期出力() throws InterruptedException {
+		final LowCodeAsyncAppender appender = new LowCodeAsyncAppender();
+		appender.setBufferSize(16);
+		appender.setPolicy(LowCodeAsyncAppender.POLICY_BLOCK);
+		appender.activateOptions();
+		ListAppender list = new ListAppender(new CountDownLatch(0));
+		appender.addAppender(list);
+		final Logger logger = Logger.getLogger(LowCodeAsyncAppenderTest.class);
+
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			final int id = t;
+			threads[t] = new Thread(new Runnable() {
+				public void run() {
+					for (int i = 0; i < 1000; i++) {
+						appender.doAppend(new LoggingEvent(Logger.class.getName(), logger, Level.INFO, id + ":" + i,
+								null));
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		appender.close();
+
+		assertEquals(list.messages.size(), 4000);
+		assertEquals(appender.getDropCount(), 0);
+		int[] next = new int[threads.length];
+		for (String message : list.messages) {
+			String[] parts = message.split(":");
+			int id = Integer.parseInt(parts[0]);
+			assertEquals(Integer.parseInt(parts[1]), next[id]++);
+		}
+	}
+
+	/**
+	 * 対象： LowCodeAsyncAppender#doAppend
+	 *
+	 * 概要： 出力先アペンダーが停止している間に、バッファサイズを超える件数のログを出力する準正常ケース（drop）。
+	 *
+	 * 結果： 呼出し元は待たされずに超過分が破棄され、破棄した件数がWARNで出力されること。
+	 */
+	@Test
+	public void test_準正常系_バッファ超過() {
+		LowCodeAsyncAppender appender = new LowCodeAsyncAppender();
+		appender.setBufferSize(8);
+		appender.setPolicy(LowCodeAsyncAppender.POLICY_DROP);
+		appender.activateOptions();
+		CountDownLatch release = new CountDownLatch(1);
+		ListAppender list = new ListAppender(release);
+		appender.addAppender(list);
+		Logger logger = Logger.getLogger(LowCodeAsyncAppenderTest.class);
+
+		for (int i = 0; i < 100; i++) {
+			appender.doAppend(new LoggingEvent(Logger.class.getName(), logger, Level.INFO, "message" + i, null));
+		}
+		release.countDown();
+		appender.close();
+
+		assertTrue(appender.getDropCount() > 0);
+		assertEquals(list.messages.size() - 1 + appender.getDropCount(), 100);
+		assertTrue(list.messages.get(list.messages.size() - 1)
+				.equals(String.format("ログのバッファが一杯の為、%d件のログを破棄しました。", appender.getDropCount())));
+	}
+}
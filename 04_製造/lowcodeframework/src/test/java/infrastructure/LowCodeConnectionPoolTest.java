@@ -0,0 +1,247 @@
+package infrastructure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import common.LowCodeConsts;
+
+/**
+ * LowCodeConnectionPoolのテストクラス。 インメモリDB（H2）に対して実行する。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeConnectionPoolTest {
+	/**
+	 * 対象： LowCodeConnectionPool
+	 *
+	 * 概要： 返却したコネクションを再利用する正常ケース。
+	 *
+	 * 結果： 同じ物理コネクションが貸し出されること。統計情報が貸出・返却に応じて変わること。
+	 */
+	@Test
+	public void test_正常系_コネクション再利用() throws SQLException {
+		LowCodeConnectionPool pool = new LowCodeConnectionPool(this.createProperties("pool_reuse", "2", "1000"));
+
+		Connection conn1 = pool.getConnection();
+		Connection raw1 = conn1.unwrap(Connection.class);
+		assertFalse(conn1.getAutoCommit());
+		assertEquals(pool.getStatistics().getActive(), 1);
+		conn1.close();
+		assertTrue(conn1.isClosed());
+		assertEquals(pool.getStatistics().getActive(), 0);
+		assertEquals(pool.getStatistics().getIdle(), 1);
+
+		Connection conn2 = pool.getConnection();
+		assertTrue(raw1 == conn2.unwrap(Connection.class));
+		conn2.close();
+		assertEquals(pool.getStatistics().getBorrowCount(), 2L);
+	}
+
+	/**
+	 * 対象： LowCodeConnectionPool
+	 *
+	 * 概要： 最大コネクション数を超えて取得する異常ケース。
+	 *
+	 * 結果： 取得待ちの最大時間経過後にSQLExceptionがthrowされること。タイムアウト回数が記録されること。
+	 */
+	@Test
+	public void test_異常系_取得タイムアウト() throws SQLException {
+		LowCodeConnectionPool pool = new LowCodeConnectionPool(this.createProperties("pool_timeout", "1", "100"));
+
+		Connection conn = pool.getConnection();
+		try {
+			pool.getConnection();
+			fail("NORMAL END");
+		} catch (SQLException e) {
+			assertEquals(pool.getStatistics().getTimeoutCount(), 1L);
+		} finally {
+			conn.close();
+		}
+		pool.getConnection().close();
+	}
+
+	/**
+	 * 対象： LowCodeConnectionPool
+	 *
+	 * 概要： 返却済みのコネクションを操作する異常ケース。
+	 *
+	 * 結果： SQLExceptionがthrowされること。
+	 */
+	@Test
+	public void test_異常系_返却済みコネクション操作() throws SQLException {
+		LowCodeConnectionPool pool = new LowCodeConnectionPool(this.createProperties("pool_closed", "1", "100"));
+
+		Connection conn = pool.getConnection();
+		conn.close();
+		conn.close();
+		try {
+			conn.createStatement();
+			fail("NORMAL END");
+		} catch (SQLException e) {
+			assertEquals(pool.getStatistics().getIdle(), 1);
+		}
+	}
+
+	/**
+	 * 対象： LowCodeConnectionPool
+	 *
+	 * 概要： 物理的に切断されたアイドルコネクションを検証して破棄する準正常ケース。
+	 *
+	 * 結果： 新しいコネクションが貸し出されること。
+	 */
+	@Test
+	public void test_準正常系_取得時検証() throws SQLException {
+		LowCodeConnectionPool pool = new LowCodeConnectionPool(this.createProperties("pool_validate", "1", "100"));
+
+		Connection conn1 = pool.getConnection();
+		Connection raw1 = conn1.unwrap(Connection.class);
+		conn1.close();
+		raw1.close();
+
+		Connection conn2 = pool.getConnection();
+		assertFalse(raw1 == conn2.unwrap(Connection.class));
+		assertFalse(conn2.isClosed());
+		conn2.close();
+	}
+
+	/**
+	 * 対象： LowCodeConnectionPool
+	 *
+	 * 概要： アイドル時間を超えたコネクションの削除と、返却されないコネクションのリーク検出を行う正常ケース。
+	 *
+	 * 結果： アイドルコネクションが削除されること。リーク検出回数が記録されること。
+	 */
+	@Test
+	public void test_正常系_アイドル削除とリーク検出() throws Exception {
+		Properties properties = this.createProperties("pool_housekeep", "2", "100");
+		properties.setProperty("pool.idleTimeout", "1");
+		properties.setProperty("pool.leakDetectionThreshold", "1");
+		LowCodeConnectionPool pool = new LowCodeConnectionPool(properties);
+
+		pool.getConnection().close();
+		Connection leaked = pool.getConnection();
+		pool.getConnection().close();
+		Thread.sleep(20L);
+		pool.housekeep();
+
+		assertEquals(pool.getStatistics().getIdle(), 0);
+		assertEquals(pool.getStatistics().getLeakCount(), 1L);
+		leaked.close();
+	}
+
+	/**
+	 * 対象： LowCodeConnectionPool
+	 *
+	 * 概要： 同じSQLのPreparedStatementを、返却後に再利用する正常ケース。
+	 *
+	 * 結果： SQLが同じであればキャッシュがヒットすること。文字列リテラル内の空白のみが異なるSQLは別のPreparedStatementとなること。
+	 * 上限件数を超えると追い出されること。
+	 */
+	@Test
+	public void test_正常系_PreparedStatementキャッシュ() throws SQLException {
+		Properties properties = this.createProperties("pool_statement", "1", "100");
+		properties.setProperty("pool.statementCacheSize", "1");
+		LowCodeConnectionPool pool = new LowCodeConnectionPool(properties);
+
+		Connection conn = pool.getConnection();
+		PreparedStatement stmt1 = conn.prepareStatement("SELECT ?");
+		PreparedStatement raw1 = stmt1.unwrap(PreparedStatement.class);
+		stmt1.setInt(1, 1);
+		stmt1.executeQuery().close();
+		stmt1.close();
+		assertTrue(stmt1.isClosed());
+		conn.close();
+
+		conn = pool.getConnection();
+		PreparedStatement stmt2 = conn.prepareStatement("SELECT ?");
+		assertTrue(raw1 == stmt2.unwrap(PreparedStatement.class));
+		assertTrue(stmt2.getConnection() == conn);
+		stmt2.close();
+		assertEquals(this.selectString(conn, "SELECT 'a  b'"), "a  b");
+		assertEquals(this.selectString(conn, "SELECT 'a b'"), "a b");
+		conn.close();
+
+		assertEquals(pool.getStatistics().getStatementHitCount(), 1L);
+		assertEquals(pool.getStatistics().getStatementMissCount(), 3L);
+		assertEquals(pool.getStatistics().getStatementEvictionCount(), 2L);
+		assertTrue(raw1.isClosed());
+	}
+
+	/**
+	 * 対象： LowCodeConnectionPool#getInstance、LowCodeDataSourceRouter#getInstance
+	 *
+	 * 概要： 同じ接続先の名前付きデータソースと、DBプロパティファイルの設定（pool.*・password）を変更する正常ケース。
+	 *
+	 * 結果： 同じ接続先でもデータソースが異なる場合は別のプールとなること。設定を変更した場合は新しいプール・振分けとなり、
+	 * 変更前のプールは置き換えられ、変更前に貸し出したコネクションは返却時に切断されること。設定が同じ場合は同じインスタンスとなること。
+	 */
+	@Test
+	public void test_正常系_設定変更によるプールの置き換え() throws SQLException {
+		Properties orders = this.createProperties("pool_reload", "2", "100");
+		orders.setProperty(LowCodeConsts.DATASOURCE_ID, "db.properties#orders");
+		Properties archive = this.createProperties("pool_reload", "2", "100");
+		archive.setProperty(LowCodeConsts.DATASOURCE_ID, "db.properties#archive");
+		LowCodeConnectionPool pool = LowCodeConnectionPool.getInstance(orders);
+		assertFalse(pool == LowCodeConnectionPool.getInstance(archive));
+		assertTrue(pool == LowCodeConnectionPool.getInstance(this.copy(orders)));
+		LowCodeDataSourceRouter router = LowCodeDataSourceRouter.getInstance(orders);
+
+		Connection conn = router.getConnection(false);
+		Properties changed = this.copy(orders);
+		changed.setProperty("pool.maxSize", "3");
+		LowCodeConnectionPool reloaded = LowCodeConnectionPool.getInstance(changed);
+		assertFalse(reloaded == pool);
+		assertTrue(pool.isRetired());
+		assertFalse(reloaded.isRetired());
+		Connection raw = conn.unwrap(Connection.class);
+		conn.close();
+		assertTrue(raw.isClosed());
+		assertEquals(pool.getStatistics().getIdle(), 0);
+
+		changed.setProperty("password", "changed");
+		assertTrue(LowCodeConnectionPool.getInstance(changed) != reloaded);
+		assertTrue(reloaded.isRetired());
+		LowCodeDataSourceRouter rerouted = LowCodeDataSourceRouter.getInstance(changed);
+		assertFalse(rerouted == router);
+		assertTrue(rerouted == LowCodeDataSourceRouter.getInstance(this.copy(changed)));
+		assertFalse(LowCodeConnectionPool.getInstance(archive).isRetired());
+	}
+
+	private String selectString(Connection conn, String sql) throws SQLException {
+		PreparedStatement stmt = conn.prepareStatement(sql);
+		try {
+			ResultSet rset = stmt.executeQuery();
+			rset.next();
+			return rset.getString(1);
+		} finally {
+			stmt.close();
+		}
+	}
+
+	private Properties copy(Properties properties) {
+		Properties copied = new Properties();
+		copied.putAll(properties);
+		return copied;
+	}
+
+	private Properties createProperties(String dbName, String maxSize, String maxWait) {
+		Properties properties = new Properties();
+		properties.setProperty("url", "jdbc:h2:mem:" + dbName + ";DB_CLOSE_DELAY=-1");
+		properties.setProperty("user", "sa");
+		properties.setProperty("password", "");
+		properties.setProperty("pool.maxSize", maxSize);
+		properties.setProperty("pool.maxWait", maxWait);
+		return properties;
+	}
+}
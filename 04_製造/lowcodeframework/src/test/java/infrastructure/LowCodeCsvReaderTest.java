@@ -0,0 +1,83 @@
+package infrastructure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * LowCodeCsvReader・LowCodeCsvWriterのテストクラス。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeCsvReaderTest {
+	/**
+	 * 対象： LowCodeCsvReader#readRecord
+	 *
+	 * 概要： ダブルクォート・改行・空の値を含むCSVを読み込む正常ケース。
+	 *
+	 * 結果： 囲まれていない空の値はnull、囲まれた空の値は空文字となること。値の中の改行・カンマ・ダブルクォートが保持されること。空行は読み飛ばされること。
+	 */
+	@Test
+	public void test_正常系_読込み() throws IOException {
+		LowCodeCsvReader reader = new LowCodeCsvReader(
+				new StringReader("a,,\"\"\r\n\r\n\"b,1\",\"c\r\nd\",\"e\"\"f\"\n\"x\"\ny"), 100);
+
+		assertEquals(reader.readRecord(), Arrays.asList("a", null, ""));
+		assertEquals(reader.readRecord(), Arrays.asList("b,1", "c\r\nd", "e\"f"));
+		assertEquals(reader.readRecord(), Arrays.asList("x"));
+		assertEquals(reader.readRecord(), Arrays.asList("y"));
+		assertNull(reader.readRecord());
+		assertEquals(reader.getLineNumber(), 4L);
+	}
+
+	/**
+	 * 対象： LowCodeCsvWriter#writeRecord
+	 *
+	 * 概要： 出力したCSVを読み込む正常ケース。
+	 *
+	 * 結果： 出力前と同じ値（nullと空文字の区別を含む）が読み込まれること。
+	 */
+	@Test
+	public void test_正常系_出力と読込み() throws IOException {
+		String[] values = new String[] { "1", null, "", "a,b", "say \"hi\"", "line1\nline2" };
+		StringWriter out = new StringWriter();
+		LowCodeCsvWriter writer = new LowCodeCsvWriter(out);
+		writer.writeRecord(values);
+		writer.writeRecord(values);
+		writer.flush();
+
+		assertEquals(out.toString().substring(0, out.toString().indexOf("\r\n")),
+				"1,,\"\",\"a,b\",\"say \"\"hi\"\"\",\"line1\nline2\"");
+		LowCodeCsvReader reader = new LowCodeCsvReader(new StringReader(out.toString()), 100);
+		assertEquals(reader.readRecord(), Arrays.asList(values));
+		assertEquals(reader.readRecord(), Arrays.asList(values));
+		assertNull(reader.readRecord());
+	}
+
+	/**
+	 * 対象： LowCodeCsvReader#readRecord
+	 *
+	 * 概要： 最大文字数を超えるレコード、ダブルクォートが閉じられていないレコードを読み込む異常ケース。
+	 *
+	 * 結果： IOExceptionが発生すること。
+	 */
+	@Test
+	public void test_異常系_不正なレコード() {
+		for (String csv : new String[] { "0123456789,0123456789", "a,\"b" }) {
+			try {
+				new LowCodeCsvReader(new StringReader(csv), 10).readRecord();
+				fail("IOException");
+			} catch (IOException e) {
+				// 想定通り
+			}
+		}
+	}
+}
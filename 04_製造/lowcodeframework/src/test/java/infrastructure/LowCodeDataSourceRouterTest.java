@@ -0,0 +1,180 @@
+package infrastructure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Properties;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * LowCodeDataSourceRouterのテストクラス。 インメモリDB（H2）をプライマリ・レプリカとして実行する。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeDataSourceRouterTest {
+	/**
+	 * テスト後処理
+	 */
+	@After
+	public void tearDown() {
+		LowCodeDataSourceRouter.unbindSession();
+	}
+
+	/**
+	 * 対象： LowCodeDataSourceRouter
+	 *
+	 * 概要： 参照をレプリカに順番に振り分け、更新をプライマリで実行する正常ケース。
+	 *
+	 * 結果： 参照のコネクションがレプリカから交互に取得されること。更新のコネクションがプライマリから取得されること。
+	 */
+	@Test
+	public void test_正常系_参照更新の振分け() throws SQLException {
+		LowCodeDataSourceRouter router = new LowCodeDataSourceRouter(
+				this.createProperties("router_rr", url("router_rr_r1") + "," + url("router_rr_r2")));
+
+		assertEquals(this.connect(router, true), url("router_rr_r1"));
+		assertEquals(this.connect(router, true), url("router_rr_r2"));
+		assertEquals(this.connect(router, true), url("router_rr_r1"));
+		assertEquals(this.connect(router, false), url("router_rr"));
+		assertEquals(router.getReplicaReadCount(), 3L);
+		assertEquals(router.getPrimaryReadCount(), 0L);
+	}
+
+	/**
+	 * 対象： LowCodeDataSourceRouter
+	 *
+	 * 概要： 接続できないレプリカを切り離す準正常ケース。
+	 *
+	 * 結果： 接続できるレプリカから取得されること。全てのレプリカに接続できない場合はプライマリから取得されること。
+	 */
+	@Test
+	public void test_準正常系_レプリカ切り離し() throws SQLException {
+		LowCodeDataSourceRouter router = new LowCodeDataSourceRouter(
+				this.createProperties("router_failover", "jdbc:none:router_failover_r1," + url("router_failover_r2")));
+
+		assertEquals(this.connect(router, true), url("router_failover_r2"));
+		assertEquals(this.connect(router, true), url("router_failover_r2"));
+		assertEquals(router.getFailoverCount(), 1L);
+
+		router = new LowCodeDataSourceRouter(this.createProperties("router_failover", "jdbc:none:router_failover_r3"));
+		assertEquals(this.connect(router, true), url("router_failover"));
+		router.healthCheck();
+		assertEquals(this.connect(router, true), url("router_failover"));
+		assertEquals(router.getFailoverCount(), 1L);
+		assertEquals(router.getPrimaryReadCount(), 2L);
+	}
+
+	/**
+	 * 対象： LowCodeDataSourceRouter
+	 *
+	 * 概要： 接続の失敗（SQLNonTransientConnectionException）のレプリカと、
+	 * レプリカの取得待ちのタイムアウト・処理期限の超過・割り込みが発生した準正常ケース。
+	 *
+	 * 結果： 接続の失敗のレプリカのみ切り離されること。取得待ちのタイムアウト・処理期限の超過・割り込みの場合は、
+	 * 例外がthrowされ、レプリカは切り離されないこと。
+	 */
+	@Test
+	public void test_準正常系_切り離さない例外() throws SQLException {
+		LowCodeDataSourceRouter router = new LowCodeDataSourceRouter(
+				this.createProperties("router_refused", "jdbc:h2:tcp://localhost:1/router_refused_r1"));
+		assertEquals(this.connect(router, true), url("router_refused"));
+		assertEquals(router.getFailoverCount(), 1L);
+
+		router = new LowCodeDataSourceRouter(this.createProperties("router_busy", url("router_busy_r1")));
+		Connection first = router.getConnection(true);
+		Connection second = router.getConnection(true);
+		try {
+			// 取得待ちのタイムアウト（pool.maxWait）
+			try {
+				router.getConnection(true);
+				fail("pool.maxWait");
+			} catch (SQLTransientConnectionException e) {
+				// 想定通り
+			}
+			// 処理期限の超過
+			LowCodeDeadline.bind(new LowCodeDeadline(50));
+			try {
+				router.getConnection(true);
+				fail("deadline");
+			} catch (SQLTimeoutException e) {
+				// 想定通り
+			} finally {
+				LowCodeDeadline.unbind();
+			}
+			// 割り込み
+			Thread.currentThread().interrupt();
+			try {
+				router.getConnection(true);
+				fail("interrupt");
+			} catch (SQLException e) {
+				assertTrue(e.getCause() instanceof InterruptedException);
+			} finally {
+				assertTrue(Thread.interrupted());
+			}
+		} finally {
+			first.close();
+			second.close();
+		}
+		assertEquals(router.getFailoverCount(), 0L);
+		assertEquals(this.connect(router, true), url("router_busy_r1"));
+		assertEquals(router.getPrimaryReadCount(), 0L);
+	}
+
+	/**
+	 * 対象： LowCodeDataSourceRouter
+	 *
+	 * 概要： 同じセッションで更新した直後に参照する正常ケース。
+	 *
+	 * 結果： 反映待ち時間内はプライマリから取得されること。別セッション・反映待ち時間後はレプリカから取得されること。
+	 */
+	@Test
+	public void test_正常系_更新後のプライマリ参照() throws Exception {
+		Properties properties = this.createProperties("router_sticky", url("router_sticky_r1"));
+		properties.setProperty("replica.stickyMillis", "100");
+		LowCodeDataSourceRouter router = new LowCodeDataSourceRouter(properties);
+
+		LowCodeDataSourceRouter.bindSession("session1");
+		assertEquals(this.connect(router, true), url("router_sticky_r1"));
+		assertEquals(this.connect(router, false), url("router_sticky"));
+		assertEquals(this.connect(router, true), url("router_sticky"));
+
+		LowCodeDataSourceRouter.bindSession("session2");
+		assertEquals(this.connect(router, true), url("router_sticky_r1"));
+
+		Thread.sleep(150L);
+		LowCodeDataSourceRouter.bindSession("session1");
+		assertEquals(this.connect(router, true), url("router_sticky_r1"));
+	}
+
+	private String connect(LowCodeDataSourceRouter router, boolean readOnly) throws SQLException {
+		Connection conn = router.getConnection(readOnly);
+		try {
+			return conn.getMetaData().getURL();
+		} finally {
+			conn.close();
+		}
+	}
+
+	private static String url(String dbName) {
+		return "jdbc:h2:mem:" + dbName;
+	}
+
+	private Properties createProperties(String dbName, String replicaUrls) {
+		Properties properties = new Properties();
+		properties.setProperty("url", url(dbName));
+		properties.setProperty("user", "sa");
+		properties.setProperty("password", "");
+		properties.setProperty("pool.maxSize", "2");
+		properties.setProperty("pool.maxWait", "100");
+		properties.setProperty("replica.urls", replicaUrls);
+		return properties;
+	}
+}
@@ -0,0 +1,138 @@
+package infrastructure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * LowCodeDeadlineのテストクラス。 インメモリDB（H2）に対して実行する。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeDeadlineTest {
+	@After
+	public void tearDown() {
+		LowCodeDeadline.unbind();
+	}
+
+	/**
+	 * 対象： LowCodeDeadline
+	 *
+	 * 概要： 全体の処理期限にリソース毎の処理期限を重ねて、期限切れ・キャンセルを確認する正常ケース。
+	 *
+	 * 結果： 短い方の処理期限が使用されること。無期限の場合は期限切れにならないこと。
+	 * 期限切れ・キャンセルの場合はSQLTimeoutExceptionがthrowされること。
+	 */
+	@Test
+	public void test_正常系_処理期限の確認() throws Exception {
+		LowCodeDeadline unlimited = new LowCodeDeadline(0);
+		unlimited.limit(0);
+		assertEquals(unlimited.remainingMillis(), Long.MAX_VALUE);
+		unlimited.check();
+
+		LowCodeDeadline deadline = new LowCodeDeadline(60000);
+		deadline.limit(120000);
+		assertTrue(deadline.remainingMillis() > 59000 && deadline.remainingMillis() <= 60000);
+		deadline.limit(50);
+		assertTrue(deadline.remainingMillis() <= 50);
+		deadline.check();
+		Thread.sleep(100);
+		assertTrue(deadline.isExpired());
+		assertFalse(deadline.isCancelled());
+		try {
+			deadline.check();
+			fail("expired");
+		} catch (SQLTimeoutException e) {
+			// 想定通り
+		}
+
+		LowCodeDeadline cancelled = new LowCodeDeadline(0);
+		cancelled.cancel();
+		assertTrue(cancelled.isCancelled());
+		LowCodeDeadline.bind(cancelled);
+		try {
+			LowCodeDeadline.checkCurrent();
+			fail("cancelled");
+		} catch (SQLTimeoutException e) {
+			// 想定通り
+		}
+	}
+
+	/**
+	 * 対象： LowCodeDeadline
+	 *
+	 * 概要： 親の処理期限を指定して、ステップ毎の処理期限を作成する正常ケース。
+	 *
+	 * 結果： 親の方が短い場合は親の残り時間となること。親のキャンセルは子にも及び、子のキャンセルは親に及ばないこと。
+	 */
+	@Test
+	public void test_正常系_親の処理期限() throws Exception {
+		LowCodeDeadline parent = new LowCodeDeadline(1000);
+		LowCodeDeadline child = new LowCodeDeadline(parent, 60000);
+		assertTrue(child.remainingMillis() <= 1000);
+		assertTrue(new LowCodeDeadline(parent, 0).remainingMillis() <= 1000);
+		assertTrue(new LowCodeDeadline(parent, 50).remainingMillis() <= 50);
+		assertEquals(new LowCodeDeadline(null, 0).remainingMillis(), Long.MAX_VALUE);
+
+		LowCodeDeadline sibling = new LowCodeDeadline(parent, 0);
+		sibling.cancel();
+		assertTrue(sibling.isCancelled());
+		assertFalse(parent.isCancelled());
+		child.check();
+
+		parent.cancel();
+		assertTrue(child.isCancelled());
+		try {
+			child.check();
+			fail("cancelled");
+		} catch (SQLTimeoutException e) {
+			assertEquals(e.getMessage(), parent.newTimeoutException().getMessage());
+		}
+	}
+
+	/**
+	 * 対象： LowCodeConnectionPool#getConnection
+	 *
+	 * 概要： 処理期限を関連付けたスレッドで、最大コネクション数を超えて取得する異常ケース。
+	 *
+	 * 結果： 取得待ちの最大時間ではなく、処理期限でSQLTimeoutExceptionがthrowされること。
+	 * プールの取得タイムアウト回数には数えないこと。
+	 */
+	@Test
+	public void test_異常系_コネクション取得待ちの処理期限() throws SQLException {
+		Properties properties = new Properties();
+		properties.setProperty("url", "jdbc:h2:mem:deadline;DB_CLOSE_DELAY=-1");
+		properties.setProperty("user", "sa");
+		properties.setProperty("password", "");
+		properties.setProperty("pool.maxSize", "1");
+		properties.setProperty("pool.maxWait", "10000");
+		LowCodeConnectionPool pool = new LowCodeConnectionPool(properties);
+
+		Connection conn = pool.getConnection();
+		try {
+			LowCodeDeadline.bind(new LowCodeDeadline(200));
+			long start = System.nanoTime();
+			try {
+				pool.getConnection();
+				fail("deadline");
+			} catch (SQLTimeoutException e) {
+				long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+				assertTrue(String.valueOf(elapsedMillis), elapsedMillis < 2000);
+			}
+			assertEquals(pool.getStatistics().getTimeoutCount(), 0L);
+		} finally {
+			conn.close();
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package infrastructure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+/**
+ * LowCodeHistogram・LowCodeMetricsRegistryのテストクラス。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeHistogramTest {
+	/**
+	 * 対象： LowCodeHistogram#bucketIndex, bucketUpperBound
+	 *
+	 * 概要： 値に対応するバケットと、バケットの上限値を算出する正常ケース。
+	 *
+	 * 結果： 値がバケットの範囲内であり、相対誤差が1/8以下であること。
+	 */
+	@Test
+	public void test_正常系_バケット算出() {
+		long[] values = { 0, 7, 8, 15, 16, 17, 1000, 123456789L, Long.MAX_VALUE };
+		for (long value : values) {
+			int index = LowCodeHistogram.bucketIndex(value);
+			long upper = LowCodeHistogram.bucketUpperBound(index);
+			assertTrue(String.valueOf(value), upper >= value);
+			assertTrue(String.valueOf(value), upper - value <= value / 8);
+			if (index > 0) {
+				assertTrue(String.valueOf(value), LowCodeHistogram.bucketUpperBound(index - 1) < value);
+			}
+		}
+	}
+
+	/**
+	 * 対象： LowCodeHistogram#record, getPercentile
+	 *
+	 * 概要： 1～1000マイクロ秒の値を記録して、パーセンタイルを取得する正常ケース。
+	 *
+	 * 結果： 件数・合計・最大値が正しく、パーセンタイルの誤差が1/8以下であること。
+	 */
+	@Test
+	public void test_正常系_パーセンタイル取得() {
+		LowCodeHistogram histogram = new LowCodeHistogram();
+		assertEquals(histogram.getPercentile(99), 0);
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(i * 1000L);
+		}
+		assertEquals(histogram.getCount(), 1000);
+		assertEquals(histogram.getSum(), 500500000L);
+		assertEquals(histogram.getMax(), 1000000L);
+		assertEquals(histogram.getPercentile(50), 500000.0, 500000.0 / 8);
+		assertEquals(histogram.getPercentile(99), 990000.0, 990000.0 / 8);
+		assertEquals(histogram.getPercentile(100), 1000000L);
+	}
+
+	/**
+	 * 対象： LowCodeMetricsRegistry#get, writeText
+	 *
+	 * 概要： 識別子毎の性能情報を記録して、テキスト形式で出力する正常ケース。
+	 *
+	 * 結果： 同じ識別子には同じ性能情報が返却され、件数・処理段階毎の処理時間が出力されること。
+	 */
+	@Test
+	public void test_正常系_テキスト出力() throws IOException {
+		LowCodeMetricsRegistry registry = LowCodeMetricsRegistry.getInstance();
+		LowCodeMetrics metrics = registry.get("test_metrics");
+		assertTrue(registry.get("test_metrics") == metrics);
+		metrics.recordPhase(LowCodeMetrics.Phase.DB_EXECUTE, 2000000L);
+		metrics.recordRequest(3000000L, 5, false);
+		metrics.recordRequest(1000000L, 0, true);
+
+		StringBuilder text = new StringBuilder();
+		registry.writeText(text);
+		assertTrue(text.toString().contains("lowcode_requests_total{identifier=\"test_metrics\"} 2\n"));
+		assertTrue(text.toString().contains("lowcode_errors_total{identifier=\"test_metrics\"} 1\n"));
+		assertTrue(text.toString().contains("lowcode_rows_total{identifier=\"test_metrics\"} 5\n"));
+		assertTrue(text.toString()
+				.contains("lowcode_phase_seconds_count{identifier=\"test_metrics\",phase=\"db_execute\"} 1\n"));
+		assertEquals(metrics.getMaxMillis(), 3.0, 0.0);
+	}
+}
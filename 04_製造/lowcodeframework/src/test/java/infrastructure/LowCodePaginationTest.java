@@ -0,0 +1,244 @@
+package infrastructure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import common.LowCodeConsts;
+
+/**
+ * LowCodePaginationのテストクラス。 インメモリDB（H2）に対して実行する。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodePaginationTest {
+	private Properties dbProperties;
+	private LowCodeRepository repo;
+	private LowCodeSqlTemplate template;
+
+	@Before
+	public void setUp() throws SQLException {
+		this.dbProperties = new Properties();
+		this.dbProperties.setProperty("url", "jdbc:h2:mem:pagination;DB_CLOSE_DELAY=-1");
+		this.dbProperties.setProperty("user", "sa");
+		this.dbProperties.setProperty("password", "");
+		this.repo = new LowCodeRepository();
+		this.template = LowCodeSqlTemplate.parse("select dept, id, name from Employee where id <= {{id}};", 0L);
+
+		Connection conn = LowCodeConnectionPool.getInstance(this.dbProperties).getConnection();
+		try {
+			Statement stmt = conn.createStatement();
+			stmt.execute("CREATE TABLE IF NOT EXISTS Employee (dept VARCHAR(10), id INTEGER, name VARCHAR(100))");
+			stmt.execute("TRUNCATE TABLE Employee");
+			for (int i = 1; i <= 10; i++) {
+				stmt.execute(String.format("INSERT INTO Employee VALUES ('%s', %d, 'name%d')", i % 2 == 0 ? "b" : "a",
+						i, i));
+			}
+			stmt.close();
+			conn.commit();
+		} finally {
+			conn.close();
+		}
+	}
+
+	/**
+	 * 対象： LowCodePagination#rewrite、LowCodePagination#createModel
+	 *
+	 * 概要： 複数列のキー（昇順）で、次ページのカーソルを指定して最終ページまで取得する正常ケース。
+	 *
+	 * 結果： キーの順に重複・欠落なく取得できること。最終ページのみ次ページ無し（nextCursorがnull）となること。
+	 * 元のSQLのバインド変数が有効であること。
+	 */
+	@Test
+	public void test_正常系_昇順のページ送り() throws SQLException {
+		LowCodePagination pagination = LowCodePagination.of(this.createRoute("dept, id", "4", null));
+
+		List<String> ids = new ArrayList<String>();
+		List<Integer> counts = new ArrayList<Integer>();
+		String cursor = null;
+		do {
+			Map<String, Object> model = this.executePage(pagination, "9", cursor);
+			LowCodeResultTable rows = (LowCodeResultTable) model.get("model");
+			Map<?, ?> page = (Map<?, ?>) model.get("page");
+			for (Map<String, String> row : rows) {
+				ids.add(row.get("ID"));
+			}
+			counts.add(rows.size());
+			assertEquals(page.get("size"), 4);
+			assertEquals(page.get("count"), rows.size());
+			assertEquals(page.get("cursor"), cursor);
+			assertEquals(page.get("hasNext"), page.get("nextCursor") != null);
+			cursor = (String) page.get("nextCursor");
+		} while (cursor != null);
+
+		assertEquals(ids, Arrays.asList("1", "3", "5", "7", "9", "2", "4", "6", "8"));
+		assertEquals(counts, Arrays.asList(4, 4, 1));
+	}
+
+	/**
+	 * 対象： LowCodePagination#rewrite、LowCodePagination#createModel
+	 *
+	 * 概要： 降順のキーで、行数がページサイズの倍数となる正常ケース。
+	 *
+	 * 結果： 降順に取得できること。ちょうど最終行で終わるページは次ページ無しとなり、空のページが発生しないこと。
+	 */
+	@Test
+	public void test_正常系_降順のページ送り() throws SQLException {
+		LowCodePagination pagination = LowCodePagination.of(this.createRoute("id", "5", "desc"));
+
+		Map<String, Object> first = this.executePage(pagination, "10", null);
+		Map<?, ?> page = (Map<?, ?>) first.get("page");
+		assertEquals(((LowCodeResultTable) first.get("model")).get(0).get("ID"), "10");
+		assertEquals(page.get("hasNext"), true);
+
+		Map<String, Object> second = this.executePage(pagination, "10", (String) page.get("nextCursor"));
+		LowCodeResultTable rows = (LowCodeResultTable) second.get("model");
+		assertEquals(rows.size(), 5);
+		assertEquals(rows.get(0).get("ID"), "5");
+		assertEquals(rows.get(4).get("ID"), "1");
+		assertEquals(((Map<?, ?>) second.get("page")).get("hasNext"), false);
+		assertNull(((Map<?, ?>) second.get("page")).get("nextCursor"));
+	}
+
+	/**
+	 * 対象： LowCodePagination#rewrite、LowCodePagination#bind
+	 *
+	 * 概要： 数値に見える値（007等）を含む文字列の列、タイムスタンプの列をキーとしてページ送りする正常ケース。
+	 *
+	 * 結果： 文字列の列は文字列の順に、タイムスタンプの列は時刻の順に、重複・欠落なく取得できること。
+	 * カーソルの値が、文字列の列は文字列、タイムスタンプの列は型を指定せずに（Types.OTHER）バインドされること。
+	 */
+	@Test
+	public void test_正常系_列の型でのページ送り() throws SQLException {
+		Connection conn = LowCodeConnectionPool.getInstance(this.dbProperties).getConnection();
+		try {
+			Statement stmt = conn.createStatement();
+			stmt.execute("CREATE TABLE IF NOT EXISTS Item (code VARCHAR(10), created TIMESTAMP)");
+			stmt.execute("TRUNCATE TABLE Item");
+			String[] codes = { "7", "08", "007", "010", "07", "001" };
+			for (int i = 0; i < codes.length; i++) {
+				stmt.execute(String.format("INSERT INTO Item VALUES ('%s', TIMESTAMP '2024-01-0%d 09:00:00.%d')",
+						codes[i], codes.length - i, i));
+			}
+			stmt.close();
+			conn.commit();
+		} finally {
+			conn.close();
+		}
+
+		LowCodeSqlTemplate items = LowCodeSqlTemplate.parse("select code, created from Item", 0L);
+		List<String> codes = new ArrayList<String>();
+		List<String> created = new ArrayList<String>();
+		for (String key : new String[] { "code", "created" }) {
+			LowCodePagination pagination = LowCodePagination.of(this.createRoute(key, "2", null));
+			String cursor = null;
+			do {
+				LowCodeSqlTemplate template = pagination.rewrite(items, cursor);
+				Map<String, String> bindVariable = pagination.bind(Collections.<String, String>emptyMap(), cursor);
+				if (cursor != null) {
+					assertEquals(this.bindMethods(template, bindVariable),
+							Collections.singletonList(key.equals("code") ? "setString" : "setObject:" + Types.OTHER));
+				}
+				LowCodeResultTable table = this.repo.executeSelectSql(this.dbProperties, template, bindVariable, 0, 0);
+				Map<String, Object> model = pagination.createModel(table, cursor);
+				for (Map<String, String> row : (LowCodeResultTable) model.get("model")) {
+					(key.equals("code") ? codes : created).add(row.get("CODE"));
+				}
+				cursor = (String) ((Map<?, ?>) model.get("page")).get("nextCursor");
+			} while (cursor != null);
+		}
+
+		assertEquals(codes, Arrays.asList("001", "007", "010", "07", "08", "7"));
+		assertEquals(created, Arrays.asList("001", "07", "010", "007", "08", "7"));
+	}
+
+	/**
+	 * 対象： LowCodePagination
+	 *
+	 * 概要： ページキーが無いリソース、設定内容・カーソルが不正な準正常ケース。
+	 *
+	 * 結果： ページキーが無い場合はnullが返却されること。設定内容が不正な場合はIllegalArgumentException、
+	 * カーソルが不正な場合はSQLExceptionがthrowされること。
+	 */
+	@Test
+	public void test_準正常系_不正な設定とカーソル() throws SQLException {
+		assertNull(LowCodePagination.of(new LowCodeRoute(Collections.singletonMap("identifier", "test"))));
+		String[][] invalid = { { "id;drop", null, null }, { "e.id", null, null }, { "id", "0", null },
+				{ "id", "x", null }, { "id", null, "up" } };
+		for (String[] setting : invalid) {
+			try {
+				LowCodePagination.of(this.createRoute(setting[0], setting[1], setting[2]));
+				fail(Arrays.toString(setting));
+			} catch (IllegalArgumentException e) {
+				// 想定通り
+			}
+		}
+		LowCodePagination pagination = LowCodePagination.of(this.createRoute("dept,id", null, null));
+		assertEquals(pagination.getPageSize(), LowCodeConsts.DEFAULT_PAGE_SIZE);
+		// 不正なBase64、長さの不正、キーの数の不一致
+		String[] cursors = { "!!", "OTk6YQ", "MTph" };
+		for (String cursor : cursors) {
+			try {
+				pagination.bind(Collections.<String, String>emptyMap(), cursor);
+				fail(cursor);
+			} catch (SQLException e) {
+				// 想定通り
+			}
+		}
+	}
+
+	private List<String> bindMethods(LowCodeSqlTemplate template, Map<String, String> bindVariable)
+			throws SQLException {
+		final List<String> methods = new ArrayList<String>();
+		template.bind((PreparedStatement) Proxy.newProxyInstance(this.getClass().getClassLoader(),
+				new Class<?>[] { PreparedStatement.class }, new InvocationHandler() {
+					public Object invoke(Object proxy, Method method, Object[] args) {
+						methods.add(args.length > 2 ? method.getName() + ":" + args[2] : method.getName());
+						return null;
+					}
+				}), bindVariable);
+		return methods;
+	}
+
+	private Map<String, Object> executePage(LowCodePagination pagination, String id, String cursor)
+			throws SQLException {
+		Map<String, String> bindVariable = new HashMap<String, String>();
+		bindVariable.put("id", id);
+		LowCodeResultTable table = this.repo.executeSelectSql(this.dbProperties,
+				pagination.rewrite(this.template, cursor), pagination.bind(bindVariable, cursor), 0, 0);
+		return pagination.createModel(table, cursor);
+	}
+
+	private LowCodeRoute createRoute(String keys, String pageSize, String order) {
+		Map<String, String> context = new HashMap<String, String>();
+		context.put(LowCodeConsts.SETTING_IDENTIFIER, "test");
+		context.put(LowCodeConsts.SETTING_PAGE_KEY, keys);
+		if (pageSize != null) {
+			context.put(LowCodeConsts.SETTING_PAGE_SIZE, pageSize);
+		}
+		if (order != null) {
+			context.put(LowCodeConsts.SETTING_PAGE_ORDER, order);
+		}
+		return new LowCodeRoute(context);
+	}
+}
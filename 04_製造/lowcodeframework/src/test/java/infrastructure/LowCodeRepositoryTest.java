@@ -0,0 +1,345 @@
+package infrastructure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * LowCodeRepositoryのテストクラス。 インメモリDB（H2）に対して実行する。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeRepositoryTest {
+	private Properties dbProperties;
+	private LowCodeRepository repo;
+
+	@Before
+	public void setUp() throws SQLException {
+		this.dbProperties = new Properties();
+		this.dbProperties.setProperty("url", "jdbc:h2:mem:repository;DB_CLOSE_DELAY=-1");
+		this.dbProperties.setProperty("user", "sa");
+		this.dbProperties.setProperty("password", "");
+		this.repo = new LowCodeRepository();
+
+		Connection conn = LowCodeConnectionPool.getInstance(this.dbProperties).getConnection();
+		try {
+			Statement stmt = conn.createStatement();
+			stmt.execute("CREATE TABLE IF NOT EXISTS Employee (id INTEGER, name VARCHAR(100), email VARCHAR(100))");
+			stmt.execute("TRUNCATE TABLE Employee");
+			for (int i = 1; i <= 10; i++) {
+				stmt.execute(String.format("INSERT INTO Employee VALUES (%d, 'name%d', 'mail%d@test.co.jp')", i, i, i));
+			}
+			stmt.close();
+			conn.commit();
+		} finally {
+			conn.close();
+		}
+	}
+
+	/**
+	 * 対象： LowCodeRepository#executeSelectSql
+	 *
+	 * 概要： SELECT文を実行して、実行結果を列形式で保持する正常ケース。
+	 *
+	 * 結果： 各行をMapとして参照できること。列名が1回だけ保持されること。
+	 */
+	@Test
+	public void test_正常系_SELECT文実行() throws SQLException {
+		LowCodeSqlTemplate template = LowCodeSqlTemplate
+				.parse("select id, name, email from Employee where id <= {{id}} order by id", 0L);
+		Map<String, String> bindVariable = new HashMap<String, String>();
+		bindVariable.put("id", "2");
+
+		LowCodeResultTable list = this.repo.executeSelectSql(this.dbProperties, template, bindVariable, 0, 0);
+		assertEquals(list.size(), 2);
+		assertEquals(list.getColumnNames(), Arrays.asList("ID", "NAME", "EMAIL"));
+		assertEquals(list.get(1).get("NAME"), "name2");
+		assertEquals(list.getValue(1, 2), "mail2@test.co.jp");
+
+		Map<String, String> expected = new HashMap<String, String>();
+		expected.put("ID", "1");
+		expected.put("NAME", "name1");
+		expected.put("EMAIL", "mail1@test.co.jp");
+		assertEquals(list.get(0), expected);
+	}
+
+	/**
+	 * 対象： LowCodeRepository#openSelectCursor
+	 *
+	 * 概要： ストリーミングモードで、最大取得件数を指定してSELECT文を実行する正常ケース。
+	 *
+	 * 結果： 最大取得件数まで1行ずつ取得できること。最終行まで読み込むとコネクションが返却されること。
+	 */
+	@Test
+	public void test_正常系_ストリーミング() throws SQLException {
+		LowCodeSqlTemplate template = LowCodeSqlTemplate.parse("select id, name from Employee order by id", 0L);
+		LowCodeConnectionPool pool = LowCodeConnectionPool.getInstance(this.dbProperties);
+
+		LowCodeResultCursor cursor = this.repo.openSelectCursor(this.dbProperties, template, null, 2, 3);
+		assertEquals(pool.getStatistics().getActive(), 1);
+		Iterator<Map<String, String>> it = cursor.iterator();
+		int count = 0;
+		while (it.hasNext()) {
+			Map<String, String> row = it.next();
+			count++;
+			assertEquals(row.get("ID"), String.valueOf(count));
+		}
+		assertEquals(count, 3);
+		assertTrue(cursor.isClosed());
+		assertEquals(pool.getStatistics().getActive(), 0);
+	}
+
+	/**
+	 * 対象： LowCodeResultCursor#closeAll
+	 *
+	 * 概要： 読み込み途中のカーソルを、リクエスト終了時にクローズする正常ケース。
+	 *
+	 * 結果： カーソルがクローズされ、コネクションが返却されること。
+	 */
+	@Test
+	public void test_正常系_ストリーミング途中終了() throws SQLException {
+		LowCodeSqlTemplate template = LowCodeSqlTemplate.parse("select id, name from Employee", 0L);
+		LowCodeConnectionPool pool = LowCodeConnectionPool.getInstance(this.dbProperties);
+
+		LowCodeResultCursor cursor = this.repo.openSelectCursor(this.dbProperties, template, null, 0, 0);
+		cursor.next();
+		assertFalse(cursor.isClosed());
+		LowCodeResultCursor.closeAll();
+		assertTrue(cursor.isClosed());
+		assertEquals(pool.getStatistics().getActive(), 0);
+	}
+
+	/**
+	 * 対象： LowCodeRepository#executeBatchSql
+	 *
+	 * 概要： 複数行のINSERT文を、バッチサイズ毎にまとめて実行する正常ケース。
+	 *
+	 * 結果： 行毎の更新件数が返却されること。全行が登録されること。
+	 */
+	@Test
+	public void test_正常系_一括登録() throws SQLException {
+		LowCodeSqlTemplate template = LowCodeSqlTemplate
+				.parse("insert into Employee values ({{id}}, '{{name}}', '{{name}}@test.co.jp')", 0L);
+		List<Map<String, String>> rows = new ArrayList<Map<String, String>>();
+		for (int i = 11; i <= 13; i++) {
+			Map<String, String> row = new HashMap<String, String>();
+			row.put("id", String.valueOf(i));
+			row.put("name", "name" + i);
+			rows.add(row);
+		}
+
+		int[] updateCounts = this.repo.executeBatchSql(this.dbProperties, template, rows, 2);
+		assertEquals(updateCounts.length, 3);
+		assertEquals(updateCounts[2], 1);
+		LowCodeResultTable list = this.repo.executeSelectSql(this.dbProperties,
+				LowCodeSqlTemplate.parse("select email from Employee where id > 10 order by id", 0L), null, 0, 0);
+		assertEquals(list.size(), 3);
+		assertEquals(list.getValue(2, 0), "name13@test.co.jp");
+	}
+
+	/**
+	 * 対象： LowCodeRepository#executeBatchSql
+	 *
+	 * 概要： 一括登録の途中の行でエラーが発生する異常ケース。
+	 *
+	 * 結果： SQLExceptionが発生し、全行がロールバックされること。
+	 */
+	@Test
+	public void test_異常系_一括登録ロールバック() throws SQLException {
+		LowCodeSqlTemplate template = LowCodeSqlTemplate.parse("insert into Employee (id, name) values ({{id}}, 'x')",
+				0L);
+		List<Map<String, String>> rows = new ArrayList<Map<String, String>>();
+		for (String id : new String[] { "11", "12", "abc" }) {
+			Map<String, String> row = new HashMap<String, String>();
+			row.put("id", id);
+			rows.add(row);
+		}
+
+		try {
+			this.repo.executeBatchSql(this.dbProperties, template, rows, 2);
+			fail("SQLException");
+		} catch (SQLException e) {
+			// 想定通り
+		}
+		assertEquals(this.repo.executeSelectSql(this.dbProperties,
+				LowCodeSqlTemplate.parse("select id from Employee where id > 10", 0L), null, 0, 0).size(), 0);
+	}
+
+	/**
+	 * 対象： LowCodeRepository#importCsv
+	 *
+	 * 概要： COPYに対応していないDBに、CSVをINSERT文で一括登録する正常ケース。
+	 *
+	 * 結果： 全行が登録されること。空の値はNULL、ダブルクォートで囲んだ値はそのまま登録されること。転送行数が加算されること。
+	 */
+	@Test
+	public void test_正常系_CSV一括登録() throws SQLException, IOException {
+		String csv = "\uFEFFid,name,email\r\n11,\"suzuki, taro\",\r\n12,\"\"\"sato\"\"\",sato@test.co.jp\r\n13,tanaka,\"\"\r\n";
+		LowCodeMetrics metrics = new LowCodeMetrics("csv_import");
+
+		long rows = this.repo.importCsv(this.dbProperties, "Employee",
+				new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), 2, 1024, metrics);
+		assertEquals(rows, 3L);
+		assertEquals(metrics.getTransferRowCount(), 3L);
+		assertEquals(metrics.getTransferByteCount(), (long) csv.getBytes(StandardCharsets.UTF_8).length);
+		assertEquals(metrics.getActiveTransferCount(), 0);
+
+		LowCodeResultTable list = this.repo.executeSelectSql(this.dbProperties,
+				LowCodeSqlTemplate.parse("select id, name, email from Employee where id > 10 order by id", 0L), null,
+				0, 0);
+		assertEquals(list.size(), 3);
+		assertEquals(list.get(0).get("NAME"), "suzuki, taro");
+		assertEquals(list.get(0).get("EMAIL"), null);
+		assertEquals(list.get(1).get("NAME"), "\"sato\"");
+		assertEquals(list.get(2).get("EMAIL"), "");
+	}
+
+	/**
+	 * 対象： LowCodeRepository#importCsv
+	 *
+	 * 概要： 列数が列名の行と一致しない行、不正な列名を含むCSVを一括登録する異常ケース。
+	 *
+	 * 結果： SQLExceptionが発生し、全行がロールバックされること。
+	 */
+	@Test
+	public void test_異常系_CSV一括登録ロールバック() throws SQLException, IOException {
+		try {
+			this.repo.importCsv(this.dbProperties, "Employee",
+					new ByteArrayInputStream("id,name\n11,a\n12,b\n13\n".getBytes(StandardCharsets.UTF_8)), 1, 1024,
+					null);
+			fail("SQLException");
+		} catch (SQLException e) {
+			assertTrue(e.getMessage().contains("レコード: 4"));
+		}
+		try {
+			this.repo.importCsv(this.dbProperties, "Employee",
+					new ByteArrayInputStream("id,name;drop table Employee\n11,a\n".getBytes(StandardCharsets.UTF_8)),
+					1, 1024, null);
+			fail("SQLException");
+		} catch (SQLException e) {
+			// 想定通り
+		}
+		assertEquals(this.repo.executeSelectSql(this.dbProperties,
+				LowCodeSqlTemplate.parse("select id from Employee where id > 10", 0L), null, 0, 0).size(), 0);
+	}
+
+	/**
+	 * 対象： LowCodeCsvExport#writeTo
+	 *
+	 * 概要： COPYに対応していないDBから、SELECT文の実行結果をCSV形式で出力する正常ケース。
+	 *
+	 * 結果： 1行目に列名、2行目以降に実行結果が出力されること。カンマを含む値はダブルクォートで囲まれること。
+	 */
+	@Test
+	public void test_正常系_CSV出力() throws SQLException, IOException {
+		LowCodeSqlTemplate template = LowCodeSqlTemplate.parse(
+				"select id, name || ',' || id as name, email from Employee where id <= {{id}} order by id", 0L);
+		Map<String, String> bindVariable = new HashMap<String, String>();
+		bindVariable.put("id", "2");
+		LowCodeMetrics metrics = new LowCodeMetrics("csv_export");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		long rows = this.repo.createCsvExport(this.dbProperties, template, bindVariable, 1, 0, metrics).writeTo(out);
+		assertEquals(rows, 2L);
+		assertEquals(new String(out.toByteArray(), StandardCharsets.UTF_8),
+				"ID,NAME,EMAIL\r\n1,\"name1,1\",mail1@test.co.jp\r\n2,\"name2,2\",mail2@test.co.jp\r\n");
+		assertEquals(metrics.getTransferRowCount(), 2L);
+		assertEquals(metrics.getTransferByteCount(), (long) out.size());
+	}
+
+	/**
+	 * 対象： LowCodeCsvExport#writeTo
+	 *
+	 * 概要： 処理期限を関連付けたスレッドで作成したCSV出力を、関連付けの解除後（画面の描画時）に出力し、処理期限を超過する異常ケース。
+	 *
+	 * 結果： 作成時の処理期限でSQLがキャンセルされ、IOExceptionがthrowされること。出力後は処理期限の関連付けが元に戻ること。
+	 */
+	@Test
+	public void test_異常系_CSV出力の処理期限() throws SQLException {
+		LowCodeSqlTemplate template = LowCodeSqlTemplate.parse(
+				"select count(*) as cnt from system_range(1, 100000) a, system_range(1, 100000) b where a.x > {{id}}", 0L);
+		Map<String, String> bindVariable = new HashMap<String, String>();
+		bindVariable.put("id", "0");
+		LowCodeCsvExport export;
+		LowCodeDeadline.bind(new LowCodeDeadline(300));
+		try {
+			export = this.repo.createCsvExport(this.dbProperties, template, bindVariable, 0, 0, null);
+		} finally {
+			LowCodeDeadline.unbind();
+		}
+
+		long start = System.nanoTime();
+		try {
+			export.writeTo(new ByteArrayOutputStream());
+			fail("deadline");
+		} catch (IOException e) {
+			long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			assertTrue(String.valueOf(elapsedMillis), elapsedMillis < 3000);
+		}
+		assertNull(LowCodeDeadline.current());
+	}
+
+	/**
+	 * 対象： LowCodeResultCursor
+	 *
+	 * 概要： 処理期限を関連付けたスレッドで開いたカーソルを、関連付けの解除後（画面の描画時）に読み込み、読込み中に処理期限をキャンセルする異常ケース。
+	 *
+	 * 結果： 作成時の処理期限で読込みが中止され、IllegalStateExceptionがthrowされること。カーソルがクローズされ、コネクションが返却されること。
+	 */
+	@Test
+	public void test_異常系_ストリーミングの処理期限() throws SQLException {
+		Properties lazy = new Properties();
+		lazy.setProperty("url", "jdbc:h2:mem:repository_lazy;LAZY_QUERY_EXECUTION=1;DB_CLOSE_DELAY=-1");
+		lazy.setProperty("user", "sa");
+		lazy.setProperty("password", "");
+		LowCodeConnectionPool pool = LowCodeConnectionPool.getInstance(lazy);
+		LowCodeSqlTemplate template = LowCodeSqlTemplate.parse("select x from system_range(1, 100000000)", 0L);
+		LowCodeDeadline deadline = new LowCodeDeadline(60000);
+		LowCodeResultCursor cursor;
+		LowCodeDeadline.bind(deadline);
+		try {
+			cursor = this.repo.openSelectCursor(lazy, template, null, 100, 0);
+		} finally {
+			LowCodeDeadline.unbind();
+		}
+
+		int count = 0;
+		try {
+			for (Map<String, String> row : cursor) {
+				if (++count == 10000) {
+					// クライアントの切断など
+					deadline.cancel();
+				}
+				assertEquals(row.get("X"), String.valueOf(count));
+			}
+			fail("cancelled");
+		} catch (IllegalStateException e) {
+			assertTrue(e.getCause() instanceof SQLException);
+		}
+		assertTrue(String.valueOf(count), count < 20000);
+		assertTrue(cursor.isClosed());
+		assertEquals(pool.getStatistics().getActive(), 0);
+	}
+}
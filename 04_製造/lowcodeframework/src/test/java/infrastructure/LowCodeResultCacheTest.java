@@ -0,0 +1,178 @@
+package infrastructure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * LowCodeResultCacheのテストクラス。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeResultCacheTest {
+	private final AtomicInteger loadCount = new AtomicInteger();
+
+	/**
+	 * 対象： LowCodeResultCache#createKey
+	 *
+	 * 概要： SQLで使用しないバインド変数を含めて、キャッシュキーを作成する正常ケース。
+	 *
+	 * 結果： SQLで使用しないバインド変数は、キャッシュキーに影響しないこと。 接続先のデータソースが異なる場合は、別のキーとなること。
+	 */
+	@Test
+	public void test_正常系_キャッシュキー作成() throws SQLException {
+		LowCodeSqlTemplate template = LowCodeSqlTemplate.parse("select * from Employee where id = {{id}}", 0L);
+		Map<String, String> bindVariable = new HashMap<String, String>();
+		bindVariable.put("id", "1");
+		String key = LowCodeResultCache.createKey("test_get", "a", template, bindVariable, 0);
+		bindVariable.put("_", "12345");
+		assertEquals(LowCodeResultCache.createKey("test_get", "a", template, bindVariable, 0), key);
+		assertFalse(LowCodeResultCache.createKey("test_get", "b", template, bindVariable, 0).equals(key));
+		assertFalse(LowCodeResultCache.createKey("test_get", "default", template, bindVariable, 0).equals(key));
+	}
+
+	/**
+	 * 対象： LowCodeResultCache#get, invalidate
+	 *
+	 * 概要： キャッシュの取得後に、タグを指定してキャッシュを削除する正常ケース。
+	 *
+	 * 結果： 2回目はDB検索せずにキャッシュが返却されること。削除後はDB検索されること。
+	 */
+	@Test
+	public void test_正常系_キャッシュ取得と削除() throws SQLException {
+		LowCodeResultCache cache = new LowCodeResultCache(1024 * 1024);
+		Set<String> tags = new HashSet<String>(Arrays.asList("test_get", "Employee"));
+
+		LowCodeResultTable table = cache.get("key", tags, 60000L, this.loader(1));
+		assertSame(cache.get("key", tags, 60000L, this.loader(1)), table);
+		assertEquals(this.loadCount.get(), 1);
+		assertEquals(cache.getHitCount(), 1);
+
+		cache.invalidate(Collections.singletonList("Dept"));
+		assertEquals(cache.size(), 1);
+		cache.invalidate(Collections.singletonList("Employee"));
+		assertEquals(cache.size(), 0);
+		cache.get("key", tags, 60000L, this.loader(1));
+		assertEquals(this.loadCount.get(), 2);
+	}
+
+	/**
+	 * 対象： LowCodeResultCache#get, invalidate
+	 *
+	 * 概要： DB検索中に、タグを指定してキャッシュを削除する正常ケース。
+	 *
+	 * 結果： 削除前の実行結果はキャッシュされず、次回はDB検索されること。
+	 */
+	@Test
+	public void test_正常系_検索中の削除() throws SQLException {
+		final LowCodeResultCache cache = new LowCodeResultCache(1024 * 1024);
+		final Set<String> tags = Collections.singleton("Employee");
+		cache.get("key", tags, 60000L, new LowCodeResultCache.Loader() {
+			public LowCodeResultTable load() throws SQLException {
+				cache.invalidate(tags);
+				return loader(1).load();
+			}
+		});
+		assertEquals(cache.size(), 0);
+		cache.get("key", tags, 60000L, this.loader(1));
+		assertEquals(this.loadCount.get(), 2);
+	}
+
+	/**
+	 * 対象： LowCodeResultCache#get
+	 *
+	 * 概要： 重みの上限を超えてキャッシュする正常ケース。
+	 *
+	 * 結果： 最も長く参照されていないキャッシュから削除されること。
+	 */
+	@Test
+	public void test_正常系_上限超過() throws SQLException {
+		long weight = this.loader(10).load().getWeight();
+		LowCodeResultCache cache = new LowCodeResultCache(weight * 2);
+		Set<String> tags = Collections.singleton("test_get");
+
+		cache.get("key1", tags, 60000L, this.loader(10));
+		cache.get("key2", tags, 60000L, this.loader(10));
+		cache.get("key1", tags, 60000L, this.loader(10));
+		cache.get("key3", tags, 60000L, this.loader(10));
+		assertEquals(cache.size(), 2);
+		assertEquals(cache.getEvictionCount(), 1);
+		this.loadCount.set(0);
+		cache.get("key1", tags, 60000L, this.loader(10));
+		cache.get("key2", tags, 60000L, this.loader(10));
+		assertEquals(this.loadCount.get(), 1);
+	}
+
+	/**
+	 * 対象： LowCodeResultCache#get
+	 *
+	 * 概要： 同じキーに対して、複数スレッドから同時にキャッシュを取得する正常ケース。
+	 *
+	 * 結果： DB検索が1回だけ実行され、全スレッドに同じ実行結果が返却されること。
+	 */
+	@Test
+	public void test_正常系_同時ミスの集約() throws Exception {
+		final LowCodeResultCache cache = new LowCodeResultCache(1024 * 1024);
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final LowCodeResultCache.Loader slowLoader = new LowCodeResultCache.Loader() {
+			public LowCodeResultTable load() throws SQLException {
+				started.countDown();
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return loader(1).load();
+			}
+		};
+		Callable<LowCodeResultTable> task = new Callable<LowCodeResultTable>() {
+			public LowCodeResultTable call() throws SQLException {
+				return cache.get("key", Collections.singleton("test_get"), 60000L, slowLoader);
+			}
+		};
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<LowCodeResultTable> first = executor.submit(task);
+			started.await(10, TimeUnit.SECONDS);
+			Future<LowCodeResultTable> second = executor.submit(task);
+			Thread.sleep(100L);
+			release.countDown();
+			assertSame(first.get(), second.get());
+			assertEquals(this.loadCount.get(), 1);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private LowCodeResultCache.Loader loader(final int rows) {
+		return new LowCodeResultCache.Loader() {
+			public LowCodeResultTable load() {
+				loadCount.incrementAndGet();
+				String[] cells = new String[rows];
+				for (int i = 0; i < rows; i++) {
+					cells[i] = "name" + i;
+				}
+				return new LowCodeResultTable(new String[] { "NAME" }, cells, rows);
+			}
+		};
+	}
+}
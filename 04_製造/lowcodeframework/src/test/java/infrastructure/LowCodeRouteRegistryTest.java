@@ -0,0 +1,135 @@
+package infrastructure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * LowCodeRouteRegistryのテストクラス。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeRouteRegistryTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * 対象： LowCodeRouteRegistry
+	 *
+	 * 概要： 設定ファイルを解析して、識別子とデフォルトのルートを取得する正常ケース。
+	 *
+	 * 結果： 識別子に対応するルートが取得できること。存在しない識別子はnullであること。再取得時に同じルート表であること。
+	 */
+	@Test
+	public void test_正常系_ルート取得() throws Exception {
+		File settingFile = this.writeSetting(folder.newFile("setting.xml"), "test_get", "test_get.jsp");
+		LowCodeRouteRegistry registry = new LowCodeRouteRegistry(settingFile, new LowCodeRepository(), 60000L);
+
+		LowCodeRouteTable table = registry.getTable();
+		assertEquals(table.find("test_get").get("view"), "test_get.jsp");
+		assertEquals(table.find("test_get").get("sql"), "test_select.sql");
+		assertEquals(table.getDefaultRoute().get("view"), "index.jsp");
+		assertNull(table.find("no_exist"));
+		assertSame(table, registry.getTable());
+	}
+
+	/**
+	 * 対象： LowCodeRouteRegistry
+	 *
+	 * 概要： 設定ファイルの更新を検知して、ルート表を差し替える正常ケース。
+	 *
+	 * 結果： 更新後の設定内容が取得できること。
+	 */
+	@Test
+	public void test_正常系_設定ファイル更新() throws Exception {
+		File settingFile = this.writeSetting(folder.newFile("setting.xml"), "test_get", "test_get.jsp");
+		LowCodeRouteRegistry registry = new LowCodeRouteRegistry(settingFile, new LowCodeRepository(), 0L);
+		assertEquals(registry.getTable().find("test_get").get("view"), "test_get.jsp");
+
+		this.writeSetting(settingFile, "test_get", "test_get_changed.jsp");
+		settingFile.setLastModified(settingFile.lastModified() + 2000L);
+		assertEquals(registry.getTable().find("test_get").get("view"), "test_get_changed.jsp");
+	}
+
+	/**
+	 * 対象： LowCodeRouteRegistry
+	 *
+	 * 概要： 更新後の設定ファイルが不正な準正常ケース。
+	 *
+	 * 結果： 変更前のルート表が使われること。
+	 */
+	@Test
+	public void test_準正常系_設定ファイル不正() throws Exception {
+		File settingFile = this.writeSetting(folder.newFile("setting.xml"), "test_get", "test_get.jsp");
+		LowCodeRouteRegistry registry = new LowCodeRouteRegistry(settingFile, new LowCodeRepository(), 0L);
+		LowCodeRouteTable table = registry.getTable();
+
+		Writer writer = new OutputStreamWriter(new FileOutputStream(settingFile), "UTF-8");
+		writer.write("<resources><resource>");
+		writer.close();
+		settingFile.setLastModified(settingFile.lastModified() + 2000L);
+		assertSame(table, registry.getTable());
+	}
+
+	/**
+	 * 対象： LowCodeRouteRegistry
+	 *
+	 * 概要： 設定ファイル読込時に、各ルートのファイルパスの存在をチェックするケース。
+	 *
+	 * 結果： ファイルが存在するルートはエラーなし、存在しないルートはエラーメッセージを持つこと。
+	 */
+	@Test
+	public void test_準正常系_設定内容チェック() throws Exception {
+		String view = folder.newFile("test_get.jsp").getPath();
+		String sql = folder.newFile("test_select.sql").getPath();
+		String errorView = folder.newFile("system_error.jsp").getPath();
+		File settingFile = folder.newFile("setting.xml");
+		Writer writer = new OutputStreamWriter(new FileOutputStream(settingFile), "UTF-8");
+		writer.write("<resources>\n");
+		writer.write("<resource><identifier>ok</identifier><view>" + view + "</view><sql>" + sql
+				+ "</sql><errorview>" + errorView + "</errorview></resource>\n");
+		writer.write("<resource><identifier>no_sql</identifier><view>" + view + "</view><sql>no_exist.sql</sql>"
+				+ "<errorview>" + errorView + "</errorview></resource>\n");
+		writer.write("<resource><identifier>bad_fetchsize</identifier><view>" + view + "</view><sql></sql>"
+				+ "<errorview>" + errorView + "</errorview><fetchsize>abc</fetchsize></resource>\n");
+		writer.write("</resources>\n");
+		writer.close();
+		LowCodeRouteTable table = new LowCodeRouteRegistry(settingFile, new LowCodeRepository(), 60000L).getTable();
+
+		assertNull(table.find("ok").getValidationError());
+		assertEquals(table.find("no_sql").getValidationError(), "SQLファイルのパスが見つかりません。");
+		assertEquals(table.find("bad_fetchsize").getValidationError(), "fetchsizeの設定値が不正です。");
+	}
+
+	private File writeSetting(File file, String identifier, String view) throws IOException {
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n");
+		writer.write("<resources>\n");
+		writer.write("\t<resource>\n");
+		writer.write("\t\t<identifier>default</identifier>\n");
+		writer.write("\t\t<view>index.jsp</view>\n");
+		writer.write("\t\t<sql></sql>\n");
+		writer.write("\t\t<errorview>system_error.jsp</errorview>\n");
+		writer.write("\t</resource>\n");
+		writer.write("\t<resource>\n");
+		writer.write("\t\t<identifier>" + identifier + "</identifier>\n");
+		writer.write("\t\t<view>" + view + "</view>\n");
+		writer.write("\t\t<sql>test_select.sql</sql>\n");
+		writer.write("\t\t<errorview>system_error.jsp</errorview>\n");
+		writer.write("\t</resource>\n");
+		writer.write("</resources>\n");
+		writer.close();
+		return file;
+	}
+}
@@ -0,0 +1,143 @@
+package infrastructure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import common.LowCodeConsts;
+
+/**
+ * LowCodeShardRule・LowCodeDataSourcesのテストクラス。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeShardRuleTest {
+	/**
+	 * 対象： LowCodeShardRule#select
+	 *
+	 * 概要： 境界値（&lt;shardranges&gt;）を指定して、値の範囲でシャードを選択する正常ケース。
+	 *
+	 * 結果： 境界値未満は前のシャード、境界値以上は次のシャードが選択されること。
+	 */
+	@Test
+	public void test_正常系_範囲による選択() throws SQLException {
+		LowCodeShardRule rule = LowCodeShardRule.of(this.createRoute("a,b,c", "100,200"));
+
+		assertEquals(rule.select(Collections.singletonMap("customer_id", "-5")), "a");
+		assertEquals(rule.select(Collections.singletonMap("customer_id", "99")), "a");
+		assertEquals(rule.select(Collections.singletonMap("customer_id", "100")), "b");
+		assertEquals(rule.select(Collections.singletonMap("customer_id", " 199 ")), "b");
+		assertEquals(rule.select(Collections.singletonMap("customer_id", "200")), "c");
+	}
+
+	/**
+	 * 対象： LowCodeShardRule#select
+	 *
+	 * 概要： 境界値を指定せずに、値のハッシュ値でシャードを選択する正常ケース。
+	 *
+	 * 結果： 同じ値は常に同じシャードが選択されること。連番の値が各シャードに偏りなく分散されること。
+	 */
+	@Test
+	public void test_正常系_ハッシュによる選択() throws SQLException {
+		LowCodeShardRule rule = LowCodeShardRule.of(this.createRoute("a,b,c,d", null));
+
+		Map<String, Integer> counts = new HashMap<String, Integer>();
+		for (int i = 0; i < 4000; i++) {
+			Map<String, String> bindVariable = Collections.singletonMap("customer_id", String.valueOf(i));
+			String shard = rule.select(bindVariable);
+			assertEquals(rule.select(bindVariable), shard);
+			counts.put(shard, counts.containsKey(shard) ? counts.get(shard) + 1 : 1);
+		}
+		assertEquals(counts.size(), 4);
+		for (int count : counts.values()) {
+			assertTrue(String.valueOf(count), count > 800 && count < 1200);
+		}
+	}
+
+	/**
+	 * 対象： LowCodeShardRule
+	 *
+	 * 概要： シャードキーが無いリソース、設定内容・バインド変数が不正な準正常ケース。
+	 *
+	 * 結果： シャードキーが無い場合はnullが返却されること。設定内容が不正な場合はIllegalArgumentException、
+	 * バインド変数が無い場合・整数でない場合はSQLExceptionがthrowされること。
+	 */
+	@Test
+	public void test_準正常系_不正な設定と値() throws SQLException {
+		assertNull(LowCodeShardRule.of(new LowCodeRoute(Collections.singletonMap("identifier", "test"))));
+		String[][] invalid = { { "", null }, { "a,b", "1,2" }, { "a,b,c", "2,1" }, { "a,b", "x" } };
+		for (String[] setting : invalid) {
+			try {
+				LowCodeShardRule.of(this.createRoute(setting[0], setting[1]));
+				fail(setting[0] + " " + setting[1]);
+			} catch (IllegalArgumentException e) {
+				// 想定通り
+			}
+		}
+		LowCodeShardRule rule = LowCodeShardRule.of(this.createRoute("a,b", "100"));
+		String[] values = { null, "abc" };
+		for (String value : values) {
+			try {
+				rule.select(Collections.singletonMap("customer_id", value));
+				fail(value);
+			} catch (SQLException e) {
+				// 想定通り
+			}
+		}
+	}
+
+	/**
+	 * 対象： LowCodeDataSources#get
+	 *
+	 * 概要： DBプロパティファイルに名前付きのデータソースを定義する正常ケース。
+	 *
+	 * 結果： 名前毎の接続先が取得できること。コネクションプールの設定が引き継がれること。未定義の名前はSQLExceptionがthrowされること。
+	 */
+	@Test
+	public void test_正常系_名前付きデータソース() throws SQLException {
+		Properties properties = new Properties();
+		properties.setProperty("url", "jdbc:h2:mem:default");
+		properties.setProperty("pool.maxSize", "5");
+		properties.setProperty("datasource.orders.url", "jdbc:h2:mem:orders");
+		properties.setProperty("datasource.orders.pool.maxWait", "100");
+		properties.setProperty("datasource.archive.url", "jdbc:h2:mem:archive");
+		properties.setProperty("datasource.archive.pool.maxSize", "1");
+		LowCodeDataSources dataSources = new LowCodeDataSources(null, properties, 0L, 0L);
+
+		assertEquals(dataSources.get(null).getProperty("url"), "jdbc:h2:mem:default");
+		assertEquals(dataSources.get(LowCodeConsts.DEFAULT_DATASOURCE).getProperty("url"), "jdbc:h2:mem:default");
+		assertNull(dataSources.get(null).getProperty("datasource.orders.url"));
+		assertEquals(dataSources.get("orders").getProperty("url"), "jdbc:h2:mem:orders");
+		assertEquals(dataSources.get("orders").getProperty("pool.maxSize"), "5");
+		assertEquals(dataSources.get("orders").getProperty("pool.maxWait"), "100");
+		assertEquals(dataSources.get("archive").getProperty("pool.maxSize"), "1");
+		assertEquals(dataSources.getNames().size(), 3);
+		try {
+			dataSources.get("unknown");
+			fail("unknown");
+		} catch (SQLException e) {
+			// 想定通り
+		}
+	}
+
+	private LowCodeRoute createRoute(String shards, String ranges) {
+		Map<String, String> context = new HashMap<String, String>();
+		context.put(LowCodeConsts.SETTING_IDENTIFIER, "test");
+		context.put(LowCodeConsts.SETTING_SHARD_KEY, "customer_id");
+		context.put(LowCodeConsts.SETTING_SHARDS, shards);
+		if (ranges != null) {
+			context.put(LowCodeConsts.SETTING_SHARD_RANGES, ranges);
+		}
+		return new LowCodeRoute(context);
+	}
+}
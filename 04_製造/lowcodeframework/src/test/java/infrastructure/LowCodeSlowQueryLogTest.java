@@ -0,0 +1,98 @@
+package infrastructure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Test;
+
+/**
+ * LowCodeSlowQueryLogのテストクラス。 実行計画はインメモリDB（H2）から取得する。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeSlowQueryLogTest {
+	private final List<LowCodeSqlTemplate> templates = Collections.singletonList(
+			LowCodeSqlTemplate.parse("select * from Employee where name = {{name}} and 'x' <> {{password}}", 0L));
+
+	/**
+	 * 対象： LowCodeSlowQueryLog#record, getEntries
+	 *
+	 * 概要： 閾値以下・閾値超過のSQLを、保持件数を超えて記録する正常ケース。
+	 *
+	 * 結果： 閾値を超えたSQLのみ新しい順に保持件数まで保持され、バインド変数が伏字・切詰めされること。
+	 */
+	@Test
+	public void test_正常系_スロークエリ記録() {
+		LowCodeSlowQueryLog slowQueryLog = new LowCodeSlowQueryLog(10L, 2, Arrays.asList("password"), null);
+		Map<String, String> bindVariable = new HashMap<String, String>();
+		bindVariable.put("password", "secret");
+		bindVariable.put("_", "unused");
+
+		slowQueryLog.record("test_fast", this.templates, bindVariable, 10000000L, 1);
+		assertEquals(slowQueryLog.getEntries().size(), 0);
+		for (int i = 1; i <= 3; i++) {
+			bindVariable.put("name", i < 3 ? "name" + i : new String(new char[100]).replace('\0', 'a'));
+			slowQueryLog.record("test_slow" + i, this.templates, bindVariable, 20000000L, i);
+		}
+
+		List<LowCodeSlowQueryLog.Entry> entries = slowQueryLog.getEntries();
+		assertEquals(entries.size(), 2);
+		assertEquals(entries.get(0).getIdentifier(), "test_slow3");
+		assertEquals(entries.get(1).getIdentifier(), "test_slow2");
+		assertEquals(entries.get(1).getDurationMillis(), 20.0, 0.0);
+		assertEquals(entries.get(1).getRows(), 2);
+		assertEquals(entries.get(1).getBindVariable().get("name"), "name2");
+		assertEquals(entries.get(1).getBindVariable().get("password"), "***");
+		assertTrue(!entries.get(1).getBindVariable().containsKey("_"));
+		assertTrue(entries.get(0).getBindVariable().get("name").endsWith("...(100文字)"));
+	}
+
+	/**
+	 * 対象： LowCodeSlowQueryLog#record
+	 *
+	 * 概要： 実行計画の取得先DBを指定して、スロークエリを記録する正常ケース。
+	 *
+	 * 結果： 別スレッドで実行計画が取得されること。
+	 */
+	@Test
+	public void test_正常系_実行計画取得() throws SQLException, InterruptedException {
+		Properties dbProperties = new Properties();
+		dbProperties.setProperty("url", "jdbc:h2:mem:slowquery;DB_CLOSE_DELAY=-1");
+		dbProperties.setProperty("user", "sa");
+		dbProperties.setProperty("password", "");
+		Connection conn = LowCodeConnectionPool.getInstance(dbProperties).getConnection();
+		try {
+			Statement stmt = conn.createStatement();
+			stmt.execute("CREATE TABLE IF NOT EXISTS Employee (id INTEGER, name VARCHAR(100))");
+			stmt.close();
+			conn.commit();
+		} finally {
+			conn.close();
+		}
+
+		LowCodeSlowQueryLog slowQueryLog = new LowCodeSlowQueryLog(10L, 10, Arrays.asList("password"), dbProperties);
+		Map<String, String> bindVariable = new HashMap<String, String>();
+		bindVariable.put("name", "name1");
+		bindVariable.put("password", "secret");
+		slowQueryLog.record("test_slow", this.templates, bindVariable, 20000000L, 0);
+
+		LowCodeSlowQueryLog.Entry entry = slowQueryLog.getEntries().get(0);
+		for (int i = 0; i < 100 && entry.getPlan() == null; i++) {
+			Thread.sleep(50);
+		}
+		assertNotNull(entry.getPlan());
+		assertTrue(entry.getPlan().toUpperCase().contains("EMPLOYEE"));
+	}
+}
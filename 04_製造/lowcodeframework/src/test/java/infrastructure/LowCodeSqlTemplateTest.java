@@ -0,0 +1,187 @@
+package infrastructure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * LowCodeSqlTemplateのテストクラス。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public class LowCodeSqlTemplateTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * 対象： LowCodeSqlTemplate
+	 *
+	 * 概要： バインド変数をパラメータ（?）に置き換える正常ケース。
+	 *
+	 * 結果： 文字列リテラル内外のバインド変数が、出現順にパラメータになること。改行が保持されること。
+	 */
+	@Test
+	public void test_正常系_テンプレート解析() {
+		LowCodeSqlTemplate template = LowCodeSqlTemplate
+				.parse("UPDATE Employee SET name='{{name}}',\nemail='%{{email}}%' WHERE id={{id}} AND memo='it''s';", 0L);
+
+		assertEquals(template.getSql(), "UPDATE Employee SET name=?,\nemail=? WHERE id=? AND memo='it''s';");
+		assertEquals(template.getParameters().size(), 3);
+		assertEquals(template.getParameters().get(0).getNames()[0], "name");
+		assertEquals(template.getParameters().get(1).getNames()[0], "email");
+		assertEquals(template.getParameters().get(2).getNames()[0], "id");
+	}
+
+	/**
+	 * 対象： LowCodeSqlTemplate
+	 *
+	 * 概要： バインド変数の値にSQLを含めて実行する正常ケース。
+	 *
+	 * 結果： 値が文字列としてそのまま登録されること。
+	 */
+	@Test
+	public void test_正常系_パラメータバインド() throws SQLException {
+		Connection conn = DriverManager.getConnection("jdbc:h2:mem:template_bind", "sa", "");
+		try {
+			conn.createStatement().execute("CREATE TABLE Employee (id INTEGER, name VARCHAR(100), email VARCHAR(100))");
+			LowCodeSqlTemplate template = LowCodeSqlTemplate
+					.parse("INSERT INTO Employee VALUES ({{id}}, '{{name}}', '{{email}}');", 0L);
+			Map<String, String> bindVariable = new HashMap<String, String>();
+			bindVariable.put("id", "2");
+			bindVariable.put("name", "yamada'); DROP TABLE Employee; --");
+			bindVariable.put("email", "yamada@test.co.jp");
+
+			PreparedStatement stmt = conn.prepareStatement(template.getSql());
+			template.bind(stmt, bindVariable);
+			assertEquals(stmt.executeUpdate(), 1);
+
+			ResultSet rset = conn.createStatement().executeQuery("SELECT name FROM Employee WHERE id = 2");
+			rset.next();
+			assertEquals(rset.getString("name"), "yamada'); DROP TABLE Employee; --");
+		} finally {
+			conn.close();
+		}
+	}
+
+	/**
+	 * 対象： LowCodeSqlTemplate#bind
+	 *
+	 * 概要： 日付の列に、文字列リテラル内のバインド変数（'{{day}}'）で登録・検索する正常ケース。
+	 *
+	 * 結果： 文字列パラメータが型を指定せずに（Types.OTHER）バインドされ、日付の列として登録・検索できること。
+	 */
+	@Test
+	public void test_正常系_日付列へのバインド() throws SQLException {
+		Connection conn = DriverManager.getConnection("jdbc:h2:mem:template_date", "sa", "");
+		try {
+			conn.createStatement().execute("CREATE TABLE Holiday (id INTEGER, holiday DATE)");
+			LowCodeSqlTemplate insert = LowCodeSqlTemplate.parse("INSERT INTO Holiday VALUES ({{id}}, '{{day}}');", 0L);
+			LowCodeSqlTemplate select = LowCodeSqlTemplate
+					.parse("SELECT id FROM Holiday WHERE holiday = '{{day}}' AND holiday < {{until}};", 0L);
+			Map<String, String> bindVariable = new HashMap<String, String>();
+			bindVariable.put("id", "1");
+			bindVariable.put("day", "2024-01-08");
+			bindVariable.put("until", "2024-12-31");
+
+			final List<Integer> sqlTypes = new ArrayList<Integer>();
+			final PreparedStatement stmt = conn.prepareStatement(insert.getSql());
+			insert.bind((PreparedStatement) Proxy.newProxyInstance(this.getClass().getClassLoader(),
+					new Class<?>[] { PreparedStatement.class }, new InvocationHandler() {
+						public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+							if (method.getName().equals("setObject")) {
+								sqlTypes.add((Integer) args[2]);
+							}
+							return method.invoke(stmt, args);
+						}
+					}), bindVariable);
+			assertEquals(stmt.executeUpdate(), 1);
+			assertEquals(sqlTypes, Arrays.asList(Types.OTHER));
+
+			PreparedStatement query = conn.prepareStatement(select.getSql());
+			select.bind(query, bindVariable);
+			ResultSet rset = query.executeQuery();
+			assertTrue(rset.next());
+			assertEquals(rset.getInt("id"), 1);
+			ResultSet day = conn.createStatement().executeQuery("SELECT holiday FROM Holiday");
+			day.next();
+			assertEquals(day.getDate("holiday"), Date.valueOf("2024-01-08"));
+		} finally {
+			conn.close();
+		}
+	}
+
+	/**
+	 * 対象： LowCodeSqlTemplate
+	 *
+	 * 概要： バインド変数が指定されていない異常ケース。
+	 *
+	 * 結果： SQLExceptionがthrowされること。
+	 */
+	@Test
+	public void test_異常系_バインド変数なし() {
+		LowCodeSqlTemplate template = LowCodeSqlTemplate.parse("select * from Employee where id = {{id}};", 0L);
+		try {
+			template.getParameters().get(0).value(new HashMap<String, String>());
+			fail("NORMAL END");
+		} catch (SQLException e) {
+			assertEquals(e.getMessage(), "バインド変数が指定されていません: id");
+		}
+	}
+
+	/**
+	 * 対象： LowCodeSqlTemplateCache
+	 *
+	 * 概要： SQLファイルの更新日時に応じてキャッシュを再利用・再読込する正常ケース。
+	 *
+	 * 結果： 更新されていない場合は同じテンプレート、更新された場合は新しいテンプレートが取得できること。
+	 */
+	@Test
+	public void test_正常系_テンプレートキャッシュ() throws IOException {
+		File sqlFile = folder.newFile("test_select.sql");
+		this.write(sqlFile, "select id from Employee;");
+		LowCodeSqlTemplateCache cache = new LowCodeSqlTemplateCache(new LowCodeRepository());
+
+		LowCodeSqlTemplate template = cache.get(sqlFile.getPath());
+		assertSame(template, cache.get(sqlFile.getPath()));
+
+		this.write(sqlFile, "select id, name from Employee;");
+		sqlFile.setLastModified(template.getLastModified() + 2000L);
+		LowCodeSqlTemplate reloaded = cache.get(sqlFile.getPath());
+		assertNotSame(template, reloaded);
+		assertEquals(reloaded.getSql(), "select id, name from Employee;");
+	}
+
+	private void write(File file, String content) throws IOException {
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		writer.write(content);
+		writer.close();
+	}
+}
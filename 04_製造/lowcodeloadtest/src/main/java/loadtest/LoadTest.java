@@ -0,0 +1,164 @@
+package loadtest;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 負荷試験の起動クラス。
+ *
+ * 組込みサーバ（--urlを指定した場合は外部サーバ）に負荷をかけ、識別子毎のスループット・応答時間（p50/p90/p99/最大）・エラー率を出力する。
+ * 以下のいずれかに該当する場合は、終了コード1で終了する（CIでの性能劣化の検出用）。
+ * <ul>
+ * <li>エラー率が--max-error-rateを超えた場合</li>
+ * <li>p99が--max-p99-msを超えた場合</li>
+ * <li>--baselineの基準値と比較して、スループットの低下・p99の増加が--toleranceを超えた場合</li>
+ * </ul>
+ * 例：java -jar loadtest.jar --mode=open --rps=500 --duration=60 --mix=test_get1=8,test_post_update=2
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+public final class LoadTest {
+	private static final String THROUGHPUT = ".throughput"; // 基準値のキー（スループット）
+	private static final String P99 = ".p99"; // 基準値のキー（p99）
+
+	private LoadTest() {
+	}
+
+	/**
+	 * メイン
+	 *
+	 * @param args コマンドライン引数（--名前=値）
+	 * @throws Exception 負荷試験に失敗した場合
+	 */
+	public static void main(String[] args) throws Exception {
+		LoadTestOptions options = LoadTestOptions.parse(args);
+		LoadTestServer server = null;
+		String url = options.getUrl();
+		if (url == null) {
+			server = LoadTestServer.start(options);
+			url = server.getUrl();
+		}
+		List<String> failures;
+		try {
+			System.out.printf("対象: %s モデル: %s クライアント数: %d%s 測定時間: %d秒（ウォームアップ: %d秒）%n", url,
+					options.getMode(), options.getThreads(),
+					LoadTestOptions.MODE_OPEN.equals(options.getMode())
+							? String.format(Locale.ROOT, " 到着率: %.1f/秒", options.getRps())
+							: "",
+					options.getDurationSeconds(), options.getWarmupSeconds());
+			LoadTestDriver driver = new LoadTestDriver(options, url);
+			Map<String, LoadTestStats> stats = driver.run();
+			double seconds = driver.getMeasuredSeconds();
+			report(System.out, stats, seconds);
+			failures = check(options, stats, seconds);
+			if (options.getSaveBaseline() != null) {
+				saveBaseline(options.getSaveBaseline(), stats, seconds);
+			}
+		} finally {
+			if (server != null) {
+				server.stop();
+			}
+		}
+		for (String failure : failures) {
+			System.out.println("NG: " + failure);
+		}
+		if (!failures.isEmpty()) {
+			System.exit(1);
+		}
+		System.out.println("OK");
+	}
+
+	private static void report(PrintStream out, Map<String, LoadTestStats> stats, double seconds) {
+		String format = "%-20s %10s %10s %10s %10s %10s %10s %8s%n";
+		out.printf(format, "identifier", "requests", "req/s", "p50(ms)", "p90(ms)", "p99(ms)", "max(ms)", "error%");
+		for (LoadTestStats stat : stats.values()) {
+			out.printf(Locale.ROOT, format, stat.getIdentifier(), stat.getCount(),
+					String.format(Locale.ROOT, "%.1f", stat.getThroughput(seconds)),
+					String.format(Locale.ROOT, "%.2f", stat.getPercentileMillis(50)),
+					String.format(Locale.ROOT, "%.2f", stat.getPercentileMillis(90)),
+					String.format(Locale.ROOT, "%.2f", stat.getPercentileMillis(99)),
+					String.format(Locale.ROOT, "%.2f", stat.getMaxMillis()),
+					String.format(Locale.ROOT, "%.2f", stat.getErrorRate() * 100));
+		}
+	}
+
+	private static List<String> check(LoadTestOptions options, Map<String, LoadTestStats> stats, double seconds)
+			throws IOException {
+		List<String> failures = new ArrayList<String>();
+		Properties baseline = options.getBaseline() != null ? load(options.getBaseline()) : new Properties();
+		for (LoadTestStats stat : stats.values()) {
+			String identifier = stat.getIdentifier();
+			if (stat.getCount() == 0) {
+				failures.add(String.format("%s: リクエストが完了していません。", identifier));
+				continue;
+			}
+			if (stat.getErrorRate() > options.getMaxErrorRate()) {
+				failures.add(String.format(Locale.ROOT, "%s: エラー率が上限を超えています。エラー率: %.2f%% 上限: %.2f%%",
+						identifier, stat.getErrorRate() * 100, options.getMaxErrorRate() * 100));
+			}
+			double p99 = stat.getPercentileMillis(99);
+			if (options.getMaxP99Millis() > 0 && p99 > options.getMaxP99Millis()) {
+				failures.add(String.format(Locale.ROOT, "%s: p99が上限を超えています。p99: %.2fms 上限: %.2fms", identifier,
+						p99, options.getMaxP99Millis()));
+			}
+			String baseThroughput = baseline.getProperty(identifier + THROUGHPUT);
+			if (baseThroughput != null) {
+				double base = Double.parseDouble(baseThroughput);
+				double throughput = stat.getThroughput(seconds);
+				if (throughput < base * (1 - options.getTolerance())) {
+					failures.add(String.format(Locale.ROOT, "%s: スループットが低下しています。%.1f/秒（基準値: %.1f/秒）", identifier,
+							throughput, base));
+				}
+			}
+			String baseP99 = baseline.getProperty(identifier + P99);
+			if (baseP99 != null) {
+				double base = Double.parseDouble(baseP99);
+				if (p99 > base * (1 + options.getTolerance())) {
+					failures.add(String.format(Locale.ROOT, "%s: p99が増加しています。%.2fms（基準値: %.2fms）", identifier, p99,
+							base));
+				}
+			}
+		}
+		return failures;
+	}
+
+	private static Properties load(String path) throws IOException {
+		Properties properties = new Properties();
+		InputStream in = new FileInputStream(new File(path));
+		try {
+			properties.load(in);
+		} finally {
+			in.close();
+		}
+		return properties;
+	}
+
+	private static void saveBaseline(String path, Map<String, LoadTestStats> stats, double seconds)
+			throws IOException {
+		Properties properties = new Properties();
+		for (LoadTestStats stat : stats.values()) {
+			properties.setProperty(stat.getIdentifier() + THROUGHPUT,
+					String.format(Locale.ROOT, "%.1f", stat.getThroughput(seconds)));
+			properties.setProperty(stat.getIdentifier() + P99,
+					String.format(Locale.ROOT, "%.2f", stat.getPercentileMillis(99)));
+		}
+		OutputStream out = new FileOutputStream(new File(path));
+		try {
+			properties.store(out, "lowcodeloadtest baseline");
+		} finally {
+			out.close();
+		}
+		System.out.println("基準値を保存しました: " + path);
+	}
+}
@@ -0,0 +1,137 @@
+package loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 負荷試験のリクエスト送信クラス。
+ *
+ * 以下のいずれかの負荷モデルで、識別子の比率（mix）に従ってリクエストを送信する。
+ * <ul>
+ * <li>クローズドモデル： threads個のクライアントが、応答を受信してから次のリクエストを送信する。</li>
+ * <li>オープンモデル： 応答に関わらず、rps（リクエスト/秒）の一定間隔でリクエストを送信する。
+ * 応答時間は送信予定時刻から計測する（サーバが遅延した場合に、待ち時間が測定から漏れないようにする為）。
+ * 同時送信数がthreadsに達した場合は、空くまで送信を待つ（待ち時間も応答時間に含まれる）。</li>
+ * </ul>
+ * ウォームアップ中のリクエストは集計しない。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+final class LoadTestDriver {
+	private final LoadTestOptions options; // 負荷試験の設定
+	private final LoadTestScenario[] schedule; // 識別子の比率に従って並べたリクエスト
+	private final Map<String, LoadTestStats> stats = new LinkedHashMap<String, LoadTestStats>(); // 識別子 → 集計
+	private final AtomicLong sequence = new AtomicLong(); // リクエスト番号
+	private volatile long measureStartNanos; // 測定開始時刻
+	private volatile long measureEndNanos; // 測定終了時刻
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param options 負荷試験の設定
+	 * @param baseUrl URL（http://ホスト:ポート/testproject）
+	 */
+	LoadTestDriver(LoadTestOptions options, String baseUrl) {
+		this.options = options;
+		List<LoadTestScenario> schedule = new ArrayList<LoadTestScenario>();
+		for (Map.Entry<String, Integer> entry : options.getMix().entrySet()) {
+			LoadTestScenario scenario = new LoadTestScenario(entry.getKey(), baseUrl, options.getRows());
+			for (int i = 0; i < entry.getValue(); i++) {
+				schedule.add(scenario);
+			}
+			this.stats.put(entry.getKey(), new LoadTestStats(entry.getKey()));
+		}
+		if (schedule.isEmpty()) {
+			throw new IllegalArgumentException("mixの比率の合計が0です。");
+		}
+		this.schedule = schedule.toArray(new LoadTestScenario[schedule.size()]);
+	}
+
+	/**
+	 * 負荷試験の実行（ウォームアップ + 測定）
+	 *
+	 * @return 識別子 → 集計
+	 * @throws InterruptedException 割り込まれた場合
+	 */
+	Map<String, LoadTestStats> run() throws InterruptedException {
+		long now = System.nanoTime();
+		this.measureStartNanos = now + TimeUnit.SECONDS.toNanos(this.options.getWarmupSeconds());
+		this.measureEndNanos = this.measureStartNanos + TimeUnit.SECONDS.toNanos(this.options.getDurationSeconds());
+		if (LoadTestOptions.MODE_OPEN.equals(this.options.getMode())) {
+			this.runOpen();
+		} else {
+			this.runClosed();
+		}
+		return this.stats;
+	}
+
+	/**
+	 * 測定時間の取得
+	 *
+	 * @return 測定時間（秒）
+	 */
+	double getMeasuredSeconds() {
+		return (this.measureEndNanos - this.measureStartNanos) / 1e9;
+	}
+
+	private void runClosed() throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(this.options.getThreads());
+		for (int i = 0; i < this.options.getThreads(); i++) {
+			executor.execute(new Runnable() {
+				public void run() {
+					while (System.nanoTime() < LoadTestDriver.this.measureEndNanos) {
+						long start = System.nanoTime();
+						LoadTestDriver.this.send(start);
+					}
+				}
+			});
+		}
+		executor.shutdown();
+		executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+	}
+
+	private void runOpen() throws InterruptedException {
+		final Semaphore inFlight = new Semaphore(this.options.getThreads());
+		ExecutorService executor = Executors.newFixedThreadPool(this.options.getThreads());
+		long intervalNanos = (long) (1e9 / this.options.getRps());
+		long intended = System.nanoTime();
+		while (intended < this.measureEndNanos) {
+			long wait = intended - System.nanoTime();
+			if (wait > 0) {
+				LockSupport.parkNanos(wait);
+			}
+			inFlight.acquire();
+			final long start = intended;
+			executor.execute(new Runnable() {
+				public void run() {
+					try {
+						LoadTestDriver.this.send(start);
+					} finally {
+						inFlight.release();
+					}
+				}
+			});
+			intended += intervalNanos;
+		}
+		executor.shutdown();
+		executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+	}
+
+	private void send(long start) {
+		long n = this.sequence.getAndIncrement();
+		LoadTestScenario scenario = this.schedule[(int) (n % this.schedule.length)];
+		boolean success = scenario.execute(n);
+		if (start >= this.measureStartNanos && start < this.measureEndNanos) {
+			this.stats.get(scenario.getIdentifier()).record(System.nanoTime() - start, success);
+		}
+	}
+}
@@ -0,0 +1,179 @@
+package loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 負荷試験の設定クラス。
+ *
+ * コマンドライン引数（--名前=値 または --名前 値）から作成する。 指定しない項目は既定値とする。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+final class LoadTestOptions {
+	/** クローズドモデル（一定数のクライアントが、応答を待ってから次のリクエストを送信する） */
+	static final String MODE_CLOSED = "closed";
+	/** オープンモデル（応答に関わらず、一定の到着率でリクエストを送信する） */
+	static final String MODE_OPEN = "open";
+
+	private String mode = MODE_CLOSED; // 負荷モデル
+	private int threads = 16; // クライアント数（オープンモデルの場合は最大同時送信数）
+	private double rps = 200; // 到着率（オープンモデルのみ、リクエスト/秒）
+	private int warmupSeconds = 5; // ウォームアップ時間（秒、集計しない）
+	private int durationSeconds = 30; // 測定時間（秒）
+	private int rows = 1000; // 社員テーブルの行数
+	private int poolSize = 10; // コネクションプールの最大コネクション数
+	private int serverThreads = 200; // Jettyの最大スレッド数
+	private int port = 0; // Jettyのポート（0は空きポート）
+	private String url; // 負荷をかける外部サーバのURL（指定しない場合は組込みサーバを起動する）
+	private Map<String, Integer> mix = new LinkedHashMap<String, Integer>(); // 識別子 → リクエストの比率
+	private String baseline; // 比較する基準値ファイル
+	private String saveBaseline; // 基準値の保存先ファイル
+	private double tolerance = 0.2; // 基準値からの許容劣化率
+	private double maxErrorRate = 0.01; // エラー率の上限
+	private double maxP99Millis = 0; // 99パーセンタイルの上限（ミリ秒、0以下は判定しない）
+
+	/**
+	 * コマンドライン引数の解析
+	 *
+	 * @param args コマンドライン引数
+	 * @return 負荷試験の設定
+	 * @throws IllegalArgumentException 引数が不正な場合
+	 */
+	static LoadTestOptions parse(String[] args) {
+		LoadTestOptions options = new LoadTestOptions();
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			if (!arg.startsWith("--")) {
+				throw new IllegalArgumentException(String.format("引数が不正です: %s", arg));
+			}
+			String name;
+			String value;
+			int eq = arg.indexOf('=');
+			if (eq > 0) {
+				name = arg.substring(2, eq);
+				value = arg.substring(eq + 1);
+			} else if (i + 1 < args.length) {
+				name = arg.substring(2);
+				value = args[++i];
+			} else {
+				throw new IllegalArgumentException(String.format("値が指定されていません: %s", arg));
+			}
+			options.set(name, value);
+		}
+		if (options.mix.isEmpty()) {
+			options.set("mix", "test_get1=8,test_post_update=2");
+		}
+		return options;
+	}
+
+	private void set(String name, String value) {
+		if ("mode".equals(name)) {
+			if (!MODE_CLOSED.equals(value) && !MODE_OPEN.equals(value)) {
+				throw new IllegalArgumentException(String.format("modeは%sまたは%sを指定してください: %s", MODE_CLOSED, MODE_OPEN, value));
+			}
+			this.mode = value;
+		} else if ("threads".equals(name)) {
+			this.threads = Integer.parseInt(value);
+		} else if ("rps".equals(name)) {
+			this.rps = Double.parseDouble(value);
+		} else if ("warmup".equals(name)) {
+			this.warmupSeconds = Integer.parseInt(value);
+		} else if ("duration".equals(name)) {
+			this.durationSeconds = Integer.parseInt(value);
+		} else if ("rows".equals(name)) {
+			this.rows = Integer.parseInt(value);
+		} else if ("pool-size".equals(name)) {
+			this.poolSize = Integer.parseInt(value);
+		} else if ("server-threads".equals(name)) {
+			this.serverThreads = Integer.parseInt(value);
+		} else if ("port".equals(name)) {
+			this.port = Integer.parseInt(value);
+		} else if ("url".equals(name)) {
+			this.url = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+		} else if ("mix".equals(name)) {
+			this.mix.clear();
+			for (String entry : value.split(",")) {
+				String[] pair = entry.split("=");
+				this.mix.put(pair[0].trim(), pair.length > 1 ? Integer.parseInt(pair[1].trim()) : 1);
+			}
+		} else if ("baseline".equals(name)) {
+			this.baseline = value;
+		} else if ("save-baseline".equals(name)) {
+			this.saveBaseline = value;
+		} else if ("tolerance".equals(name)) {
+			this.tolerance = Double.parseDouble(value);
+		} else if ("max-error-rate".equals(name)) {
+			this.maxErrorRate = Double.parseDouble(value);
+		} else if ("max-p99-ms".equals(name)) {
+			this.maxP99Millis = Double.parseDouble(value);
+		} else {
+			throw new IllegalArgumentException(String.format("不明な引数です: --%s", name));
+		}
+	}
+
+	String getMode() {
+		return this.mode;
+	}
+
+	int getThreads() {
+		return this.threads;
+	}
+
+	double getRps() {
+		return this.rps;
+	}
+
+	int getWarmupSeconds() {
+		return this.warmupSeconds;
+	}
+
+	int getDurationSeconds() {
+		return this.durationSeconds;
+	}
+
+	int getRows() {
+		return this.rows;
+	}
+
+	int getPoolSize() {
+		return this.poolSize;
+	}
+
+	int getServerThreads() {
+		return this.serverThreads;
+	}
+
+	int getPort() {
+		return this.port;
+	}
+
+	String getUrl() {
+		return this.url;
+	}
+
+	Map<String, Integer> getMix() {
+		return this.mix;
+	}
+
+	String getBaseline() {
+		return this.baseline;
+	}
+
+	String getSaveBaseline() {
+		return this.saveBaseline;
+	}
+
+	double getTolerance() {
+		return this.tolerance;
+	}
+
+	double getMaxErrorRate() {
+		return this.maxErrorRate;
+	}
+
+	double getMaxP99Millis() {
+		return this.maxP99Millis;
+	}
+}
@@ -0,0 +1,105 @@
+package loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 負荷試験のリクエストクラス。
+ *
+ * testprojectの識別子毎に、MyResourceへ送信するリクエスト（GET：クエリパラメータ / POST：フォームデータ）を作成して送信する。
+ * HTTPステータスが200以外の場合、エラー画面に遷移した場合、通信エラーの場合をエラーとする。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+final class LoadTestScenario {
+	private static final String ERROR_VIEW = "system_error.jsp";
+
+	private final String identifier; // 識別子
+	private final String baseUrl; // URL（http://ホスト:ポート/testproject）
+	private final int rows; // 社員テーブルの行数
+	private final AtomicLong sequence; // 登録する社員ID（test_post_insertのみ）
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param identifier 識別子（test_get・test_get1・test_post_insert・test_post_update）
+	 * @param baseUrl    URL
+	 * @param rows       社員テーブルの行数
+	 */
+	LoadTestScenario(String identifier, String baseUrl, int rows) {
+		if (!identifier.startsWith("test_get") && !identifier.startsWith("test_post")) {
+			throw new IllegalArgumentException(String.format("識別子はtest_get・test_postで始まるものを指定してください: %s", identifier));
+		}
+		this.identifier = identifier;
+		this.baseUrl = baseUrl;
+		this.rows = rows;
+		this.sequence = new AtomicLong(rows);
+	}
+
+	/**
+	 * 識別子の取得
+	 *
+	 * @return 識別子
+	 */
+	String getIdentifier() {
+		return this.identifier;
+	}
+
+	/**
+	 * リクエストの送信
+	 *
+	 * @param n リクエスト番号
+	 * @return 成功した場合はtrue
+	 */
+	boolean execute(long n) {
+		long id = this.identifier.equals("test_post_insert") ? this.sequence.incrementAndGet() : n % this.rows + 1;
+		HttpURLConnection conn = null;
+		try {
+			String resource = this.baseUrl + "/webresources/myresource/" + this.identifier;
+			if (this.identifier.startsWith("test_get")) {
+				conn = (HttpURLConnection) new URL(resource + "?id=" + id).openConnection();
+			} else {
+				conn = (HttpURLConnection) new URL(resource).openConnection();
+				conn.setRequestMethod("POST");
+				conn.setDoOutput(true);
+				conn.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+				byte[] body = ("id=" + id + "&name=name" + n + "&email=mail" + n + "%40test.co.jp")
+						.getBytes(StandardCharsets.US_ASCII);
+				conn.setFixedLengthStreamingMode(body.length);
+				OutputStream out = conn.getOutputStream();
+				out.write(body);
+				out.close();
+			}
+			int status = conn.getResponseCode();
+			String response = read(status < 400 ? conn.getInputStream() : conn.getErrorStream());
+			return status == HttpURLConnection.HTTP_OK && !response.contains(ERROR_VIEW);
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	private static String read(InputStream in) throws IOException {
+		if (in == null) {
+			return "";
+		}
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = in.read(buffer)) >= 0) {
+				bytes.write(buffer, 0, read);
+			}
+			return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+		} finally {
+			// keep-aliveでコネクションを再利用する為、最後まで読み込んでからクローズする
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package loadtest;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+
+import com.sun.jersey.spi.container.servlet.ServletContainer;
+
+import common.LowCodeConsts;
+import framework.LowCodeMetricsServlet;
+import framework.LowCodeRequestCleanupListener;
+
+/**
+ * 負荷試験用の組込みサーバクラス。
+ *
+ * インメモリDB（H2、PostgreSQL互換モード）に社員テーブルを作成し、testprojectのSQLファイルを使用した設定ディレクトリを一時ディレクトリに作成した上で、
+ * 組込みJetty上でtestprojectのリソース（MyResource）を起動する。 URLはtestprojectのweb.xmlと同じとする。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+final class LoadTestServer {
+	static final String CONTEXT_PATH = "/testproject";
+	private static final String DB_URL = "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;MODE=PostgreSQL";
+	private static final String[] SQL_FILES = { "test_select.sql", "test_select_query.sql", "test_insert.sql",
+			"test_update.sql" };
+
+	private final Server server; // Jetty
+	private final File settingDir; // 設定ディレクトリ
+
+	private LoadTestServer(Server server, File settingDir) {
+		this.server = server;
+		this.settingDir = settingDir;
+	}
+
+	/**
+	 * サーバの起動
+	 *
+	 * @param options 負荷試験の設定
+	 * @return サーバ
+	 * @throws Exception 起動に失敗した場合
+	 */
+	static LoadTestServer start(LoadTestOptions options) throws Exception {
+		createEmployeeTable(options.getRows());
+		File settingDir = createSettingDir(options);
+		// MyResourceの設定ディレクトリ（クラスの初期化前に設定する）
+		System.setProperty("lowcode.setting", settingDir.getPath());
+
+		Server server = new Server(new QueuedThreadPool(options.getServerThreads()));
+		ServerConnector connector = new ServerConnector(server);
+		connector.setPort(options.getPort());
+		server.addConnector(connector);
+
+		ServletContextHandler context = new ServletContextHandler(ServletContextHandler.NO_SESSIONS);
+		context.setContextPath(CONTEXT_PATH);
+		context.addEventListener(new LowCodeRequestCleanupListener());
+		ServletHolder jersey = new ServletHolder(new ServletContainer());
+		jersey.setInitParameter("com.sun.jersey.config.property.packages", "com.tsuzuki.lowcode.testproject;framework;loadtest");
+		jersey.setInitOrder(1);
+		context.addServlet(jersey, "/webresources/*");
+		context.addServlet(new ServletHolder(new LowCodeMetricsServlet()), "/metrics");
+		server.setHandler(context);
+		server.start();
+		return new LoadTestServer(server, settingDir);
+	}
+
+	/**
+	 * URLの取得
+	 *
+	 * @return URL（http://localhost:ポート/testproject）
+	 */
+	String getUrl() {
+		return "http://localhost:" + ((ServerConnector) this.server.getConnectors()[0]).getLocalPort() + CONTEXT_PATH;
+	}
+
+	/**
+	 * サーバの停止
+	 *
+	 * @throws Exception 停止に失敗した場合
+	 */
+	void stop() throws Exception {
+		this.server.stop();
+		File[] files = this.settingDir.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		this.settingDir.delete();
+	}
+
+	private static void createEmployeeTable(int rows) throws SQLException {
+		Connection conn = DriverManager.getConnection(DB_URL, "sa", "");
+		try {
+			Statement ddl = conn.createStatement();
+			ddl.execute("DROP TABLE IF EXISTS Employee");
+			ddl.execute("CREATE TABLE Employee (id INTEGER NOT NULL, name TEXT NOT NULL, email TEXT NOT NULL, "
+					+ "PRIMARY KEY (id))");
+			ddl.close();
+			PreparedStatement insert = conn.prepareStatement("INSERT INTO Employee VALUES (?, ?, ?)");
+			for (int i = 1; i <= rows; i++) {
+				insert.setInt(1, i);
+				insert.setString(2, "name" + i);
+				insert.setString(3, "mail" + i + "@test.co.jp");
+				insert.addBatch();
+			}
+			insert.executeBatch();
+			insert.close();
+		} finally {
+			conn.close();
+		}
+	}
+
+	private static File createSettingDir(LoadTestOptions options) throws IOException {
+		File dir = Files.createTempDirectory("lowcodeloadtest").toFile();
+		for (String name : SQL_FILES) {
+			InputStream in = LoadTestServer.class.getResourceAsStream("/sql/" + name);
+			if (in == null) {
+				throw new IOException(String.format("testprojectのSQLファイルが見つかりません。ファイル: %s", name));
+			}
+			try {
+				Files.copy(in, new File(dir, name).toPath(), StandardCopyOption.REPLACE_EXISTING);
+			} finally {
+				in.close();
+			}
+		}
+		String[] views = { "index.jsp", "test_get.jsp", "test_post.jsp", "system_error.jsp" };
+		for (String view : views) {
+			write(new File(dir, view), "");
+		}
+		write(new File(dir, LowCodeConsts.DB_PROPERTIES_FILE), "url=" + DB_URL + "\nuser=sa\npassword=\npool.maxSize="
+				+ options.getPoolSize() + "\npool.maxWait=30000\n");
+		write(new File(dir, LowCodeConsts.ENGINE_PROPERTIES_FILE), LowCodeConsts.SLOW_QUERY_THRESHOLD + "=0\n");
+		write(new File(dir, LowCodeConsts.LOG4J_XML_FILE), "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+				+ "<!DOCTYPE log4j:configuration SYSTEM \"log4j.dtd\">\n"
+				+ "<log4j:configuration xmlns:log4j=\"http://jakarta.apache.org/log4j/\">\n"
+				+ "<appender name=\"Null\" class=\"org.apache.log4j.varia.NullAppender\" />\n"
+				+ "<root><level value=\"warn\" /><appender-ref ref=\"Null\" /></root>\n" + "</log4j:configuration>\n");
+
+		StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n<resources>\n");
+		resource(xml, dir, LowCodeConsts.DEFAULT_IDENTIFIER, "index.jsp", "");
+		resource(xml, dir, "test_get", "test_get.jsp", "test_select.sql");
+		resource(xml, dir, "test_get1", "test_get.jsp", "test_select_query.sql");
+		resource(xml, dir, "test_post_insert", "test_post.jsp", "test_insert.sql");
+		resource(xml, dir, "test_post_update", "test_post.jsp", "test_update.sql");
+		xml.append("</resources>\n");
+		write(new File(dir, LowCodeConsts.SETTING_XML_FILE), xml.toString());
+		return dir;
+	}
+
+	private static void resource(StringBuilder xml, File dir, String identifier, String view, String sql) {
+		xml.append("<resource><identifier>").append(identifier).append("</identifier><view>")
+				.append(new File(dir, view).getPath()).append("</view><sql>")
+				.append(sql.isEmpty() ? "" : new File(dir, sql).getPath()).append("</sql><errorview>")
+				.append(new File(dir, "system_error.jsp").getPath()).append("</errorview></resource>\n");
+	}
+
+	private static void write(File file, String text) throws IOException {
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		try {
+			writer.write(text);
+		} finally {
+			writer.close();
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package loadtest;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import infrastructure.LowCodeHistogram;
+
+/**
+ * 負荷試験の識別子毎の集計クラス。
+ *
+ * 応答時間はフレームワークのヒストグラム（LowCodeHistogram）に記録する。 エラーのリクエストも応答時間に含める。
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+final class LoadTestStats {
+	private final String identifier; // 識別子
+	private final LowCodeHistogram latency = new LowCodeHistogram(); // 応答時間
+	private final AtomicLong errors = new AtomicLong(); // エラー件数
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param identifier 識別子
+	 */
+	LoadTestStats(String identifier) {
+		this.identifier = identifier;
+	}
+
+	/**
+	 * リクエスト結果の記録
+	 *
+	 * @param nanos   応答時間（ナノ秒）
+	 * @param success 成功した場合はtrue
+	 */
+	void record(long nanos, boolean success) {
+		this.latency.record(nanos);
+		if (!success) {
+			this.errors.incrementAndGet();
+		}
+	}
+
+	String getIdentifier() {
+		return this.identifier;
+	}
+
+	long getCount() {
+		return this.latency.getCount();
+	}
+
+	long getErrors() {
+		return this.errors.get();
+	}
+
+	/**
+	 * エラー率の取得
+	 *
+	 * @return エラー率（0～1、リクエストが無い場合は0）
+	 */
+	double getErrorRate() {
+		long count = this.getCount();
+		return count == 0 ? 0 : (double) this.errors.get() / count;
+	}
+
+	/**
+	 * スループットの取得
+	 *
+	 * @param seconds 測定時間（秒）
+	 * @return スループット（リクエスト/秒）
+	 */
+	double getThroughput(double seconds) {
+		return this.getCount() / seconds;
+	}
+
+	/**
+	 * パーセンタイルの取得
+	 *
+	 * @param percentile パーセンタイル（0～100）
+	 * @return 応答時間（ミリ秒）
+	 */
+	double getPercentileMillis(double percentile) {
+		return this.latency.getPercentile(percentile) / 1000000.0;
+	}
+
+	/**
+	 * 最大値の取得
+	 *
+	 * @return 応答時間（ミリ秒）
+	 */
+	double getMaxMillis() {
+		return this.latency.getMax() / 1000000.0;
+	}
+}
@@ -0,0 +1,67 @@
+package loadtest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Map;
+
+import javax.ws.rs.ext.Provider;
+
+import com.sun.jersey.api.view.Viewable;
+import com.sun.jersey.spi.template.ViewProcessor;
+
+import common.LowCodeConsts;
+
+/**
+ * 負荷試験用の画面出力クラス。
+ *
+ * 組込みコンテナではJSPを使用しない為、遷移先画面名と、レスポンスモデルの行数をテキストで出力する。
+ * ストリーミングモードのカーソルも、全行を読み込んでから出力する。
+ *
+ * <pre>
+ * view: /test_get.jsp
+ * rows: 1
+ * </pre>
+ *
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+@Provider
+public class LoadTestViewProcessor implements ViewProcessor<String> {
+	/**
+	 * 画面名の解決
+	 *
+	 * @param name 画面名
+	 * @return 画面名（JSON・CSV形式の画面はフレームワークで出力する為、null）
+	 */
+	public String resolve(String name) {
+		return name.endsWith(LowCodeConsts.JSON_VIEW_SUFFIX) || name.endsWith(LowCodeConsts.NDJSON_VIEW_SUFFIX)
+				|| name.endsWith(LowCodeConsts.CSV_VIEW_SUFFIX) ? null : name;
+	}
+
+	/**
+	 * 画面の出力
+	 *
+	 * @param name     画面名
+	 * @param viewable 画面情報
+	 * @param out      出力先
+	 * @throws IOException IO例外
+	 */
+	public void writeTo(String name, Viewable viewable, OutputStream out) throws IOException {
+		long rows = 0;
+		if (viewable.getModel() instanceof Map) {
+			for (Object value : ((Map<?, ?>) viewable.getModel()).values()) {
+				if (value instanceof Iterable) {
+					for (@SuppressWarnings("unused")
+					Object row : (Iterable<?>) value) {
+						rows++;
+					}
+				}
+			}
+		}
+		Writer writer = new OutputStreamWriter(out, "UTF-8");
+		writer.write("view: " + name + "\nrows: " + rows + "\n");
+		writer.flush();
+	}
+}
@@ -0,0 +1,7 @@
+/**
+ * ローコード画面遷移フレームワークの負荷試験パッケージ。
+ * 
+ * @author t_suzuki
+ * @version 1.0.0
+ */
+package loadtest;
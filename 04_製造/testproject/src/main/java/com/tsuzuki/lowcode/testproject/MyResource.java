@@ -2,6 +2,10 @@
 package com.tsuzuki.lowcode.testproject;
 
 
+import java.io.InputStream;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.CookieParam;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
@@ -19,23 +23,26 @@ import framework.LowCodeBuilderImpl;
 
 @Path("/myresource/{resource}")
 public class MyResource {
+	/** 設定ディレクトリ（システムプロパティ「lowcode.setting」で変更可能） */
+	private static final String SETTING = System.getProperty("lowcode.setting", "C:\\Users\\suzuk");
     
 	/**
 	 * 「DBからデータを取得して画面遷移」の実行
 	 * 
 	 * @param uriInfo urlInfo
+	 * @param sessionId セッションID（更新後のレプリカ参照の抑止に使用）
 	 * @return 遷移先画面
 	 * @throws LowCodeRequestException 入力チェック例外クラス
 	 * @throws LowCodeSystemException  想定外例外クラス
 	 */
     @GET 
-    public Viewable executeGetTransition(@Context UriInfo uriInfo) {
+    public Viewable executeGetTransition(@Context UriInfo uriInfo, @CookieParam("JSESSIONID") String sessionId) {
     	String resourceName = uriInfo.getPath().split("/")[1];
     	LowCodeBuilder builder = new LowCodeBuilderImpl();
     	
     	try {
     		MultivaluedMap<String,String> queryParams = uriInfo.getQueryParameters(); 
-    		return builder.setSetting("C:\\Users\\suzuk")
+    		return builder.setSetting(SETTING).setSessionId(sessionId)
     		.setQueryParams(queryParams).build().invoke("test_get1");
     	} catch(LowCodeException e) {
     		// フレームワーク内でエラーがあった場合。
@@ -47,22 +54,71 @@ public class MyResource {
 	 * 「DBにデータ保存をして画面遷移」の実行
 	 * 
 	 * @Context UriInfo uriInfo
+	 * @param sessionId セッションID（更新後のレプリカ参照の抑止に使用）
 	 * @param input POST送信されたbyte文字列
 	 * @return 遷移先画面
 	 * @throws LowCodeRequestException 入力チェック例外クラス
 	 * @throws LowCodeSystemException  想定外例外クラス
 	 */
     @POST 
-    public Viewable executePostTransition(@Context UriInfo uriInfo, byte[] input) {
+    public Viewable executePostTransition(@Context UriInfo uriInfo, @CookieParam("JSESSIONID") String sessionId,
+    		byte[] input) {
     	String resourceName = uriInfo.getPath().split("/")[1];
     	LowCodeBuilder builder = new LowCodeBuilderImpl();
     	
     	try {
-    		return builder.setSetting("C:\\Users\\suzuk\\")
+    		return builder.setSetting(SETTING).setSessionId(sessionId)
     		.setMessageBody(input).build().invoke(resourceName);
     	} catch(LowCodeException e) {
     		// フレームワーク内でエラーがあった場合。
     		return new Viewable("/system_error.jsp");
     	}
     }
+
+	/**
+	 * 「DBからデータを取得してCSV出力」の実行
+	 * 
+	 * @param uriInfo urlInfo
+	 * @param sessionId セッションID（更新後のレプリカ参照の抑止に使用）
+	 * @return CSV出力（text/csv）
+	 */
+    @GET
+    @Path("csv")
+    public Viewable executeCsvExport(@Context UriInfo uriInfo, @CookieParam("JSESSIONID") String sessionId) {
+    	String resourceName = uriInfo.getPath().split("/")[1];
+    	LowCodeBuilder builder = new LowCodeBuilderImpl();
+    	
+    	try {
+    		return builder.setSetting(SETTING).setSessionId(sessionId).setCsvExport(true)
+    		.setQueryParams(uriInfo.getQueryParameters()).build().invoke(resourceName);
+    	} catch(LowCodeException e) {
+    		// フレームワーク内でエラーがあった場合。
+    		return new Viewable("/system_error.jsp");
+    	}
+    }
+
+	/**
+	 * 「CSVをDBに一括登録して画面遷移」の実行
+	 * 
+	 * @param uriInfo urlInfo
+	 * @param sessionId セッションID（更新後のレプリカ参照の抑止に使用）
+	 * @param input POST送信されたCSV（1レコードずつ読み込む為、byte[]では受け取らない）
+	 * @return 遷移先画面
+	 */
+    @POST
+    @Path("csv")
+    @Consumes("text/csv")
+    public Viewable executeCsvImport(@Context UriInfo uriInfo, @CookieParam("JSESSIONID") String sessionId,
+    		InputStream input) {
+    	String resourceName = uriInfo.getPath().split("/")[1];
+    	LowCodeBuilder builder = new LowCodeBuilderImpl();
+    	
+    	try {
+    		return builder.setSetting(SETTING).setSessionId(sessionId).setCsvImport(input)
+    		.setQueryParams(uriInfo.getQueryParameters()).build().invoke(resourceName);
+    	} catch(LowCodeException e) {
+    		// フレームワーク内でエラーがあった場合。
+    		return new Viewable("/system_error.jsp");
+    	}
+    }
 }